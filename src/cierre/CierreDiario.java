@@ -0,0 +1,265 @@
+package cierre;
+
+import modelo.Cliente;
+import modelo.PoliticaArchivado;
+import servicio.GestorClientes;
+import servicio.MotorConciliacion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Orquestador del cierre diario: ejecuta las etapas registradas en orden de dependencias.
+//
+// Los clientes se reparten en particiones por su documento (el reparto no depende del orden
+// de registro, así que es el mismo al reanudar). Las etapas particionadas procesan sus particiones
+// en paralelo con un hilo por núcleo, de modo que la ventana del cierre se achica al sumar núcleos.
+//
+// El avance queda en un punto de control en el directorio del cierre (cierre-<fecha>.chk):
+// cada partición terminada y cada etapa completa. Si el proceso cae, ejecutar el cierre de la misma
+// fecha otra vez salta las etapas completas y, dentro de la etapa interrumpida, las particiones ya hechas.
+// Cada etapa se mide por separado (ver ResultadoCierre).
+public class CierreDiario {
+    private static final int PARTICIONES_POR_HILO = 4;
+
+    private final GestorClientes gestor;
+    private final Path directorio;
+    private final int hilos;
+    private final Map<String, EtapaCierre> etapas;
+
+    // Constructor con un hilo por núcleo y sin etapas
+    public CierreDiario(GestorClientes gestor, Path directorio) {
+        this(gestor, directorio, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CierreDiario(GestorClientes gestor, Path directorio, int hilos) {
+        if (gestor == null) {
+            throw new IllegalArgumentException("El gestor de clientes no puede ser nulo");
+        }
+        if (directorio == null) {
+            throw new IllegalArgumentException("El directorio del cierre no puede ser nulo");
+        }
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser positiva");
+        }
+        this.gestor = gestor;
+        this.directorio = directorio;
+        this.hilos = hilos;
+        this.etapas = new LinkedHashMap<>();
+    }
+
+    // Cierre con las etapas estándar:
+    //   INTERESES -> REPORTE
+    //             -> EXPORTACION -> ARCHIVADO (sólo con política) -> CONCILIACION
+    public static CierreDiario estandar(GestorClientes gestor, Path directorio, PoliticaArchivado politica) {
+        CierreDiario cierre = new CierreDiario(gestor, directorio);
+        cierre.agregarEtapa(new EtapaIntereses());
+        cierre.agregarEtapa(new EtapaReporte(directorio));
+        cierre.agregarEtapa(new EtapaExportacion(directorio));
+        if (politica != null) {
+            cierre.agregarEtapa(new EtapaArchivado(politica));
+            cierre.agregarEtapa(new EtapaConciliacion(new MotorConciliacion(cierre.hilos), EtapaArchivado.NOMBRE));
+        } else {
+            cierre.agregarEtapa(new EtapaConciliacion(new MotorConciliacion(cierre.hilos), EtapaExportacion.NOMBRE));
+        }
+        return cierre;
+    }
+
+    public CierreDiario agregarEtapa(EtapaCierre etapa) {
+        if (etapa == null) {
+            throw new IllegalArgumentException("La etapa no puede ser nula");
+        }
+        if (etapas.containsKey(etapa.getNombre())) {
+            throw new IllegalArgumentException("Ya existe una etapa llamada " + etapa.getNombre());
+        }
+        etapas.put(etapa.getNombre(), etapa);
+        return this;
+    }
+
+    // Ejecuta (o reanuda) el cierre de la fecha indicada
+    public ResultadoCierre ejecutar(LocalDate fecha) throws IOException {
+        if (fecha == null) {
+            throw new IllegalArgumentException("La fecha del cierre no puede ser nula");
+        }
+
+        long inicio = System.nanoTime();
+        List<EtapaCierre> orden = ordenarPorDependencias();
+        Files.createDirectories(directorio);
+        try (PuntoControlCierre punto = PuntoControlCierre.abrir(directorio.resolve("cierre-" + fecha + ".chk"))) {
+            if (punto.getParticiones() == 0) {
+                punto.registrarParticiones(hilos * PARTICIONES_POR_HILO);
+            }
+            List<List<Cliente>> particiones = repartir(punto.getParticiones());
+
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            try {
+                List<ResultadoCierre.MedicionEtapa> mediciones = new ArrayList<>();
+                Set<String> completas = punto.etapasCompletas();
+                for (EtapaCierre etapa : orden) {
+                    if (completas.contains(etapa.getNombre())) {
+                        int cantidad = etapa.esParticionada() ? particiones.size() : 1;
+                        mediciones.add(new ResultadoCierre.MedicionEtapa(etapa.getNombre(), 0, cantidad, 0,
+                                punto.resumenDe(etapa.getNombre())));
+                    } else {
+                        mediciones.add(ejecutarEtapa(etapa, fecha, particiones, punto, ejecutor));
+                    }
+                }
+                return new ResultadoCierre(fecha, particiones.size(), mediciones, System.nanoTime() - inicio);
+            } finally {
+                ejecutor.shutdownNow();
+            }
+        }
+    }
+
+    // Métodos privados
+
+    private ResultadoCierre.MedicionEtapa ejecutarEtapa(EtapaCierre etapa, LocalDate fecha,
+                                                       List<List<Cliente>> particiones, PuntoControlCierre punto,
+                                                       ExecutorService ejecutor) throws IOException {
+        long inicio = System.nanoTime();
+        int cantidad = etapa.esParticionada() ? particiones.size() : 1;
+        Map<Integer, String> hechas = punto.parcialesDe(etapa.getNombre());
+
+        int procesadas;
+        etapa.iniciar(fecha);
+        try {
+            procesadas = ejecutarParticiones(etapa, fecha, particiones, hechas, punto, ejecutor);
+        } finally {
+            etapa.terminar();
+        }
+
+        Map<Integer, String> parciales = punto.parcialesDe(etapa.getNombre());
+        List<String> ordenados = new ArrayList<>(cantidad);
+        for (int particion = 0; particion < cantidad; particion++) {
+            ordenados.add(parciales.get(particion));
+        }
+        String resumen = etapa.completar(fecha, ordenados);
+        punto.registrarEtapa(etapa.getNombre(), resumen);
+        return new ResultadoCierre.MedicionEtapa(etapa.getNombre(), procesadas, cantidad - procesadas,
+                System.nanoTime() - inicio, resumen);
+    }
+
+    // Envía las particiones pendientes, espera a que terminen todas y devuelve cuántas procesó
+    private int ejecutarParticiones(EtapaCierre etapa, LocalDate fecha, List<List<Cliente>> particiones,
+                                    Map<Integer, String> hechas, PuntoControlCierre punto,
+                                    ExecutorService ejecutor) throws IOException {
+        int cantidad = etapa.esParticionada() ? particiones.size() : 1;
+        List<Future<?>> pendientes = new ArrayList<>();
+        for (int particion = 0; particion < cantidad; particion++) {
+            if (hechas.containsKey(particion)) {
+                continue;
+            }
+            int numero = particion;
+            List<Cliente> clientes = etapa.esParticionada() ? particiones.get(particion) : todos(particiones);
+            pendientes.add(ejecutor.submit(() -> {
+                try {
+                    punto.registrarParticion(etapa.getNombre(), numero, etapa.procesar(fecha, numero, clientes));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+
+        // Se espera a todas las particiones aunque alguna falle, para que las demás queden registradas
+        Throwable falla = null;
+        for (Future<?> pendiente : pendientes) {
+            Throwable error = esperar(pendiente);
+            if (falla == null) {
+                falla = error;
+            }
+        }
+        if (falla != null) {
+            lanzar(etapa, falla);
+        }
+        return pendientes.size();
+    }
+
+    // Orden topológico; entre etapas listas se respeta el orden en que se agregaron
+    private List<EtapaCierre> ordenarPorDependencias() {
+        Map<String, Integer> faltantes = new HashMap<>();
+        Map<String, List<EtapaCierre>> dependientes = new HashMap<>();
+        for (EtapaCierre etapa : etapas.values()) {
+            for (String dependencia : etapa.getDependencias()) {
+                if (!etapas.containsKey(dependencia)) {
+                    throw new IllegalStateException("La etapa " + etapa.getNombre()
+                            + " depende de una etapa inexistente: " + dependencia);
+                }
+                dependientes.computeIfAbsent(dependencia, d -> new ArrayList<>()).add(etapa);
+            }
+            faltantes.put(etapa.getNombre(), etapa.getDependencias().size());
+        }
+
+        Deque<EtapaCierre> listas = new ArrayDeque<>();
+        for (EtapaCierre etapa : etapas.values()) {
+            if (etapa.getDependencias().isEmpty()) {
+                listas.add(etapa);
+            }
+        }
+        List<EtapaCierre> orden = new ArrayList<>(etapas.size());
+        while (!listas.isEmpty()) {
+            EtapaCierre etapa = listas.poll();
+            orden.add(etapa);
+            for (EtapaCierre dependiente : dependientes.getOrDefault(etapa.getNombre(), List.of())) {
+                if (faltantes.merge(dependiente.getNombre(), -1, Integer::sum) == 0) {
+                    listas.add(dependiente);
+                }
+            }
+        }
+        if (orden.size() < etapas.size()) {
+            throw new IllegalStateException("Las dependencias entre etapas del cierre forman un ciclo");
+        }
+        return orden;
+    }
+
+    private List<List<Cliente>> repartir(int cantidad) {
+        List<List<Cliente>> particiones = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            particiones.add(new ArrayList<>());
+        }
+        gestor.forEachCliente(cliente ->
+                particiones.get(Math.floorMod(cliente.getDocumento().hashCode(), cantidad)).add(cliente));
+        return particiones;
+    }
+
+    private List<Cliente> todos(List<List<Cliente>> particiones) {
+        List<Cliente> clientes = new ArrayList<>();
+        for (List<Cliente> particion : particiones) {
+            clientes.addAll(particion);
+        }
+        return clientes;
+    }
+
+    private Throwable esperar(Future<?> pendiente) throws IOException {
+        try {
+            pendiente.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Cierre interrumpido", e);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private void lanzar(EtapaCierre etapa, Throwable falla) throws IOException {
+        if (falla instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) falla).getCause();
+        }
+        throw new IllegalStateException("Error en la etapa " + etapa.getNombre() + " del cierre: "
+                + falla.getMessage(), falla);
+    }
+}
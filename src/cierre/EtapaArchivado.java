@@ -0,0 +1,41 @@
+package cierre;
+
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.PoliticaArchivado;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Mueve a disco el historial más antiguo que el horizonte de la política.
+// Va después de la exportación para que la foto del día se tome antes de archivar.
+final class EtapaArchivado extends EtapaCierre {
+    static final String NOMBRE = "ARCHIVADO";
+
+    private final PoliticaArchivado politica;
+
+    EtapaArchivado(PoliticaArchivado politica) {
+        super(NOMBRE, true, EtapaExportacion.NOMBRE);
+        this.politica = politica;
+    }
+
+    @Override
+    protected String procesar(LocalDate fecha, int particion, List<Cliente> clientes) {
+        long archivadas = 0;
+        for (Cliente cliente : clientes) {
+            for (Cuenta cuenta : cliente.getCuentas()) {
+                archivadas += cuenta.archivarTransacciones(politica);
+            }
+        }
+        return Long.toString(archivadas);
+    }
+
+    @Override
+    protected String completar(LocalDate fecha, List<String> parciales) {
+        long archivadas = 0;
+        for (String parcial : parciales) {
+            archivadas += Long.parseLong(parcial);
+        }
+        return archivadas + " transacciones archivadas";
+    }
+}
@@ -0,0 +1,58 @@
+package cierre;
+
+import modelo.Cliente;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Etapa del cierre diario. El orquestador la ejecuta cuando terminaron todas sus dependencias.
+//
+// Una etapa particionada recibe los clientes repartidos en particiones que se procesan en paralelo;
+// cada partición terminada queda en el punto de control junto con su resultado parcial, así que
+// al reanudar un cierre interrumpido sólo se procesan las particiones pendientes.
+// Una etapa no particionada recibe a todos los clientes en una sola llamada (partición 0).
+// Al final, completar recibe los resultados parciales de todas las particiones, incluidas las
+// que se procesaron antes de la interrupción.
+//
+// Procesar una partición debe poder repetirse sin efectos duplicados: si el proceso cae en medio
+// de una partición, ésta se vuelve a procesar completa.
+//
+// Lo que deban compartir las particiones de una ejecución (por ejemplo una instantánea de saldos)
+// se prepara en iniciar y se libera en terminar; el orquestador llama a ambos una vez por ejecución
+// de la etapa, antes de la primera partición y después de la última, aunque alguna haya fallado.
+public abstract class EtapaCierre {
+    private final String nombre;
+    private final List<String> dependencias;
+    private final boolean particionada;
+
+    protected EtapaCierre(String nombre, boolean particionada, String... dependencias) {
+        if (nombre == null || nombre.trim().isEmpty() || nombre.contains("|")) {
+            throw new IllegalArgumentException("El nombre de la etapa no es válido: " + nombre);
+        }
+        this.nombre = nombre.trim();
+        this.particionada = particionada;
+        this.dependencias = List.of(dependencias);
+    }
+
+    // Prepara lo que comparten las particiones de esta ejecución de la etapa
+    protected void iniciar(LocalDate fecha) throws IOException {
+    }
+
+    // Libera lo preparado en iniciar
+    protected void terminar() {
+    }
+
+    // Procesa los clientes de una partición y devuelve su resultado parcial (una línea de texto, o null)
+    protected abstract String procesar(LocalDate fecha, int particion, List<Cliente> clientes) throws IOException;
+
+    // Combina los resultados parciales (indexados por partición) y devuelve el resumen de la etapa
+    protected String completar(LocalDate fecha, List<String> parciales) throws IOException {
+        return parciales.size() + " particiones";
+    }
+
+    // Getters
+    public String getNombre() { return nombre; }
+    public List<String> getDependencias() { return dependencias; }
+    public boolean esParticionada() { return particionada; }
+}
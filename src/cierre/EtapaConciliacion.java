@@ -0,0 +1,36 @@
+package cierre;
+
+import modelo.Cliente;
+import servicio.MotorConciliacion;
+import servicio.ResultadoConciliacion;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Concilia saldos contra historiales al final del día. El motor ya trabaja en paralelo
+// y es incremental: en cierres sucesivos sólo verifica lo agregado desde el anterior.
+final class EtapaConciliacion extends EtapaCierre {
+    static final String NOMBRE = "CONCILIACION";
+
+    private final MotorConciliacion motor;
+
+    EtapaConciliacion(MotorConciliacion motor, String dependencia) {
+        super(NOMBRE, false, dependencia);
+        this.motor = motor;
+    }
+
+    @Override
+    protected String procesar(LocalDate fecha, int particion, List<Cliente> clientes) {
+        ResultadoConciliacion resultado = motor.conciliar(clientes);
+        for (ResultadoConciliacion.Discrepancia discrepancia : resultado.getDiscrepancias()) {
+            System.err.println("Cierre " + fecha + ": " + discrepancia);
+        }
+        return String.format("%d cuentas - %d discrepancias", resultado.getCuentasVerificadas(),
+                resultado.getDiscrepancias().size());
+    }
+
+    @Override
+    protected String completar(LocalDate fecha, List<String> parciales) {
+        return parciales.get(0);
+    }
+}
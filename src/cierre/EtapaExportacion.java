@@ -0,0 +1,36 @@
+package cierre;
+
+import exportacion.ExportadorColumnar;
+import modelo.Cliente;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Guarda la foto del día en saldos-<fecha>.col con el exportador columnar,
+// que ya reparte el trabajo en sus propias particiones paralelas.
+// Reescribir el archivo completo al reanudar no duplica nada.
+final class EtapaExportacion extends EtapaCierre {
+    static final String NOMBRE = "EXPORTACION";
+
+    private final Path directorio;
+
+    EtapaExportacion(Path directorio) {
+        super(NOMBRE, false, EtapaIntereses.NOMBRE);
+        this.directorio = directorio;
+    }
+
+    @Override
+    protected String procesar(LocalDate fecha, int particion, List<Cliente> clientes) throws IOException {
+        ExportadorColumnar.Resumen resumen = new ExportadorColumnar()
+                .exportar(clientes, directorio.resolve("saldos-" + fecha + ".col"));
+        return String.format("%d clientes - %d cuentas - %d transacciones - %d bytes",
+                resumen.getClientes(), resumen.getCuentas(), resumen.getTransacciones(), resumen.getBytes());
+    }
+
+    @Override
+    protected String completar(LocalDate fecha, List<String> parciales) {
+        return parciales.get(0);
+    }
+}
@@ -0,0 +1,49 @@
+package cierre;
+
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.ResultadoOperacion;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Liquida el interés del día de cada cuenta (la tasa anual sobre los días del año).
+// Cada liquidación lleva la clave INT-<fecha>-<cuenta>: si la partición se vuelve a procesar
+// tras una caída, las cuentas ya liquidadas devuelven el resultado original y no cobran dos veces.
+// La repetición se reconoce por el movimiento con esa clave en el libro mayor de la cuenta, así que
+// no depende de que la clave siga en la caché de idempotencia cuando se reanuda el cierre.
+final class EtapaIntereses extends EtapaCierre {
+    static final String NOMBRE = "INTERESES";
+
+    EtapaIntereses() {
+        super(NOMBRE, true);
+    }
+
+    @Override
+    protected String procesar(LocalDate fecha, int particion, List<Cliente> clientes) {
+        double fraccionAnual = 1.0 / fecha.lengthOfYear();
+        int cuentas = 0;
+        double acreditado = 0.0;
+        for (Cliente cliente : clientes) {
+            for (Cuenta cuenta : cliente.getCuentas()) {
+                ResultadoOperacion resultado = cuenta.liquidarInteres(fraccionAnual,
+                        "INT-" + fecha + "-" + cuenta.getNumero());
+                cuentas++;
+                acreditado += resultado.getMonto();
+            }
+        }
+        return cuentas + ";" + acreditado;
+    }
+
+    @Override
+    protected String completar(LocalDate fecha, List<String> parciales) {
+        long cuentas = 0;
+        double acreditado = 0.0;
+        for (String parcial : parciales) {
+            String[] campos = parcial.split(";");
+            cuentas += Long.parseLong(campos[0]);
+            acreditado += Double.parseDouble(campos[1]);
+        }
+        return String.format("%d cuentas - $%.2f acreditados", cuentas, acreditado);
+    }
+}
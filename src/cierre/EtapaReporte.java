@@ -0,0 +1,80 @@
+package cierre;
+
+import modelo.Cliente;
+import modelo.InstantaneaSaldos;
+import modelo.RegistroVersiones;
+import servicio.ReporteServicio;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Calcula por partición el capital y la cantidad de clientes y cuentas, y al completar
+// escribe el reporte del día en reporte-<fecha>.txt.
+// Todas las particiones leen los saldos de una misma instantánea, abierta al iniciar la etapa (después
+// de liquidar intereses): el capital total corresponde a un único instante aunque haya operaciones
+// en curso mientras se calcula. Si el cierre se reanuda, las particiones ya hechas conservan el
+// resultado de la instantánea de la ejecución anterior.
+final class EtapaReporte extends EtapaCierre {
+    static final String NOMBRE = "REPORTE";
+
+    private final Path directorio;
+    private volatile InstantaneaSaldos instantanea;
+
+    EtapaReporte(Path directorio) {
+        super(NOMBRE, true, EtapaIntereses.NOMBRE);
+        this.directorio = directorio;
+    }
+
+    @Override
+    protected void iniciar(LocalDate fecha) {
+        instantanea = RegistroVersiones.getInstance().abrirInstantanea();
+    }
+
+    @Override
+    protected void terminar() {
+        if (instantanea != null) {
+            instantanea.close();
+            instantanea = null;
+        }
+    }
+
+    @Override
+    protected String procesar(LocalDate fecha, int particion, List<Cliente> clientes) {
+        ReporteServicio reportes = new ReporteServicio(clientes);
+        int cuentas = 0;
+        for (Cliente cliente : clientes) {
+            cuentas += cliente.getCuentas().size();
+        }
+        return reportes.calcularCapitalTotal(instantanea) + ";" + clientes.size() + ";" + cuentas + ";"
+                + reportes.identificarClientesSinCuentas().size();
+    }
+
+    @Override
+    protected String completar(LocalDate fecha, List<String> parciales) throws IOException {
+        double capital = 0.0;
+        long clientes = 0;
+        long cuentas = 0;
+        long sinCuentas = 0;
+        for (String parcial : parciales) {
+            String[] campos = parcial.split(";");
+            capital += Double.parseDouble(campos[0]);
+            clientes += Long.parseLong(campos[1]);
+            cuentas += Long.parseLong(campos[2]);
+            sinCuentas += Long.parseLong(campos[3]);
+        }
+
+        double promedio = clientes == 0 ? 0.0 : capital / clientes;
+        Files.write(directorio.resolve("reporte-" + fecha + ".txt"), List.of(
+                "Reporte de cierre " + fecha,
+                String.format("Clientes: %d", clientes),
+                String.format("Cuentas: %d", cuentas),
+                String.format("Clientes sin cuentas: %d", sinCuentas),
+                String.format("Capital total: $%.2f", capital),
+                String.format("Saldo promedio por cliente: $%.2f", promedio)), StandardCharsets.UTF_8);
+        return String.format("%d clientes - capital $%.2f", clientes, capital);
+    }
+}
@@ -0,0 +1,130 @@
+package cierre;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Punto de control de un cierre: archivo de texto al que sólo se agregan líneas.
+//   PARTICIONES|n
+//   PARTICION|etapa|numero|resultado
+//   ETAPA|etapa|resumen
+// Cada línea se fuerza a disco antes de continuar. Si el proceso cae a mitad de una escritura,
+// la línea incompleta se descarta al reabrir el archivo.
+final class PuntoControlCierre implements AutoCloseable {
+    private static final String SEPARADOR = "|";
+
+    private final FileChannel canal;
+    private int particiones;
+    private final Map<String, Map<Integer, String>> parciales;
+    private final Map<String, String> etapasCompletas;
+
+    private PuntoControlCierre(FileChannel canal) {
+        this.canal = canal;
+        this.parciales = new HashMap<>();
+        this.etapasCompletas = new HashMap<>();
+    }
+
+    // Abre el punto de control, recuperando lo registrado por una ejecución anterior
+    static PuntoControlCierre abrir(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        PuntoControlCierre punto = new PuntoControlCierre(canal);
+        try {
+            punto.cargar(archivo);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        return punto;
+    }
+
+    // Cantidad de particiones registrada; 0 si el cierre es nuevo
+    int getParticiones() {
+        return particiones;
+    }
+
+    void registrarParticiones(int particiones) throws IOException {
+        this.particiones = particiones;
+        escribir("PARTICIONES" + SEPARADOR + particiones);
+    }
+
+    synchronized Map<Integer, String> parcialesDe(String etapa) {
+        return new HashMap<>(parciales.getOrDefault(etapa, Map.of()));
+    }
+
+    synchronized Set<String> etapasCompletas() {
+        return new HashSet<>(etapasCompletas.keySet());
+    }
+
+    synchronized String resumenDe(String etapa) {
+        return etapasCompletas.get(etapa);
+    }
+
+    synchronized void registrarParticion(String etapa, int particion, String resultado) throws IOException {
+        String texto = resultado == null ? "" : resultado;
+        escribir("PARTICION" + SEPARADOR + etapa + SEPARADOR + particion + SEPARADOR + texto);
+        parciales.computeIfAbsent(etapa, e -> new HashMap<>()).put(particion, texto);
+    }
+
+    synchronized void registrarEtapa(String etapa, String resumen) throws IOException {
+        String texto = resumen == null ? "" : resumen;
+        escribir("ETAPA" + SEPARADOR + etapa + SEPARADOR + texto);
+        etapasCompletas.put(etapa, texto);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    // Métodos privados
+
+    private void cargar(Path archivo) throws IOException {
+        String contenido = new String(Files.readAllBytes(archivo), StandardCharsets.UTF_8);
+        int finUltimaLinea = contenido.lastIndexOf('\n') + 1;
+        for (String linea : contenido.substring(0, finUltimaLinea).split("\n")) {
+            if (!linea.isEmpty()) {
+                interpretar(linea);
+            }
+        }
+        // Descarta la línea que quedó a medio escribir
+        int bytesValidos = contenido.substring(0, finUltimaLinea).getBytes(StandardCharsets.UTF_8).length;
+        canal.truncate(bytesValidos);
+        canal.position(bytesValidos);
+    }
+
+    private void interpretar(String linea) {
+        String tipo = linea.substring(0, Math.max(0, linea.indexOf('|')));
+        switch (tipo) {
+            case "PARTICIONES" -> particiones = Integer.parseInt(linea.split("\\|", 2)[1]);
+            case "PARTICION" -> {
+                String[] campos = linea.split("\\|", 4);
+                parciales.computeIfAbsent(campos[1], e -> new HashMap<>()).put(Integer.parseInt(campos[2]), campos[3]);
+            }
+            case "ETAPA" -> {
+                String[] campos = linea.split("\\|", 3);
+                etapasCompletas.put(campos[1], campos[2]);
+            }
+            default -> throw new IllegalStateException("Línea desconocida en el punto de control: " + linea);
+        }
+    }
+
+    private void escribir(String linea) throws IOException {
+        if (linea.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("El punto de control no admite saltos de línea");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap((linea + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        canal.force(false);
+    }
+}
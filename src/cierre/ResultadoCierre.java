@@ -0,0 +1,77 @@
+package cierre;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+// Resultado de un cierre diario, con la medición de cada etapa en el orden en que se ejecutaron
+public final class ResultadoCierre {
+    private final LocalDate fecha;
+    private final int particiones;
+    private final List<MedicionEtapa> etapas;
+    private final long duracionNanos;
+
+    ResultadoCierre(LocalDate fecha, int particiones, List<MedicionEtapa> etapas, long duracionNanos) {
+        this.fecha = fecha;
+        this.particiones = particiones;
+        this.etapas = Collections.unmodifiableList(etapas);
+        this.duracionNanos = duracionNanos;
+    }
+
+    // Indica si el cierre se reanudó desde un punto de control (alguna partición ya estaba hecha)
+    public boolean fueReanudado() {
+        for (MedicionEtapa etapa : etapas) {
+            if (etapa.particionesOmitidas > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Getters
+    public LocalDate getFecha() { return fecha; }
+    public int getParticiones() { return particiones; }
+    public List<MedicionEtapa> getEtapas() { return etapas; }
+    public long getDuracionNanos() { return duracionNanos; }
+
+    @Override
+    public String toString() {
+        StringBuilder texto = new StringBuilder(String.format("Cierre %s - %d particiones - %.3f s%s",
+                fecha, particiones, duracionNanos / 1e9, fueReanudado() ? " - reanudado" : ""));
+        for (MedicionEtapa etapa : etapas) {
+            texto.append(System.lineSeparator()).append("  ").append(etapa);
+        }
+        return texto.toString();
+    }
+
+    // Tiempo y particiones de una etapa. Las omitidas ya estaban en el punto de control.
+    public static final class MedicionEtapa {
+        private final String nombre;
+        private final int particionesProcesadas;
+        private final int particionesOmitidas;
+        private final long duracionNanos;
+        private final String resumen;
+
+        MedicionEtapa(String nombre, int particionesProcesadas, int particionesOmitidas,
+                      long duracionNanos, String resumen) {
+            this.nombre = nombre;
+            this.particionesProcesadas = particionesProcesadas;
+            this.particionesOmitidas = particionesOmitidas;
+            this.duracionNanos = duracionNanos;
+            this.resumen = resumen;
+        }
+
+        // Getters
+        public String getNombre() { return nombre; }
+        public int getParticionesProcesadas() { return particionesProcesadas; }
+        public int getParticionesOmitidas() { return particionesOmitidas; }
+        public long getDuracionNanos() { return duracionNanos; }
+        public String getResumen() { return resumen; }
+
+        @Override
+        public String toString() {
+            return String.format("%-14s %4d procesadas %4d omitidas %9.3f s  %s",
+                    nombre, particionesProcesadas, particionesOmitidas, duracionNanos / 1e9, resumen);
+        }
+    }
+}
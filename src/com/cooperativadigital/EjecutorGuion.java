@@ -0,0 +1,249 @@
+package com.cooperativadigital;
+
+import cierre.CierreDiario;
+import cierre.ResultadoCierre;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.CuentaAhorros;
+import modelo.InstantaneaSaldos;
+import modelo.ResultadoOperacion;
+import servicio.AsignadorNumerosCuenta;
+import servicio.GestorClientes;
+import servicio.ReporteServicio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Ejecuta un guion de operaciones sin intervención humana (lotes nocturnos, escenarios de regresión).
+//
+// Una operación por línea, con los campos separados por ';'. Las líneas vacías y las que
+// empiezan con '#' se ignoran.
+//   REGISTRAR_CLIENTE;nombre;documento
+//   ABRIR_CUENTA;documento[;numeroCuenta]      (sin número se asigna el siguiente disponible)
+//   DEPOSITAR;numeroCuenta;monto[;claveIdempotencia]
+//   RETIRAR;numeroCuenta;monto[;claveIdempotencia]
+//   TRANSFERIR;cuentaOrigen;cuentaDestino;monto[;claveIdempotencia]
+//   REPORTE
+//   CIERRE;directorio[;fecha]                  (cierre diario; sin fecha usa la de hoy, ver CierreDiario)
+//
+// Con clave de idempotencia, volver a ejecutar un lote interrumpido no repite las operaciones ya aplicadas.
+//
+// El guion se lee línea a línea, sin cargarlo completo en memoria, y la salida se acumula
+// en un buffer que sólo se vacía al llenarse o al terminar. Una operación fallida se informa
+// con su número de línea y no detiene la ejecución. Lo ya escrito se vacía aunque la lectura
+// del guion falle, y un error al escribir la salida se informa como IOException.
+public class EjecutorGuion {
+    private static final int TAMANO_BUFFER_LECTURA = 64 * 1024;
+
+    private final GestorClientes gestor;
+    private final PrintWriter salida;
+
+    // Constructor que recibe el gestor sobre el que se opera y el destino de la salida
+    public EjecutorGuion(GestorClientes gestor, Writer salida) {
+        if (gestor == null) {
+            throw new IllegalArgumentException("El gestor de clientes no puede ser nulo");
+        }
+        if (salida == null) {
+            throw new IllegalArgumentException("La salida no puede ser nula");
+        }
+        this.gestor = gestor;
+        this.salida = new PrintWriter(salida, false);
+    }
+
+    // Ejecuta el guion completo y escribe el resumen al final de la salida.
+    // PrintWriter no lanza errores de escritura: se revisan con checkError al vaciar la salida.
+    public Resumen ejecutar(Reader guion) throws IOException {
+        if (guion == null) {
+            throw new IllegalArgumentException("El guion no puede ser nulo");
+        }
+
+        long inicio = System.nanoTime();
+        Resumen resumen = new Resumen();
+        BufferedReader lector = new BufferedReader(guion, TAMANO_BUFFER_LECTURA);
+        String linea;
+        int numeroLinea = 0;
+        try {
+            while ((linea = lector.readLine()) != null) {
+                numeroLinea++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    ejecutarLinea(linea.split(";", -1));
+                    resumen.exitosas++;
+                } catch (RuntimeException e) {
+                    resumen.fallidas++;
+                    salida.printf("Línea %d: ERROR %s -> %s%n", numeroLinea, linea, e.getMessage());
+                }
+            }
+            resumen.duracionNanos = System.nanoTime() - inicio;
+
+            salida.println("=".repeat(50));
+            salida.println(resumen);
+        } finally {
+            salida.flush();
+        }
+        if (salida.checkError()) {
+            throw new IOException("No se pudo escribir la salida del guion");
+        }
+        return resumen;
+    }
+
+    // Métodos privados
+
+    private void ejecutarLinea(String[] campos) {
+        String operacion = campos[0].trim().toUpperCase();
+        switch (operacion) {
+            case "REGISTRAR_CLIENTE" -> registrarCliente(campos);
+            case "ABRIR_CUENTA" -> abrirCuenta(campos);
+            case "DEPOSITAR" -> depositar(campos);
+            case "RETIRAR" -> retirar(campos);
+            case "TRANSFERIR" -> transferir(campos);
+            case "REPORTE" -> reporte(campos);
+            case "CIERRE" -> cierre(campos);
+            default -> throw new IllegalArgumentException("Operación desconocida: " + operacion);
+        }
+    }
+
+    private void registrarCliente(String[] campos) {
+        validarCampos(campos, 3, 3);
+        String nombre = campos[1].trim();
+        String documento = campos[2].trim();
+        Main.validarNombre(nombre);
+        Main.validarDocumento(documento);
+
+        gestor.registrarCliente(new Cliente(nombre, documento));
+        salida.printf("Cliente registrado: %s - %s%n", documento, nombre);
+    }
+
+    private void abrirCuenta(String[] campos) {
+        validarCampos(campos, 2, 3);
+        String documento = campos[1].trim();
+        Cliente cliente = gestor.buscarCliente(documento)
+                .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado: " + documento));
+
+        String numero = campos.length == 3 && !campos[2].trim().isEmpty()
+                ? campos[2].trim()
+                : AsignadorNumerosCuenta.getInstance().siguienteNumero();
+        // El constructor rechaza un número que ya tiene una cuenta
+        cliente.agregarCuenta(new CuentaAhorros(numero));
+        salida.printf("Cuenta abierta: %s - Cliente %s%n", numero, documento);
+    }
+
+    private void depositar(String[] campos) {
+        validarCampos(campos, 3, 4);
+        Cuenta cuenta = buscarCuenta(campos[1]);
+        ResultadoOperacion resultado = cuenta.depositar(leerMonto(campos[2]), leerClave(campos, 3));
+        salida.printf("Depósito: %s +$%.2f - Saldo $%.2f%s%n", cuenta.getNumero(), resultado.getMonto(),
+                resultado.getSaldoResultante(), marcaRepetido(resultado));
+    }
+
+    private void retirar(String[] campos) {
+        validarCampos(campos, 3, 4);
+        Cuenta cuenta = buscarCuenta(campos[1]);
+        ResultadoOperacion resultado = cuenta.retirar(leerMonto(campos[2]), leerClave(campos, 3));
+        salida.printf("Retiro: %s -$%.2f - Saldo $%.2f%s%n", cuenta.getNumero(), resultado.getMonto(),
+                resultado.getSaldoResultante(), marcaRepetido(resultado));
+    }
+
+    private void transferir(String[] campos) {
+        validarCampos(campos, 4, 5);
+        Cuenta origen = buscarCuenta(campos[1]);
+        Cuenta destino = buscarCuenta(campos[2]);
+        ResultadoOperacion resultado = origen.transferir(destino, leerMonto(campos[3]), leerClave(campos, 4));
+        salida.printf("Transferencia: %s -> %s $%.2f%s%n", origen.getNumero(), destino.getNumero(),
+                resultado.getMonto(), marcaRepetido(resultado));
+    }
+
+    private void reporte(String[] campos) {
+        validarCampos(campos, 1, 1);
+        ReporteServicio reportes = new ReporteServicio(gestor.obtenerClientes());
+        try (InstantaneaSaldos instantanea = reportes.abrirInstantanea()) {
+            salida.printf("Reporte: clientes %d - capital $%.2f - promedio $%.2f - premium %d%n",
+                    gestor.contarClientes(),
+                    reportes.calcularCapitalTotal(instantanea),
+                    reportes.calcularSaldoPromedioPorCliente(instantanea),
+                    reportes.generarReporteClientesPremium(instantanea).size());
+        }
+    }
+
+    private void cierre(String[] campos) {
+        validarCampos(campos, 2, 3);
+        LocalDate fecha = LocalDate.now();
+        if (campos.length == 3 && !campos[2].trim().isEmpty()) {
+            try {
+                fecha = LocalDate.parse(campos[2].trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Fecha inválida: " + campos[2].trim());
+            }
+        }
+
+        try {
+            ResultadoCierre resultado = CierreDiario.estandar(gestor, Paths.get(campos[1].trim()), null)
+                    .ejecutar(fecha);
+            salida.println(resultado);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo completar el cierre: " + e.getMessage(), e);
+        }
+    }
+
+    private Cuenta buscarCuenta(String numero) {
+        String numeroCuenta = numero.trim();
+        return gestor.buscarCuenta(numeroCuenta)
+                .orElseThrow(() -> new IllegalArgumentException("Cuenta no encontrada: " + numeroCuenta));
+    }
+
+    private double leerMonto(String texto) {
+        try {
+            return Double.parseDouble(texto.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Monto inválido: " + texto.trim());
+        }
+    }
+
+    // Clave de idempotencia opcional en la posición indicada; null si no viene o está vacía
+    private String leerClave(String[] campos, int posicion) {
+        if (campos.length <= posicion || campos[posicion].trim().isEmpty()) {
+            return null;
+        }
+        return campos[posicion].trim();
+    }
+
+    private String marcaRepetido(ResultadoOperacion resultado) {
+        return resultado.esRepetido() ? " (repetida, no se aplicó de nuevo)" : "";
+    }
+
+    private void validarCampos(String[] campos, int minimo, int maximo) {
+        if (campos.length < minimo || campos.length > maximo) {
+            throw new IllegalArgumentException(String.format("Se esperaban %s campos y se recibieron %d",
+                    minimo == maximo ? String.valueOf(minimo) : minimo + " a " + maximo, campos.length));
+        }
+    }
+
+    // Resultado de la ejecución de un guion
+    public static final class Resumen {
+        private int exitosas;
+        private int fallidas;
+        private long duracionNanos;
+
+        // Getters
+        public int getExitosas() { return exitosas; }
+        public int getFallidas() { return fallidas; }
+        public long getDuracionNanos() { return duracionNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("Guion ejecutado: %d operaciones - %d exitosas - %d fallidas - %.3f s",
+                    exitosas + fallidas, exitosas, fallidas, duracionNanos / 1e9);
+        }
+    }
+}
@@ -2,9 +2,19 @@ package com.cooperativadigital;
 import modelo.Cliente;
 import modelo.CuentaAhorros;
 import modelo.Transaccion;
+import servicio.AsignadorNumerosCuenta;
 import servicio.GestorClientes;
 import servicio.ReporteServicio;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
@@ -17,12 +27,47 @@ public class Main {
     private static ReporteServicio reportes;
 
     public static void main(String[] args) {
+        if (args.length == 2 && args[0].equals("--guion")) {
+            ejecutarGuion(Paths.get(args[1]));
+            return;
+        }
+
         System.out.println("*** BIENVENIDO A COOPERATIVA DIGITAL ***");
         registrarClientesIniciales();
-        reportes = new ReporteServicio(gestor.obtenerClientes());
+        reportes = new ReporteServicio(gestor.vistaClientes());
         mostrarMenuPrincipal();
     }
 
+    // Modo no interactivo: ejecuta un guion de operaciones y termina.
+    // El código de salida es 1 si alguna operación falló, para usarlo en lotes y regresiones,
+    // y 2 si no se pudo leer el guion o escribir la salida.
+    private static void ejecutarGuion(Path archivo) {
+        Writer salida = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        int codigo;
+        try (Reader guion = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            EjecutorGuion.Resumen resumen = new EjecutorGuion(gestor, salida).ejecutar(guion);
+            codigo = resumen.getFallidas() == 0 ? 0 : 1;
+        } catch (IOException e) {
+            System.err.println("Error al ejecutar el guion: " + e.getMessage());
+            codigo = 2;
+        } finally {
+            // System.exit no vacía el buffer: lo escrito hasta aquí sale antes de terminar.
+            // System.out tampoco lanza errores de escritura: se revisan con checkError.
+            boolean escrita;
+            try {
+                salida.flush();
+                escrita = !System.out.checkError();
+            } catch (IOException e) {
+                escrita = false;
+            }
+            if (!escrita) {
+                System.err.println("Error al escribir la salida del guion");
+                codigo = 2;
+            }
+        }
+        System.exit(codigo);
+    }
+
     // Registra los clientes iniciales del sistema
     private static void registrarClientesIniciales() {
         System.out.print("\n¿Cuántos clientes desea registrar?: ");
@@ -34,7 +79,7 @@ public class Main {
 
             boolean clienteRegistrado = false;
             while (!clienteRegistrado) {
-                if (registrarCliente(registrados + 1)) {
+                if (registrarCliente()) {
                     registrados++;
                     clienteRegistrado = true;
                 } else {
@@ -52,7 +97,7 @@ public class Main {
     }
 
     // Registra un cliente individual con validación
-    private static boolean registrarCliente(int numeroCliente) {
+    private static boolean registrarCliente() {
         try {
             System.out.print("Nombre: ");
             String nombre = consola.nextLine().trim();
@@ -62,12 +107,12 @@ public class Main {
             String documento = consola.nextLine().trim();
             validarDocumento(documento);
 
+            // Primero el cliente: si el documento está repetido no se gasta un número ni se abre una cuenta
             Cliente cliente = new Cliente(nombre, documento);
-            String numeroCuenta = generarNumeroCuenta(numeroCliente);
-            CuentaAhorros cuenta = new CuentaAhorros(numeroCuenta);
-            cliente.agregarCuenta(cuenta);
-
             gestor.registrarCliente(cliente);
+
+            String numeroCuenta = generarNumeroCuenta();
+            cliente.agregarCuenta(new CuentaAhorros(numeroCuenta));
             System.out.println("Cliente registrado - Cuenta: " + numeroCuenta);
             return true;
 
@@ -78,7 +123,7 @@ public class Main {
     }
 
     // Valida que el nombre solo contenga letras y espacios
-    private static void validarNombre(String nombre) {
+    static void validarNombre(String nombre) {
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre no puede estar vacío");
         }
@@ -105,7 +150,7 @@ public class Main {
     }
 
     // Valida que el documento solo contenga números
-    private static void validarDocumento(String documento) {
+    static void validarDocumento(String documento) {
         if (documento == null || documento.trim().isEmpty()) {
             throw new IllegalArgumentException("El documento no puede estar vacío");
         }
@@ -116,9 +161,9 @@ public class Main {
         }
     }
 
-    // Genera un número de cuenta secuencial con ceros a la izquierda
-    private static String generarNumeroCuenta(int numeroSecuencial) {
-        return String.format("CTA-%04d", numeroSecuencial);
+    // Genera un número de cuenta único, también entre reinicios del sistema
+    private static String generarNumeroCuenta() {
+        return AsignadorNumerosCuenta.getInstance().siguienteNumero();
     }
 
     // Menú principal del sistema
@@ -198,7 +243,8 @@ public class Main {
 
         seleccionarCuenta(cliente).ifPresent(cuenta -> {
             System.out.printf("Cuenta seleccionada: %s - Saldo disponible: $%.2f%n",
-                    cuenta.getNumero(), cuenta.getSaldo());
+                    cuenta.getNumero(), cuenta.getSaldoDisponible());
+            mostrarSaldoRetenido(cuenta, "");
 
             double monto = leerMontoValido("Monto a retirar: $");
 
@@ -207,7 +253,8 @@ public class Main {
             System.out.printf("   Documento: %s%n", cliente.getDocumento());
             System.out.printf("   Cuenta: %s%n", cuenta.getNumero());
             System.out.printf("   Monto a retirar: $%.2f%n", monto);
-            System.out.printf("   Saldo después del retiro: $%.2f%n", cuenta.getSaldo() - monto);
+            System.out.printf("   Saldo disponible después del retiro: $%.2f%n",
+                    cuenta.getSaldoDisponible() - monto);
 
             System.out.print("¿Confirmar retiro? (s/n): ");
             String confirmacion = consola.nextLine().trim().toLowerCase();
@@ -219,7 +266,8 @@ public class Main {
                     System.out.printf("   Cliente: %s%n", cliente.getNombre());
                     System.out.printf("   Cuenta: %s%n", cuenta.getNumero());
                     System.out.printf("   Monto retirado: $%.2f%n", monto);
-                    System.out.printf("   Saldo disponible: $%.2f%n", cuenta.getSaldo());
+                    System.out.printf("   Saldo disponible: $%.2f%n", cuenta.getSaldoDisponible());
+                    mostrarSaldoRetenido(cuenta, "   ");
                 } catch (IllegalArgumentException e) {
                     System.out.println("Error en retiro: " + e.getMessage());
                 }
@@ -364,9 +412,17 @@ public class Main {
                                     .mapToDouble(Transaccion::getMonto)
                                     .sum();
 
+                            double totalIntereses = historial.stream()
+                                    .filter(t -> t.getTipo().equals("INTERÉS"))
+                                    .mapToDouble(Transaccion::getMonto)
+                                    .sum();
+
                             System.out.printf("Total depositado: $%.2f%n", totalDepositos);
                             System.out.printf("Total retirado: $%.2f%n", totalRetiros);
-                            System.out.printf("Saldo disponible: $%.2f%n", totalDepositos - totalRetiros);
+                            System.out.printf("Total intereses: $%.2f%n", totalIntereses);
+                            System.out.printf("Saldo contable: $%.2f%n", cuenta.getSaldo());
+                            System.out.printf("Saldo disponible: $%.2f%n", cuenta.getSaldoDisponible());
+                            mostrarSaldoRetenido(cuenta, "");
                         }
                         System.out.println(); // Espacio entre cuentas
                     });
@@ -415,35 +471,44 @@ public class Main {
         System.out.print("Seleccione una opción: ");
     }
 
+    // Muestra el monto retenido sólo si la cuenta tiene retenciones activas
+    private static void mostrarSaldoRetenido(modelo.Cuenta cuenta, String sangria) {
+        double retenido = cuenta.getSaldoRetenido();
+        if (retenido > 0) {
+            System.out.printf("%sSaldo retenido: $%.2f%n", sangria, retenido);
+        }
+    }
+
     // Permite al usuario seleccionar una cuenta si tiene varias
     private static java.util.Optional<modelo.Cuenta> seleccionarCuenta(Cliente cliente) {
-        if (cliente.getCuentas().isEmpty()) {
+        List<modelo.Cuenta> cuentas = cliente.getCuentas();
+        if (cuentas.isEmpty()) {
             System.err.println("El cliente no tiene cuentas");
             return java.util.Optional.empty();
         }
 
-        if (cliente.getCuentas().size() == 1) {
-            return java.util.Optional.of(cliente.getCuentas().get(0));
+        if (cuentas.size() == 1) {
+            return java.util.Optional.of(cuentas.get(0));
         }
 
         System.out.println("\n| *** Seleccione cuenta *** |");
-        for (int i = 0; i < cliente.getCuentas().size(); i++) {
-            modelo.Cuenta cuenta = cliente.getCuentas().get(i);
+        for (int i = 0; i < cuentas.size(); i++) {
+            modelo.Cuenta cuenta = cuentas.get(i);
             System.out.printf("%d. %s - Saldo: $%.2f%n", i + 1, cuenta.getNumero(), cuenta.getSaldo());
         }
 
         System.out.print("Opción: ");
         try {
             int seleccion = Integer.parseInt(consola.nextLine().trim()) - 1;
-            if (seleccion >= 0 && seleccion < cliente.getCuentas().size()) {
-                return java.util.Optional.of(cliente.getCuentas().get(seleccion));
+            if (seleccion >= 0 && seleccion < cuentas.size()) {
+                return java.util.Optional.of(cuentas.get(seleccion));
             }
         } catch (NumberFormatException e) {
             // Continuar con la primera cuenta por defecto
         }
 
         System.out.println("Usando primera cuenta por defecto");
-        return java.util.Optional.of(cliente.getCuentas().get(0));
+        return java.util.Optional.of(cuentas.get(0));
     }
 
     // Lee un entero positivo desde la consola
@@ -0,0 +1,339 @@
+package evento;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Bus de eventos de dominio sobre un anillo preasignado (estilo Disruptor).
+// Las cuentas publican un evento por cada depósito, retiro, transferencia e interés
+// (y por cada alta o baja de clientes y cuentas)
+// y cada consumidor los procesa en su propio hilo, por lotes y sin bloquear al productor.
+//
+// Funcionamiento:
+// - El anillo tiene un tamaño potencia de dos y todas las ranuras se crean al inicio
+// - Los productores reclaman una secuencia con un contador atómico (varios productores)
+// - Cada ranura se marca como disponible con el número de vuelta del anillo
+// - Un productor no sobrescribe una ranura que el consumidor más lento no ha leído
+// Publicar no crea objetos: sólo se escriben campos de la ranura ya existente.
+public class BusEventos {
+    private static final int TAMANO_POR_DEFECTO = 8192;
+    private static BusEventos instancia;
+
+    private final EventoTransaccion[] anillo;
+    private final int mascara;
+    private final int desplazamientoVuelta;
+    private final AtomicIntegerArray disponibles;
+    private final AtomicLong cursor;
+    private final EstrategiaEspera estrategia;
+    // Arreglo inmutable reemplazado al suscribir; se recorre sin crear iteradores
+    private volatile ProcesadorEventos[] procesadores;
+    // Mínimo de las secuencias de los consumidores, cacheado para no recorrerlos en cada publicación
+    private final AtomicLong minimoConsumidoCache;
+
+    // Constructor que recibe el tamaño del anillo y la estrategia de espera de los consumidores
+    public BusEventos(int tamano, EstrategiaEspera estrategia) {
+        validarTamano(tamano);
+        validarEstrategia(estrategia);
+
+        this.anillo = new EventoTransaccion[tamano];
+        for (int i = 0; i < tamano; i++) {
+            anillo[i] = new EventoTransaccion();
+        }
+        this.mascara = tamano - 1;
+        this.desplazamientoVuelta = Integer.numberOfTrailingZeros(tamano);
+        this.disponibles = new AtomicIntegerArray(tamano);
+        for (int i = 0; i < tamano; i++) {
+            disponibles.set(i, -1);
+        }
+        this.cursor = new AtomicLong(-1);
+        this.estrategia = estrategia;
+        this.procesadores = new ProcesadorEventos[0];
+        this.minimoConsumidoCache = new AtomicLong(-1);
+    }
+
+    // Metodo para obtener la instancia única del bus usado por las cuentas
+    public static synchronized BusEventos getInstance() {
+        if (instancia == null) {
+            instancia = new BusEventos(TAMANO_POR_DEFECTO, new EsperaBloqueante());
+        }
+        return instancia;
+    }
+
+    // Crea la instancia única con un tamaño y estrategia propios.
+    // Debe llamarse al iniciar la aplicación, antes de que cualquier cuenta publique.
+    public static synchronized BusEventos configurarInstancia(int tamano, EstrategiaEspera estrategia) {
+        if (instancia != null) {
+            throw new IllegalStateException("El bus de eventos ya fue inicializado");
+        }
+        instancia = new BusEventos(tamano, estrategia);
+        return instancia;
+    }
+
+    // Registra un consumidor y arranca su hilo. Recibe los eventos publicados desde este momento.
+    public synchronized void suscribir(String nombre, ConsumidorEventos consumidor) {
+        if (nombre == null || nombre.trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre del consumidor no puede estar vacío");
+        }
+        if (consumidor == null) {
+            throw new IllegalArgumentException("El consumidor no puede ser nulo");
+        }
+
+        ProcesadorEventos procesador = new ProcesadorEventos(nombre.trim(), consumidor, cursor.get());
+        ProcesadorEventos[] ampliados = Arrays.copyOf(procesadores, procesadores.length + 1);
+        ampliados[ampliados.length - 1] = procesador;
+        procesadores = ampliados;
+        procesador.iniciar();
+    }
+
+    // Detiene un consumidor por nombre esperando a que termine su lote actual
+    public synchronized boolean desuscribir(String nombre) {
+        ProcesadorEventos[] actuales = procesadores;
+        for (int i = 0; i < actuales.length; i++) {
+            if (actuales[i].nombre.equals(nombre)) {
+                ProcesadorEventos[] restantes = new ProcesadorEventos[actuales.length - 1];
+                System.arraycopy(actuales, 0, restantes, 0, i);
+                System.arraycopy(actuales, i + 1, restantes, i, actuales.length - i - 1);
+                procesadores = restantes;
+                actuales[i].detener();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Detiene todos los consumidores
+    public synchronized void detener() {
+        ProcesadorEventos[] actuales = procesadores;
+        procesadores = new ProcesadorEventos[0];
+        for (ProcesadorEventos procesador : actuales) {
+            procesador.detener();
+        }
+    }
+
+    // Publica un evento. No crea objetos; si el anillo está lleno espera al consumidor más lento,
+    // así que no debe llamarse con bloqueos tomados que un consumidor pueda necesitar
+    // (para eso están reservar y publicarReservado, ver PublicacionesPendientes).
+    // Sin consumidores registrados la publicación no hace nada.
+    public void publicar(String tipo, int handleCuenta, String numeroCuenta, double monto, double saldoResultante) {
+        publicar(tipo, handleCuenta, numeroCuenta, monto, saldoResultante, null, null);
+    }
+
+    // Publica una transacción con la fecha y la clave de idempotencia con que quedó en el historial
+    public void publicar(String tipo, int handleCuenta, String numeroCuenta, double monto, double saldoResultante,
+                         LocalDateTime fechaTransaccion, String claveIdempotencia) {
+        publicarEnAnillo(tipo, handleCuenta, numeroCuenta, monto, saldoResultante, fechaTransaccion,
+                claveIdempotencia, null, null);
+    }
+
+    // Publica un alta o baja de cliente o cuenta (ver los tipos en EventoTransaccion)
+    public void publicarCambio(String tipo, int handleCuenta, String numeroCuenta, String documentoCliente,
+                               String detalle) {
+        publicarEnAnillo(tipo, handleCuenta, numeroCuenta, 0.0, 0.0, null, null, documentoCliente, detalle);
+    }
+
+    // Reserva la secuencia del próximo evento sin esperar nunca; -1 si no hay consumidores.
+    // La ranura reservada debe escribirse después con publicarReservado: hasta entonces
+    // los consumidores no pasan de ella.
+    public long reservar() {
+        if (procesadores.length == 0) {
+            return -1;
+        }
+        return cursor.incrementAndGet();
+    }
+
+    // Escribe el evento en una secuencia reservada, esperando si el anillo está lleno
+    public void publicarReservado(long secuencia, String tipo, int handleCuenta, String numeroCuenta, double monto,
+                                  double saldoResultante, LocalDateTime fechaTransaccion, String claveIdempotencia,
+                                  String documentoCliente, String detalle) {
+        if (secuencia < 0) {
+            return;
+        }
+        esperarEspacio(secuencia);
+
+        int indice = (int) secuencia & mascara;
+        anillo[indice].asignar(secuencia, tipo, handleCuenta, numeroCuenta, monto, saldoResultante,
+                fechaTransaccion, claveIdempotencia, documentoCliente, detalle);
+        disponibles.lazySet(indice, (int) (secuencia >>> desplazamientoVuelta));
+        estrategia.senalizarPublicacion();
+    }
+
+    // Última secuencia reclamada por los productores
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public int getTamano() {
+        return anillo.length;
+    }
+
+    public int getCantidadConsumidores() {
+        return procesadores.length;
+    }
+
+    // Cantidad de eventos en los que el consumidor lanzó una excepción (0 si no existe)
+    public long getErroresConsumidor(String nombre) {
+        ProcesadorEventos procesador = buscarProcesador(nombre);
+        return procesador == null ? 0 : procesador.errores.get();
+    }
+
+    // Última excepción lanzada por el consumidor
+    public Optional<Exception> getUltimoErrorConsumidor(String nombre) {
+        ProcesadorEventos procesador = buscarProcesador(nombre);
+        return procesador == null ? Optional.empty() : Optional.ofNullable(procesador.ultimoError);
+    }
+
+    // Métodos privados
+
+    private void publicarEnAnillo(String tipo, int handleCuenta, String numeroCuenta, double monto,
+                                  double saldoResultante, LocalDateTime fechaTransaccion, String claveIdempotencia,
+                                  String documentoCliente, String detalle) {
+        publicarReservado(reservar(), tipo, handleCuenta, numeroCuenta, monto, saldoResultante, fechaTransaccion,
+                claveIdempotencia, documentoCliente, detalle);
+    }
+
+    private ProcesadorEventos buscarProcesador(String nombre) {
+        for (ProcesadorEventos procesador : procesadores) {
+            if (procesador.nombre.equals(nombre)) {
+                return procesador;
+            }
+        }
+        return null;
+    }
+
+    // Espera hasta que la ranura de la secuencia haya sido liberada por todos los consumidores
+    private void esperarEspacio(long secuencia) {
+        long limite = secuencia - anillo.length;
+        if (limite <= minimoConsumidoCache.get()) {
+            return;
+        }
+
+        long minimo;
+        while (limite > (minimo = minimoConsumido(secuencia))) {
+            LockSupport.parkNanos(1);
+        }
+        minimoConsumidoCache.set(minimo);
+    }
+
+    private long minimoConsumido(long valorPorDefecto) {
+        long minimo = valorPorDefecto;
+        for (ProcesadorEventos procesador : procesadores) {
+            minimo = Math.min(minimo, procesador.secuencia.get());
+        }
+        return minimo;
+    }
+
+    private boolean estaDisponible(long secuencia) {
+        return disponibles.get((int) secuencia & mascara) == (int) (secuencia >>> desplazamientoVuelta);
+    }
+
+    // Mayor secuencia publicada de forma contigua dentro del rango [desde, hasta]
+    private long mayorPublicada(long desde, long hasta) {
+        for (long s = desde; s <= hasta; s++) {
+            if (!estaDisponible(s)) {
+                return s - 1;
+            }
+        }
+        return hasta;
+    }
+
+    private void validarTamano(int tamano) {
+        if (tamano < 2 || Integer.bitCount(tamano) != 1) {
+            throw new IllegalArgumentException("El tamaño del anillo debe ser una potencia de dos");
+        }
+    }
+
+    private void validarEstrategia(EstrategiaEspera estrategia) {
+        if (estrategia == null) {
+            throw new IllegalArgumentException("La estrategia de espera no puede ser nula");
+        }
+    }
+
+    // Hilo que consume eventos para un consumidor registrado
+    private final class ProcesadorEventos implements Runnable {
+        private final String nombre;
+        private final ConsumidorEventos consumidor;
+        private final AtomicLong secuencia;
+        private final AtomicLong errores;
+        private volatile Exception ultimoError;
+        private final Thread hilo;
+        private final BooleanSupplier sigueActivo = () -> this.activo;
+        private volatile boolean activo;
+
+        private ProcesadorEventos(String nombre, ConsumidorEventos consumidor, long inicial) {
+            this.nombre = nombre;
+            this.consumidor = consumidor;
+            this.secuencia = new AtomicLong(inicial);
+            this.errores = new AtomicLong();
+            this.hilo = new Thread(this, "bus-eventos-" + nombre);
+            this.hilo.setDaemon(true);
+        }
+
+        private void iniciar() {
+            activo = true;
+            hilo.start();
+        }
+
+        private void detener() {
+            activo = false;
+            estrategia.senalizarPublicacion();
+            hilo.interrupt();
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // El evento se da por procesado: un error en un consumidor no detiene a los demás
+        private void registrarError(EventoTransaccion evento, long secuenciaEvento, Exception error) {
+            errores.incrementAndGet();
+            ultimoError = error;
+            try {
+                consumidor.alFallar(evento, secuenciaEvento, error);
+            } catch (RuntimeException e) {
+                ultimoError = e;
+            }
+        }
+
+        @Override
+        public void run() {
+            long siguiente = secuencia.get() + 1;
+            while (activo) {
+                try {
+                    long reclamado = estrategia.esperarPor(siguiente, cursor, sigueActivo);
+                    if (reclamado < siguiente) {
+                        continue;
+                    }
+
+                    long disponible = mayorPublicada(siguiente, reclamado);
+                    if (disponible < siguiente) {
+                        // Un productor reservó la ranura pero aún no termina de escribirla
+                        // (puede estar soltando los bloqueos de su operación): se cede el procesador
+                        Thread.yield();
+                        continue;
+                    }
+
+                    // Procesa el lote completo y libera las ranuras de una sola vez
+                    while (siguiente <= disponible) {
+                        EventoTransaccion evento = anillo[(int) siguiente & mascara];
+                        try {
+                            consumidor.alRecibir(evento, siguiente, siguiente == disponible);
+                        } catch (Exception e) {
+                            registrarError(evento, siguiente, e);
+                        }
+                        siguiente++;
+                    }
+                    secuencia.set(disponible);
+                } catch (InterruptedException e) {
+                    if (!activo) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
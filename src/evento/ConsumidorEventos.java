@@ -0,0 +1,14 @@
+package evento;
+
+// Consumidor de eventos del bus. Cada consumidor corre en su propio hilo
+// y recibe los eventos en lotes: finDeLote indica el último evento disponible
+// en ese momento, útil para hacer flush de buffers o confirmar trabajo acumulado.
+@FunctionalInterface
+public interface ConsumidorEventos {
+    void alRecibir(EventoTransaccion evento, long secuencia, boolean finDeLote) throws Exception;
+
+    // Llamado cuando alRecibir lanza una excepción. El evento se da por procesado y el consumidor sigue;
+    // el bus cuenta los errores (ver BusEventos.getErroresConsumidor).
+    default void alFallar(EventoTransaccion evento, long secuencia, Exception error) {
+    }
+}
@@ -0,0 +1,54 @@
+package evento;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+// Estrategia de espera bloqueante: el consumidor duerme en una condición
+// hasta que un productor publica. Es la estrategia por defecto del bus.
+public class EsperaBloqueante implements EstrategiaEspera {
+    // Tope de espera para revisar periódicamente si el consumidor debe detenerse
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ReentrantLock candado = new ReentrantLock();
+    private final Condition publicado = candado.newCondition();
+    private volatile boolean hayEsperando;
+
+    @Override
+    public long esperarPor(long secuencia, AtomicLong cursor, BooleanSupplier activo) throws InterruptedException {
+        long disponible = cursor.get();
+        if (disponible >= secuencia) {
+            return disponible;
+        }
+
+        candado.lock();
+        try {
+            // Se marca la espera antes de releer el cursor para no perder una señal
+            hayEsperando = true;
+            while ((disponible = cursor.get()) < secuencia && activo.getAsBoolean()) {
+                publicado.awaitNanos(ESPERA_MAXIMA_NANOS);
+                hayEsperando = true;
+            }
+        } finally {
+            candado.unlock();
+        }
+        return disponible;
+    }
+
+    @Override
+    public void senalizarPublicacion() {
+        // Evita tomar el candado en cada publicación si nadie está dormido
+        if (!hayEsperando) {
+            return;
+        }
+        candado.lock();
+        try {
+            hayEsperando = false;
+            publicado.signalAll();
+        } finally {
+            candado.unlock();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package evento;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+// Estrategia de espera que gira unas cuantas veces y luego cede el procesador.
+// Buen equilibrio entre latencia y consumo de CPU.
+public class EsperaCediendo implements EstrategiaEspera {
+    private static final int GIROS_ANTES_DE_CEDER = 100;
+
+    @Override
+    public long esperarPor(long secuencia, AtomicLong cursor, BooleanSupplier activo) {
+        int giros = GIROS_ANTES_DE_CEDER;
+        long disponible;
+        while ((disponible = cursor.get()) < secuencia && activo.getAsBoolean()) {
+            if (giros > 0) {
+                giros--;
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return disponible;
+    }
+
+    @Override
+    public void senalizarPublicacion() {
+        // No hay hilos dormidos que despertar
+    }
+}
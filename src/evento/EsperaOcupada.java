@@ -0,0 +1,23 @@
+package evento;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+// Estrategia de espera activa: revisa el cursor en un ciclo continuo.
+// Recomendada sólo cuando hay núcleos dedicados a los consumidores.
+public class EsperaOcupada implements EstrategiaEspera {
+
+    @Override
+    public long esperarPor(long secuencia, AtomicLong cursor, BooleanSupplier activo) {
+        long disponible;
+        while ((disponible = cursor.get()) < secuencia && activo.getAsBoolean()) {
+            Thread.onSpinWait();
+        }
+        return disponible;
+    }
+
+    @Override
+    public void senalizarPublicacion() {
+        // No hay hilos dormidos que despertar
+    }
+}
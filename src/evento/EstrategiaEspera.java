@@ -0,0 +1,19 @@
+package evento;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+// Define cómo espera un consumidor cuando todavía no hay eventos publicados.
+// Las estrategias cambian latencia por consumo de CPU:
+// - EsperaOcupada: menor latencia, ocupa un núcleo completo
+// - EsperaCediendo: cede el procesador entre intentos
+// - EsperaBloqueante: duerme hasta que un productor avisa (menor consumo de CPU)
+public interface EstrategiaEspera {
+
+    // Espera hasta que el cursor alcance la secuencia solicitada o el consumidor se detenga.
+    // Devuelve el valor del cursor observado, que puede ser menor si se pidió detener.
+    long esperarPor(long secuencia, AtomicLong cursor, BooleanSupplier activo) throws InterruptedException;
+
+    // Avisa a los consumidores dormidos que se publicó un evento
+    void senalizarPublicacion();
+}
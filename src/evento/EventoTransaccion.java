@@ -0,0 +1,107 @@
+package evento;
+
+import java.time.LocalDateTime;
+
+// Ranura preasignada del bus de eventos.
+// El bus crea todas las instancias al construirse y las reutiliza en cada vuelta del anillo,
+// por eso los campos son mutables y sólo el bus los escribe.
+// Los consumidores deben copiar los datos que necesiten conservar más allá de la llamada.
+//
+// Además de los movimientos de dinero, el bus lleva los cambios de estructura (alta y baja de clientes
+// y cuentas, y el ciclo de vida de las retenciones) para que un consumidor pueda reconstruir el estado
+// completo en el mismo orden (ver replicacion).
+public final class EventoTransaccion {
+    // Cambios de estructura: no son transacciones y no mueven saldo
+    public static final String CLIENTE_REGISTRADO = "CLIENTE_REGISTRADO";
+    public static final String CLIENTE_ELIMINADO = "CLIENTE_ELIMINADO";
+    public static final String CUENTA_ABIERTA = "CUENTA_ABIERTA";
+    public static final String CUENTA_ASIGNADA = "CUENTA_ASIGNADA";
+    public static final String CUENTA_CERRADA = "CUENTA_CERRADA";
+    // Retenciones: getDetalle es el id de la retención y, al crearla, también su vencimiento ("id|vencimiento").
+    // Al capturarla, getMonto es lo cobrado; el cobro llega después como un RETIRO.
+    public static final String RETENCION_CREADA = "RETENCION_CREADA";
+    public static final String RETENCION_CAPTURADA = "RETENCION_CAPTURADA";
+    public static final String RETENCION_LIBERADA = "RETENCION_LIBERADA";
+    public static final String RETENCION_VENCIDA = "RETENCION_VENCIDA";
+
+    private long secuencia;
+    private String tipo;
+    private int handleCuenta;
+    private String numeroCuenta;
+    private double monto;
+    private double saldoResultante;
+    private long marcaTiempoNanos;
+    private long fechaEpochMilis;
+    private LocalDateTime fechaTransaccion;
+    private String claveIdempotencia;
+    private String documentoCliente;
+    private String detalle;
+
+    EventoTransaccion() {
+    }
+
+    // Llena la ranura con los datos de la operación publicada
+    void asignar(long secuencia, String tipo, int handleCuenta, String numeroCuenta, double monto,
+                 double saldoResultante, LocalDateTime fechaTransaccion, String claveIdempotencia,
+                 String documentoCliente, String detalle) {
+        this.secuencia = secuencia;
+        this.tipo = tipo;
+        this.handleCuenta = handleCuenta;
+        this.numeroCuenta = numeroCuenta;
+        this.monto = monto;
+        this.saldoResultante = saldoResultante;
+        this.marcaTiempoNanos = System.nanoTime();
+        this.fechaEpochMilis = System.currentTimeMillis();
+        this.fechaTransaccion = fechaTransaccion;
+        this.claveIdempotencia = claveIdempotencia;
+        this.documentoCliente = documentoCliente;
+        this.detalle = detalle;
+    }
+
+    // Indica si el evento es un alta o baja de cliente, cuenta o retención en lugar de un movimiento de dinero
+    public boolean esCambioEstructural() {
+        return switch (tipo) {
+            case CLIENTE_REGISTRADO, CLIENTE_ELIMINADO, CUENTA_ABIERTA, CUENTA_ASIGNADA, CUENTA_CERRADA -> true;
+            default -> esRetencion(tipo);
+        };
+    }
+
+    // Indica si el tipo corresponde al ciclo de vida de una retención (no mueve saldo)
+    public static boolean esRetencion(String tipo) {
+        return switch (tipo) {
+            case RETENCION_CREADA, RETENCION_CAPTURADA, RETENCION_LIBERADA, RETENCION_VENCIDA -> true;
+            default -> false;
+        };
+    }
+
+    // Indica si el movimiento es parte de una transferencia: su retiro, su depósito o la propia
+    // TRANSFERENCIA_ENVIADA. En ese caso getDetalle es el número de la cuenta de la otra parte.
+    public boolean esTramoTransferencia() {
+        return detalle != null && !esCambioEstructural();
+    }
+
+    // Getters
+    public long getSecuencia() { return secuencia; }
+    public String getTipo() { return tipo; }
+    // Identificador interno compacto de la cuenta (ver DirectorioCuentas)
+    public int getHandleCuenta() { return handleCuenta; }
+    public String getNumeroCuenta() { return numeroCuenta; }
+    public double getMonto() { return monto; }
+    public double getSaldoResultante() { return saldoResultante; }
+    public long getMarcaTiempoNanos() { return marcaTiempoNanos; }
+    public long getFechaEpochMilis() { return fechaEpochMilis; }
+    // Fecha registrada en la transacción del historial; null en los cambios de estructura
+    public LocalDateTime getFechaTransaccion() { return fechaTransaccion; }
+    public String getClaveIdempotencia() { return claveIdempotencia; }
+    // Documento del cliente en los cambios de estructura de clientes y de asignación de cuentas
+    public String getDocumentoCliente() { return documentoCliente; }
+    // Nombre del cliente registrado, tipo de la cuenta abierta, retención afectada o, en una transferencia,
+    // la otra cuenta
+    public String getDetalle() { return detalle; }
+
+    @Override
+    public String toString() {
+        return String.format("Evento[#%d %s %s - $%.2f - Saldo: $%.2f]",
+                secuencia, tipo, numeroCuenta, monto, saldoResultante);
+    }
+}
@@ -0,0 +1,99 @@
+package evento;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Publicaciones anotadas por un hilo mientras tiene tomados los bloqueos de una operación.
+//
+// anotar() reserva la secuencia en el bus en ese momento, así el orden de los eventos es el orden
+// en que se aplicaron las operaciones. publicar() escribe los eventos en sus ranuras y es la única parte
+// que puede esperar a un consumidor lento; se llama después de soltar los bloqueos, de modo que
+// un consumidor que toque cuentas o clientes no puede trabar a quien publica.
+//
+// Quien llama a anotar() debe llamar a publicar() en un finally: una secuencia reservada y nunca
+// escrita detendría a todos los consumidores.
+public final class PublicacionesPendientes {
+    private static final ThreadLocal<PublicacionesPendientes> DEL_HILO =
+            ThreadLocal.withInitial(PublicacionesPendientes::new);
+
+    // Arreglos paralelos reutilizados: anotar no crea objetos una vez que crecieron
+    private BusEventos[] buses;
+    private long[] secuencias;
+    private String[] tipos;
+    private int[] handles;
+    private String[] numeros;
+    private double[] montos;
+    private double[] saldos;
+    private LocalDateTime[] fechas;
+    private String[] claves;
+    private String[] documentos;
+    private String[] detalles;
+    private int cantidad;
+
+    private PublicacionesPendientes() {
+        redimensionar(4);
+    }
+
+    // Reserva la secuencia del evento y guarda sus datos para publicarlo al soltar los bloqueos
+    public static void anotar(BusEventos bus, String tipo, int handleCuenta, String numeroCuenta, double monto,
+                              double saldoResultante, LocalDateTime fechaTransaccion, String claveIdempotencia,
+                              String documentoCliente, String detalle) {
+        long secuencia = bus.reservar();
+        if (secuencia < 0) {
+            return;
+        }
+        PublicacionesPendientes pendientes = DEL_HILO.get();
+        int i = pendientes.cantidad;
+        if (i == pendientes.secuencias.length) {
+            pendientes.redimensionar(i * 2);
+        }
+        pendientes.buses[i] = bus;
+        pendientes.secuencias[i] = secuencia;
+        pendientes.tipos[i] = tipo;
+        pendientes.handles[i] = handleCuenta;
+        pendientes.numeros[i] = numeroCuenta;
+        pendientes.montos[i] = monto;
+        pendientes.saldos[i] = saldoResultante;
+        pendientes.fechas[i] = fechaTransaccion;
+        pendientes.claves[i] = claveIdempotencia;
+        pendientes.documentos[i] = documentoCliente;
+        pendientes.detalles[i] = detalle;
+        pendientes.cantidad++;
+    }
+
+    // Anota un alta o baja de cliente o cuenta (ver los tipos en EventoTransaccion)
+    public static void anotarCambio(BusEventos bus, String tipo, int handleCuenta, String numeroCuenta,
+                                    String documentoCliente, String detalle) {
+        anotar(bus, tipo, handleCuenta, numeroCuenta, 0.0, 0.0, null, null, documentoCliente, detalle);
+    }
+
+    // Publica en orden lo anotado por este hilo
+    public static void publicar() {
+        PublicacionesPendientes pendientes = DEL_HILO.get();
+        int cantidad = pendientes.cantidad;
+        pendientes.cantidad = 0;
+        for (int i = 0; i < cantidad; i++) {
+            pendientes.buses[i].publicarReservado(pendientes.secuencias[i], pendientes.tipos[i],
+                    pendientes.handles[i], pendientes.numeros[i], pendientes.montos[i], pendientes.saldos[i],
+                    pendientes.fechas[i], pendientes.claves[i], pendientes.documentos[i], pendientes.detalles[i]);
+            pendientes.buses[i] = null;
+            pendientes.fechas[i] = null;
+        }
+    }
+
+    // Métodos privados
+
+    private void redimensionar(int capacidad) {
+        buses = buses == null ? new BusEventos[capacidad] : Arrays.copyOf(buses, capacidad);
+        secuencias = secuencias == null ? new long[capacidad] : Arrays.copyOf(secuencias, capacidad);
+        tipos = tipos == null ? new String[capacidad] : Arrays.copyOf(tipos, capacidad);
+        handles = handles == null ? new int[capacidad] : Arrays.copyOf(handles, capacidad);
+        numeros = numeros == null ? new String[capacidad] : Arrays.copyOf(numeros, capacidad);
+        montos = montos == null ? new double[capacidad] : Arrays.copyOf(montos, capacidad);
+        saldos = saldos == null ? new double[capacidad] : Arrays.copyOf(saldos, capacidad);
+        fechas = fechas == null ? new LocalDateTime[capacidad] : Arrays.copyOf(fechas, capacidad);
+        claves = claves == null ? new String[capacidad] : Arrays.copyOf(claves, capacidad);
+        documentos = documentos == null ? new String[capacidad] : Arrays.copyOf(documentos, capacidad);
+        detalles = detalles == null ? new String[capacidad] : Arrays.copyOf(detalles, capacidad);
+    }
+}
@@ -0,0 +1,324 @@
+package exportacion;
+
+import exportacion.FormatoColumnar.Codificacion;
+import exportacion.FormatoColumnar.Columna;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.Transaccion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Exporta clientes, cuentas y transacciones a un archivo binario columnar (ver FormatoColumnar).
+//
+// Los clientes se dividen en particiones que se procesan en paralelo: cada hilo arma las columnas
+// de su partición, las codifica y comprime, reserva su tramo del archivo con un contador atómico
+// y lo escribe con escrituras posicionales sobre el FileChannel a través de un buffer directo grande.
+// Nunca se arma el archivo completo en memoria: sólo una partición por hilo.
+//
+// Cada cuenta se lee con su bloqueo tomado, de modo que su saldo exportado coincide
+// con el historial exportado.
+public class ExportadorColumnar {
+    private static final int CLIENTES_POR_PARTICION_POR_DEFECTO = 10_000;
+    private static final int TAMANO_BUFFER_DIRECTO = 8 * 1024 * 1024;
+
+    private final int clientesPorParticion;
+    private final int hilos;
+    private final ThreadLocal<ByteBuffer> buffersDirectos;
+
+    // Constructor con particiones de 10.000 clientes y un hilo por núcleo
+    public ExportadorColumnar() {
+        this(CLIENTES_POR_PARTICION_POR_DEFECTO, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ExportadorColumnar(int clientesPorParticion, int hilos) {
+        if (clientesPorParticion <= 0 || hilos <= 0) {
+            throw new IllegalArgumentException("El tamaño de partición y la cantidad de hilos deben ser positivos");
+        }
+        this.clientesPorParticion = clientesPorParticion;
+        this.hilos = hilos;
+        this.buffersDirectos = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(TAMANO_BUFFER_DIRECTO));
+    }
+
+    // Exporta los clientes al archivo, reemplazándolo si existe.
+    // Las particiones se arman por índices sobre una copia fija de la lista, así una vista viva
+    // que cambia durante la exportación no puede desplazar, repetir ni omitir clientes.
+    public Resumen exportar(List<Cliente> clientes, Path archivo) throws IOException {
+        if (clientes == null) {
+            throw new IllegalArgumentException("La lista de clientes no puede ser nula");
+        }
+        if (archivo == null) {
+            throw new IllegalArgumentException("El archivo de destino no puede ser nulo");
+        }
+        clientes = List.copyOf(clientes);
+
+        long inicio = System.nanoTime();
+        int particiones = (clientes.size() + clientesPorParticion - 1) / clientesPorParticion;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+
+        try (FileChannel canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escribirCompleto(canal, ByteBuffer.wrap(FormatoColumnar.MAGIA), 0);
+            AtomicLong posicion = new AtomicLong(FormatoColumnar.MAGIA.length);
+
+            List<Future<PieParticion>> pendientes = new ArrayList<>(particiones);
+            for (int p = 0; p < particiones; p++) {
+                List<Cliente> tramo = clientes.subList(p * clientesPorParticion,
+                        Math.min(clientes.size(), (p + 1) * clientesPorParticion));
+                pendientes.add(ejecutor.submit(() -> exportarParticion(tramo, canal, posicion)));
+            }
+
+            List<PieParticion> pies = new ArrayList<>(particiones);
+            for (Future<PieParticion> pendiente : pendientes) {
+                pies.add(esperar(pendiente));
+            }
+
+            long posicionPie = posicion.get();
+            ByteBuffer pie = ByteBuffer.allocate(4 + pies.size() * (8 + 8 + 4 + 4 + 4) + 8 + FormatoColumnar.MAGIA.length);
+            pie.putInt(pies.size());
+            for (PieParticion particion : pies) {
+                pie.putLong(particion.posicion)
+                        .putLong(particion.longitud)
+                        .putInt(particion.clientes)
+                        .putInt(particion.cuentas)
+                        .putInt(particion.transacciones);
+            }
+            pie.putLong(posicionPie).put(FormatoColumnar.MAGIA).flip();
+            escribirCompleto(canal, pie, posicionPie);
+            canal.force(true);
+
+            Resumen resumen = new Resumen(particiones, System.nanoTime() - inicio, canal.size());
+            for (PieParticion particion : pies) {
+                resumen.clientes += particion.clientes;
+                resumen.cuentas += particion.cuentas;
+                resumen.transacciones += particion.transacciones;
+            }
+            return resumen;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    // Métodos privados
+
+    // Arma, codifica y escribe las columnas de una partición
+    private PieParticion exportarParticion(List<Cliente> clientes, FileChannel canal, AtomicLong posicion)
+            throws IOException {
+        List<String> documentos = new ArrayList<>(clientes.size());
+        List<String> nombres = new ArrayList<>(clientes.size());
+        List<String> numeros = new ArrayList<>();
+        List<String> tiposCuenta = new ArrayList<>();
+        ColumnaLargos titulares = new ColumnaLargos();
+        ColumnaDoubles saldos = new ColumnaDoubles();
+        ColumnaLargos cuentasTransaccion = new ColumnaLargos();
+        List<String> tiposTransaccion = new ArrayList<>();
+        ColumnaDoubles montos = new ColumnaDoubles();
+        ColumnaLargos fechas = new ColumnaLargos();
+        List<String> claves = new ArrayList<>();
+
+        for (int c = 0; c < clientes.size(); c++) {
+            Cliente cliente = clientes.get(c);
+            documentos.add(cliente.getDocumento());
+            nombres.add(cliente.getNombre());
+
+            for (Cuenta cuenta : cliente.getCuentas()) {
+                double saldo;
+                List<Transaccion> historial;
+                synchronized (cuenta) {
+                    saldo = cuenta.getSaldo();
+                    historial = cuenta.obtenerHistorial();
+                }
+                int indiceCuenta = numeros.size();
+                numeros.add(cuenta.getNumero());
+                tiposCuenta.add(cuenta.getClass().getSimpleName());
+                titulares.agregar(c);
+                saldos.agregar(saldo);
+
+                for (Transaccion transaccion : historial) {
+                    cuentasTransaccion.agregar(indiceCuenta);
+                    tiposTransaccion.add(transaccion.getTipo());
+                    montos.agregar(transaccion.getMonto());
+                    fechas.agregar(FormatoColumnar.aNanos(transaccion.getFecha()));
+                    String clave = transaccion.getClaveIdempotencia();
+                    claves.add(clave == null ? "" : clave);
+                }
+            }
+        }
+
+        List<byte[]> bloques = new ArrayList<>();
+        agregarColumna(bloques, Columna.CLIENTE_DOCUMENTO, Codificacion.TEXTO_PLANO, documentos.size(),
+                FormatoColumnar.codificarTexto(documentos));
+        agregarColumna(bloques, Columna.CLIENTE_NOMBRE, Codificacion.TEXTO_PLANO, nombres.size(),
+                FormatoColumnar.codificarTexto(nombres));
+        agregarColumna(bloques, Columna.CUENTA_NUMERO, Codificacion.TEXTO_PLANO, numeros.size(),
+                FormatoColumnar.codificarTexto(numeros));
+        agregarColumna(bloques, Columna.CUENTA_TIPO, Codificacion.DICCIONARIO, tiposCuenta.size(),
+                FormatoColumnar.codificarDiccionario(tiposCuenta));
+        agregarColumna(bloques, Columna.CUENTA_TITULAR, Codificacion.ENTERO_DELTA, titulares.cantidad,
+                FormatoColumnar.codificarEnteroDelta(titulares.valores, titulares.cantidad));
+        agregarColumna(bloques, Columna.CUENTA_SALDO, Codificacion.DOUBLE_CRUDO, saldos.cantidad,
+                FormatoColumnar.codificarDouble(saldos.valores, saldos.cantidad));
+        agregarColumna(bloques, Columna.TRANSACCION_CUENTA, Codificacion.ENTERO_DELTA, cuentasTransaccion.cantidad,
+                FormatoColumnar.codificarEnteroDelta(cuentasTransaccion.valores, cuentasTransaccion.cantidad));
+        agregarColumna(bloques, Columna.TRANSACCION_TIPO, Codificacion.DICCIONARIO, tiposTransaccion.size(),
+                FormatoColumnar.codificarDiccionario(tiposTransaccion));
+        agregarColumna(bloques, Columna.TRANSACCION_MONTO, Codificacion.MONTO_CENTAVOS, montos.cantidad,
+                FormatoColumnar.codificarMontos(montos.valores, montos.cantidad));
+        agregarColumna(bloques, Columna.TRANSACCION_FECHA, Codificacion.ENTERO_DELTA, fechas.cantidad,
+                FormatoColumnar.codificarEnteroDelta(fechas.valores, fechas.cantidad));
+        agregarColumna(bloques, Columna.TRANSACCION_CLAVE, Codificacion.TEXTO_PLANO, claves.size(),
+                FormatoColumnar.codificarTexto(claves));
+
+        long longitud = 0;
+        for (byte[] bloque : bloques) {
+            longitud += bloque.length;
+        }
+        long inicio = posicion.getAndAdd(longitud);
+
+        // Copia los bloques al buffer directo del hilo y lo vacía al canal cada vez que se llena
+        ByteBuffer buffer = buffersDirectos.get();
+        buffer.clear();
+        long escrito = inicio;
+        for (byte[] bloque : bloques) {
+            int desplazamiento = 0;
+            while (desplazamiento < bloque.length) {
+                int porCopiar = Math.min(buffer.remaining(), bloque.length - desplazamiento);
+                buffer.put(bloque, desplazamiento, porCopiar);
+                desplazamiento += porCopiar;
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    escrito += escribirCompleto(canal, buffer, escrito);
+                    buffer.clear();
+                }
+            }
+        }
+        buffer.flip();
+        escribirCompleto(canal, buffer, escrito);
+
+        return new PieParticion(inicio, longitud, documentos.size(), numeros.size(), montos.cantidad);
+    }
+
+    // Comprime la columna y le antepone su encabezado
+    private static void agregarColumna(List<byte[]> bloques, Columna columna, Codificacion codificacion,
+                                       int filas, byte[] datos) {
+        byte[] comprimido = FormatoColumnar.comprimir(datos);
+        ByteBuffer bloque = ByteBuffer.allocate(FormatoColumnar.TAMANO_ENCABEZADO_COLUMNA + comprimido.length);
+        bloque.put((byte) columna.ordinal())
+                .put((byte) codificacion.ordinal())
+                .putInt(filas)
+                .putInt(datos.length)
+                .putInt(comprimido.length)
+                .put(comprimido);
+        bloques.add(bloque.array());
+    }
+
+    private static int escribirCompleto(FileChannel canal, ByteBuffer buffer, long posicion) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            total += canal.write(buffer, posicion + total);
+        }
+        return total;
+    }
+
+    private static PieParticion esperar(Future<PieParticion> pendiente) throws IOException {
+        try {
+            return pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportación interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Error al exportar una partición", e.getCause());
+        }
+    }
+
+    // Datos de una partición que se guardan en el pie del archivo
+    private static final class PieParticion {
+        private final long posicion;
+        private final long longitud;
+        private final int clientes;
+        private final int cuentas;
+        private final int transacciones;
+
+        private PieParticion(long posicion, long longitud, int clientes, int cuentas, int transacciones) {
+            this.posicion = posicion;
+            this.longitud = longitud;
+            this.clientes = clientes;
+            this.cuentas = cuentas;
+            this.transacciones = transacciones;
+        }
+    }
+
+    // Arreglos primitivos que crecen sin envolver cada valor en un objeto
+    private static final class ColumnaLargos {
+        private long[] valores = new long[64];
+        private int cantidad;
+
+        private void agregar(long valor) {
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = valor;
+        }
+    }
+
+    private static final class ColumnaDoubles {
+        private double[] valores = new double[64];
+        private int cantidad;
+
+        private void agregar(double valor) {
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = valor;
+        }
+    }
+
+    // Resultado de una exportación
+    public static final class Resumen {
+        private final int particiones;
+        private final long duracionNanos;
+        private final long bytes;
+        private long clientes;
+        private long cuentas;
+        private long transacciones;
+
+        private Resumen(int particiones, long duracionNanos, long bytes) {
+            this.particiones = particiones;
+            this.duracionNanos = duracionNanos;
+            this.bytes = bytes;
+        }
+
+        // Getters
+        public int getParticiones() { return particiones; }
+        public long getDuracionNanos() { return duracionNanos; }
+        public long getBytes() { return bytes; }
+        public long getClientes() { return clientes; }
+        public long getCuentas() { return cuentas; }
+        public long getTransacciones() { return transacciones; }
+
+        @Override
+        public String toString() {
+            return String.format("Exportación[%d particiones - %d clientes - %d cuentas - %d transacciones - "
+                            + "%.1f MB en %.2f s]",
+                    particiones, clientes, cuentas, transacciones, bytes / 1e6, duracionNanos / 1e9);
+        }
+    }
+}
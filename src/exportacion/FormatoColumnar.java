@@ -0,0 +1,269 @@
+package exportacion;
+
+import modelo.Compresion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+// Formato binario columnar del volcado nocturno y sus codificaciones por columna.
+//
+// Archivo:
+//   [magia "CDCOL001"]
+//   [bloque de partición]*          (en cualquier orden; se escriben en paralelo)
+//   [pie] [posición del pie: long] [magia]
+//
+// Bloque de partición: una sucesión de columnas, cada una con
+//   [columna: byte] [codificación: byte] [filas: int] [bytes sin comprimir: int] [bytes comprimidos: int] [datos]
+// Los datos de cada columna se comprimen con Deflate por separado.
+//
+// Pie: cantidad de particiones y, por partición en orden, posición, longitud y filas de cada tabla.
+final class FormatoColumnar {
+    static final byte[] MAGIA = "CDCOL001".getBytes(StandardCharsets.US_ASCII);
+    static final int TAMANO_ENCABEZADO_COLUMNA = 1 + 1 + 4 + 4 + 4;
+
+    // Columnas de las tres tablas del volcado
+    enum Columna {
+        CLIENTE_DOCUMENTO, CLIENTE_NOMBRE,
+        CUENTA_NUMERO, CUENTA_TIPO, CUENTA_TITULAR, CUENTA_SALDO,
+        TRANSACCION_CUENTA, TRANSACCION_TIPO, TRANSACCION_MONTO, TRANSACCION_FECHA,
+        TRANSACCION_CLAVE   // clave de idempotencia; cadena vacía si la transacción no tiene
+    }
+
+    // Codificaciones disponibles por columna
+    enum Codificacion {
+        TEXTO_PLANO,      // longitud variable + UTF-8
+        DICCIONARIO,      // tabla de valores distintos + código variable por fila
+        ENTERO_DELTA,     // diferencia con la fila anterior en zigzag de longitud variable
+        DOUBLE_CRUDO,     // 8 bytes por valor
+        MONTO_CENTAVOS    // delta en centavos si es exacto; si no, escape + double completo
+    }
+
+    private FormatoColumnar() {
+    }
+
+    // Codificadores: cada uno produce los bytes sin comprimir de una columna
+
+    static byte[] codificarTexto(List<String> valores) {
+        Salida salida = new Salida(valores.size() * 16);
+        for (String valor : valores) {
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            salida.varint(bytes.length);
+            salida.bytes(bytes);
+        }
+        return salida.toByteArray();
+    }
+
+    static byte[] codificarDiccionario(List<String> valores) {
+        Map<String, Integer> codigos = new HashMap<>();
+        List<String> diccionario = new ArrayList<>();
+        Salida filas = new Salida(valores.size());
+        for (String valor : valores) {
+            Integer codigo = codigos.get(valor);
+            if (codigo == null) {
+                codigo = diccionario.size();
+                codigos.put(valor, codigo);
+                diccionario.add(valor);
+            }
+            filas.varint(codigo);
+        }
+
+        Salida salida = new Salida(filas.tamano() + diccionario.size() * 16);
+        salida.varint(diccionario.size());
+        for (String valor : diccionario) {
+            byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+            salida.varint(bytes.length);
+            salida.bytes(bytes);
+        }
+        salida.bytes(filas.toByteArray());
+        return salida.toByteArray();
+    }
+
+    static byte[] codificarEnteroDelta(long[] valores, int cantidad) {
+        Salida salida = new Salida(cantidad * 2);
+        long anterior = 0;
+        for (int i = 0; i < cantidad; i++) {
+            salida.varint(zigzag(valores[i] - anterior));
+            anterior = valores[i];
+        }
+        return salida.toByteArray();
+    }
+
+    static byte[] codificarDouble(double[] valores, int cantidad) {
+        ByteBuffer buffer = ByteBuffer.allocate(cantidad * Double.BYTES);
+        for (int i = 0; i < cantidad; i++) {
+            buffer.putDouble(valores[i]);
+        }
+        return buffer.array();
+    }
+
+    static byte[] codificarMontos(double[] valores, int cantidad) {
+        Salida salida = new Salida(cantidad * 3);
+        long centavosAnterior = 0;
+        for (int i = 0; i < cantidad; i++) {
+            long centavos = Math.round(valores[i] * 100);
+            if (centavos / 100.0 == valores[i]) {
+                salida.varint(zigzag(centavos - centavosAnterior) << 1);
+                centavosAnterior = centavos;
+            } else {
+                salida.varint(1);
+                salida.largo(Double.doubleToLongBits(valores[i]));
+            }
+        }
+        return salida.toByteArray();
+    }
+
+    // Decodificadores
+
+    static List<String> decodificarTexto(ByteBuffer entrada, int filas) {
+        List<String> valores = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            valores.add(leerTexto(entrada));
+        }
+        return valores;
+    }
+
+    static List<String> decodificarDiccionario(ByteBuffer entrada, int filas) {
+        int tamano = (int) leerVarint(entrada);
+        String[] diccionario = new String[tamano];
+        for (int i = 0; i < tamano; i++) {
+            diccionario[i] = leerTexto(entrada);
+        }
+        List<String> valores = new ArrayList<>(filas);
+        for (int i = 0; i < filas; i++) {
+            valores.add(diccionario[(int) leerVarint(entrada)]);
+        }
+        return valores;
+    }
+
+    static long[] decodificarEnteroDelta(ByteBuffer entrada, int filas) {
+        long[] valores = new long[filas];
+        long anterior = 0;
+        for (int i = 0; i < filas; i++) {
+            anterior += deszigzag(leerVarint(entrada));
+            valores[i] = anterior;
+        }
+        return valores;
+    }
+
+    static double[] decodificarDouble(ByteBuffer entrada, int filas) {
+        double[] valores = new double[filas];
+        for (int i = 0; i < filas; i++) {
+            valores[i] = entrada.getDouble();
+        }
+        return valores;
+    }
+
+    static double[] decodificarMontos(ByteBuffer entrada, int filas) {
+        double[] valores = new double[filas];
+        long centavos = 0;
+        for (int i = 0; i < filas; i++) {
+            long valor = leerVarint(entrada);
+            if ((valor & 1) != 0) {
+                valores[i] = Double.longBitsToDouble(entrada.getLong());
+            } else {
+                centavos += deszigzag(valor >>> 1);
+                valores[i] = centavos / 100.0;
+            }
+        }
+        return valores;
+    }
+
+    // Compresión por columna
+
+    static byte[] comprimir(byte[] datos) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(datos);
+            deflater.finish();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 2 + 64);
+            byte[] bloque = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                salida.write(bloque, 0, deflater.deflate(bloque));
+            }
+            return salida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static ByteBuffer descomprimir(ByteBuffer comprimido, int longitud) throws IOException {
+        return ByteBuffer.wrap(Compresion.descomprimir(comprimido, longitud));
+    }
+
+    // Fechas como nanosegundos desde la época, sin zona horaria
+
+    static long aNanos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + fecha.getNano();
+    }
+
+    static LocalDateTime deNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    // Métodos privados
+
+    private static String leerTexto(ByteBuffer entrada) {
+        byte[] bytes = new byte[(int) leerVarint(entrada)];
+        entrada.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long leerVarint(ByteBuffer entrada) {
+        long valor = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = entrada.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long deszigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    // Buffer de bytes que crece según se necesite
+    private static final class Salida extends ByteArrayOutputStream {
+        private Salida(int capacidad) {
+            super(Math.max(capacidad, 32));
+        }
+
+        private void varint(long valor) {
+            while ((valor & ~0x7FL) != 0) {
+                write((int) ((valor & 0x7F) | 0x80));
+                valor >>>= 7;
+            }
+            write((int) valor);
+        }
+
+        private void largo(long valor) {
+            for (int i = 7; i >= 0; i--) {
+                write((int) (valor >>> (i * 8)));
+            }
+        }
+
+        private void bytes(byte[] datos) {
+            write(datos, 0, datos.length);
+        }
+
+        private int tamano() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package exportacion;
+
+import exportacion.FormatoColumnar.Columna;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.Transaccion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Lee un volcado escrito por ExportadorColumnar y lo compara con el estado en memoria.
+// Cada partición se mapea en memoria por separado y sus columnas se descomprimen bajo demanda.
+public class LectorColumnar {
+
+    private LectorColumnar() {
+    }
+
+    // Lee el volcado completo
+    public static Volcado leer(Path archivo) throws IOException {
+        if (archivo == null) {
+            throw new IllegalArgumentException("El archivo del volcado no puede ser nulo");
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            int tamanoCierre = Long.BYTES + FormatoColumnar.MAGIA.length;
+            if (tamano < FormatoColumnar.MAGIA.length + 4 + tamanoCierre) {
+                throw new IOException("El archivo no es un volcado columnar: " + archivo);
+            }
+            validarMagia(canal.map(FileChannel.MapMode.READ_ONLY, 0, FormatoColumnar.MAGIA.length), archivo);
+
+            ByteBuffer cierre = canal.map(FileChannel.MapMode.READ_ONLY, tamano - tamanoCierre, tamanoCierre);
+            long posicionPie = cierre.getLong();
+            validarMagia(cierre, archivo);
+
+            ByteBuffer pie = canal.map(FileChannel.MapMode.READ_ONLY, posicionPie, tamano - tamanoCierre - posicionPie);
+            int particiones = pie.getInt();
+            Volcado volcado = new Volcado();
+            for (int p = 0; p < particiones; p++) {
+                long posicion = pie.getLong();
+                long longitud = pie.getLong();
+                pie.getInt();
+                pie.getInt();
+                pie.getInt();
+                leerParticion(canal.map(FileChannel.MapMode.READ_ONLY, posicion, longitud), volcado);
+            }
+            return volcado;
+        }
+    }
+
+    // Compara el volcado con los clientes en memoria y devuelve las diferencias encontradas.
+    // Como las cuentas pueden seguir operando tras exportar, se acepta que el historial actual
+    // tenga transacciones posteriores: lo exportado debe ser un prefijo del historial y el saldo
+    // exportado debe ser la suma del efecto de las transacciones exportadas.
+    // La comparación es por posición, así que se hace sobre una copia fija de la lista.
+    public static List<String> verificar(Volcado volcado, List<Cliente> clientes) {
+        if (volcado == null || clientes == null) {
+            throw new IllegalArgumentException("El volcado y la lista de clientes no pueden ser nulos");
+        }
+        clientes = List.copyOf(clientes);
+        List<String> diferencias = new ArrayList<>();
+        if (volcado.getClientes().size() != clientes.size()) {
+            diferencias.add("Cantidad de clientes: volcado " + volcado.getClientes().size()
+                    + ", memoria " + clientes.size());
+        }
+
+        Map<String, List<FilaTransaccion>> transaccionesPorCuenta = new HashMap<>();
+        for (FilaTransaccion fila : volcado.getTransacciones()) {
+            transaccionesPorCuenta.computeIfAbsent(fila.getNumeroCuenta(), k -> new ArrayList<>()).add(fila);
+        }
+        Map<String, FilaCuenta> cuentasPorNumero = new HashMap<>();
+        for (FilaCuenta fila : volcado.getCuentas()) {
+            cuentasPorNumero.put(fila.getNumero(), fila);
+        }
+
+        for (int i = 0; i < Math.min(clientes.size(), volcado.getClientes().size()); i++) {
+            Cliente cliente = clientes.get(i);
+            FilaCliente fila = volcado.getClientes().get(i);
+            if (!cliente.getDocumento().equals(fila.getDocumento()) || !cliente.getNombre().equals(fila.getNombre())) {
+                diferencias.add("Cliente " + i + ": volcado " + fila.getDocumento() + ", memoria "
+                        + cliente.getDocumento());
+                continue;
+            }
+
+            for (Cuenta cuenta : cliente.getCuentas()) {
+                FilaCuenta filaCuenta = cuentasPorNumero.get(cuenta.getNumero());
+                if (filaCuenta == null) {
+                    diferencias.add("Cuenta " + cuenta.getNumero() + " no está en el volcado");
+                    continue;
+                }
+                if (!filaCuenta.getDocumentoTitular().equals(cliente.getDocumento())
+                        || !filaCuenta.getTipo().equals(cuenta.getClass().getSimpleName())) {
+                    diferencias.add("Cuenta " + cuenta.getNumero() + ": titular o tipo distinto");
+                }
+                verificarHistorial(cuenta, filaCuenta,
+                        transaccionesPorCuenta.getOrDefault(cuenta.getNumero(), List.of()), diferencias);
+            }
+        }
+        return diferencias;
+    }
+
+    // Métodos privados
+
+    private static void verificarHistorial(Cuenta cuenta, FilaCuenta filaCuenta, List<FilaTransaccion> exportadas,
+                                           List<String> diferencias) {
+        List<Transaccion> actuales = cuenta.obtenerHistorial();
+        if (exportadas.size() > actuales.size()) {
+            diferencias.add("Cuenta " + cuenta.getNumero() + ": el volcado tiene más transacciones que la memoria");
+            return;
+        }
+
+        double saldo = 0;
+        for (int t = 0; t < exportadas.size(); t++) {
+            FilaTransaccion exportada = exportadas.get(t);
+            Transaccion actual = actuales.get(t);
+            if (!exportada.getTipo().equals(actual.getTipo()) || exportada.getMonto() != actual.getMonto()
+                    || !exportada.getFecha().equals(actual.getFecha())
+                    || !Objects.equals(exportada.getClaveIdempotencia(), actual.getClaveIdempotencia())) {
+                diferencias.add("Cuenta " + cuenta.getNumero() + ": transacción " + t + " distinta");
+                return;
+            }
+            saldo += actual.getEfectoEnSaldo();
+        }
+        if (Math.abs(saldo - filaCuenta.getSaldo()) > 0.005) {
+            diferencias.add(String.format("Cuenta %s: saldo exportado %.2f no coincide con su historial (%.2f)",
+                    cuenta.getNumero(), filaCuenta.getSaldo(), saldo));
+        }
+    }
+
+    private static void leerParticion(MappedByteBuffer bloque, Volcado volcado) throws IOException {
+        Map<Columna, ByteBuffer> datos = new EnumMap<>(Columna.class);
+        Map<Columna, Integer> filas = new EnumMap<>(Columna.class);
+        while (bloque.hasRemaining()) {
+            Columna columna = Columna.values()[bloque.get()];
+            bloque.get(); // la codificación de cada columna es fija
+            int cantidad = bloque.getInt();
+            int longitud = bloque.getInt();
+            int comprimidos = bloque.getInt();
+            if (comprimidos < 0 || comprimidos > bloque.remaining()) {
+                throw new IOException("Columna " + columna + " truncada en el volcado");
+            }
+            ByteBuffer comprimido = bloque.slice();
+            comprimido.limit(comprimidos);
+            bloque.position(bloque.position() + comprimidos);
+            datos.put(columna, FormatoColumnar.descomprimir(comprimido, longitud));
+            filas.put(columna, cantidad);
+        }
+
+        int clientes = filas.get(Columna.CLIENTE_DOCUMENTO);
+        List<String> documentos = FormatoColumnar.decodificarTexto(datos.get(Columna.CLIENTE_DOCUMENTO), clientes);
+        List<String> nombres = FormatoColumnar.decodificarTexto(datos.get(Columna.CLIENTE_NOMBRE), clientes);
+        for (int i = 0; i < clientes; i++) {
+            volcado.clientes.add(new FilaCliente(documentos.get(i), nombres.get(i)));
+        }
+
+        int cuentas = filas.get(Columna.CUENTA_NUMERO);
+        List<String> numeros = FormatoColumnar.decodificarTexto(datos.get(Columna.CUENTA_NUMERO), cuentas);
+        List<String> tipos = FormatoColumnar.decodificarDiccionario(datos.get(Columna.CUENTA_TIPO), cuentas);
+        long[] titulares = FormatoColumnar.decodificarEnteroDelta(datos.get(Columna.CUENTA_TITULAR), cuentas);
+        double[] saldos = FormatoColumnar.decodificarDouble(datos.get(Columna.CUENTA_SALDO), cuentas);
+        for (int i = 0; i < cuentas; i++) {
+            volcado.cuentas.add(new FilaCuenta(numeros.get(i), tipos.get(i),
+                    documentos.get((int) titulares[i]), saldos[i]));
+        }
+
+        int transacciones = filas.get(Columna.TRANSACCION_CUENTA);
+        long[] cuentasTransaccion = FormatoColumnar.decodificarEnteroDelta(
+                datos.get(Columna.TRANSACCION_CUENTA), transacciones);
+        List<String> tiposTransaccion = FormatoColumnar.decodificarDiccionario(
+                datos.get(Columna.TRANSACCION_TIPO), transacciones);
+        double[] montos = FormatoColumnar.decodificarMontos(datos.get(Columna.TRANSACCION_MONTO), transacciones);
+        long[] fechas = FormatoColumnar.decodificarEnteroDelta(datos.get(Columna.TRANSACCION_FECHA), transacciones);
+        // Los volcados anteriores a las claves de idempotencia no tienen esta columna
+        List<String> claves = datos.containsKey(Columna.TRANSACCION_CLAVE)
+                ? FormatoColumnar.decodificarTexto(datos.get(Columna.TRANSACCION_CLAVE), transacciones)
+                : null;
+        for (int i = 0; i < transacciones; i++) {
+            String clave = claves == null || claves.get(i).isEmpty() ? null : claves.get(i);
+            volcado.transacciones.add(new FilaTransaccion(numeros.get((int) cuentasTransaccion[i]),
+                    tiposTransaccion.get(i), montos[i], FormatoColumnar.deNanos(fechas[i]), clave));
+        }
+    }
+
+    private static void validarMagia(ByteBuffer buffer, Path archivo) throws IOException {
+        byte[] magia = new byte[FormatoColumnar.MAGIA.length];
+        buffer.get(magia);
+        if (!Arrays.equals(magia, FormatoColumnar.MAGIA)) {
+            throw new IOException("El archivo no es un volcado columnar: " + archivo);
+        }
+    }
+
+    // Contenido de un volcado, tabla por tabla
+    public static final class Volcado {
+        private final List<FilaCliente> clientes = new ArrayList<>();
+        private final List<FilaCuenta> cuentas = new ArrayList<>();
+        private final List<FilaTransaccion> transacciones = new ArrayList<>();
+
+        private Volcado() {
+        }
+
+        public List<FilaCliente> getClientes() { return clientes; }
+        public List<FilaCuenta> getCuentas() { return cuentas; }
+        public List<FilaTransaccion> getTransacciones() { return transacciones; }
+    }
+
+    public static final class FilaCliente {
+        private final String documento;
+        private final String nombre;
+
+        private FilaCliente(String documento, String nombre) {
+            this.documento = documento;
+            this.nombre = nombre;
+        }
+
+        public String getDocumento() { return documento; }
+        public String getNombre() { return nombre; }
+    }
+
+    public static final class FilaCuenta {
+        private final String numero;
+        private final String tipo;
+        private final String documentoTitular;
+        private final double saldo;
+
+        private FilaCuenta(String numero, String tipo, String documentoTitular, double saldo) {
+            this.numero = numero;
+            this.tipo = tipo;
+            this.documentoTitular = documentoTitular;
+            this.saldo = saldo;
+        }
+
+        public String getNumero() { return numero; }
+        public String getTipo() { return tipo; }
+        public String getDocumentoTitular() { return documentoTitular; }
+        public double getSaldo() { return saldo; }
+    }
+
+    public static final class FilaTransaccion {
+        private final String numeroCuenta;
+        private final String tipo;
+        private final double monto;
+        private final LocalDateTime fecha;
+        private final String claveIdempotencia;
+
+        private FilaTransaccion(String numeroCuenta, String tipo, double monto, LocalDateTime fecha,
+                                String claveIdempotencia) {
+            this.numeroCuenta = numeroCuenta;
+            this.tipo = tipo;
+            this.monto = monto;
+            this.fecha = fecha;
+            this.claveIdempotencia = claveIdempotencia;
+        }
+
+        public String getNumeroCuenta() { return numeroCuenta; }
+        public String getTipo() { return tipo; }
+        public double getMonto() { return monto; }
+        public LocalDateTime getFecha() { return fecha; }
+        public String getClaveIdempotencia() { return claveIdempotencia; }
+    }
+}
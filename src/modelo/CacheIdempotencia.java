@@ -0,0 +1,126 @@
+package modelo;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Memoria acotada de las operaciones ya aplicadas, por clave de idempotencia.
+// Un cliente que reintenta un depósito o transferencia tras un timeout envía la misma clave
+// y recibe el resultado original en lugar de aplicar la operación otra vez.
+//
+// - Búsqueda y alta en un ConcurrentHashMap: costo constante con millones de claves
+// - Cada clave vence tras la vigencia configurada (24 horas por defecto)
+// - La cantidad de claves está acotada; al superarla se descartan las más antiguas
+// Las claves se encolan en orden de llegada, así que las vencidas y las más antiguas
+// siempre están al frente de la cola y se descartan en tiempo constante amortizado.
+//
+// La clave también queda guardada en la transacción del historial (y en los segmentos archivados).
+// Cuando un reintento no la encuentra aquí, la cuenta la busca en su historial (ver LibroMayor),
+// así que la caché acota memoria y costo pero no la ventana en que se reconoce un reintento.
+public final class CacheIdempotencia {
+    private static final String PROPIEDAD_CAPACIDAD = "cooperativa.idempotencia.capacidad";
+    private static final String PROPIEDAD_VIGENCIA_HORAS = "cooperativa.idempotencia.vigencia.horas";
+    private static final int CAPACIDAD_POR_DEFECTO = 1_000_000;
+    private static final long VIGENCIA_HORAS_POR_DEFECTO = 24;
+    private static CacheIdempotencia instancia;
+
+    private final int capacidad;
+    private final long vigenciaNanos;
+    private final Map<String, Entrada> entradas;
+    private final Queue<Entrada> ordenLlegada;
+    private final AtomicInteger tamano;
+    private final AtomicLong descartadas;
+
+    public CacheIdempotencia(int capacidad, Duration vigencia) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser positiva");
+        }
+        if (vigencia == null || vigencia.isNegative() || vigencia.isZero()) {
+            throw new IllegalArgumentException("La vigencia de las claves debe ser positiva");
+        }
+        this.capacidad = capacidad;
+        this.vigenciaNanos = vigencia.toNanos();
+        this.entradas = new ConcurrentHashMap<>(Math.min(capacidad, 1 << 16));
+        this.ordenLlegada = new ConcurrentLinkedQueue<>();
+        this.tamano = new AtomicInteger();
+        this.descartadas = new AtomicLong();
+    }
+
+    // Metodo para obtener la instancia única usada por las cuentas.
+    // La capacidad y la vigencia se leen de -Dcooperativa.idempotencia.capacidad
+    // y -Dcooperativa.idempotencia.vigencia.horas.
+    public static synchronized CacheIdempotencia getInstance() {
+        if (instancia == null) {
+            int capacidad = Integer.getInteger(PROPIEDAD_CAPACIDAD, CAPACIDAD_POR_DEFECTO);
+            long horas = Long.getLong(PROPIEDAD_VIGENCIA_HORAS, VIGENCIA_HORAS_POR_DEFECTO);
+            instancia = new CacheIdempotencia(capacidad, Duration.ofHours(horas));
+        }
+        return instancia;
+    }
+
+    // Resultado registrado con la clave, o null si no existe o ya venció
+    public ResultadoOperacion buscar(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null || entrada.vencida(System.nanoTime())) {
+            return null;
+        }
+        return entrada.resultado;
+    }
+
+    // Registra el resultado de una operación aplicada y descarta lo vencido o excedente
+    public void registrar(String clave, ResultadoOperacion resultado) {
+        long ahora = System.nanoTime();
+        Entrada entrada = new Entrada(clave, resultado, ahora + vigenciaNanos);
+        if (entradas.put(clave, entrada) == null) {
+            tamano.incrementAndGet();
+        }
+        ordenLlegada.add(entrada);
+        descartar(ahora);
+    }
+
+    public int getTamano() {
+        return tamano.get();
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    // Claves descartadas por vencimiento o por falta de capacidad desde el inicio
+    public long getDescartadas() {
+        return descartadas.get();
+    }
+
+    // Métodos privados
+
+    private void descartar(long ahora) {
+        Entrada primera;
+        while ((primera = ordenLlegada.peek()) != null
+                && (primera.vencida(ahora) || tamano.get() > capacidad)) {
+            if (ordenLlegada.remove(primera) && entradas.remove(primera.clave, primera)) {
+                tamano.decrementAndGet();
+                descartadas.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class Entrada {
+        private final String clave;
+        private final ResultadoOperacion resultado;
+        private final long vencimientoNanos;
+
+        private Entrada(String clave, ResultadoOperacion resultado, long vencimientoNanos) {
+            this.clave = clave;
+            this.resultado = resultado;
+            this.vencimientoNanos = vencimientoNanos;
+        }
+
+        private boolean vencida(long ahora) {
+            return ahora - vencimientoNanos >= 0;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package modelo;
-import java.util.ArrayList;
+import evento.BusEventos;
+import evento.EventoTransaccion;
+import evento.PublicacionesPendientes;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 // Clase que representa un cliente bancario
 // Un cliente puede tener múltiples cuentas
@@ -10,10 +13,16 @@ import java.util.Optional;
 // Proporciona métodos para agregar, eliminar y buscar cuentas
 // También permite calcular el saldo total del cliente sumando todas sus cuentas
 // Incluye validaciones para datos nulos o inválidos
+// Las consultas de cuentas no copian ni bloquean: leen la instantánea publicada de la lista
 public class Cliente {
     private final String nombre;
     private final String documento;
-    private final List<Cuenta> cuentas;
+    private final ListaInstantaneas<Cuenta> cuentas;
+    // Topes de retiros y transferencias sumando todas las cuentas del cliente
+    private final ControlLimites controlLimites;
+    // Sólo un cliente registrado en el gestor publica la asignación de sus cuentas: las de un objeto que
+    // no llegó a registrarse (documento repetido, por ejemplo) no son alcanzables y no deben replicarse
+    private boolean registrado;
 
     // Constructor
     public Cliente(String nombre, String documento) {
@@ -22,42 +31,85 @@ public class Cliente {
 
         this.nombre = nombre.trim();
         this.documento = documento.trim();
-        this.cuentas = new ArrayList<>();
+        this.cuentas = new ListaInstantaneas<>();
+        this.controlLimites = new ControlLimites();
     }
 
     // Métodos
     public void agregarCuenta(Cuenta cuenta) {
-        validarCuentaNoNula(cuenta);
+        try {
+            synchronized (this) {
+                validarCuentaNoNula(cuenta);
+
+                if (!tieneCuenta(cuenta.getNumero())) {
+                    DirectorioCuentas.getInstance().registrar(cuenta, documento);
+                    cuentas.agregar(cuenta);
+                    cuenta.asignarControlTitular(controlLimites);
+                    if (registrado) {
+                        anotarAsignacion(cuenta);
+                    }
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
 
-        if (!tieneCuenta(cuenta.getNumero())) {
-            cuentas.add(cuenta);
+    // La llama el gestor, con su bloqueo tomado, al registrar o dar de baja al cliente.
+    // Al registrarlo anota la asignación de las cuentas que ya tenía, para el finally de quien registra.
+    public synchronized void marcarRegistrado(boolean registrado) {
+        if (registrado && !this.registrado) {
+            cuentas.forEach(this::anotarAsignacion);
         }
+        this.registrado = registrado;
     }
 
     // Elimina una cuenta por su número
     public boolean eliminarCuenta(String numeroCuenta) {
-        validarNumeroCuenta(numeroCuenta);
-        return cuentas.removeIf(cuenta -> cuenta.getNumero().equals(numeroCuenta));
+        try {
+            synchronized (this) {
+                validarNumeroCuenta(numeroCuenta);
+                Optional<Cuenta> cuenta = buscarCuenta(numeroCuenta);
+                if (cuenta.isEmpty()) {
+                    return false;
+                }
+                cuentas.quitar(cuenta.get());
+                cuenta.get().asignarControlTitular(null);
+                DirectorioCuentas.getInstance().liberar(cuenta.get());
+                PublicacionesPendientes.anotarCambio(BusEventos.getInstance(), EventoTransaccion.CUENTA_CERRADA,
+                        cuenta.get().getHandle(), numeroCuenta, documento, null);
+                return true;
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
    // Busca una cuenta por su número y la devuelve envuelta en un Optional
     public Optional<Cuenta> buscarCuenta(String numeroCuenta) {
         validarNumeroCuenta(numeroCuenta);
-        return cuentas.stream()
-                .filter(cuenta -> cuenta.getNumero().equals(numeroCuenta))
-                .findFirst();
+        return Optional.ofNullable(cuentaConNumero(numeroCuenta));
     }
 
     // Verifica si el cliente tiene una cuenta con el número dado
     public boolean tieneCuenta(String numeroCuenta) {
-        return buscarCuenta(numeroCuenta).isPresent();
+        validarNumeroCuenta(numeroCuenta);
+        return cuentaConNumero(numeroCuenta) != null;
     }
 
     // Calcula el saldo total sumando los saldos de todas las cuentas del cliente
     public double calcularSaldoTotal() {
-        return cuentas.stream()
-                .mapToDouble(Cuenta::getSaldo)
-                .sum();
+        List<Cuenta> actuales = cuentas.instantanea();
+        double total = 0.0;
+        for (int i = 0; i < actuales.size(); i++) {
+            total += actuales.get(i).getSaldo();
+        }
+        return total;
+    }
+
+    // Recorre las cuentas del cliente sin crear copias ni iteradores
+    public void forEachCuenta(Consumer<? super Cuenta> accion) {
+        cuentas.forEach(accion);
     }
 
     // Getters
@@ -69,12 +121,28 @@ public class Cliente {
         return documento;
     }
 
+    // Vista no modificable y viva de las cuentas; no copia la lista en cada llamada
     public List<Cuenta> getCuentas() {
-        return new ArrayList<>(cuentas);
+        return cuentas.vista();
     }
 
     public int getCantidadCuentas() {
-        return cuentas.size();
+        return cuentas.tamano();
+    }
+
+    // Cuentas del cliente en este momento, como lista fija (para recorridos internos sin copia)
+    List<Cuenta> getCuentasActuales() {
+        return cuentas.instantanea();
+    }
+
+    private Cuenta cuentaConNumero(String numeroCuenta) {
+        List<Cuenta> actuales = cuentas.instantanea();
+        for (int i = 0; i < actuales.size(); i++) {
+            if (actuales.get(i).getNumero().equals(numeroCuenta)) {
+                return actuales.get(i);
+            }
+        }
+        return null;
     }
 
     // Validaciones
@@ -105,6 +173,11 @@ public class Cliente {
     }
 
     // equals y hashCode basados en documento (identificador único)
+    private void anotarAsignacion(Cuenta cuenta) {
+        PublicacionesPendientes.anotarCambio(BusEventos.getInstance(), EventoTransaccion.CUENTA_ASIGNADA,
+                cuenta.getHandle(), cuenta.getNumero(), documento, null);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -121,6 +194,6 @@ public class Cliente {
     @Override
     public String toString() {
         return String.format("Cliente[%s - %s - Cuentas: %d]",
-                nombre, documento, cuentas.size());
+                nombre, documento, cuentas.tamano());
     }
 }
\ No newline at end of file
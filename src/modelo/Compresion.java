@@ -0,0 +1,43 @@
+package modelo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Descompresión Deflate compartida por los segmentos del historial y el volcado columnar.
+// Ambos formatos guardan la longitud sin comprimir en el encabezado: un bloque que no la completa
+// (archivo truncado o cortado a mitad de escritura) es un error, no un bucle sin fin.
+public final class Compresion {
+
+    private Compresion() {
+    }
+
+    // Descomprime exactamente longitud bytes de lo que queda en comprimido
+    public static byte[] descomprimir(ByteBuffer comprimido, int longitud) throws IOException {
+        if (longitud < 0) {
+            throw new IOException("Longitud sin comprimir inválida: " + longitud);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(comprimido);
+            byte[] datos = new byte[longitud];
+            int leidos = 0;
+            while (leidos < longitud && !inflater.finished()) {
+                int producidos = inflater.inflate(datos, leidos, longitud - leidos);
+                if (producidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Bloque comprimido truncado: " + leidos + " de " + longitud + " bytes");
+                }
+                leidos += producidos;
+            }
+            if (leidos != longitud) {
+                throw new IOException("El bloque comprimido tiene " + leidos + " bytes; se esperaban " + longitud);
+            }
+            return datos;
+        } catch (DataFormatException e) {
+            throw new IOException("Bloque comprimido corrupto", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
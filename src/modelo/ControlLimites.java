@@ -0,0 +1,56 @@
+package modelo;
+
+import servicio.ValidadorTransaccion;
+
+import java.util.concurrent.TimeUnit;
+
+// Contadores deslizantes de retiros y transferencias de una cuenta o de un cliente.
+// Verificar y registrar un monto es atómico y cuesta O(1) sin recorrer el historial.
+final class ControlLimites {
+    private static final long HORA_MILIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DIA_MILIS = TimeUnit.DAYS.toMillis(1);
+
+    private final VentanaDeslizante retirosHora;
+    private final VentanaDeslizante retirosDia;
+    private final VentanaDeslizante transferenciasHora;
+    private final VentanaDeslizante transferenciasDia;
+
+    ControlLimites() {
+        // Cubetas de un minuto para la ventana horaria y de quince minutos para la diaria
+        this.retirosHora = new VentanaDeslizante(HORA_MILIS, 60);
+        this.retirosDia = new VentanaDeslizante(DIA_MILIS, 96);
+        this.transferenciasHora = new VentanaDeslizante(HORA_MILIS, 60);
+        this.transferenciasDia = new VentanaDeslizante(DIA_MILIS, 96);
+    }
+
+    // Verifica los topes y, si se cumplen, registra el monto en ambas ventanas.
+    // Lanza IllegalArgumentException sin registrar nada si algún tope se supera.
+    synchronized void reservar(boolean esTransferencia, double monto, LimitesOperacion limites, long ahoraMilis) {
+        VentanaDeslizante hora = esTransferencia ? transferenciasHora : retirosHora;
+        VentanaDeslizante dia = esTransferencia ? transferenciasDia : retirosDia;
+        String operacion = esTransferencia ? "transferencias" : "retiros";
+
+        ValidadorTransaccion.validarLimite(operacion, "por hora", hora.total(ahoraMilis), monto,
+                esTransferencia ? limites.getTransferenciaPorHora() : limites.getRetiroPorHora());
+        ValidadorTransaccion.validarLimite(operacion, "diario", dia.total(ahoraMilis), monto,
+                esTransferencia ? limites.getTransferenciaPorDia() : limites.getRetiroPorDia());
+
+        hora.sumar(monto, ahoraMilis);
+        dia.sumar(monto, ahoraMilis);
+    }
+
+    // Revierte una reserva hecha en el instante indicado, en las cubetas donde se registró
+    synchronized void liberar(boolean esTransferencia, double monto, long ahoraMilis) {
+        (esTransferencia ? transferenciasHora : retirosHora).restar(monto, ahoraMilis);
+        (esTransferencia ? transferenciasDia : retirosDia).restar(monto, ahoraMilis);
+    }
+
+    // Monto usado en la última hora y en el último día, para consulta
+    synchronized double usadoPorHora(boolean esTransferencia, long ahoraMilis) {
+        return (esTransferencia ? transferenciasHora : retirosHora).total(ahoraMilis);
+    }
+
+    synchronized double usadoPorDia(boolean esTransferencia, long ahoraMilis) {
+        return (esTransferencia ? transferenciasDia : retirosDia).total(ahoraMilis);
+    }
+}
@@ -1,15 +1,50 @@
 package modelo;
+import evento.BusEventos;
+import evento.EventoTransaccion;
+import evento.PublicacionesPendientes;
+import servicio.PoliticaLimites;
 import servicio.ValidadorTransaccion;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 
 // Clase abstracta que representa una cuenta bancaria
+// Las operaciones de dinero se sincronizan sobre la cuenta y cada cambio de saldo
+// se guarda como una nueva versión para permitir lecturas consistentes (ver RegistroVersiones).
 public abstract class Cuenta {
+    private static final RegistroVersiones VERSIONES = RegistroVersiones.getInstance();
+    private static final int LONGITUD_MAXIMA_CLAVE = 128;
+
     protected final String numero;
-    protected double saldo;
-    private final List<Transaccion> transacciones;
+    // Identificador interno compacto asignado por DirectorioCuentas
+    private final int handle;
+    protected volatile double saldo;
+    private final LibroMayor libro;
+    // Serializa el archivado sin bloquear las operaciones mientras se escribe en disco
+    private final Object candadoArchivado;
     protected final LiquidadorInteres liquidador;
+    // Versión más reciente del saldo; enlaza hacia las versiones anteriores aún necesarias
+    private volatile VersionSaldo versionActual;
+    // Topes deslizantes de retiros y transferencias de la cuenta y, si tiene titular, del cliente
+    private final ControlLimites controlLimites;
+    private volatile ControlLimites controlLimitesTitular;
+    // Vista viva del historial; se crea una sola vez
+    private final List<Transaccion> vistaHistorial;
+    // Suma de las retenciones activas; el saldo disponible es saldo - saldoRetenido
+    private volatile double saldoRetenido;
+    // Retenciones activas por id; se crea con la primera retención (la mayoría de las cuentas no tiene)
+    private Map<Long, Retencion> retenciones;
 
     // Constructor
     public Cuenta(String numero, LiquidadorInteres liquidador) {
@@ -18,8 +53,15 @@ public abstract class Cuenta {
 
         this.numero = numero.trim();
         this.saldo = 0.0;
-        this.transacciones = new ArrayList<>();
+        this.libro = new LibroMayor();
+        this.candadoArchivado = new Object();
         this.liquidador = liquidador;
+        this.versionActual = new VersionSaldo(0, 0.0, null);
+        this.controlLimites = new ControlLimites();
+        this.vistaHistorial = new VistaHistorial();
+        this.handle = DirectorioCuentas.getInstance().reservar(this.numero);
+        BusEventos.getInstance().publicarCambio(EventoTransaccion.CUENTA_ABIERTA, handle, this.numero, null,
+                getClass().getSimpleName());
     }
 
     // Metodo abstracto para aplicar intereses, implementado en subclases
@@ -27,38 +69,366 @@ public abstract class Cuenta {
 
     // Métodos públicos
     public void depositar(double monto) {
-        ValidadorTransaccion.validarDeposito(monto);
-        this.saldo += monto;
-        registrarTransaccion("DEPÓSITO", monto);
+        depositar(monto, null);
+    }
+
+    // Deposita con una clave de idempotencia opcional (null si no se usa).
+    // Si la clave ya se aplicó, devuelve el resultado original sin volver a depositar.
+    public ResultadoOperacion depositar(double monto, String claveIdempotencia) {
+        try {
+            synchronized (this) {
+                ResultadoOperacion previo = buscarRepeticion(claveIdempotencia, "DEPÓSITO", null, monto);
+                if (previo != null) {
+                    return previo;
+                }
+
+                ValidadorTransaccion.validarDeposito(monto);
+                long version = VERSIONES.comenzarEscritura();
+                try {
+                    actualizarSaldo(monto, version);
+                    Transaccion transaccion = registrarTransaccion("DEPÓSITO", monto, claveIdempotencia);
+                    return recordarResultado(new ResultadoOperacion("DEPÓSITO", numero, null, monto, saldo,
+                            transaccion.getFecha(), claveIdempotencia));
+                } finally {
+                    VERSIONES.confirmarEscritura(version);
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
     // Retira dinero de la cuenta
     public void retirar(double monto) {
-        ValidadorTransaccion.validarRetiro(this.saldo, monto);
-        this.saldo -= monto;
-        registrarTransaccion("RETIRO", monto);
+        retirar(monto, null);
+    }
+
+    // Retira con una clave de idempotencia opcional (null si no se usa).
+    // Si la clave ya se aplicó, devuelve el resultado original sin volver a retirar.
+    public ResultadoOperacion retirar(double monto, String claveIdempotencia) {
+        try {
+            synchronized (this) {
+                ResultadoOperacion previo = buscarRepeticion(claveIdempotencia, "RETIRO", null, monto);
+                if (previo != null) {
+                    return previo;
+                }
+
+                ValidadorTransaccion.validarRetiro(getSaldoDisponible(), monto);
+                reservarLimites(false, monto);
+                long version = VERSIONES.comenzarEscritura();
+                try {
+                    actualizarSaldo(-monto, version);
+                    Transaccion transaccion = registrarTransaccion("RETIRO", monto, claveIdempotencia);
+                    return recordarResultado(new ResultadoOperacion("RETIRO", numero, null, monto, saldo,
+                            transaccion.getFecha(), claveIdempotencia));
+                } finally {
+                    VERSIONES.confirmarEscritura(version);
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
     // Transfiere dinero a otra cuenta
     public void transferir(Cuenta cuentaDestino, double monto) {
-        ValidadorTransaccion.validarTransferencia(this.saldo, monto);
+        transferir(cuentaDestino, monto, null);
+    }
+
+    // Transfiere con una clave de idempotencia opcional (null si no se usa).
+    // Ambas cuentas se bloquean en orden de número para evitar interbloqueos
+    // y comparten la misma versión, de modo que una instantánea ve la transferencia completa o no la ve.
+    // Si la clave ya se aplicó, devuelve el resultado original sin volver a transferir.
+    // La clave queda sólo en la TRANSFERENCIA_ENVIADA del historial de origen (los tramos RETIRO y DEPÓSITO
+    // no la llevan), así que un reintento se reconoce si se vuelve a transferir desde la misma cuenta.
+    public ResultadoOperacion transferir(Cuenta cuentaDestino, double monto, String claveIdempotencia) {
         validarCuentaDestino(cuentaDestino);
 
-        this.retirar(monto);
-        cuentaDestino.depositar(monto);
-        registrarTransaccion("TRANSFERENCIA_ENVIADA", monto);
+        Cuenta primera = this.numero.compareTo(cuentaDestino.numero) < 0 ? this : cuentaDestino;
+        Cuenta segunda = primera == this ? cuentaDestino : this;
+        try {
+            synchronized (primera) {
+                synchronized (segunda) {
+                    ResultadoOperacion previo = buscarRepeticion(claveIdempotencia, "TRANSFERENCIA",
+                            cuentaDestino.numero, monto);
+                    if (previo != null) {
+                        return previo;
+                    }
+
+                    ValidadorTransaccion.validarTransferencia(getSaldoDisponible(), monto);
+                    reservarLimites(true, monto);
+                    long version = VERSIONES.comenzarEscritura();
+                    try {
+                        this.actualizarSaldo(-monto, version);
+                        this.registrarTransaccion("RETIRO", monto, null, cuentaDestino.numero);
+                        cuentaDestino.actualizarSaldo(monto, version);
+                        cuentaDestino.registrarTransaccion("DEPÓSITO", monto, null, this.numero);
+                        Transaccion transaccion = this.registrarTransaccion("TRANSFERENCIA_ENVIADA", monto,
+                                claveIdempotencia, cuentaDestino.numero);
+                        return recordarResultado(new ResultadoOperacion("TRANSFERENCIA", numero,
+                                cuentaDestino.numero, monto, saldo, transaccion.getFecha(), claveIdempotencia));
+                    } finally {
+                        VERSIONES.confirmarEscritura(version);
+                    }
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Retiene el monto durante la vigencia indicada: baja el saldo disponible sin registrar un retiro.
+    // Si no se captura ni se libera antes, la retención vence sola y el monto vuelve a estar disponible.
+    public Retencion retener(double monto, Duration vigencia) {
+        try {
+            synchronized (this) {
+                if (vigencia == null || vigencia.isNegative() || vigencia.isZero()) {
+                    throw new IllegalArgumentException("La vigencia de la retención debe ser positiva");
+                }
+                // El vencimiento lo dispara la rueda, que no alcanza esperas más largas
+                Duration maxima = RuedaTemporizadora.getInstance().getEsperaMaxima();
+                if (vigencia.compareTo(maxima) > 0) {
+                    throw new IllegalArgumentException("La vigencia de la retención no puede superar "
+                            + maxima.toDays() + " días");
+                }
+                ValidadorTransaccion.validarRetencion(getSaldoDisponible(), monto);
+
+                LocalDateTime ahora = LocalDateTime.now();
+                Retencion retencion = new Retencion(numero, monto, ahora, ahora.plus(vigencia));
+                agregarRetencion(retencion);
+                // El vencimiento toma el bloqueo de la cuenta, así que no puede adelantarse a este método
+                programarVencimiento(retencion, vigencia);
+                return retencion;
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Cobra el monto completo de la retención
+    public ResultadoOperacion capturarRetencion(long idRetencion) {
+        double monto;
+        synchronized (this) {
+            monto = obtenerRetencionActiva(idRetencion).getMonto();
+        }
+        return capturarRetencion(idRetencion, monto);
+    }
+
+    // Cobra hasta el monto retenido como un RETIRO; el resto se libera.
+    // Los topes de retiro se verifican al capturar: si se exceden, la retención sigue activa.
+    public ResultadoOperacion capturarRetencion(long idRetencion, double monto) {
+        try {
+            synchronized (this) {
+                Retencion retencion = obtenerRetencionActiva(idRetencion);
+                ValidadorTransaccion.validarCaptura(retencion.getMonto(), monto);
+                reservarLimites(false, monto);
+
+                quitarRetencion(retencion, Retencion.Estado.CAPTURADA, monto);
+                long version = VERSIONES.comenzarEscritura();
+                try {
+                    actualizarSaldo(-monto, version);
+                    Transaccion transaccion = registrarTransaccion("RETIRO", monto, null);
+                    return new ResultadoOperacion("RETIRO", numero, null, monto, saldo, transaccion.getFecha(), null);
+                } finally {
+                    VERSIONES.confirmarEscritura(version);
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
-    // Obtiene el historial de transacciones
-    public List<Transaccion> obtenerHistorial() {
-        return new ArrayList<>(transacciones);
+    // Libera la retención sin cobrar nada
+    public void liberarRetencion(long idRetencion) {
+        try {
+            synchronized (this) {
+                quitarRetencion(obtenerRetencionActiva(idRetencion), Retencion.Estado.LIBERADA, 0.0);
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
+    // Liquida el interés de un período, expresado como fracción del año (1/365 para un día),
+    // con una clave de idempotencia opcional. La usa el cierre diario: al reanudar un cierre interrumpido
+    // la clave ya aplicada devuelve el resultado original y el interés no se acredita dos veces.
+    public ResultadoOperacion liquidarInteres(double fraccionAnual, String claveIdempotencia) {
+        try {
+            synchronized (this) {
+                if (fraccionAnual <= 0 || fraccionAnual > 1) {
+                    throw new IllegalArgumentException("La fracción del año debe estar entre 0 y 1");
+                }
+                // El monto depende del saldo al liquidar, así que la repetición se reconoce sólo por tipo y cuenta
+                ResultadoOperacion previo = buscarRepeticion(claveIdempotencia, "INTERÉS", null, Double.NaN);
+                if (previo != null) {
+                    return previo;
+                }
 
-    public List<Transaccion> obtenerTransaccionesPorTipo(String tipo) {
-        return transacciones.stream()
-                .filter(t -> t.getTipo().equals(tipo))
-                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+                double interes = liquidador.calcular(this.saldo) * fraccionAnual;
+                if (interes <= 0) {
+                    return new ResultadoOperacion("INTERÉS", numero, null, 0.0, saldo, LocalDateTime.now(), claveIdempotencia);
+                }
+                long version = VERSIONES.comenzarEscritura();
+                try {
+                    actualizarSaldo(interes, version);
+                    Transaccion transaccion = registrarTransaccion("INTERÉS", interes, claveIdempotencia);
+                    return recordarResultado(new ResultadoOperacion("INTERÉS", numero, null, interes, saldo,
+                            transaccion.getFecha(), claveIdempotencia));
+                } finally {
+                    VERSIONES.confirmarEscritura(version);
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Calcula el interés con el liquidador sobre el saldo actual y lo acredita, con la cuenta bloqueada.
+    // Las subclases lo usan en aplicarInteres sin sincronizar: el evento se publica al soltar el bloqueo.
+    protected void acreditarInteresLiquidado() {
+        try {
+            synchronized (this) {
+                registrarInteres(liquidador.calcular(this.saldo));
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Acredita el interés calculado por la subclase y lo registra en el historial.
+    // No debe llamarse con la cuenta bloqueada: publica el evento al terminar.
+    protected void acreditarInteres(double interes) {
+        try {
+            synchronized (this) {
+                registrarInteres(interes);
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Aplica una transacción recibida del primario en una réplica (ver replicacion.RespaldoReplicacion).
+    // No valida ni revisa topes: la operación ya se validó en el primario. El saldo queda exactamente
+    // en el valor que tenía allá. No es idempotente: cada llamada agrega una fila al historial y extiende
+    // la cadena de huellas, así que RespaldoReplicacion aplica cada secuencia del diario una sola vez.
+    // Los tramos de una transferencia llevan la cuenta de la otra parte, como en el primario. Una operación
+    // con clave queda además en la caché de idempotencia: al promover la réplica, un reintento de algo
+    // aplicado en el primario devuelve el resultado original en lugar de repetirse.
+    public void aplicarReplica(String tipo, double monto, double saldoResultante, LocalDateTime fecha,
+                               String claveIdempotencia, String cuentaContraparte) {
+        try {
+            synchronized (this) {
+                long version = VERSIONES.comenzarEscritura();
+                try {
+                    establecerSaldo(saldoResultante, version);
+                    libro.agregar(new Transaccion(tipo, monto, fecha, claveIdempotencia), cuentaContraparte);
+                    PublicacionesPendientes.anotar(BusEventos.getInstance(), tipo, handle, numero, monto, saldo, fecha,
+                            claveIdempotencia, null, cuentaContraparte);
+                } finally {
+                    VERSIONES.confirmarEscritura(version);
+                }
+                if (claveIdempotencia != null) {
+                    String destino = tipo.equals("TRANSFERENCIA_ENVIADA") ? cuentaContraparte : null;
+                    recordarResultado(new ResultadoOperacion(tipoOperacion(tipo), numero, destino, monto, saldo,
+                            fecha, claveIdempotencia));
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Aplica en una réplica un cambio de retención recibido del primario (ver EventoTransaccion.RETENCION_CREADA).
+    // Las retenciones replicadas no vencen solas: el vencimiento llega del primario como RETENCION_VENCIDA
+    // hasta que la réplica se promueve (ver programarVencimientosReplicados).
+    public void aplicarRetencionReplica(String tipo, double monto, LocalDateTime fecha, String detalle) {
+        try {
+            synchronized (this) {
+                if (tipo.equals(EventoTransaccion.RETENCION_CREADA)) {
+                    int separador = detalle.indexOf('|');
+                    agregarRetencion(new Retencion(Long.parseLong(detalle.substring(0, separador)), numero, monto,
+                            fecha, LocalDateTime.parse(detalle.substring(separador + 1))));
+                    return;
+                }
+                Retencion retencion = obtenerRetencionActiva(Long.parseLong(detalle));
+                switch (tipo) {
+                    case EventoTransaccion.RETENCION_CAPTURADA -> quitarRetencion(retencion, Retencion.Estado.CAPTURADA, monto);
+                    case EventoTransaccion.RETENCION_LIBERADA -> quitarRetencion(retencion, Retencion.Estado.LIBERADA, 0.0);
+                    case EventoTransaccion.RETENCION_VENCIDA -> quitarRetencion(retencion, Retencion.Estado.VENCIDA, 0.0);
+                    default -> throw new IllegalArgumentException("Tipo de retención desconocido: " + tipo);
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Programa el vencimiento de las retenciones replicadas al promover la réplica.
+    // Las que ya pasaron su vencimiento vencen en el próximo tick de la rueda.
+    public synchronized void programarVencimientosReplicados() {
+        if (retenciones == null) {
+            return;
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        for (Retencion retencion : retenciones.values()) {
+            if (!retencion.tieneVencimientoProgramado()) {
+                Duration restante = Duration.between(ahora, retencion.getFechaVencimiento());
+                programarVencimiento(retencion, restante.isNegative() ? Duration.ZERO : restante);
+            }
+        }
+    }
+
+    // Saldo que tenía la cuenta en la versión indicada (0 si la cuenta aún no tenía movimientos)
+    public double getSaldoEnVersion(long version) {
+        VersionSaldo actual = versionActual;
+        while (actual != null && actual.version > version) {
+            actual = actual.anterior;
+        }
+        return actual == null ? 0.0 : actual.saldo;
+    }
+
+    // Obtiene una copia del historial de transacciones, incluidas las archivadas en disco
+    public synchronized List<Transaccion> obtenerHistorial() {
+        return libro.obtenerTodas();
+    }
+
+    // Vista no modificable y viva del historial, indexada por posición global (0 es la más antigua).
+    // No copia: cada get lee la transacción con la cuenta bloqueada; las archivadas se leen del disco.
+    public List<Transaccion> getHistorial() {
+        return vistaHistorial;
+    }
+
+    // Recorre el historial completo con la cuenta bloqueada, sin copiar las transacciones recientes
+    public synchronized void forEachTransaccion(Consumer<? super Transaccion> accion) {
+        libro.forEach(accion);
+    }
+
+    // Obtiene las transacciones con fecha dentro del rango [desde, hasta]
+    // Sólo lee del disco los segmentos archivados que se solapan con el rango
+    public synchronized List<Transaccion> obtenerHistorial(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El rango de fechas no es válido");
+        }
+        return libro.obtenerEntre(desde, hasta);
+    }
+
+    // Obtiene las transacciones a partir de la posición indicada (0 es la más antigua).
+    // Sólo lee del disco los segmentos archivados que contienen esa parte del historial.
+    public synchronized List<Transaccion> obtenerHistorialDesde(int indice) {
+        if (indice < 0) {
+            throw new IllegalArgumentException("La posición inicial no puede ser negativa");
+        }
+        return libro.obtenerDesde(indice);
+    }
+
+    public synchronized List<Transaccion> obtenerTransaccionesPorTipo(String tipo) {
+        List<Transaccion> resultado = new ArrayList<>();
+        libro.forEach(transaccion -> {
+            if (transaccion.getTipo().equals(tipo)) {
+                resultado.add(transaccion);
+            }
+        });
+        return resultado;
     }
 
     // Getters
@@ -66,18 +436,286 @@ public abstract class Cuenta {
         return numero;
     }
 
+    public int getHandle() {
+        return handle;
+    }
+
     public double getSaldo() {
         return saldo;
     }
 
-    public int getCantidadTransacciones() {
-        return transacciones.size();
+    // Saldo que se puede retirar o transferir: el saldo contable menos las retenciones activas.
+    // Se lee con el candado de la cuenta para no combinar el saldo y el retenido de operaciones distintas.
+    public synchronized double getSaldoDisponible() {
+        return saldo - saldoRetenido;
+    }
+
+    public double getSaldoRetenido() {
+        return saldoRetenido;
+    }
+
+    public synchronized List<Retencion> getRetencionesActivas() {
+        return retenciones == null ? Collections.emptyList() : new ArrayList<>(retenciones.values());
+    }
+
+    public synchronized Optional<Retencion> buscarRetencion(long idRetencion) {
+        return retenciones == null ? Optional.empty() : Optional.ofNullable(retenciones.get(idRetencion));
+    }
+
+    public synchronized int getCantidadTransacciones() {
+        return libro.tamano();
+    }
+
+    public synchronized int getCantidadTransaccionesArchivadas() {
+        return libro.getCantidadArchivada();
+    }
+
+    // Huella encadenada de todo el historial (ver Transaccion.encadenarHuella)
+    public synchronized long getHuellaHistorial() {
+        return libro.getHuella();
+    }
+
+    // Saldo acumulado por las transacciones ya archivadas en disco
+    public synchronized double getSaldoPuntoControl() {
+        return libro.getSaldoPuntoControl();
+    }
+
+    // Mueve a un segmento comprimido en disco las transacciones más antiguas que el horizonte
+    // de la política. La escritura se hace sin bloquear depósitos ni retiros.
+    // Devuelve la cantidad de transacciones archivadas.
+    public int archivarTransacciones(PoliticaArchivado politica) {
+        if (politica == null) {
+            throw new IllegalArgumentException("La política de archivado no puede ser nula");
+        }
+
+        synchronized (candadoArchivado) {
+            List<Transaccion> candidatas;
+            int indiceInicial;
+            synchronized (this) {
+                candidatas = libro.candidatasArchivado(politica);
+                indiceInicial = libro.getCantidadArchivada();
+            }
+            if (candidatas.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                SegmentoArchivado segmento = libro.escribirSegmento(politica, numero, indiceInicial, candidatas);
+                synchronized (this) {
+                    libro.confirmarArchivado(segmento);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo archivar el historial de la cuenta " + numero, e);
+            }
+            return candidatas.size();
+        }
+    }
+
+    // Monto retirado o transferido en la última hora y en el último día
+    public double getRetiradoUltimaHora() {
+        return controlLimites.usadoPorHora(false, System.currentTimeMillis());
+    }
+
+    public double getRetiradoUltimoDia() {
+        return controlLimites.usadoPorDia(false, System.currentTimeMillis());
+    }
+
+    public double getTransferidoUltimaHora() {
+        return controlLimites.usadoPorHora(true, System.currentTimeMillis());
+    }
+
+    public double getTransferidoUltimoDia() {
+        return controlLimites.usadoPorDia(true, System.currentTimeMillis());
+    }
+
+    // Métodos de paquete
+
+    // Vincula la cuenta con los topes del cliente titular (null al desvincular)
+    void asignarControlTitular(ControlLimites controlTitular) {
+        this.controlLimitesTitular = controlTitular;
     }
 
     // Métodos privados
 
-    private void registrarTransaccion(String tipo, double monto) {
-        transacciones.add(new Transaccion(tipo, monto));
+    // Verifica y registra el monto en los topes de la cuenta y del titular.
+    // Se llama con la cuenta bloqueada y después de validar el saldo, de modo que
+    // el débito que sigue no puede fallar y la reserva queda atómica con él.
+    private void reservarLimites(boolean esTransferencia, double monto) {
+        PoliticaLimites politica = PoliticaLimites.getInstance();
+        long ahora = System.currentTimeMillis();
+        controlLimites.reservar(esTransferencia, monto, politica.limitesPara(this), ahora);
+
+        ControlLimites titular = controlLimitesTitular;
+        if (titular != null) {
+            try {
+                titular.reservar(esTransferencia, monto, politica.limitesPorCliente(), ahora);
+            } catch (IllegalArgumentException e) {
+                controlLimites.liberar(esTransferencia, monto, ahora);
+                throw e;
+            }
+        }
+    }
+
+    private Retencion obtenerRetencionActiva(long idRetencion) {
+        Retencion retencion = retenciones == null ? null : retenciones.get(idRetencion);
+        if (retencion == null) {
+            throw new IllegalArgumentException("No hay una retención activa #" + idRetencion
+                    + " en la cuenta " + numero);
+        }
+        return retencion;
+    }
+
+    // Llamado por la rueda temporizadora al cumplirse la vigencia
+    private void vencerRetencion(Retencion retencion) {
+        try {
+            synchronized (this) {
+                if (retencion.estaActiva()) {
+                    quitarRetencion(retencion, Retencion.Estado.VENCIDA, 0.0);
+                }
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
+    }
+
+    // Se llama con la cuenta bloqueada y no publica: el evento queda anotado para el finally de quien
+    // tomó el bloqueo, así nunca se espera lugar en el bus con la cuenta bloqueada
+    private void registrarInteres(double interes) {
+        if (interes <= 0) {
+            return;
+        }
+        long version = VERSIONES.comenzarEscritura();
+        try {
+            actualizarSaldo(interes, version);
+            registrarTransaccion("INTERÉS", interes, null);
+        } finally {
+            VERSIONES.confirmarEscritura(version);
+        }
+    }
+
+    private void programarVencimiento(Retencion retencion, Duration espera) {
+        retencion.asignarTemporizador(RuedaTemporizadora.getInstance()
+                .programar(espera, () -> vencerRetencion(retencion)));
+    }
+
+    // Se llama con la cuenta bloqueada; el evento se publica al soltar el bloqueo
+    private void agregarRetencion(Retencion retencion) {
+        if (retenciones == null) {
+            retenciones = new HashMap<>();
+        }
+        retenciones.put(retencion.getId(), retencion);
+        saldoRetenido += retencion.getMonto();
+        PublicacionesPendientes.anotar(BusEventos.getInstance(), EventoTransaccion.RETENCION_CREADA, handle, numero,
+                retencion.getMonto(), saldo, retencion.getFechaCreacion(), null, null,
+                retencion.getId() + "|" + retencion.getFechaVencimiento());
+    }
+
+    // Se llama con la cuenta bloqueada; el evento se publica al soltar el bloqueo
+    private void quitarRetencion(Retencion retencion, Retencion.Estado estadoFinal, double montoCapturado) {
+        retenciones.remove(retencion.getId());
+        // Sin retenciones se vuelve a cero exacto para no arrastrar errores de redondeo
+        saldoRetenido = retenciones.isEmpty() ? 0.0 : saldoRetenido - retencion.getMonto();
+        retencion.cerrar(estadoFinal, montoCapturado);
+        String tipo = switch (estadoFinal) {
+            case CAPTURADA -> EventoTransaccion.RETENCION_CAPTURADA;
+            case LIBERADA -> EventoTransaccion.RETENCION_LIBERADA;
+            case VENCIDA -> EventoTransaccion.RETENCION_VENCIDA;
+            case ACTIVA -> throw new IllegalArgumentException("Una retención no puede cerrarse como activa");
+        };
+        PublicacionesPendientes.anotar(BusEventos.getInstance(), tipo, handle, numero, montoCapturado, saldo, null,
+                null, null, String.valueOf(retencion.getId()));
+    }
+
+    private void actualizarSaldo(double delta, long version) {
+        establecerSaldo(this.saldo + delta, version);
+    }
+
+    // Fija el saldo y guarda la nueva versión.
+    // Descarta las versiones que ninguna instantánea actual o futura puede leer.
+    private void establecerSaldo(double nuevoSaldo, long version) {
+        this.saldo = nuevoSaldo;
+        VersionSaldo nueva = new VersionSaldo(version, this.saldo, versionActual);
+        versionActual = nueva;
+
+        long horizonte = VERSIONES.horizonteDescarte();
+        VersionSaldo actual = nueva;
+        while (actual != null && actual.version > horizonte) {
+            actual = actual.anterior;
+        }
+        if (actual != null) {
+            actual.anterior = null;
+        }
+    }
+
+    // Registra la transacción y anota su evento para el bus de eventos de dominio.
+    // El evento toma aquí su lugar en el orden del bus, pero se escribe al soltar el bloqueo de la cuenta
+    // (cada operación llama a PublicacionesPendientes.publicar en su finally).
+    private Transaccion registrarTransaccion(String tipo, double monto, String claveIdempotencia) {
+        return registrarTransaccion(tipo, monto, claveIdempotencia, null);
+    }
+
+    // En los tramos de una transferencia, cuentaContraparte es la otra cuenta; viaja en el detalle del evento
+    // (ver EventoTransaccion.esTramoTransferencia)
+    private Transaccion registrarTransaccion(String tipo, double monto, String claveIdempotencia,
+                                             String cuentaContraparte) {
+        Transaccion transaccion = new Transaccion(tipo, monto, LocalDateTime.now(), claveIdempotencia);
+        libro.agregar(transaccion, cuentaContraparte);
+        PublicacionesPendientes.anotar(BusEventos.getInstance(), tipo, handle, numero, monto, saldo,
+                transaccion.getFecha(), claveIdempotencia, null, cuentaContraparte);
+        return transaccion;
+    }
+
+    // Resultado original si la clave ya se aplicó; null si no hay clave o es nueva.
+    // Se llama con la cuenta bloqueada, así dos reintentos simultáneos no pueden aplicar ambos.
+    // Si la clave ya salió de la caché (venció o fue descartada) se busca en el historial de esta cuenta.
+    private ResultadoOperacion buscarRepeticion(String clave, String tipo, String numeroDestino, double monto) {
+        if (clave == null) {
+            return null;
+        }
+        validarClaveIdempotencia(clave);
+        ResultadoOperacion previo = CacheIdempotencia.getInstance().buscar(clave);
+        if (previo == null) {
+            previo = resultadoEnHistorial(clave);
+            if (previo == null) {
+                return null;
+            }
+            recordarResultado(previo);
+        }
+        if (!previo.describe(tipo, numero, numeroDestino, monto)) {
+            throw new IllegalArgumentException("La clave de idempotencia ya se usó para otra operación: " + clave);
+        }
+        return previo.comoRepeticion();
+    }
+
+    // Reconstruye desde el historial el resultado de la operación registrada con la clave, o null si esta
+    // cuenta no la tiene. Una clave usada en otra cuenta sólo se detecta mientras siga en la caché.
+    private ResultadoOperacion resultadoEnHistorial(String clave) {
+        LibroMayor.OperacionConClave operacion = libro.buscarClave(clave);
+        if (operacion == null) {
+            return null;
+        }
+        Transaccion transaccion = libro.obtener(operacion.getPosicion());
+        return new ResultadoOperacion(tipoOperacion(transaccion.getTipo()), numero, operacion.getCuentaDestino(), transaccion.getMonto(),
+                libro.saldoDespuesDe(operacion.getPosicion()), transaccion.getFecha(), clave);
+    }
+
+    // Tipo del resultado de la operación que registró una transacción con clave
+    private static String tipoOperacion(String tipoTransaccion) {
+        return tipoTransaccion.equals("TRANSFERENCIA_ENVIADA") ? "TRANSFERENCIA" : tipoTransaccion;
+    }
+
+    private ResultadoOperacion recordarResultado(ResultadoOperacion resultado) {
+        if (resultado.getClaveIdempotencia() != null) {
+            CacheIdempotencia.getInstance().registrar(resultado.getClaveIdempotencia(), resultado);
+        }
+        return resultado;
+    }
+
+    private void validarClaveIdempotencia(String clave) {
+        if (clave.trim().isEmpty() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException("La clave de idempotencia debe tener entre 1 y "
+                    + LONGITUD_MAXIMA_CLAVE + " caracteres");
+        }
     }
 
     private void validarNumeroCuenta(String numero) {
@@ -115,6 +753,41 @@ public abstract class Cuenta {
         return Objects.hash(numero);
     }
 
+    // Historial visto por posición; cada acceso toma el bloqueo de la cuenta
+    private final class VistaHistorial extends AbstractList<Transaccion> implements RandomAccess {
+        @Override
+        public Transaccion get(int indice) {
+            synchronized (Cuenta.this) {
+                return libro.obtener(indice);
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (Cuenta.this) {
+                return libro.tamano();
+            }
+        }
+
+        @Override
+        public void forEach(Consumer<? super Transaccion> accion) {
+            forEachTransaccion(accion);
+        }
+    }
+
+    // Saldo de la cuenta a partir de una versión, enlazado con la versión anterior
+    private static final class VersionSaldo {
+        private final long version;
+        private final double saldo;
+        private volatile VersionSaldo anterior;
+
+        private VersionSaldo(long version, double saldo, VersionSaldo anterior) {
+            this.version = version;
+            this.saldo = saldo;
+            this.anterior = anterior;
+        }
+    }
+
     @Override
     public String toString() {
         return String.format("Cuenta[%s - Saldo: $%.2f - %s]",
@@ -10,13 +10,10 @@ public class CuentaAhorros extends Cuenta {
         super(numero, LIQUIDADOR_AHORROS);
     }
 
-    //
+    // Calcula el interés sobre el saldo actual y lo acredita como transacción
     @Override
     public void aplicarInteres() {
-        double interes = liquidador.calcular(this.saldo);
-        if (interes > 0) {
-            this.saldo += interes;
-        }
+        acreditarInteresLiquidado();
     }
 
     // Obtiene la tasa de interés aplicada a esta cuenta
@@ -0,0 +1,141 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Directorio global que asigna a cada número de cuenta un identificador interno compacto (handle):
+// un entero denso desde 0. Índices, libros y mapas internos usan el handle como posición
+// en arreglos en lugar de calcular el hash del número en cada operación.
+//
+// Ciclo de vida de una entrada:
+// - Al construirse, la cuenta reserva su número y recibe el handle. Sólo entrega el número: el directorio
+//   nunca ve una cuenta a medio construir. Reservar un número que ya tiene una cuenta viva se rechaza.
+// - Al asignarse a un titular (Cliente.agregarCuenta) la cuenta queda registrada junto con el documento
+//   del titular; desde entonces se la puede buscar por número.
+// - Al cerrarse (Cliente.eliminarCuenta) o al eliminarse su titular se libera: el directorio deja de
+//   retenerla y el número puede volver a usarse.
+// Los handles no se reutilizan, así que quien guardó uno (por ejemplo el índice de auditoría) puede
+// seguir traduciéndolo a su número con numeroDe aunque la cuenta ya se haya cerrado.
+public final class DirectorioCuentas {
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static DirectorioCuentas instancia;
+
+    // Números en uso: reservados por una cuenta que todavía no se liberó
+    private final Map<String, Integer> handlesPorNumero;
+    // Arreglos reemplazados al crecer; las lecturas no toman candados
+    private volatile Cuenta[] cuentasPorHandle;
+    private volatile String[] titularesPorHandle;
+    private volatile String[] numerosPorHandle;
+    private int cantidad;
+
+    private DirectorioCuentas() {
+        this.handlesPorNumero = new ConcurrentHashMap<>();
+        this.cuentasPorHandle = new Cuenta[CAPACIDAD_INICIAL];
+        this.titularesPorHandle = new String[CAPACIDAD_INICIAL];
+        this.numerosPorHandle = new String[CAPACIDAD_INICIAL];
+    }
+
+    // Metodo para obtener la instancia única del directorio
+    public static synchronized DirectorioCuentas getInstance() {
+        if (instancia == null) {
+            instancia = new DirectorioCuentas();
+        }
+        return instancia;
+    }
+
+    // Handle del número de cuenta, o -1 si no está en uso
+    public int handleDe(String numeroCuenta) {
+        Integer handle = handlesPorNumero.get(numeroCuenta);
+        return handle == null ? -1 : handle;
+    }
+
+    // Cuenta registrada con el handle
+    public Cuenta cuentaDe(int handle) {
+        Cuenta[] cuentas = cuentasPorHandle;
+        if (handle < 0 || handle >= cuentas.length || cuentas[handle] == null) {
+            throw new IllegalArgumentException("No existe una cuenta con el identificador interno " + handle);
+        }
+        return cuentas[handle];
+    }
+
+    // Número de cuenta del handle, también para cuentas ya cerradas
+    public String numeroDe(int handle) {
+        String[] numeros = numerosPorHandle;
+        if (handle < 0 || handle >= numeros.length || numeros[handle] == null) {
+            throw new IllegalArgumentException("No existe una cuenta con el identificador interno " + handle);
+        }
+        return numeros[handle];
+    }
+
+    // Busca una cuenta asignada a un titular por su número externo
+    public Optional<Cuenta> buscar(String numeroCuenta) {
+        int handle = handleDe(numeroCuenta);
+        return handle < 0 ? Optional.empty() : Optional.ofNullable(cuentasPorHandle[handle]);
+    }
+
+    // Documento del titular de la cuenta, si está asignada
+    public Optional<String> titularDe(String numeroCuenta) {
+        int handle = handleDe(numeroCuenta);
+        return handle < 0 ? Optional.empty() : Optional.ofNullable(titularesPorHandle[handle]);
+    }
+
+    // Cantidad de handles asignados; los handles válidos van de 0 a cantidad - 1
+    public synchronized int getCantidad() {
+        return cantidad;
+    }
+
+    // Deja de retener la cuenta y libera su número. No hace nada si la cuenta no estaba registrada.
+    public synchronized void liberar(Cuenta cuenta) {
+        if (cuenta == null) {
+            throw new IllegalArgumentException("La cuenta no puede ser nula");
+        }
+        int handle = cuenta.getHandle();
+        if (cuentasPorHandle[handle] == cuenta) {
+            cuentasPorHandle[handle] = null;
+            titularesPorHandle[handle] = null;
+        }
+        handlesPorNumero.remove(cuenta.getNumero(), handle);
+    }
+
+    // Reserva el número para una cuenta nueva y devuelve su handle
+    synchronized int reservar(String numeroCuenta) {
+        if (handlesPorNumero.containsKey(numeroCuenta)) {
+            throw new IllegalArgumentException("Ya existe una cuenta con el número " + numeroCuenta);
+        }
+        int handle = cantidad++;
+        if (handle >= numerosPorHandle.length) {
+            int capacidad = numerosPorHandle.length * 2;
+            cuentasPorHandle = Arrays.copyOf(cuentasPorHandle, capacidad);
+            titularesPorHandle = Arrays.copyOf(titularesPorHandle, capacidad);
+            numerosPorHandle = Arrays.copyOf(numerosPorHandle, capacidad);
+        }
+        String[] numeros = numerosPorHandle;
+        numeros[handle] = numeroCuenta;
+        numerosPorHandle = numeros;
+        handlesPorNumero.put(numeroCuenta, handle);
+        return handle;
+    }
+
+    // Registra la cuenta, ya construida, como asignada al titular
+    synchronized void registrar(Cuenta cuenta, String documentoTitular) {
+        int handle = cuenta.getHandle();
+        Integer actual = handlesPorNumero.get(cuenta.getNumero());
+        if (actual != null && actual != handle) {
+            throw new IllegalArgumentException("Ya existe otra cuenta con el número " + cuenta.getNumero());
+        }
+        String titular = titularesPorHandle[handle];
+        if (titular != null && !titular.equals(documentoTitular)) {
+            throw new IllegalArgumentException("La cuenta " + cuenta.getNumero() + " ya pertenece al cliente "
+                    + titular);
+        }
+        String[] titulares = titularesPorHandle;
+        titulares[handle] = documentoTitular;
+        titularesPorHandle = titulares;
+        Cuenta[] cuentas = cuentasPorHandle;
+        cuentas[handle] = cuenta;
+        cuentasPorHandle = cuentas;
+        handlesPorNumero.put(cuenta.getNumero(), handle);
+    }
+}
@@ -0,0 +1,57 @@
+package modelo;
+
+import java.util.List;
+
+// Vista consistente de todos los saldos en una versión dada.
+// Se obtiene con RegistroVersiones.abrirInstantanea() y se cierra con try-with-resources:
+//
+//     try (InstantaneaSaldos instantanea = RegistroVersiones.getInstance().abrirInstantanea()) {
+//         double total = instantanea.saldoTotal(cliente);
+//     }
+//
+// Mientras está abierta, las cuentas conservan las versiones de saldo que necesita.
+public final class InstantaneaSaldos implements AutoCloseable {
+    private final RegistroVersiones registro;
+    private final long version;
+    private volatile boolean cerrada;
+
+    InstantaneaSaldos(RegistroVersiones registro, long version) {
+        this.registro = registro;
+        this.version = version;
+    }
+
+    // Saldo de la cuenta tal como estaba en la versión de la instantánea
+    public double saldo(Cuenta cuenta) {
+        validarAbierta();
+        return cuenta.getSaldoEnVersion(version);
+    }
+
+    // Saldo total del cliente sumando sus cuentas en la versión de la instantánea
+    public double saldoTotal(Cliente cliente) {
+        validarAbierta();
+        List<Cuenta> cuentas = cliente.getCuentasActuales();
+        double total = 0.0;
+        for (int i = 0; i < cuentas.size(); i++) {
+            total += cuentas.get(i).getSaldoEnVersion(version);
+        }
+        return total;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!cerrada) {
+            cerrada = true;
+            registro.cerrarInstantanea(version);
+        }
+    }
+
+    private void validarAbierta() {
+        if (cerrada) {
+            throw new IllegalStateException("La instantánea ya fue cerrada");
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package modelo;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// Historial de transacciones de una cuenta con almacenamiento por niveles.
+// Las transacciones recientes viven en memoria; las antiguas están en segmentos
+// comprimidos en disco (SegmentoArchivado) y se leen sólo cuando se consultan.
+// En memoria se conserva además el saldo acumulado por las transacciones archivadas
+// (punto de control), de modo que no hace falta leer el disco para conocerlo.
+// La huella encadenada de todo el historial se actualiza en cada alta y no cambia al archivar.
+// Las transacciones con clave de idempotencia se indexan por clave (también después de archivarlas),
+// para reconocer un reintento cuya clave ya salió de CacheIdempotencia.
+//
+// No es seguro para hilos por sí mismo: la cuenta dueña sincroniza el acceso.
+final class LibroMayor {
+    private final List<SegmentoArchivado> segmentos;
+    private final ArrayList<Transaccion> recientes;
+    private int cantidadArchivada;
+    private double saldoPuntoControl;
+    private long huella;
+    // Se crea con la primera clave: la mayoría de las cuentas no usa claves
+    private Map<String, OperacionConClave> operacionesPorClave;
+
+    LibroMayor() {
+        this.segmentos = new ArrayList<>();
+        this.recientes = new ArrayList<>();
+        this.huella = Transaccion.HUELLA_INICIAL;
+    }
+
+    void agregar(Transaccion transaccion) {
+        agregar(transaccion, null);
+    }
+
+    // cuentaDestino: en una TRANSFERENCIA_ENVIADA con clave, la cuenta que recibió el dinero
+    void agregar(Transaccion transaccion, String cuentaDestino) {
+        String clave = transaccion.getClaveIdempotencia();
+        if (clave != null) {
+            if (operacionesPorClave == null) {
+                operacionesPorClave = new HashMap<>();
+            }
+            operacionesPorClave.put(clave, new OperacionConClave(tamano(), cuentaDestino));
+        }
+        recientes.add(transaccion);
+        huella = transaccion.encadenarHuella(huella);
+    }
+
+    // Posición y destino de la transacción registrada con la clave, o null si esta cuenta no la tiene
+    OperacionConClave buscarClave(String clave) {
+        return operacionesPorClave == null ? null : operacionesPorClave.get(clave);
+    }
+
+    // Saldo que dejó la transacción en la posición indicada; si está archivada, lee los segmentos hasta ella
+    double saldoDespuesDe(int indice) {
+        Objects.checkIndex(indice, tamano());
+        if (indice >= cantidadArchivada) {
+            double saldo = saldoPuntoControl;
+            for (int i = 0; i <= indice - cantidadArchivada; i++) {
+                saldo += recientes.get(i).getEfectoEnSaldo();
+            }
+            return saldo;
+        }
+        double saldo = 0.0;
+        int posicion = 0;
+        for (SegmentoArchivado segmento : segmentos) {
+            for (Transaccion transaccion : segmento.leer()) {
+                saldo += transaccion.getEfectoEnSaldo();
+                if (posicion++ == indice) {
+                    return saldo;
+                }
+            }
+        }
+        throw new IllegalStateException("Posición fuera de los segmentos archivados: " + indice);
+    }
+
+    // Todas las transacciones en orden cronológico, incluidas las archivadas
+    List<Transaccion> obtenerTodas() {
+        List<Transaccion> todas = new ArrayList<>(tamano());
+        for (SegmentoArchivado segmento : segmentos) {
+            todas.addAll(segmento.leer());
+        }
+        todas.addAll(recientes);
+        return todas;
+    }
+
+    // Transacción en la posición global indicada (0 es la más antigua).
+    // Las recientes se devuelven sin copiar; una archivada obliga a leer su segmento.
+    Transaccion obtener(int indice) {
+        Objects.checkIndex(indice, tamano());
+        if (indice >= cantidadArchivada) {
+            return recientes.get(indice - cantidadArchivada);
+        }
+        int inicioSegmento = 0;
+        for (SegmentoArchivado segmento : segmentos) {
+            if (indice < inicioSegmento + segmento.getCantidad()) {
+                return segmento.leer().get(indice - inicioSegmento);
+            }
+            inicioSegmento += segmento.getCantidad();
+        }
+        throw new IllegalStateException("Posición fuera de los segmentos archivados: " + indice);
+    }
+
+    // Recorre todo el historial en orden; las recientes se recorren sin copiar la lista
+    void forEach(Consumer<? super Transaccion> accion) {
+        for (int i = 0; i < segmentos.size(); i++) {
+            segmentos.get(i).leer().forEach(accion);
+        }
+        for (int i = 0; i < recientes.size(); i++) {
+            accion.accept(recientes.get(i));
+        }
+    }
+
+    // Transacciones desde la posición indicada hasta el final; sólo lee los segmentos que la alcanzan
+    List<Transaccion> obtenerDesde(int indice) {
+        List<Transaccion> resultado = new ArrayList<>(Math.max(0, tamano() - indice));
+        int inicioSegmento = 0;
+        for (SegmentoArchivado segmento : segmentos) {
+            int finSegmento = inicioSegmento + segmento.getCantidad();
+            if (finSegmento > indice) {
+                List<Transaccion> leidas = segmento.leer();
+                resultado.addAll(leidas.subList(Math.max(0, indice - inicioSegmento), leidas.size()));
+            }
+            inicioSegmento = finSegmento;
+        }
+        resultado.addAll(recientes.subList(Math.min(recientes.size(), Math.max(0, indice - cantidadArchivada)),
+                recientes.size()));
+        return resultado;
+    }
+
+    // Transacciones con fecha dentro de [desde, hasta]; sólo lee los segmentos que se solapan con el rango
+    List<Transaccion> obtenerEntre(LocalDateTime desde, LocalDateTime hasta) {
+        List<Transaccion> resultado = new ArrayList<>();
+        for (SegmentoArchivado segmento : segmentos) {
+            if (segmento.seSolapaCon(desde, hasta)) {
+                agregarEnRango(segmento.leer(), desde, hasta, resultado);
+            }
+        }
+        agregarEnRango(recientes, desde, hasta, resultado);
+        return resultado;
+    }
+
+    // Transacciones recientes más antiguas que el horizonte de la política.
+    // Devuelve una lista vacía si no alcanzan el mínimo por segmento.
+    List<Transaccion> candidatasArchivado(PoliticaArchivado politica) {
+        LocalDateTime limite = LocalDateTime.now().minus(politica.getHorizonte());
+        int cantidad = 0;
+        while (cantidad < recientes.size() && recientes.get(cantidad).getFecha().isBefore(limite)) {
+            cantidad++;
+        }
+        if (cantidad < politica.getMinimoPorSegmento()) {
+            return List.of();
+        }
+        return new ArrayList<>(recientes.subList(0, cantidad));
+    }
+
+    // Escribe las candidatas en un segmento nuevo. Se llama sin bloquear la cuenta.
+    SegmentoArchivado escribirSegmento(PoliticaArchivado politica, String numeroCuenta,
+                                       int indiceInicial, List<Transaccion> candidatas) throws IOException {
+        String nombre = String.format("%s-%012d.seg",
+                numeroCuenta.replaceAll("[^A-Za-z0-9_-]", "_"), indiceInicial);
+        return SegmentoArchivado.escribir(politica.getDirectorio().resolve(nombre), candidatas);
+    }
+
+    // Incorpora el segmento escrito y libera de memoria las transacciones que contiene
+    void confirmarArchivado(SegmentoArchivado segmento) {
+        List<Transaccion> archivadas = recientes.subList(0, segmento.getCantidad());
+        for (Transaccion transaccion : archivadas) {
+            saldoPuntoControl += transaccion.getEfectoEnSaldo();
+        }
+        archivadas.clear();
+        recientes.trimToSize();
+        segmentos.add(segmento);
+        cantidadArchivada += segmento.getCantidad();
+    }
+
+    // Getters
+    int tamano() {
+        return cantidadArchivada + recientes.size();
+    }
+
+    int getCantidadArchivada() {
+        return cantidadArchivada;
+    }
+
+    int getCantidadRecientes() {
+        return recientes.size();
+    }
+
+    int getCantidadSegmentos() {
+        return segmentos.size();
+    }
+
+    double getSaldoPuntoControl() {
+        return saldoPuntoControl;
+    }
+
+    long getHuella() {
+        return huella;
+    }
+
+    // Transacción con clave de idempotencia: su posición en el historial y, si es una transferencia, el destino
+    static final class OperacionConClave {
+        private final int posicion;
+        private final String cuentaDestino;
+
+        private OperacionConClave(int posicion, String cuentaDestino) {
+            this.posicion = posicion;
+            this.cuentaDestino = cuentaDestino;
+        }
+
+        int getPosicion() { return posicion; }
+        String getCuentaDestino() { return cuentaDestino; }
+    }
+
+    private void agregarEnRango(List<Transaccion> origen, LocalDateTime desde, LocalDateTime hasta,
+                                List<Transaccion> destino) {
+        for (Transaccion transaccion : origen) {
+            LocalDateTime fecha = transaccion.getFecha();
+            if (!fecha.isBefore(desde) && !fecha.isAfter(hasta)) {
+                destino.add(transaccion);
+            }
+        }
+    }
+}
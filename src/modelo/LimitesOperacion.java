@@ -0,0 +1,46 @@
+package modelo;
+
+// Topes de retiros y transferencias por hora y por día.
+// Un tope infinito (Double.POSITIVE_INFINITY) significa que no hay límite.
+public final class LimitesOperacion {
+    public static final LimitesOperacion SIN_LIMITES = new LimitesOperacion(
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    private final double retiroPorHora;
+    private final double retiroPorDia;
+    private final double transferenciaPorHora;
+    private final double transferenciaPorDia;
+
+    // Constructor
+    public LimitesOperacion(double retiroPorHora, double retiroPorDia,
+                            double transferenciaPorHora, double transferenciaPorDia) {
+        validarTope(retiroPorHora);
+        validarTope(retiroPorDia);
+        validarTope(transferenciaPorHora);
+        validarTope(transferenciaPorDia);
+
+        this.retiroPorHora = retiroPorHora;
+        this.retiroPorDia = retiroPorDia;
+        this.transferenciaPorHora = transferenciaPorHora;
+        this.transferenciaPorDia = transferenciaPorDia;
+    }
+
+    // Getters
+    public double getRetiroPorHora() { return retiroPorHora; }
+    public double getRetiroPorDia() { return retiroPorDia; }
+    public double getTransferenciaPorHora() { return transferenciaPorHora; }
+    public double getTransferenciaPorDia() { return transferenciaPorDia; }
+
+    @Override
+    public String toString() {
+        return String.format("Limites[retiro: $%.2f/h $%.2f/día - transferencia: $%.2f/h $%.2f/día]",
+                retiroPorHora, retiroPorDia, transferenciaPorHora, transferenciaPorDia);
+    }
+
+    private void validarTope(double tope) {
+        if (Double.isNaN(tope) || tope <= 0) {
+            throw new IllegalArgumentException("Los topes de operación deben ser positivos");
+        }
+    }
+}
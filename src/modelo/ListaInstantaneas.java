@@ -0,0 +1,188 @@
+package modelo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+// Lista para muchas lecturas concurrentes y pocas escrituras, con lecturas sin candados ni copias.
+//
+// Los lectores ven siempre una instantánea inmutable (arreglo + tamaño) publicada en un campo volatile.
+// Agregar escribe en una posición que ninguna instantánea publicada alcanza y publica una nueva
+// instantánea sobre el mismo arreglo; sólo se copia al crecer (costo amortizado constante).
+// Quitar copia el arreglo, por lo que las instantáneas anteriores no cambian nunca.
+//
+// vista() devuelve siempre la misma lista no modificable y viva: get y size leen la instantánea actual,
+// y los recorridos (for-each, forEach, stream) recorren la instantánea vigente al comenzar.
+public final class ListaInstantaneas<E> {
+    private static final int CAPACIDAD_INICIAL = 4;
+
+    private volatile Instantanea<E> actual;
+    private final List<E> vista;
+
+    public ListaInstantaneas() {
+        this.actual = new Instantanea<>(new Object[CAPACIDAD_INICIAL], 0);
+        this.vista = new Vista();
+    }
+
+    public synchronized void agregar(E elemento) {
+        Objects.requireNonNull(elemento, "El elemento no puede ser nulo");
+        Instantanea<E> previa = actual;
+        Object[] elementos = previa.elementos;
+        if (previa.tamano == elementos.length) {
+            elementos = Arrays.copyOf(elementos, elementos.length * 2);
+        }
+        elementos[previa.tamano] = elemento;
+        actual = new Instantanea<>(elementos, previa.tamano + 1);
+    }
+
+    // Quita la primera aparición del elemento (según equals); devuelve false si no estaba
+    public synchronized boolean quitar(Object elemento) {
+        Instantanea<E> previa = actual;
+        int indice = previa.indiceDe(elemento);
+        if (indice < 0) {
+            return false;
+        }
+        Object[] elementos = new Object[Math.max(CAPACIDAD_INICIAL, previa.elementos.length)];
+        System.arraycopy(previa.elementos, 0, elementos, 0, indice);
+        System.arraycopy(previa.elementos, indice + 1, elementos, indice, previa.tamano - indice - 1);
+        actual = new Instantanea<>(elementos, previa.tamano - 1);
+        return true;
+    }
+
+    public E obtener(int indice) {
+        return actual.obtener(indice);
+    }
+
+    public int tamano() {
+        return actual.tamano;
+    }
+
+    // Recorre la instantánea actual sin crear iteradores ni copias
+    public void forEach(Consumer<? super E> accion) {
+        actual.forEach(accion);
+    }
+
+    // Lista no modificable y viva sobre el contenido; siempre la misma instancia
+    public List<E> vista() {
+        return vista;
+    }
+
+    // Lista no modificable fija con el contenido actual; no copia los elementos
+    public List<E> instantanea() {
+        return actual;
+    }
+
+    // Contenido inmutable en un momento dado
+    private static final class Instantanea<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] elementos;
+        private final int tamano;
+
+        private Instantanea(Object[] elementos, int tamano) {
+            this.elementos = elementos;
+            this.tamano = tamano;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E obtener(int indice) {
+            Objects.checkIndex(indice, tamano);
+            return (E) elementos[indice];
+        }
+
+        private int indiceDe(Object elemento) {
+            for (int i = 0; i < tamano; i++) {
+                if (elementos[i].equals(elemento)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public E get(int indice) {
+            return obtener(indice);
+        }
+
+        @Override
+        public int size() {
+            return tamano;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super E> accion) {
+            for (int i = 0; i < tamano; i++) {
+                accion.accept((E) elementos[i]);
+            }
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+                private int siguiente;
+
+                @Override
+                public boolean hasNext() {
+                    return siguiente < tamano;
+                }
+
+                @Override
+                public E next() {
+                    if (siguiente >= tamano) {
+                        throw new NoSuchElementException();
+                    }
+                    return obtener(siguiente++);
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return Spliterators.spliterator(elementos, 0, tamano, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+        }
+    }
+
+    // Vista viva: delega cada llamada en la instantánea vigente
+    private final class Vista extends AbstractList<E> implements RandomAccess {
+        @Override
+        public E get(int indice) {
+            return actual.obtener(indice);
+        }
+
+        @Override
+        public int size() {
+            return actual.tamano;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return actual.tamano == 0;
+        }
+
+        @Override
+        public boolean contains(Object elemento) {
+            return actual.indiceDe(elemento) >= 0;
+        }
+
+        @Override
+        public void forEach(Consumer<? super E> accion) {
+            actual.forEach(accion);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return actual.iterator();
+        }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            return actual.spliterator();
+        }
+    }
+}
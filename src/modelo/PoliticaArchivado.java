@@ -0,0 +1,46 @@
+package modelo;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Política de almacenamiento por niveles del historial de una cuenta.
+// Las transacciones más antiguas que el horizonte se mueven a segmentos comprimidos
+// e inmutables en el directorio indicado; en memoria quedan sólo las recientes.
+public final class PoliticaArchivado {
+    private static final int MINIMO_POR_SEGMENTO_POR_DEFECTO = 64;
+
+    private final Duration horizonte;
+    private final Path directorio;
+    private final int minimoPorSegmento;
+
+    // Constructor con el mínimo de transacciones por segmento por defecto
+    public PoliticaArchivado(Duration horizonte, Path directorio) {
+        this(horizonte, directorio, MINIMO_POR_SEGMENTO_POR_DEFECTO);
+    }
+
+    // Constructor completo. minimoPorSegmento evita crear segmentos con muy pocas transacciones.
+    public PoliticaArchivado(Duration horizonte, Path directorio, int minimoPorSegmento) {
+        if (horizonte == null || horizonte.isNegative()) {
+            throw new IllegalArgumentException("El horizonte de archivado debe ser positivo");
+        }
+        if (directorio == null) {
+            throw new IllegalArgumentException("El directorio de archivado no puede ser nulo");
+        }
+        if (minimoPorSegmento < 1) {
+            throw new IllegalArgumentException("El mínimo de transacciones por segmento debe ser positivo");
+        }
+        this.horizonte = horizonte;
+        this.directorio = directorio;
+        this.minimoPorSegmento = minimoPorSegmento;
+    }
+
+    // Getters
+    public Duration getHorizonte() { return horizonte; }
+    public Path getDirectorio() { return directorio; }
+    public int getMinimoPorSegmento() { return minimoPorSegmento; }
+
+    @Override
+    public String toString() {
+        return String.format("PoliticaArchivado[horizonte: %s - directorio: %s]", horizonte, directorio);
+    }
+}
@@ -0,0 +1,116 @@
+package modelo;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Registro global de versiones para lecturas consistentes (MVCC) de los saldos.
+// Cada operación que modifica saldos obtiene una versión; todas las cuentas que toca
+// (por ejemplo, ambas cuentas de una transferencia) guardan su nuevo saldo con esa versión.
+//
+// Una instantánea se abre sobre la versión estable: la mayor versión v tal que todas las
+// escrituras con versión <= v ya terminaron. Así un reporte ve cada transferencia completa
+// o no la ve, sin detener depósitos ni retiros.
+//
+// Las versiones antiguas se descartan cuando ninguna instantánea abierta las necesita.
+public final class RegistroVersiones {
+    private static RegistroVersiones instancia;
+
+    private final AtomicLong ultimaAsignada;
+    private final ConcurrentSkipListSet<Long> escriturasEnCurso;
+    // Versión de cada instantánea abierta y cuántas la usan; protegido por el monitor del registro
+    private final TreeMap<Long, Integer> instantaneasAbiertas;
+    // Menor versión que alguna instantánea abierta puede necesitar
+    private volatile long horizonteLectores;
+
+    private RegistroVersiones() {
+        this.ultimaAsignada = new AtomicLong(0);
+        this.escriturasEnCurso = new ConcurrentSkipListSet<>();
+        this.instantaneasAbiertas = new TreeMap<>();
+        this.horizonteLectores = Long.MAX_VALUE;
+    }
+
+    // Metodo para obtener la instancia única del registro
+    public static synchronized RegistroVersiones getInstance() {
+        if (instancia == null) {
+            instancia = new RegistroVersiones();
+        }
+        return instancia;
+    }
+
+    // Abre una instantánea consistente. Debe cerrarse para liberar las versiones antiguas.
+    public InstantaneaSaldos abrirInstantanea() {
+        long version;
+        synchronized (this) {
+            // Se publica primero una cota inferior para que ninguna escritura en curso
+            // descarte versiones que esta instantánea va a leer
+            horizonteLectores = Math.min(horizonteLectores, versionEstable());
+            version = versionEstable();
+            instantaneasAbiertas.merge(version, 1, Integer::sum);
+            actualizarHorizonte();
+        }
+        return new InstantaneaSaldos(this, version);
+    }
+
+    // Mayor versión con todas sus escrituras (y las anteriores) terminadas
+    public long getVersionEstable() {
+        synchronized (this) {
+            return versionEstable();
+        }
+    }
+
+    public synchronized int getCantidadInstantaneasAbiertas() {
+        int total = 0;
+        for (int cantidad : instantaneasAbiertas.values()) {
+            total += cantidad;
+        }
+        return total;
+    }
+
+    // Métodos usados por las cuentas
+
+    // Reserva la versión de una escritura; la asignación y el registro en curso son atómicos
+    synchronized long comenzarEscritura() {
+        long version = ultimaAsignada.incrementAndGet();
+        escriturasEnCurso.add(version);
+        return version;
+    }
+
+    void confirmarEscritura(long version) {
+        escriturasEnCurso.remove(version);
+    }
+
+    // Versión más antigua que todavía puede ser leída por una instantánea actual o futura.
+    // Se llama durante una escritura, por lo que el conjunto en curso nunca está vacío.
+    long horizonteDescarte() {
+        Long primeraEnCurso = escriturasEnCurso.ceiling(0L);
+        long estable = primeraEnCurso == null ? ultimaAsignada.get() : primeraEnCurso - 1;
+        return Math.min(estable, horizonteLectores);
+    }
+
+    synchronized void cerrarInstantanea(long version) {
+        Integer cantidad = instantaneasAbiertas.get(version);
+        if (cantidad == null) {
+            return;
+        }
+        if (cantidad == 1) {
+            instantaneasAbiertas.remove(version);
+        } else {
+            instantaneasAbiertas.put(version, cantidad - 1);
+        }
+        actualizarHorizonte();
+    }
+
+    // Métodos privados
+
+    private long versionEstable() {
+        Long primeraEnCurso = escriturasEnCurso.ceiling(0L);
+        return primeraEnCurso == null ? ultimaAsignada.get() : primeraEnCurso - 1;
+    }
+
+    private void actualizarHorizonte() {
+        horizonteLectores = instantaneasAbiertas.isEmpty()
+                ? Long.MAX_VALUE
+                : instantaneasAbiertas.firstKey();
+    }
+}
@@ -0,0 +1,70 @@
+package modelo;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Resultado inmutable de un depósito, retiro, transferencia o liquidación de interés.
+// Si la operación traía clave de idempotencia y ya se había aplicado, se devuelve el resultado
+// original marcado como repetido, sin volver a tocar el saldo.
+public final class ResultadoOperacion {
+    private final String tipo;
+    private final String numeroCuenta;
+    private final String numeroCuentaDestino;
+    private final double monto;
+    private final double saldoResultante;
+    private final LocalDateTime fecha;
+    private final String claveIdempotencia;
+    private final boolean repetido;
+
+    ResultadoOperacion(String tipo, String numeroCuenta, String numeroCuentaDestino, double monto,
+                       double saldoResultante, LocalDateTime fecha, String claveIdempotencia) {
+        this(tipo, numeroCuenta, numeroCuentaDestino, monto, saldoResultante, fecha, claveIdempotencia, false);
+    }
+
+    private ResultadoOperacion(String tipo, String numeroCuenta, String numeroCuentaDestino, double monto,
+                               double saldoResultante, LocalDateTime fecha, String claveIdempotencia,
+                               boolean repetido) {
+        this.tipo = tipo;
+        this.numeroCuenta = numeroCuenta;
+        this.numeroCuentaDestino = numeroCuentaDestino;
+        this.monto = monto;
+        this.saldoResultante = saldoResultante;
+        this.fecha = fecha;
+        this.claveIdempotencia = claveIdempotencia;
+        this.repetido = repetido;
+    }
+
+    // Mismo resultado, marcado como respuesta a un reintento
+    ResultadoOperacion comoRepeticion() {
+        return repetido ? this : new ResultadoOperacion(tipo, numeroCuenta, numeroCuentaDestino, monto,
+                saldoResultante, fecha, claveIdempotencia, true);
+    }
+
+    // Indica si el resultado describe la misma operación (se usa para detectar claves reutilizadas).
+    // Un monto NaN acepta cualquier monto, para operaciones cuyo monto se calcula al aplicarlas.
+    boolean describe(String tipo, String numeroCuenta, String numeroCuentaDestino, double monto) {
+        return this.tipo.equals(tipo)
+                && this.numeroCuenta.equals(numeroCuenta)
+                && Objects.equals(this.numeroCuentaDestino, numeroCuentaDestino)
+                && (Double.isNaN(monto) || Double.compare(this.monto, monto) == 0);
+    }
+
+    // Getters
+    public String getTipo() { return tipo; }
+    public String getNumeroCuenta() { return numeroCuenta; }
+    // Número de la cuenta destino; null si no es una transferencia
+    public String getNumeroCuentaDestino() { return numeroCuentaDestino; }
+    public double getMonto() { return monto; }
+    // Saldo de la cuenta de origen inmediatamente después de aplicar la operación
+    public double getSaldoResultante() { return saldoResultante; }
+    public LocalDateTime getFecha() { return fecha; }
+    public String getClaveIdempotencia() { return claveIdempotencia; }
+    public boolean esRepetido() { return repetido; }
+
+    @Override
+    public String toString() {
+        return String.format("Resultado[%s %s%s - $%.2f - Saldo: $%.2f%s]",
+                tipo, numeroCuenta, numeroCuentaDestino == null ? "" : " -> " + numeroCuentaDestino,
+                monto, saldoResultante, repetido ? " - repetido" : "");
+    }
+}
@@ -0,0 +1,80 @@
+package modelo;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Retención de fondos: un monto autorizado que reduce el saldo disponible de la cuenta
+// sin registrar todavía un RETIRO. Se captura (se cobra), se libera o vence sola.
+// El estado lo cambia únicamente la cuenta, con su bloqueo tomado.
+public final class Retencion {
+    private static final AtomicLong SIGUIENTE_ID = new AtomicLong(1);
+
+    public enum Estado { ACTIVA, CAPTURADA, LIBERADA, VENCIDA }
+
+    private final long id;
+    private final String numeroCuenta;
+    private final double monto;
+    private final LocalDateTime fechaCreacion;
+    private final LocalDateTime fechaVencimiento;
+    private volatile Estado estado;
+    private volatile double montoCapturado;
+    // Temporizador de vencimiento en la rueda; se cancela al capturar o liberar
+    private RuedaTemporizadora.Temporizador temporizador;
+
+    Retencion(String numeroCuenta, double monto, LocalDateTime fechaCreacion, LocalDateTime fechaVencimiento) {
+        this.id = SIGUIENTE_ID.getAndIncrement();
+        this.numeroCuenta = numeroCuenta;
+        this.monto = monto;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaVencimiento = fechaVencimiento;
+        this.estado = Estado.ACTIVA;
+    }
+
+    // Retención replicada desde el primario: conserva su id, y los ids que se asignen aquí siguen después
+    Retencion(long id, String numeroCuenta, double monto, LocalDateTime fechaCreacion, LocalDateTime fechaVencimiento) {
+        SIGUIENTE_ID.accumulateAndGet(id + 1, Math::max);
+        this.id = id;
+        this.numeroCuenta = numeroCuenta;
+        this.monto = monto;
+        this.fechaCreacion = fechaCreacion;
+        this.fechaVencimiento = fechaVencimiento;
+        this.estado = Estado.ACTIVA;
+    }
+
+    // Métodos de paquete
+
+    void asignarTemporizador(RuedaTemporizadora.Temporizador temporizador) {
+        this.temporizador = temporizador;
+    }
+
+    boolean tieneVencimientoProgramado() {
+        return temporizador != null;
+    }
+
+    // Cierra la retención con el estado final indicado y cancela su vencimiento si aún está pendiente
+    void cerrar(Estado estadoFinal, double montoCapturado) {
+        this.estado = estadoFinal;
+        this.montoCapturado = montoCapturado;
+        if (temporizador != null && estadoFinal != Estado.VENCIDA) {
+            temporizador.cancelar();
+        }
+        temporizador = null;
+    }
+
+    // Getters
+    public long getId() { return id; }
+    public String getNumeroCuenta() { return numeroCuenta; }
+    public double getMonto() { return monto; }
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public LocalDateTime getFechaVencimiento() { return fechaVencimiento; }
+    public Estado getEstado() { return estado; }
+    // Monto efectivamente cobrado; 0 si no se capturó
+    public double getMontoCapturado() { return montoCapturado; }
+    public boolean estaActiva() { return estado == Estado.ACTIVA; }
+
+    @Override
+    public String toString() {
+        return String.format("Retencion[#%d %s - $%.2f - %s - vence %s]",
+                id, numeroCuenta, monto, estado, fechaVencimiento);
+    }
+}
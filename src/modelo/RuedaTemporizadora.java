@@ -0,0 +1,230 @@
+package modelo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Rueda de temporización jerárquica (Varghese y Lauck) para vencimientos masivos, como las retenciones.
+//
+// El tiempo avanza en ticks fijos. Hay cuatro niveles de 256 casillas: el nivel 0 cubre los próximos
+// 256 ticks, el nivel 1 los próximos 256² y así sucesivamente. Cada temporizador se cuelga de la
+// casilla que corresponde a su tick de vencimiento en el nivel más bajo que lo alcanza.
+// En cada tick sólo se procesa una casilla del nivel 0; cuando el nivel 0 da la vuelta, la casilla
+// siguiente del nivel 1 se redistribuye hacia abajo (y así con los niveles superiores).
+// Programar, cancelar y avanzar un tick cuestan O(1) amortizado sin importar cuántos temporizadores haya:
+// nunca se recorre la lista completa de pendientes.
+//
+// Las acciones vencidas se ejecutan en el hilo de la rueda, fuera de su candado,
+// de modo que pueden bloquear cuentas sin riesgo de interbloqueo con quien programa.
+public final class RuedaTemporizadora {
+    private static final int BITS_POR_NIVEL = 8;
+    private static final int CASILLAS = 1 << BITS_POR_NIVEL;
+    private static final int MASCARA = CASILLAS - 1;
+    private static final int NIVELES = 4;
+    private static final long MAXIMO_TICKS = (1L << (BITS_POR_NIVEL * NIVELES)) - 1;
+    private static final long TICK_POR_DEFECTO_MILIS = 10;
+    private static RuedaTemporizadora instancia;
+
+    private final long duracionTickNanos;
+    private final Temporizador[][] niveles;
+    private final long inicioNanos;
+    private final Thread hilo;
+    private long tickActual;
+    private int pendientes;
+    private volatile boolean activa;
+
+    public RuedaTemporizadora(Duration duracionTick) {
+        if (duracionTick == null || duracionTick.isNegative() || duracionTick.isZero()) {
+            throw new IllegalArgumentException("La duración del tick debe ser positiva");
+        }
+        this.duracionTickNanos = duracionTick.toNanos();
+        this.niveles = new Temporizador[NIVELES][CASILLAS];
+        for (Temporizador[] nivel : niveles) {
+            for (int i = 0; i < CASILLAS; i++) {
+                nivel[i] = Temporizador.centinela();
+            }
+        }
+        this.inicioNanos = System.nanoTime();
+        this.activa = true;
+        this.hilo = new Thread(this::ejecutar, "rueda-temporizadora");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    // Metodo para obtener la instancia única usada por las cuentas (ticks de 10 ms)
+    public static synchronized RuedaTemporizadora getInstance() {
+        if (instancia == null) {
+            instancia = new RuedaTemporizadora(Duration.ofMillis(TICK_POR_DEFECTO_MILIS));
+        }
+        return instancia;
+    }
+
+    // Programa la acción para dentro de la espera indicada, con la precisión de un tick.
+    // Rechaza esperas mayores que getEsperaMaxima en lugar de adelantarlas.
+    public Temporizador programar(Duration espera, Runnable accion) {
+        if (espera == null || espera.isNegative()) {
+            throw new IllegalArgumentException("La espera no puede ser negativa");
+        }
+        if (espera.compareTo(getEsperaMaxima()) > 0) {
+            throw new IllegalArgumentException("La espera supera el máximo de la rueda: " + getEsperaMaxima());
+        }
+        if (accion == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+
+        long ticks = (espera.toNanos() + duracionTickNanos - 1) / duracionTickNanos;
+        // Se cuenta desde el tick de reloj en curso (la rueda puede ir atrasada) más uno por la fracción
+        // ya transcurrida de ese tick, así la acción nunca se ejecuta antes de la espera pedida
+        long tickReloj = (System.nanoTime() - inicioNanos) / duracionTickNanos;
+        Temporizador temporizador = new Temporizador(this, accion);
+        synchronized (this) {
+            temporizador.vencimiento = Math.max(tickActual, tickReloj) + ticks + 1;
+            colgar(temporizador);
+            pendientes++;
+        }
+        return temporizador;
+    }
+
+    public synchronized int getPendientes() {
+        return pendientes;
+    }
+
+    public Duration getDuracionTick() {
+        return Duration.ofNanos(duracionTickNanos);
+    }
+
+    // Espera más larga que alcanzan los cuatro niveles (unos 497 días con ticks de 10 ms)
+    public Duration getEsperaMaxima() {
+        return Duration.ofNanos(duracionTickNanos).multipliedBy(MAXIMO_TICKS - 1);
+    }
+
+    // Detiene el hilo de la rueda; los temporizadores pendientes no se ejecutan
+    public void detener() {
+        activa = false;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Métodos privados
+
+    private void ejecutar() {
+        List<Temporizador> vencidos = new ArrayList<>();
+        while (activa) {
+            long tickObjetivo = (System.nanoTime() - inicioNanos) / duracionTickNanos;
+            synchronized (this) {
+                while (tickActual < tickObjetivo) {
+                    avanzarTick(vencidos);
+                }
+            }
+
+            for (int i = 0; i < vencidos.size(); i++) {
+                try {
+                    vencidos.get(i).accion.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Error en temporizador: " + e.getMessage());
+                }
+            }
+            vencidos.clear();
+
+            long siguienteTick = inicioNanos + (tickObjetivo + 1) * duracionTickNanos;
+            LockSupport.parkNanos(Math.max(TimeUnit.MICROSECONDS.toNanos(100), siguienteTick - System.nanoTime()));
+        }
+    }
+
+    // Avanza un tick: redistribuye los niveles superiores si el nivel 0 dio la vuelta
+    // y recoge los temporizadores de la casilla actual
+    private void avanzarTick(List<Temporizador> vencidos) {
+        tickActual++;
+        for (int nivel = 1; nivel < NIVELES; nivel++) {
+            if ((tickActual & ((1L << (BITS_POR_NIVEL * nivel)) - 1)) != 0) {
+                break;
+            }
+            Temporizador centinela = niveles[nivel][(int) (tickActual >>> (BITS_POR_NIVEL * nivel)) & MASCARA];
+            Temporizador actual = centinela.siguiente;
+            centinela.vaciar();
+            while (actual != centinela) {
+                Temporizador siguiente = actual.siguiente;
+                colgar(actual);
+                actual = siguiente;
+            }
+        }
+
+        Temporizador centinela = niveles[0][(int) tickActual & MASCARA];
+        Temporizador actual = centinela.siguiente;
+        centinela.vaciar();
+        while (actual != centinela) {
+            Temporizador siguiente = actual.siguiente;
+            actual.anterior = null;
+            actual.siguiente = null;
+            pendientes--;
+            vencidos.add(actual);
+            actual = siguiente;
+        }
+    }
+
+    // Cuelga el temporizador en la casilla del nivel más bajo que alcanza su vencimiento
+    private void colgar(Temporizador temporizador) {
+        // Al redistribuir, un vencimiento igual al tick actual cae en la casilla que se procesa a continuación
+        long vencimiento = Math.max(temporizador.vencimiento, tickActual);
+        long restante = vencimiento - tickActual;
+        int nivel = 0;
+        while (nivel < NIVELES - 1 && restante >= (1L << (BITS_POR_NIVEL * (nivel + 1)))) {
+            nivel++;
+        }
+        int casilla = (int) (vencimiento >>> (BITS_POR_NIVEL * nivel)) & MASCARA;
+        niveles[nivel][casilla].enlazarAntes(temporizador);
+    }
+
+    // Temporizador programado; se cancela en O(1) desenlazándolo de su casilla
+    public static final class Temporizador {
+        private final RuedaTemporizadora rueda;
+        private final Runnable accion;
+        private long vencimiento;
+        private Temporizador anterior;
+        private Temporizador siguiente;
+
+        private Temporizador(RuedaTemporizadora rueda, Runnable accion) {
+            this.rueda = rueda;
+            this.accion = accion;
+        }
+
+        private static Temporizador centinela() {
+            Temporizador centinela = new Temporizador(null, null);
+            centinela.vaciar();
+            return centinela;
+        }
+
+        // Cancela el temporizador; devuelve false si ya venció o ya estaba cancelado
+        public boolean cancelar() {
+            synchronized (rueda) {
+                if (siguiente == null) {
+                    return false;
+                }
+                anterior.siguiente = siguiente;
+                siguiente.anterior = anterior;
+                anterior = null;
+                siguiente = null;
+                rueda.pendientes--;
+                return true;
+            }
+        }
+
+        private void vaciar() {
+            anterior = this;
+            siguiente = this;
+        }
+
+        private void enlazarAntes(Temporizador nuevo) {
+            nuevo.siguiente = this;
+            nuevo.anterior = anterior;
+            anterior.siguiente = nuevo;
+            anterior = nuevo;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package modelo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+
+// Segmento inmutable en disco con un bloque contiguo del historial de una cuenta.
+//
+// Formato del archivo:
+// - Encabezado sin comprimir: magia, versión, cantidad, primera y última fecha (nanosegundos desde la época),
+//   longitud del contenido sin comprimir y comprimido
+// - Contenido comprimido con Deflate:
+//   tabla de tipos (código -> nombre) y por cada transacción:
+//   código de tipo, delta de la fecha respecto a la anterior, monto y, si la tiene, clave de idempotencia.
+//   El código de tipo lleva dos banderas: monto exacto en centavos y presencia de clave.
+//   Los montos con centavos exactos se guardan como delta en centavos respecto al anterior;
+//   los demás (por ejemplo intereses con fracciones de centavo) se guardan como double completo.
+//   Los deltas usan enteros de longitud variable en zigzag.
+//   La versión 1 del formato no tenía claves de idempotencia; se sigue pudiendo leer.
+//
+// El segmento se lee con un mapeo de memoria y sólo cuando se consulta;
+// el contenido decodificado se conserva en una referencia suave que el GC puede liberar.
+final class SegmentoArchivado {
+    private static final int MAGIA = 0x43445347; // "CDSG"
+    private static final byte VERSION_FORMATO = 2;
+    private static final byte VERSION_SIN_CLAVES = 1;
+    private static final int TAMANO_ENCABEZADO = 4 + 1 + 4 + 8 + 8 + 4 + 4;
+    private static final int BANDERA_MONTO_EXACTO = 0x80;
+    private static final int BANDERA_CLAVE = 0x40;
+    private static final int MASCARA_TIPO = 0x3F;
+
+    private final Path archivo;
+    private final int cantidad;
+    private final LocalDateTime primeraFecha;
+    private final LocalDateTime ultimaFecha;
+    private SoftReference<List<Transaccion>> cache;
+
+    private SegmentoArchivado(Path archivo, int cantidad, LocalDateTime primeraFecha, LocalDateTime ultimaFecha) {
+        this.archivo = archivo;
+        this.cantidad = cantidad;
+        this.primeraFecha = primeraFecha;
+        this.ultimaFecha = ultimaFecha;
+        this.cache = new SoftReference<>(null);
+    }
+
+    // Escribe las transacciones en un nuevo segmento. El archivo se escribe primero en un
+    // temporal y se renombra al final, de modo que nunca queda un segmento a medias.
+    static SegmentoArchivado escribir(Path archivo, List<Transaccion> transacciones) throws IOException {
+        if (transacciones.isEmpty()) {
+            throw new IllegalArgumentException("No se puede archivar un segmento vacío");
+        }
+
+        byte[] contenido = codificar(transacciones);
+        byte[] comprimido = comprimir(contenido);
+
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANO_ENCABEZADO + comprimido.length);
+        buffer.putInt(MAGIA)
+                .put(VERSION_FORMATO)
+                .putInt(transacciones.size())
+                .putLong(aNanos(transacciones.get(0).getFecha()))
+                .putLong(aNanos(transacciones.get(transacciones.size() - 1).getFecha()))
+                .putInt(contenido.length)
+                .putInt(comprimido.length)
+                .put(comprimido)
+                .flip();
+
+        Files.createDirectories(archivo.toAbsolutePath().getParent());
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        SegmentoArchivado segmento = new SegmentoArchivado(archivo, transacciones.size(),
+                transacciones.get(0).getFecha(), transacciones.get(transacciones.size() - 1).getFecha());
+        segmento.cache = new SoftReference<>(Collections.unmodifiableList(new ArrayList<>(transacciones)));
+        return segmento;
+    }
+
+    // Devuelve las transacciones del segmento, leyéndolas del disco si el GC liberó la copia en memoria
+    synchronized List<Transaccion> leer() {
+        List<Transaccion> transacciones = cache.get();
+        if (transacciones == null) {
+            transacciones = Collections.unmodifiableList(cargar());
+            cache = new SoftReference<>(transacciones);
+        }
+        return transacciones;
+    }
+
+    // Indica si el segmento puede contener transacciones dentro del rango [desde, hasta]
+    boolean seSolapaCon(LocalDateTime desde, LocalDateTime hasta) {
+        return !ultimaFecha.isBefore(desde) && !primeraFecha.isAfter(hasta);
+    }
+
+    // Getters
+    int getCantidad() { return cantidad; }
+    Path getArchivo() { return archivo; }
+    LocalDateTime getPrimeraFecha() { return primeraFecha; }
+    LocalDateTime getUltimaFecha() { return ultimaFecha; }
+
+    // Métodos privados
+
+    private List<Transaccion> cargar() {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer mapeo = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            int magia = mapeo.getInt();
+            byte version = mapeo.get();
+            if (magia != MAGIA || (version != VERSION_FORMATO && version != VERSION_SIN_CLAVES)) {
+                throw new IllegalStateException("Segmento de historial inválido: " + archivo);
+            }
+            int total = mapeo.getInt();
+            mapeo.getLong(); // primera fecha, ya conocida
+            mapeo.getLong(); // última fecha, ya conocida
+            int longitudContenido = mapeo.getInt();
+            int longitudComprimida = mapeo.getInt();
+            if (longitudComprimida < 0 || longitudComprimida > mapeo.remaining()) {
+                throw new IOException("Segmento de historial truncado: " + archivo);
+            }
+            mapeo.limit(mapeo.position() + longitudComprimida);
+
+            byte[] contenido = Compresion.descomprimir(mapeo, longitudContenido);
+            return decodificar(ByteBuffer.wrap(contenido), total);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + archivo, e);
+        }
+    }
+
+    private static byte[] codificar(List<Transaccion> transacciones) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(transacciones.size() * 6);
+
+        // Tabla de tipos: pocos valores distintos, se guardan una vez
+        List<String> tipos = new ArrayList<>();
+        for (Transaccion transaccion : transacciones) {
+            if (!tipos.contains(transaccion.getTipo())) {
+                tipos.add(transaccion.getTipo());
+            }
+        }
+        if (tipos.size() > MASCARA_TIPO + 1) {
+            throw new IllegalStateException("Demasiados tipos de transacción distintos en un segmento");
+        }
+        escribirVarint(salida, tipos.size());
+        for (String tipo : tipos) {
+            byte[] bytes = tipo.getBytes(StandardCharsets.UTF_8);
+            escribirVarint(salida, bytes.length);
+            salida.write(bytes, 0, bytes.length);
+        }
+
+        long fechaAnterior = aNanos(transacciones.get(0).getFecha());
+        escribirVarint(salida, zigzag(fechaAnterior));
+        long centavosAnterior = 0;
+        for (Transaccion transaccion : transacciones) {
+            long fecha = aNanos(transaccion.getFecha());
+            long centavos = Math.round(transaccion.getMonto() * 100);
+            boolean exacto = centavos / 100.0 == transaccion.getMonto();
+
+            String clave = transaccion.getClaveIdempotencia();
+            int codigo = tipos.indexOf(transaccion.getTipo());
+            if (exacto) {
+                codigo |= BANDERA_MONTO_EXACTO;
+            }
+            if (clave != null) {
+                codigo |= BANDERA_CLAVE;
+            }
+            salida.write(codigo);
+            escribirVarint(salida, zigzag(fecha - fechaAnterior));
+            if (exacto) {
+                escribirVarint(salida, zigzag(centavos - centavosAnterior));
+                centavosAnterior = centavos;
+            } else {
+                long bits = Double.doubleToLongBits(transaccion.getMonto());
+                for (int i = 7; i >= 0; i--) {
+                    salida.write((int) (bits >>> (i * 8)));
+                }
+            }
+            if (clave != null) {
+                byte[] bytes = clave.getBytes(StandardCharsets.UTF_8);
+                escribirVarint(salida, bytes.length);
+                salida.write(bytes, 0, bytes.length);
+            }
+            fechaAnterior = fecha;
+        }
+        return salida.toByteArray();
+    }
+
+    private static List<Transaccion> decodificar(ByteBuffer entrada, int total) {
+        int cantidadTipos = (int) leerVarint(entrada);
+        String[] tipos = new String[cantidadTipos];
+        for (int i = 0; i < cantidadTipos; i++) {
+            byte[] bytes = new byte[(int) leerVarint(entrada)];
+            entrada.get(bytes);
+            tipos[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        List<Transaccion> transacciones = new ArrayList<>(total);
+        long fecha = deszigzag(leerVarint(entrada));
+        long centavos = 0;
+        for (int i = 0; i < total; i++) {
+            int codigo = entrada.get() & 0xFF;
+            fecha += deszigzag(leerVarint(entrada));
+            double monto;
+            if ((codigo & BANDERA_MONTO_EXACTO) != 0) {
+                centavos += deszigzag(leerVarint(entrada));
+                monto = centavos / 100.0;
+            } else {
+                monto = Double.longBitsToDouble(entrada.getLong());
+            }
+            String clave = null;
+            if ((codigo & BANDERA_CLAVE) != 0) {
+                byte[] bytes = new byte[(int) leerVarint(entrada)];
+                entrada.get(bytes);
+                clave = new String(bytes, StandardCharsets.UTF_8);
+            }
+            String tipo = tipos[codigo & MASCARA_TIPO];
+            transacciones.add(new Transaccion(tipo, monto, deNanos(fecha), clave));
+        }
+        return transacciones;
+    }
+
+    private static byte[] comprimir(byte[] contenido) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(contenido);
+            deflater.finish();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(contenido.length / 2 + 64);
+            byte[] bloque = new byte[8192];
+            while (!deflater.finished()) {
+                int escritos = deflater.deflate(bloque);
+                salida.write(bloque, 0, escritos);
+            }
+            return salida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void escribirVarint(ByteArrayOutputStream salida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            salida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        salida.write((int) valor);
+    }
+
+    private static long leerVarint(ByteBuffer entrada) {
+        long valor = 0;
+        int desplazamiento = 0;
+        byte b;
+        do {
+            b = entrada.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long deszigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    private static long aNanos(LocalDateTime fecha) {
+        return fecha.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + fecha.getNano();
+    }
+
+    private static LocalDateTime deNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
@@ -1,6 +1,7 @@
 package modelo;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
@@ -9,21 +10,40 @@ public final class Transaccion {
     private final String tipo;
     private final double monto;
     private final LocalDateTime fecha;
+    // Clave de idempotencia con la que llegó la operación; null si no traía
+    private final String claveIdempotencia;
     private static final DateTimeFormatter FORMATEADOR =
             DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    // Huella de un historial sin transacciones; primer eslabón de la cadena
+    public static final long HUELLA_INICIAL = 0x436F6F7044696769L;
 
     // Constructor
     public Transaccion(String tipo, double monto) {
+        this(tipo, monto, LocalDateTime.now());
+    }
+
+    // Constructor con fecha explícita, usado al recuperar transacciones archivadas
+    public Transaccion(String tipo, double monto, LocalDateTime fecha) {
+        this(tipo, monto, fecha, null);
+    }
+
+    // Constructor con fecha y clave de idempotencia (null si la operación no traía clave)
+    public Transaccion(String tipo, double monto, LocalDateTime fecha, String claveIdempotencia) {
         validarDatos(tipo, monto);
+        if (fecha == null) {
+            throw new IllegalArgumentException("La fecha de la transacción es requerida");
+        }
         this.tipo = tipo.trim().toUpperCase();
         this.monto = monto;
-        this.fecha = LocalDateTime.now();
+        this.fecha = fecha;
+        this.claveIdempotencia = claveIdempotencia;
     }
 
     // Getters básicos
     public String getTipo() { return tipo; }
     public double getMonto() { return monto; }
     public LocalDateTime getFecha() { return fecha; }
+    public String getClaveIdempotencia() { return claveIdempotencia; }
 
     // Formatea la fecha para presentación legible
     public String getFechaLegible() {
@@ -35,6 +55,28 @@ public final class Transaccion {
         return this.tipo.equals(tipoConsulta.toUpperCase());
     }
 
+    // Efecto de la transacción sobre el saldo de la cuenta.
+    // TRANSFERENCIA_ENVIADA es informativa: el débito ya quedó registrado como RETIRO.
+    public double getEfectoEnSaldo() {
+        return switch (tipo) {
+            case "DEPÓSITO", "INTERÉS" -> monto;
+            case "RETIRO" -> -monto;
+            default -> 0.0;
+        };
+    }
+
+    // Siguiente eslabón de la cadena de huellas del historial: combina la huella anterior
+    // con el tipo, el monto, la fecha exacta y la clave de idempotencia (si tiene) de esta transacción
+    // (mezcla de 64 bits tipo SplitMix).
+    // Cambiar, quitar o reordenar cualquier transacción anterior cambia todas las huellas siguientes.
+    public long encadenarHuella(long huellaAnterior) {
+        long huella = mezclar(huellaAnterior ^ tipo.hashCode());
+        huella = mezclar(huella ^ Double.doubleToLongBits(monto));
+        huella = mezclar(huella ^ fecha.toEpochSecond(ZoneOffset.UTC));
+        huella = mezclar(huella ^ fecha.getNano());
+        return claveIdempotencia == null ? huella : mezclar(huella ^ claveIdempotencia.hashCode());
+    }
+
     @Override
     public String toString() {
         return String.format("[%s] %s - $%.2f", getFechaLegible(), tipo, monto);
@@ -47,12 +89,20 @@ public final class Transaccion {
         Transaccion that = (Transaccion) o;
         return Double.compare(that.monto, monto) == 0 &&
                 Objects.equals(tipo, that.tipo) &&
-                Objects.equals(fecha, that.fecha);
+                Objects.equals(fecha, that.fecha) &&
+                Objects.equals(claveIdempotencia, that.claveIdempotencia);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(tipo, monto, fecha);
+        return Objects.hash(tipo, monto, fecha, claveIdempotencia);
+    }
+
+    private static long mezclar(long valor) {
+        valor += 0x9E3779B97F4A7C15L;
+        valor = (valor ^ (valor >>> 30)) * 0xBF58476D1CE4E5B9L;
+        valor = (valor ^ (valor >>> 27)) * 0x94D049BB133111EBL;
+        return valor ^ (valor >>> 31);
     }
 
     private void validarDatos(String tipo, double monto) {
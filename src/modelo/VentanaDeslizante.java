@@ -0,0 +1,80 @@
+package modelo;
+
+import java.util.Arrays;
+
+// Acumulador de montos sobre una ventana de tiempo deslizante dividida en cubetas.
+// Por ejemplo, una ventana de 24 horas con 96 cubetas de 15 minutos.
+//
+// La memoria es fija y sumar y consultar cuestan O(1), salvo la primera operación de cada cubeta nueva:
+// entonces se vacían las cubetas que salieron de la ventana y se recalcula el total recorriéndolas.
+// La precisión es de una cubeta: un monto sale de la ventana cuando sale su cubeta completa.
+//
+// No es segura para hilos por sí misma: la sincroniza quien la usa (ControlLimites).
+final class VentanaDeslizante {
+    private final long anchoCubetaMilis;
+    private final double[] sumas;
+    private double total;
+    // Índice absoluto (tiempo / ancho) de la cubeta más reciente que se tocó
+    private long cubetaActual;
+
+    VentanaDeslizante(long duracionMilis, int cantidadCubetas) {
+        if (duracionMilis <= 0 || cantidadCubetas <= 0 || duracionMilis % cantidadCubetas != 0) {
+            throw new IllegalArgumentException("La duración de la ventana debe dividirse exactamente en cubetas");
+        }
+        this.anchoCubetaMilis = duracionMilis / cantidadCubetas;
+        this.sumas = new double[cantidadCubetas];
+        this.cubetaActual = Long.MIN_VALUE;
+    }
+
+    // Total acumulado dentro de la ventana que termina en el instante indicado
+    double total(long ahoraMilis) {
+        avanzar(ahoraMilis);
+        return total;
+    }
+
+    // Suma el monto en la cubeta del instante indicado. Si otro hilo ya hizo avanzar la ventana
+    // más allá de ese instante, el monto va a su cubeta si sigue dentro de la ventana; si ya salió, se ignora.
+    void sumar(double monto, long ahoraMilis) {
+        avanzar(ahoraMilis);
+        acumular(monto, Math.floorDiv(ahoraMilis, anchoCubetaMilis));
+    }
+
+    // Revierte un monto sumado en el instante indicado (por ejemplo si otra validación falló).
+    // Lo quita de la cubeta en que se sumó, aunque la ventana ya haya avanzado; si esa cubeta
+    // ya salió de la ventana, el monto ya no cuenta y no hay nada que revertir.
+    void restar(double monto, long instanteSumaMilis) {
+        acumular(-monto, Math.floorDiv(instanteSumaMilis, anchoCubetaMilis));
+    }
+
+    private void acumular(double monto, long cubeta) {
+        if (cubeta > cubetaActual || cubetaActual - cubeta >= sumas.length) {
+            return;
+        }
+        sumas[(int) Math.floorMod(cubeta, (long) sumas.length)] += monto;
+        total += monto;
+    }
+
+    private void avanzar(long ahoraMilis) {
+        long cubeta = Math.floorDiv(ahoraMilis, anchoCubetaMilis);
+        if (cubeta <= cubetaActual) {
+            return;
+        }
+
+        if (cubetaActual == Long.MIN_VALUE || cubeta - cubetaActual >= sumas.length) {
+            Arrays.fill(sumas, 0.0);
+            total = 0.0;
+        } else {
+            for (long c = cubetaActual + 1; c <= cubeta; c++) {
+                sumas[(int) Math.floorMod(c, (long) sumas.length)] = 0.0;
+            }
+            // Se recalcula en lugar de restar lo que sale: restar y sumar dobles durante días
+            // acumula error de redondeo y el total podría no volver a cero con la ventana vacía
+            double suma = 0.0;
+            for (double parcial : sumas) {
+                suma += parcial;
+            }
+            total = suma;
+        }
+        cubetaActual = cubeta;
+    }
+}
@@ -0,0 +1,248 @@
+package replicacion;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+// Formato binario del diario de replicación, el mismo en el archivo y en el socket.
+// Cada trama es:
+//   tipo (1 byte) | longitud del contenido (4 bytes) | contenido | CRC32 del contenido (4 bytes)
+// El archivo del diario sólo contiene tramas REGISTRO, así el primario puede enviar rangos del archivo
+// tal cual al socket; las demás sólo viajan por la conexión.
+//
+// El CRC de cada registro también lo identifica: al reconectar, el respaldo informa el de su último registro
+// aplicado y el primario lo compara con el de su diario (ver RECHAZO).
+final class FormatoDiario {
+    static final byte REGISTRO = 1;
+    // Primario -> respaldo, antes de cada rango de registros y periódicamente: última secuencia del diario
+    // y hora del primario
+    static final byte LATIDO = 2;
+    // Respaldo -> primario al conectar: última secuencia aplicada y CRC de ese registro
+    static final byte HOLA = 3;
+    // Respaldo -> primario: última secuencia aplicada
+    static final byte CONFIRMACION = 4;
+    // Primario -> respaldo: su diario no contiene lo que el respaldo aplicó (es más corto o se reescribió,
+    // por ejemplo tras perder su final en una caída sin forzar a disco); el respaldo debe reconstruirse
+    static final byte RECHAZO = 5;
+
+    static final int TAMANO_CABECERA = 5;
+    static final int TAMANO_COLA = 4;
+    private static final int MAXIMO_CONTENIDO = 1 << 20;
+
+    // Buffers reutilizados para codificar registros; cada instancia la usa un solo hilo
+    private final ByteArrayOutputStream contenido;
+    private final DataOutputStream datos;
+    private final CRC32 crc;
+
+    FormatoDiario() {
+        this.contenido = new ByteArrayOutputStream(256);
+        this.datos = new DataOutputStream(contenido);
+        this.crc = new CRC32();
+    }
+
+    // Agrega al destino la trama de un registro
+    void escribirRegistro(DataOutputStream destino, long secuencia, long commitEpochMilis, String tipo,
+                          String numeroCuenta, double monto, double saldoResultante, LocalDateTime fechaTransaccion,
+                          String clave, String documento, String detalle) throws IOException {
+        contenido.reset();
+        datos.writeLong(secuencia);
+        datos.writeLong(commitEpochMilis);
+        datos.writeUTF(tipo);
+        escribirTexto(numeroCuenta);
+        datos.writeDouble(monto);
+        datos.writeDouble(saldoResultante);
+        datos.writeBoolean(fechaTransaccion != null);
+        if (fechaTransaccion != null) {
+            datos.writeLong(fechaTransaccion.toEpochSecond(ZoneOffset.UTC));
+            datos.writeInt(fechaTransaccion.getNano());
+        }
+        escribirTexto(clave);
+        escribirTexto(documento);
+        escribirTexto(detalle);
+
+        crc.reset();
+        crc.update(contenido.toByteArray());
+        destino.writeByte(REGISTRO);
+        destino.writeInt(contenido.size());
+        contenido.writeTo(destino);
+        destino.writeInt((int) crc.getValue());
+    }
+
+    // Trama de control (LATIDO, HOLA o CONFIRMACION) con sus valores, lista para escribir en el socket
+    static ByteBuffer tramaControl(byte tipo, long... valores) {
+        ByteBuffer contenido = ByteBuffer.allocate(valores.length * Long.BYTES);
+        for (long valor : valores) {
+            contenido.putLong(valor);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(contenido.array());
+
+        ByteBuffer trama = ByteBuffer.allocate(TAMANO_CABECERA + contenido.capacity() + TAMANO_COLA);
+        trama.put(tipo).putInt(contenido.capacity()).put(contenido.array()).putInt((int) crc.getValue());
+        return trama.flip();
+    }
+
+    // Recorre las tramas de un archivo de diario y devuelve el byte donde termina la última válida.
+    // Sólo la última trama puede estar cortada o dañada (el proceso cayó mientras la escribía, o el sistema
+    // no llegó a guardarla entera): se ignora y queda fuera de la posición devuelta. Una trama dañada con más
+    // datos detrás produce IOException, porque ignorarla descartaría los registros válidos que la siguen.
+    static long recorrerArchivo(Path archivo, ConsumidorRegistro consumidor) throws IOException {
+        long posicion = 0;
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            while (true) {
+                Trama trama;
+                try {
+                    trama = leer(entrada);
+                } catch (EOFException e) {
+                    return posicion;
+                } catch (TramaDanada e) {
+                    validarFinal(archivo, posicion, e.longitudTotal, e);
+                    return posicion;
+                } catch (IOException e) {
+                    throw danado(archivo, posicion, e);
+                }
+                if (trama == null) {
+                    return posicion;
+                }
+                if (trama.getTipo() != REGISTRO) {
+                    IOException error = new IOException("Trama de tipo " + trama.getTipo() + " en el archivo");
+                    validarFinal(archivo, posicion, trama.getLongitudTotal(), error);
+                    return posicion;
+                }
+                consumidor.aceptar(trama.comoRegistro(), posicion);
+                posicion += trama.getLongitudTotal();
+            }
+        }
+    }
+
+    // Lee la siguiente trama. Devuelve null si la entrada termina justo entre dos tramas;
+    // una trama cortada produce EOFException y una con CRC inválido, TramaDanada.
+    static Trama leer(DataInputStream entrada) throws IOException {
+        int tipo = entrada.read();
+        if (tipo < 0) {
+            return null;
+        }
+        int longitud = entrada.readInt();
+        if (longitud < 0 || longitud > MAXIMO_CONTENIDO) {
+            throw new IOException("Longitud de trama inválida: " + longitud);
+        }
+        byte[] contenido = new byte[longitud];
+        entrada.readFully(contenido);
+        int esperado = entrada.readInt();
+
+        CRC32 crc = new CRC32();
+        crc.update(contenido);
+        if ((int) crc.getValue() != esperado) {
+            throw new TramaDanada(TAMANO_CABECERA + longitud + TAMANO_COLA);
+        }
+        return new Trama((byte) tipo, contenido, esperado);
+    }
+
+    // Métodos privados
+
+    // Una trama dañada sólo se tolera si es la última del archivo
+    private static void validarFinal(Path archivo, long posicion, long longitudTotal, IOException error)
+            throws IOException {
+        if (posicion + longitudTotal < Files.size(archivo)) {
+            throw danado(archivo, posicion, error);
+        }
+    }
+
+    private static IOException danado(Path archivo, long posicion, IOException error) {
+        return new IOException("El diario " + archivo + " está dañado en el byte " + posicion
+                + " y tiene datos después: " + error.getMessage(), error);
+    }
+
+    private void escribirTexto(String texto) throws IOException {
+        datos.writeBoolean(texto != null);
+        if (texto != null) {
+            datos.writeUTF(texto);
+        }
+    }
+
+    interface ConsumidorRegistro {
+        // Recibe cada registro del archivo con la posición donde empieza su trama
+        void aceptar(RegistroReplicado registro, long posicion);
+    }
+
+    // Trama completa cuyo CRC no coincide con su contenido
+    static final class TramaDanada extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final int longitudTotal;
+
+        private TramaDanada(int longitudTotal) {
+            super("CRC inválido en una trama del diario");
+            this.longitudTotal = longitudTotal;
+        }
+    }
+
+    // Trama leída y ya verificada
+    static final class Trama {
+        private final byte tipo;
+        private final byte[] contenido;
+        private final int crc;
+
+        private Trama(byte tipo, byte[] contenido, int crc) {
+            this.tipo = tipo;
+            this.contenido = contenido;
+            this.crc = crc;
+        }
+
+        byte getTipo() {
+            return tipo;
+        }
+
+        // Bytes que ocupa la trama completa
+        int getLongitudTotal() {
+            return TAMANO_CABECERA + contenido.length + TAMANO_COLA;
+        }
+
+        // Valor de una trama de control
+        long valor(int indice) {
+            if ((indice + 1) * Long.BYTES > contenido.length) {
+                throw new IllegalStateException("La trama no tiene el valor " + indice);
+            }
+            return ByteBuffer.wrap(contenido).getLong(indice * Long.BYTES);
+        }
+
+        RegistroReplicado comoRegistro() throws IOException {
+            if (tipo != REGISTRO) {
+                throw new IllegalStateException("La trama no es un registro: " + tipo);
+            }
+            try {
+                DataInputStream datos = new DataInputStream(new ByteArrayInputStream(contenido));
+                long secuencia = datos.readLong();
+                long commitEpochMilis = datos.readLong();
+                String tipoRegistro = datos.readUTF();
+                String numeroCuenta = leerTexto(datos);
+                double monto = datos.readDouble();
+                double saldoResultante = datos.readDouble();
+                LocalDateTime fecha = null;
+                if (datos.readBoolean()) {
+                    fecha = LocalDateTime.ofEpochSecond(datos.readLong(), datos.readInt(), ZoneOffset.UTC);
+                }
+                String clave = leerTexto(datos);
+                String documento = leerTexto(datos);
+                String detalle = leerTexto(datos);
+                return new RegistroReplicado(secuencia, commitEpochMilis, tipoRegistro, numeroCuenta, monto,
+                        saldoResultante, fecha, clave, documento, detalle, crc);
+            } catch (EOFException e) {
+                throw new IOException("Registro incompleto en el diario", e);
+            }
+        }
+
+        private static String leerTexto(DataInputStream datos) throws IOException {
+            return datos.readBoolean() ? datos.readUTF() : null;
+        }
+    }
+}
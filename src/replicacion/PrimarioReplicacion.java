@@ -0,0 +1,495 @@
+package replicacion;
+
+import evento.BusEventos;
+import evento.ConsumidorEventos;
+import evento.EventoTransaccion;
+import modelo.DirectorioCuentas;
+import servicio.GestorClientes;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Lado primario de la replicación por envío del diario (respaldo en caliente).
+//
+// Se suscribe al bus de eventos y escribe cada mutación confirmada (transacciones y altas o bajas
+// de clientes y cuentas) como un registro numerado desde 1 en el archivo del diario, una escritura por lote
+// del bus. Los respaldos se conectan por un socket local e indican el último registro que aplicaron;
+// cada conexión tiene un hilo que envía los rangos nuevos del archivo directo al socket
+// (FileChannel.transferTo, sin copiarlos a memoria) apenas se escriben, sin esperar la confirmación
+// del lote anterior. Antes de cada rango va un latido con el último registro escrito, así el respaldo sabe
+// cuánto le falta mientras aplica ese rango y no recién al terminarlo. Las confirmaciones vuelven por la
+// misma conexión y alimentan las métricas de retraso del primario (la medida exacta; la del respaldo no
+// ve lo escrito después del último latido que recibió).
+//
+// Al abrir un diario existente se continúa la numeración y se descarta un registro final cortado; un registro
+// dañado en medio del archivo impide abrirlo, porque recortar ahí reutilizaría números ya enviados.
+// Un respaldo que aplicó registros que este diario no tiene, o distintos (el diario perdió su final sin
+// forzarDisco y volvió a numerar), se rechaza al conectar comparando el CRC de su último registro.
+// Debe conectarse al bus antes de cargar datos: lo ocurrido antes no queda en el diario, y no hay una copia
+// inicial para los respaldos (conectar lo rechaza).
+//
+// Si una escritura del diario falla, el primario se detiene (ver getFalla): una mutación que no quedó
+// en el diario no puede saltearse ni renumerarse sin que los respaldos diverjan en silencio.
+// Deja de escribir, corta a los respaldos y rechaza nuevas conexiones; hay que reconstruir los respaldos.
+public class PrimarioReplicacion implements ConsumidorEventos, AutoCloseable {
+    private static final String NOMBRE_CONSUMIDOR = "replicacion-primario";
+    private static final long INTERVALO_LATIDO_MILIS = 100;
+    // Se escribe al llegar a este tamaño aunque el lote del bus no haya terminado
+    private static final int BYTES_POR_ESCRITURA = 256 * 1024;
+    // Cada cuántos registros como mínimo se anota una posición en el índice de marcas
+    private static final long REGISTROS_POR_MARCA = 4096;
+
+    private final Path archivo;
+    private final boolean forzarDisco;
+    private final FileChannel canal;
+    // Sólo los usa el hilo consumidor del bus
+    private final FormatoDiario formato;
+    private final BufferLote lote;
+    private final DataOutputStream salidaLote;
+    private long siguienteSecuencia;
+    private long primeraDelLote;
+    private long ultimaMarca;
+
+    private volatile long ultimaSecuencia;
+    private volatile long bytesConfirmados;
+    // Secuencia -> posición en el archivo, para ubicar dónde empezar a enviar sin recorrer todo el diario
+    private final ConcurrentSkipListMap<Long, Long> marcas;
+    private final Object avisoEscritura;
+    private final List<EnvioRespaldo> envios;
+    private ServerSocketChannel servidor;
+    private int puerto;
+    private volatile boolean activo;
+    private volatile IOException falla;
+
+    // Abre (o crea) el diario. Con forzarDisco cada lote se fuerza a disco antes de enviarse,
+    // lo que protege también ante una caída del sistema operativo y no sólo del proceso.
+    public PrimarioReplicacion(Path archivo, boolean forzarDisco) throws IOException {
+        if (archivo == null) {
+            throw new IllegalArgumentException("El archivo del diario no puede ser nulo");
+        }
+        this.archivo = archivo;
+        this.forzarDisco = forzarDisco;
+        this.formato = new FormatoDiario();
+        this.lote = new BufferLote();
+        this.salidaLote = new DataOutputStream(lote);
+        this.marcas = new ConcurrentSkipListMap<>();
+        this.avisoEscritura = new Object();
+        this.envios = new CopyOnWriteArrayList<>();
+        this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            recuperar();
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        this.activo = true;
+    }
+
+    // Suscribe el primario al bus para escribir en el diario cada nueva mutación.
+    // Con el diario vacío se rechaza si este proceso ya tiene clientes o cuentas: no quedarían en el diario
+    // y un respaldo, que parte vacío, fallaría al recibir su primera operación.
+    public void conectar(BusEventos bus) {
+        if (ultimaSecuencia == 0 && (DirectorioCuentas.getInstance().getCantidad() > 0
+                || GestorClientes.getInstance().contarClientes() > 0)) {
+            throw new IllegalStateException("Hay clientes o cuentas cargados antes de conectar el diario de "
+                    + archivo + ": los respaldos no podrían reconstruirlos");
+        }
+        bus.suscribir(NOMBRE_CONSUMIDOR, this);
+    }
+
+    public void desconectar(BusEventos bus) {
+        bus.desuscribir(NOMBRE_CONSUMIDOR);
+    }
+
+    // Empieza a aceptar respaldos en el puerto local indicado (0 elige uno libre) y devuelve el puerto
+    public synchronized int escuchar(int puerto) throws IOException {
+        if (puerto < 0 || puerto > 65535) {
+            throw new IllegalArgumentException("Puerto inválido: " + puerto);
+        }
+        if (servidor != null) {
+            throw new IllegalStateException("El primario ya está escuchando en el puerto " + this.puerto);
+        }
+        servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto));
+        this.puerto = ((InetSocketAddress) servidor.getLocalAddress()).getPort();
+
+        Thread aceptador = new Thread(this::aceptar, "replicacion-aceptador");
+        aceptador.setDaemon(true);
+        aceptador.start();
+        return this.puerto;
+    }
+
+    @Override
+    public void alRecibir(EventoTransaccion evento, long secuencia, boolean finDeLote) {
+        if (falla != null) {
+            return;
+        }
+        try {
+            if (lote.size() == 0) {
+                primeraDelLote = siguienteSecuencia;
+            }
+            formato.escribirRegistro(salidaLote, siguienteSecuencia, evento.getFechaEpochMilis(), evento.getTipo(),
+                    evento.getNumeroCuenta(), evento.getMonto(), evento.getSaldoResultante(),
+                    evento.getFechaTransaccion(), evento.getClaveIdempotencia(), evento.getDocumentoCliente(),
+                    evento.getDetalle());
+            siguienteSecuencia++;
+            if (finDeLote || lote.size() >= BYTES_POR_ESCRITURA) {
+                escribirLote();
+            }
+        } catch (IOException e) {
+            fallar(e);
+            throw new UncheckedIOException("No se pudo escribir el diario de replicación; el primario se detuvo", e);
+        }
+    }
+
+    // Último registro escrito en el diario (0 si está vacío)
+    public long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+
+    // Último registro confirmado por el respaldo más adelantado (0 sin respaldos conectados)
+    public long getSecuenciaConfirmada() {
+        long confirmada = 0;
+        for (EnvioRespaldo envio : envios) {
+            confirmada = Math.max(confirmada, envio.confirmada);
+        }
+        return confirmada;
+    }
+
+    // Registros escritos que ningún respaldo confirmó todavía
+    public long getRetrasoRegistros() {
+        return Math.max(0, ultimaSecuencia - getSecuenciaConfirmada());
+    }
+
+    public int getRespaldosConectados() {
+        return envios.size();
+    }
+
+    public long getBytesDiario() {
+        return bytesConfirmados;
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    // Error de escritura que detuvo al primario; vacío mientras funciona
+    public Optional<IOException> getFalla() {
+        return Optional.ofNullable(falla);
+    }
+
+    public boolean estaFallido() {
+        return falla != null;
+    }
+
+    // Cierra las conexiones y el diario. Debe desconectarse del bus antes.
+    @Override
+    public void close() throws IOException {
+        activo = false;
+        synchronized (this) {
+            if (servidor != null) {
+                servidor.close();
+            }
+        }
+        for (EnvioRespaldo envio : envios) {
+            envio.cerrar();
+        }
+        synchronized (avisoEscritura) {
+            avisoEscritura.notifyAll();
+        }
+        canal.close();
+    }
+
+    // Métodos privados
+
+    // Lee el diario existente para continuar la numeración y descarta el registro final si quedó cortado
+    private void recuperar() throws IOException {
+        long[] ultima = new long[1];
+        long posicion = FormatoDiario.recorrerArchivo(archivo, (registro, inicio) -> {
+            if (registro.getSecuencia() != ultima[0] + 1) {
+                throw new IllegalStateException("El diario " + archivo + " salta del registro " + ultima[0]
+                        + " al " + registro.getSecuencia());
+            }
+            if (registro.getSecuencia() - ultimaMarca >= REGISTROS_POR_MARCA) {
+                marcas.put(registro.getSecuencia(), inicio);
+                ultimaMarca = registro.getSecuencia();
+            }
+            ultima[0] = registro.getSecuencia();
+        });
+        canal.truncate(posicion);
+        bytesConfirmados = posicion;
+        ultimaSecuencia = ultima[0];
+        siguienteSecuencia = ultima[0] + 1;
+    }
+
+    private void escribirLote() throws IOException {
+        ByteBuffer datos = lote.comoBuffer();
+        long inicio = bytesConfirmados;
+        long posicion = inicio;
+        while (datos.hasRemaining()) {
+            posicion += canal.write(datos, posicion);
+        }
+        if (forzarDisco) {
+            canal.force(false);
+        }
+        if (primeraDelLote - ultimaMarca >= REGISTROS_POR_MARCA) {
+            marcas.put(primeraDelLote, inicio);
+            ultimaMarca = primeraDelLote;
+        }
+        lote.reset();
+
+        // La secuencia antes que los bytes: quien ve los bytes nuevos ve también su secuencia (ver enviar)
+        ultimaSecuencia = siguienteSecuencia - 1;
+        bytesConfirmados = posicion;
+        synchronized (avisoEscritura) {
+            avisoEscritura.notifyAll();
+        }
+    }
+
+    // Detiene el diario tras un error de escritura: lo escrito a medias se recorta y los respaldos
+    // se desconectan con lo último que recibieron completo
+    private void fallar(IOException e) {
+        falla = e;
+        lote.reset();
+        try {
+            canal.truncate(bytesConfirmados);
+        } catch (IOException ignorada) {
+            e.addSuppressed(ignorada);
+        }
+        for (EnvioRespaldo envio : envios) {
+            envio.cerrar();
+        }
+        synchronized (avisoEscritura) {
+            avisoEscritura.notifyAll();
+        }
+    }
+
+    private void aceptar() {
+        while (activo) {
+            try {
+                SocketChannel socket = servidor.accept();
+                socket.socket().setTcpNoDelay(true);
+                if (falla != null) {
+                    socket.close();
+                    continue;
+                }
+                EnvioRespaldo envio = new EnvioRespaldo(socket);
+                envios.add(envio);
+                envio.iniciar();
+            } catch (IOException e) {
+                if (!servidor.isOpen()) {
+                    break;
+                }
+                System.err.println("Error al aceptar un respaldo: " + e.getMessage());
+            }
+        }
+    }
+
+    // CRC del registro con la secuencia indicada, que debe estar en el diario
+    private int crcRegistro(long secuencia) throws IOException {
+        long posicion = ubicar(secuencia - 1);
+        ByteBuffer cabecera = ByteBuffer.allocate(FormatoDiario.TAMANO_CABECERA + Long.BYTES);
+        leerCompleto(cabecera, posicion);
+        if (cabecera.getLong(FormatoDiario.TAMANO_CABECERA) != secuencia) {
+            throw new IOException("El diario no tiene el registro " + secuencia + " donde se esperaba");
+        }
+        ByteBuffer cola = ByteBuffer.allocate(FormatoDiario.TAMANO_COLA);
+        leerCompleto(cola, posicion + FormatoDiario.TAMANO_CABECERA + cabecera.getInt(1));
+        return cola.getInt(0);
+    }
+
+    private void leerCompleto(ByteBuffer destino, long posicion) throws IOException {
+        destino.clear();
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicion + destino.position()) < 0) {
+                throw new EOFException("Diario más corto de lo escrito");
+            }
+        }
+    }
+
+    // Posición del primer registro posterior a la secuencia indicada (o el fin de lo escrito)
+    private long ubicar(long secuenciaAplicada) throws IOException {
+        Map.Entry<Long, Long> marca = marcas.floorEntry(secuenciaAplicada + 1);
+        long posicion = marca == null ? 0 : marca.getValue();
+        long fin = bytesConfirmados;
+        ByteBuffer cabecera = ByteBuffer.allocate(FormatoDiario.TAMANO_CABECERA + Long.BYTES);
+        while (posicion < fin) {
+            leerCompleto(cabecera, posicion);
+            if (cabecera.getLong(FormatoDiario.TAMANO_CABECERA) > secuenciaAplicada) {
+                return posicion;
+            }
+            posicion += FormatoDiario.TAMANO_CABECERA + cabecera.getInt(1) + FormatoDiario.TAMANO_COLA;
+        }
+        return fin;
+    }
+
+    // Buffer del lote que expone sus bytes sin copiarlos
+    private static final class BufferLote extends ByteArrayOutputStream {
+        private BufferLote() {
+            super(64 * 1024);
+        }
+
+        private ByteBuffer comoBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    // Lectura directa del socket. Se evita Channels.newInputStream porque bloquea las escrituras
+    // del hilo emisor mientras espera datos.
+    private static final class EntradaSocket extends InputStream {
+        private final SocketChannel socket;
+
+        private EntradaSocket(SocketChannel socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] uno = new byte[1];
+            return read(uno, 0, 1) < 0 ? -1 : uno[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cantidad) throws IOException {
+            return socket.read(ByteBuffer.wrap(destino, desde, cantidad));
+        }
+    }
+
+    // Conexión con un respaldo: un hilo envía el diario y los latidos, otro lee las confirmaciones
+    private final class EnvioRespaldo {
+        private final SocketChannel socket;
+        private final DataInputStream entrada;
+        private volatile long confirmada;
+        private volatile boolean abierta;
+
+        private EnvioRespaldo(SocketChannel socket) {
+            this.socket = socket;
+            this.entrada = new DataInputStream(new BufferedInputStream(new EntradaSocket(socket)));
+            this.abierta = true;
+        }
+
+        private void iniciar() {
+            Thread emisor = new Thread(this::enviar, "replicacion-envio-" + socket.socket().getPort());
+            emisor.setDaemon(true);
+            emisor.start();
+        }
+
+        private void enviar() {
+            try {
+                FormatoDiario.Trama hola = FormatoDiario.leer(entrada);
+                if (hola == null || hola.getTipo() != FormatoDiario.HOLA) {
+                    throw new IOException("El respaldo no se presentó");
+                }
+                if (falla != null) {
+                    throw new IOException("El primario se detuvo por un error del diario: " + falla.getMessage());
+                }
+                long aplicada = hola.valor(0);
+                if (aplicada > ultimaSecuencia || (aplicada > 0 && crcRegistro(aplicada) != (int) hola.valor(1))) {
+                    escribir(FormatoDiario.tramaControl(FormatoDiario.RECHAZO, aplicada, ultimaSecuencia));
+                    throw new IOException("El respaldo aplicó hasta el registro " + aplicada + " y el diario, que termina"
+                            + " en el " + ultimaSecuencia + ", no tiene ese registro o tiene otro distinto");
+                }
+                confirmada = aplicada;
+
+                Thread lector = new Thread(this::leerConfirmaciones, "replicacion-confirmaciones-"
+                        + socket.socket().getPort());
+                lector.setDaemon(true);
+                lector.start();
+
+                long enviado = ubicar(aplicada);
+                long ultimoLatido = 0;
+                while (activo && abierta) {
+                    long fin = esperarEscritura(enviado, ultimoLatido + INTERVALO_LATIDO_MILIS);
+                    // El latido va delante del rango: detrás de los registros el respaldo lo leería recién
+                    // al terminar de aplicarlos y su retraso parecería siempre cero
+                    long ahora = System.currentTimeMillis();
+                    if (fin > enviado || ahora - ultimoLatido >= INTERVALO_LATIDO_MILIS) {
+                        escribir(FormatoDiario.tramaControl(FormatoDiario.LATIDO, ultimaSecuencia, ahora));
+                        ultimoLatido = ahora;
+                    }
+                    while (enviado < fin) {
+                        enviado += canal.transferTo(enviado, fin - enviado, socket);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (activo && abierta) {
+                    System.err.println("Replicación hacia " + socket.socket().getRemoteSocketAddress()
+                            + " terminada: " + e.getMessage());
+                }
+            } finally {
+                cerrar();
+            }
+        }
+
+        private void leerConfirmaciones() {
+            try {
+                FormatoDiario.Trama trama;
+                while (abierta && (trama = FormatoDiario.leer(entrada)) != null) {
+                    if (trama.getTipo() == FormatoDiario.CONFIRMACION) {
+                        confirmada = trama.valor(0);
+                    }
+                }
+            } catch (IOException e) {
+                // La conexión se cerró; el emisor lo detecta al escribir
+            } finally {
+                cerrar();
+            }
+        }
+
+        // Espera a que haya bytes nuevos escritos o hasta la hora límite; devuelve el fin de lo escrito
+        private long esperarEscritura(long enviado, long limiteMilis) {
+            synchronized (avisoEscritura) {
+                long espera;
+                while (activo && abierta && bytesConfirmados == enviado
+                        && (espera = limiteMilis - System.currentTimeMillis()) > 0) {
+                    try {
+                        avisoEscritura.wait(espera);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        abierta = false;
+                    }
+                }
+                return bytesConfirmados;
+            }
+        }
+
+        private void escribir(ByteBuffer trama) throws IOException {
+            while (trama.hasRemaining()) {
+                socket.write(trama);
+            }
+        }
+
+        private void cerrar() {
+            abierta = false;
+            envios.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ya estaba cerrado
+            }
+            synchronized (avisoEscritura) {
+                avisoEscritura.notifyAll();
+            }
+        }
+    }
+}
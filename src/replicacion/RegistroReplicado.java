@@ -0,0 +1,73 @@
+package replicacion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+// Una mutación confirmada en el primario, tal como viaja en el diario de replicación:
+// una transacción de una cuenta o un alta o baja de cliente o cuenta (ver EventoTransaccion).
+public final class RegistroReplicado {
+    private final long secuencia;
+    private final long commitEpochMilis;
+    private final String tipo;
+    private final String numeroCuenta;
+    private final double monto;
+    private final double saldoResultante;
+    private final LocalDateTime fechaTransaccion;
+    private final String claveIdempotencia;
+    private final String documentoCliente;
+    private final String detalle;
+    // CRC de la trama en el diario; identifica el registro al reconectar (ver FormatoDiario.HOLA)
+    private final int crc;
+
+    RegistroReplicado(long secuencia, long commitEpochMilis, String tipo, String numeroCuenta, double monto,
+                      double saldoResultante, LocalDateTime fechaTransaccion, String claveIdempotencia,
+                      String documentoCliente, String detalle, int crc) {
+        this.secuencia = secuencia;
+        this.commitEpochMilis = commitEpochMilis;
+        this.tipo = tipo;
+        this.numeroCuenta = numeroCuenta;
+        this.monto = monto;
+        this.saldoResultante = saldoResultante;
+        this.fechaTransaccion = fechaTransaccion;
+        this.claveIdempotencia = claveIdempotencia;
+        this.documentoCliente = documentoCliente;
+        this.detalle = detalle;
+        this.crc = crc;
+    }
+
+    // Recorre los registros de un archivo de diario en orden y devuelve cuántos leyó.
+    // Un registro final cortado (el primario cayó mientras escribía) se ignora; uno dañado en medio
+    // del archivo produce IOException (ver FormatoDiario.recorrerArchivo).
+    public static long recorrerDiario(Path archivo, Consumer<RegistroReplicado> accion) throws IOException {
+        if (archivo == null || accion == null) {
+            throw new IllegalArgumentException("El archivo y la acción no pueden ser nulos");
+        }
+        long[] cantidad = new long[1];
+        FormatoDiario.recorrerArchivo(archivo, (registro, posicion) -> {
+            accion.accept(registro);
+            cantidad[0]++;
+        });
+        return cantidad[0];
+    }
+
+    // Getters
+    public long getSecuencia() { return secuencia; }
+    public long getCommitEpochMilis() { return commitEpochMilis; }
+    public String getTipo() { return tipo; }
+    public String getNumeroCuenta() { return numeroCuenta; }
+    public double getMonto() { return monto; }
+    public double getSaldoResultante() { return saldoResultante; }
+    public LocalDateTime getFechaTransaccion() { return fechaTransaccion; }
+    public String getClaveIdempotencia() { return claveIdempotencia; }
+    public String getDocumentoCliente() { return documentoCliente; }
+    public String getDetalle() { return detalle; }
+    int getCrc() { return crc; }
+
+    @Override
+    public String toString() {
+        return String.format("#%d %s cuenta=%s cliente=%s monto=%.2f saldo=%.2f",
+                secuencia, tipo, numeroCuenta, documentoCliente, monto, saldoResultante);
+    }
+}
@@ -0,0 +1,380 @@
+package replicacion;
+
+import evento.EventoTransaccion;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.CuentaAhorros;
+import servicio.GestorClientes;
+import servicio.ReporteServicio;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Lado respaldo de la replicación: mantiene en este proceso una copia en caliente de GestorClientes
+// y de todas las cuentas aplicando el diario que envía el primario (ver PrimarioReplicacion).
+//
+// Un hilo se conecta al primario, le indica el último registro aplicado y aplica los que llegan en orden;
+// confirma lo aplicado cada tantos registros o milisegundos, y cada vez que termina con lo recibido. Si la conexión se corta (por ejemplo porque
+// el primario cayó) reintenta cada poco y continúa desde el último registro aplicado, así un registro
+// recibido dos veces no se aplica de nuevo. En cambio, si un registro no se puede aplicar (falta uno
+// anterior, o se refiere a una cuenta que la réplica no tiene) la replicación se detiene (ver getFalla):
+// reconectar volvería a fallar en el mismo registro, y la copia pudo quedar a medio aplicar, así que
+// no se puede promover y hay que reconstruirla desde el diario. Lo mismo si el primario la rechaza al
+// conectar porque su diario no tiene el último registro aplicado aquí (ver FormatoDiario.RECHAZO).
+//
+// El respaldo parte de un gestor vacío y aplica el diario desde el registro 1; no hay copia inicial,
+// por eso el primario se niega a escribir un diario nuevo si ya tenía datos (ver PrimarioReplicacion.conectar).
+//
+// Mientras replica, el respaldo sólo debe usarse para consultas (consultarSaldo, reportes);
+// promover() detiene la replicación para que pase a atender operaciones.
+// También se replican las retenciones activas (vencen recién al promover, ver Cuenta.aplicarRetencionReplica)
+// y las claves de idempotencia de las operaciones aplicadas, así un reintento enviado al respaldo
+// promovido devuelve el resultado original en lugar de repetir la operación.
+public class RespaldoReplicacion implements AutoCloseable {
+    private static final long ESPERA_RECONEXION_MILIS = 200;
+    private static final int TAMANO_BUFFER = 64 * 1024;
+    // Con el primario escribiendo sin pausa nunca se termina con lo recibido: se confirma igual por cantidad o tiempo
+    private static final long REGISTROS_POR_CONFIRMACION = 1024;
+    private static final long MILIS_POR_CONFIRMACION = 50;
+
+    private final GestorClientes gestor;
+    private final String host;
+    private final int puerto;
+    // Cuentas replicadas por número, incluidas las que no tienen titular
+    private final Map<String, Cuenta> cuentas;
+
+    private volatile long secuenciaAplicada;
+    // CRC del último registro aplicado, para que el primario verifique al reconectar que es el mismo
+    private volatile int crcUltimaAplicada;
+    private volatile long commitUltimaAplicada;
+    private volatile long ultimaSecuenciaPrimario;
+    // Hora del primario en su último latido
+    private volatile long latidoPrimarioMilis;
+    private volatile long desconexiones;
+    private volatile boolean conectado;
+    private volatile boolean activo;
+    private volatile boolean promovido;
+    private volatile RuntimeException falla;
+    private volatile SocketChannel socket;
+    private Thread hilo;
+
+    public RespaldoReplicacion(GestorClientes gestor, String host, int puerto) {
+        if (gestor == null) {
+            throw new IllegalArgumentException("El gestor de clientes no puede ser nulo");
+        }
+        if (host == null || host.trim().isEmpty()) {
+            throw new IllegalArgumentException("El host del primario no puede estar vacío");
+        }
+        if (puerto <= 0 || puerto > 65535) {
+            throw new IllegalArgumentException("Puerto inválido: " + puerto);
+        }
+        this.gestor = gestor;
+        this.host = host.trim();
+        this.puerto = puerto;
+        this.cuentas = new ConcurrentHashMap<>();
+    }
+
+    // Arranca el hilo que se conecta al primario y aplica el diario
+    public synchronized void iniciar() {
+        if (promovido) {
+            throw new IllegalStateException("El respaldo ya fue promovido");
+        }
+        if (hilo != null) {
+            throw new IllegalStateException("La replicación ya está iniciada");
+        }
+        validarSinFalla();
+        if (secuenciaAplicada == 0 && gestor.contarClientes() > 0) {
+            throw new IllegalStateException("El gestor del respaldo ya tiene clientes: la réplica debe partir vacía");
+        }
+        activo = true;
+        hilo = new Thread(this::replicar, "replicacion-respaldo");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    // Aplica un registro del diario. Devuelve false si ya estaba aplicado.
+    // También sirve para cargar el respaldo desde una copia del archivo (ver RegistroReplicado.recorrerDiario).
+    // Si el registro no se puede aplicar, el respaldo queda fallido y rechaza los siguientes.
+    public synchronized boolean aplicar(RegistroReplicado registro) {
+        if (registro == null) {
+            throw new IllegalArgumentException("El registro no puede ser nulo");
+        }
+        validarSinFalla();
+        if (registro.getSecuencia() <= secuenciaAplicada) {
+            return false;
+        }
+        try {
+            aplicarSiguiente(registro);
+        } catch (RuntimeException e) {
+            falla = e;
+            throw e;
+        }
+        return true;
+    }
+
+    // Consultas de sólo lectura
+
+    public double consultarSaldo(String numeroCuenta) {
+        return buscarCuenta(numeroCuenta)
+                .orElseThrow(() -> new IllegalArgumentException("No existe la cuenta " + numeroCuenta))
+                .getSaldo();
+    }
+
+    // Cuenta replicada con el número, tenga o no titular todavía
+    public Optional<Cuenta> buscarCuenta(String numeroCuenta) {
+        return Optional.ofNullable(numeroCuenta == null ? null : cuentas.get(numeroCuenta));
+    }
+
+    public ReporteServicio reportes() {
+        return new ReporteServicio(gestor.obtenerClientes());
+    }
+
+    // Métricas
+
+    public long getSecuenciaAplicada() {
+        return secuenciaAplicada;
+    }
+
+    // Último registro que el primario informó tener (por latidos o por lo ya aplicado). El primario manda
+    // un latido delante de cada rango que envía, así que lo escrito después del último latido no se ve aquí.
+    public long getUltimaSecuenciaPrimario() {
+        return Math.max(ultimaSecuenciaPrimario, secuenciaAplicada);
+    }
+
+    // Registros que el primario ya escribió y el respaldo todavía no aplicó, según el último latido: es una
+    // cota inferior (la medida exacta es PrimarioReplicacion.getRetrasoRegistros), pero no es cero mientras
+    // queden por aplicar registros ya anunciados
+    public long getRetrasoRegistros() {
+        return getUltimaSecuenciaPrimario() - secuenciaAplicada;
+    }
+
+    // Antigüedad de la copia: cuánto antes del último latido del primario se escribió el último registro
+    // aplicado. Las dos horas son del reloj del primario, así que no influye la diferencia con el reloj local.
+    // Es 0 cuando el respaldo está al día (o todavía no aplicó nada o no recibió latidos).
+    public long getRetrasoMilis() {
+        if (getRetrasoRegistros() == 0 || commitUltimaAplicada == 0 || latidoPrimarioMilis == 0) {
+            return 0;
+        }
+        return Math.max(0, latidoPrimarioMilis - commitUltimaAplicada);
+    }
+
+    public boolean estaConectado() {
+        return conectado;
+    }
+
+    public long getDesconexiones() {
+        return desconexiones;
+    }
+
+    public boolean fuePromovido() {
+        return promovido;
+    }
+
+    // Error que detuvo la replicación al aplicar un registro; vacío mientras funciona
+    public Optional<RuntimeException> getFalla() {
+        return Optional.ofNullable(falla);
+    }
+
+    public boolean estaFallido() {
+        return falla != null;
+    }
+
+    // Detiene la replicación y deja este proceso como primario: desde aquí puede recibir operaciones.
+    // Lo que el primario escribió y no llegó a enviar se pierde (ver getRetrasoRegistros antes de promover).
+    // Las retenciones replicadas empiezan a vencer solas desde aquí.
+    public GestorClientes promover() {
+        validarSinFalla();
+        detenerReplicacion();
+        promovido = true;
+        for (Cuenta cuenta : cuentas.values()) {
+            cuenta.programarVencimientosReplicados();
+        }
+        return gestor;
+    }
+
+    // Detiene la replicación sin promover
+    @Override
+    public void close() {
+        detenerReplicacion();
+    }
+
+    // Métodos privados
+
+    private void replicar() {
+        while (activo) {
+            try (SocketChannel canal = SocketChannel.open()) {
+                socket = canal;
+                canal.connect(new InetSocketAddress(host, puerto));
+                canal.socket().setTcpNoDelay(true);
+                recibir(canal);
+            } catch (IOException | RuntimeException e) {
+                if (falla != null) {
+                    System.err.println("Replicación detenida en el registro " + secuenciaAplicada + ": "
+                            + falla.getMessage());
+                    activo = false;
+                } else if (activo && conectado) {
+                    System.err.println("Replicación interrumpida en el registro " + secuenciaAplicada + ": "
+                            + e.getMessage());
+                }
+            } finally {
+                if (conectado) {
+                    desconexiones++;
+                }
+                conectado = false;
+                socket = null;
+            }
+            if (activo) {
+                dormir(ESPERA_RECONEXION_MILIS);
+            }
+        }
+    }
+
+    private void recibir(SocketChannel canal) throws IOException {
+        escribir(canal, FormatoDiario.tramaControl(FormatoDiario.HOLA, secuenciaAplicada,
+                Integer.toUnsignedLong(crcUltimaAplicada)));
+        conectado = true;
+        // Lecturas y escrituras se hacen en este mismo hilo
+        DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal),
+                TAMANO_BUFFER));
+        long confirmadaEnviada = secuenciaAplicada;
+        long ultimaConfirmacion = System.currentTimeMillis();
+        while (activo) {
+            FormatoDiario.Trama trama = FormatoDiario.leer(entrada);
+            if (trama == null) {
+                throw new EOFException("El primario cerró la conexión");
+            }
+            switch (trama.getTipo()) {
+                case FormatoDiario.REGISTRO -> aplicar(trama.comoRegistro());
+                case FormatoDiario.LATIDO -> {
+                    ultimaSecuenciaPrimario = Math.max(ultimaSecuenciaPrimario, trama.valor(0));
+                    latidoPrimarioMilis = trama.valor(1);
+                }
+                case FormatoDiario.RECHAZO -> {
+                    // Reconectar no lo arregla: la copia tiene registros que el diario del primario ya no tiene
+                    falla = new IllegalStateException("El primario rechazó la réplica: aplicó hasta el registro "
+                            + trama.valor(0) + " y el diario del primario, que termina en el " + trama.valor(1)
+                            + ", no tiene ese registro o tiene otro distinto");
+                    throw falla;
+                }
+                default -> throw new IOException("Trama inesperada del primario: " + trama.getTipo());
+            }
+            // Se confirma por tanda recibida, no por registro, pero sin dejar pasar demasiados registros o tiempo
+            if (secuenciaAplicada > confirmadaEnviada) {
+                long ahora = System.currentTimeMillis();
+                if (entrada.available() == 0 || secuenciaAplicada - confirmadaEnviada >= REGISTROS_POR_CONFIRMACION
+                        || ahora - ultimaConfirmacion >= MILIS_POR_CONFIRMACION) {
+                    confirmadaEnviada = secuenciaAplicada;
+                    ultimaConfirmacion = ahora;
+                    escribir(canal, FormatoDiario.tramaControl(FormatoDiario.CONFIRMACION, confirmadaEnviada));
+                }
+            }
+        }
+    }
+
+    private void aplicarSiguiente(RegistroReplicado registro) {
+        if (registro.getSecuencia() != secuenciaAplicada + 1) {
+            throw new IllegalStateException("Falta el registro " + (secuenciaAplicada + 1)
+                    + " del diario; llegó el " + registro.getSecuencia());
+        }
+
+        String documento = registro.getDocumentoCliente();
+        switch (registro.getTipo()) {
+            case EventoTransaccion.CUENTA_ABIERTA -> crearCuenta(registro.getDetalle(), registro.getNumeroCuenta());
+            // El primario sólo publica asignaciones de clientes registrados (también las de las cuentas
+            // que el cliente traía, justo después de su registro): sin titular aquí, el diario no es coherente
+            case EventoTransaccion.CUENTA_ASIGNADA -> {
+                Cuenta cuenta = cuentaReplicada(registro.getNumeroCuenta());
+                Cliente titular = gestor.buscarCliente(documento).orElseThrow(() -> new IllegalStateException(
+                        "La cuenta " + cuenta.getNumero() + " se asigna al cliente " + documento
+                                + ", que la réplica no tiene registrado"));
+                titular.agregarCuenta(cuenta);
+            }
+            case EventoTransaccion.CUENTA_CERRADA -> {
+                cuentas.remove(registro.getNumeroCuenta());
+                gestor.buscarCliente(documento).ifPresent(titular -> titular.eliminarCuenta(registro.getNumeroCuenta()));
+            }
+            case EventoTransaccion.CLIENTE_REGISTRADO ->
+                    gestor.registrarCliente(new Cliente(registro.getDetalle(), documento));
+            case EventoTransaccion.CLIENTE_ELIMINADO -> gestor.eliminarCliente(documento);
+            case EventoTransaccion.RETENCION_CREADA, EventoTransaccion.RETENCION_CAPTURADA,
+                    EventoTransaccion.RETENCION_LIBERADA, EventoTransaccion.RETENCION_VENCIDA ->
+                    cuentaReplicada(registro.getNumeroCuenta()).aplicarRetencionReplica(registro.getTipo(),
+                            registro.getMonto(), registro.getFechaTransaccion(), registro.getDetalle());
+            default -> cuentaReplicada(registro.getNumeroCuenta()).aplicarReplica(registro.getTipo(),
+                    registro.getMonto(), registro.getSaldoResultante(), registro.getFechaTransaccion(),
+                    registro.getClaveIdempotencia(), registro.getDetalle());
+        }
+
+        secuenciaAplicada = registro.getSecuencia();
+        crcUltimaAplicada = registro.getCrc();
+        commitUltimaAplicada = registro.getCommitEpochMilis();
+    }
+
+
+    private void crearCuenta(String tipoCuenta, String numero) {
+        if (!CuentaAhorros.class.getSimpleName().equals(tipoCuenta)) {
+            throw new IllegalStateException("Tipo de cuenta no replicable: " + tipoCuenta);
+        }
+        cuentas.put(numero, new CuentaAhorros(numero));
+    }
+
+    private Cuenta cuentaReplicada(String numero) {
+        return buscarCuenta(numero)
+                .orElseThrow(() -> new IllegalStateException("La réplica no tiene la cuenta " + numero));
+    }
+
+    private void detenerReplicacion() {
+        Thread actual;
+        synchronized (this) {
+            activo = false;
+            actual = hilo;
+            hilo = null;
+        }
+        SocketChannel canal = socket;
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // Ya estaba cerrado
+            }
+        }
+        if (actual != null) {
+            actual.interrupt();
+            try {
+                actual.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void validarSinFalla() {
+        if (falla != null) {
+            throw new IllegalStateException("El respaldo se detuvo en el registro " + (secuenciaAplicada + 1)
+                    + " y debe reconstruirse: " + falla.getMessage(), falla);
+        }
+    }
+
+    private static void escribir(SocketChannel canal, ByteBuffer trama) throws IOException {
+        while (trama.hasRemaining()) {
+            canal.write(trama);
+        }
+    }
+
+    private static void dormir(long milis) {
+        try {
+            Thread.sleep(milis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
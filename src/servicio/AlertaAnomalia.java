@@ -0,0 +1,48 @@
+package servicio;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Clase inmutable que representa una operación marcada como sospechosa por el detector de anomalías
+public final class AlertaAnomalia {
+    private final Motivo motivo;
+    private final String numeroCuenta;
+    private final String tipoTransaccion;
+    private final double monto;
+    private final long secuencia;
+    private final LocalDateTime fecha;
+    private final String detalle;
+
+    // Motivos por los que se marca una operación
+    public enum Motivo {
+        MONTO_INUSUAL,
+        RAFAGA_TRANSFERENCIAS,
+        REACTIVACION_CUENTA
+    }
+
+    public AlertaAnomalia(Motivo motivo, String numeroCuenta, String tipoTransaccion, double monto,
+                          long secuencia, long fechaEpochMilis, String detalle) {
+        this.motivo = motivo;
+        this.numeroCuenta = numeroCuenta;
+        this.tipoTransaccion = tipoTransaccion;
+        this.monto = monto;
+        this.secuencia = secuencia;
+        this.fecha = LocalDateTime.ofInstant(Instant.ofEpochMilli(fechaEpochMilis), ZoneId.systemDefault());
+        this.detalle = detalle;
+    }
+
+    // Getters
+    public Motivo getMotivo() { return motivo; }
+    public String getNumeroCuenta() { return numeroCuenta; }
+    public String getTipoTransaccion() { return tipoTransaccion; }
+    public double getMonto() { return monto; }
+    public long getSecuencia() { return secuencia; }
+    public LocalDateTime getFecha() { return fecha; }
+    public String getDetalle() { return detalle; }
+
+    @Override
+    public String toString() {
+        return String.format("Alerta[%s - %s %s $%.2f - %s]", motivo, numeroCuenta, tipoTransaccion, monto, detalle);
+    }
+}
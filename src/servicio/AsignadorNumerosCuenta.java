@@ -0,0 +1,104 @@
+package servicio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Clase singleton que genera números de cuenta únicos, también entre reinicios y entre procesos.
+//
+// La secuencia persiste en un archivo con el próximo número libre. Cada hilo toma en préstamo
+// un bloque de números: para reservarlo se bloquea el archivo (FileLock, válido entre procesos
+// o nodos que comparten el archivo), se avanza el máximo y se sincroniza con el disco antes
+// de entregar ningún número. Después, los números del bloque salen sin tocar el disco ni
+// competir con otros hilos.
+//
+// Si el proceso cae, los números no usados del bloque se pierden (quedan huecos) pero nunca
+// se repiten. El archivo se configura con la propiedad del sistema cooperativa.secuencia.cuentas.
+public class AsignadorNumerosCuenta {
+    private static final String PROPIEDAD_ARCHIVO = "cooperativa.secuencia.cuentas";
+    private static final String ARCHIVO_POR_DEFECTO = "datos/secuencia-cuentas.dat";
+    private static final int TAMANO_BLOQUE_POR_DEFECTO = 100;
+    private static final String FORMATO_NUMERO = "CTA-%08d";
+    private static AsignadorNumerosCuenta instancia;
+
+    private final Path archivo;
+    private final int tamanoBloque;
+    // Por hilo: {siguiente número, fin exclusivo del bloque}
+    private final ThreadLocal<long[]> bloques;
+
+    // Constructor con el archivo de secuencia y el tamaño de los bloques prestados
+    public AsignadorNumerosCuenta(Path archivo, int tamanoBloque) {
+        if (archivo == null) {
+            throw new IllegalArgumentException("El archivo de secuencia no puede ser nulo");
+        }
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo");
+        }
+        this.archivo = archivo;
+        this.tamanoBloque = tamanoBloque;
+        this.bloques = ThreadLocal.withInitial(() -> new long[]{0, 0});
+    }
+
+    // Metodo para obtener la instancia única del asignador
+    public static synchronized AsignadorNumerosCuenta getInstance() {
+        if (instancia == null) {
+            Path archivo = Paths.get(System.getProperty(PROPIEDAD_ARCHIVO, ARCHIVO_POR_DEFECTO));
+            instancia = new AsignadorNumerosCuenta(archivo, TAMANO_BLOQUE_POR_DEFECTO);
+        }
+        return instancia;
+    }
+
+    // Devuelve un número de cuenta nuevo con el formato CTA-00000001
+    public String siguienteNumero() {
+        return String.format(FORMATO_NUMERO, siguienteSecuencia());
+    }
+
+    // Devuelve el siguiente valor de la secuencia, reservando un bloque nuevo si el del hilo se agotó
+    public long siguienteSecuencia() {
+        long[] bloque = bloques.get();
+        if (bloque[0] >= bloque[1]) {
+            bloque[0] = reservarBloque();
+            bloque[1] = bloque[0] + tamanoBloque;
+        }
+        return bloque[0]++;
+    }
+
+    // Reserva un bloque en el archivo compartido y devuelve su primer número
+    private synchronized long reservarBloque() {
+        try {
+            Path directorio = archivo.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            try (FileChannel canal = FileChannel.open(archivo,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock bloqueo = canal.lock();
+                try {
+                    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                    long inicio = 1;
+                    if (canal.size() >= Long.BYTES) {
+                        canal.read(buffer, 0);
+                        inicio = buffer.flip().getLong();
+                    }
+
+                    buffer.clear().putLong(inicio + tamanoBloque).flip();
+                    while (buffer.hasRemaining()) {
+                        canal.write(buffer, Long.BYTES - buffer.remaining());
+                    }
+                    canal.force(true);
+                    return inicio;
+                } finally {
+                    bloqueo.release();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo reservar un bloque de números de cuenta", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package servicio;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Condiciones de una consulta de auditoría sobre IndiceAuditoria. Todas deben cumplirse a la vez.
+// Sin condiciones se seleccionan todas las transacciones indexadas.
+//   new CriterioAuditoria().tipos("RETIRO").montoMinimo(5000).desde(inicio).hasta(fin)
+// Los rangos de monto y fecha son inclusivos.
+public final class CriterioAuditoria {
+    private final Set<String> tipos;
+    private double montoMinimo;
+    private double montoMaximo;
+    private long desdeEpochMilis;
+    private long hastaEpochMilis;
+
+    public CriterioAuditoria() {
+        this.tipos = new LinkedHashSet<>();
+        this.montoMinimo = Double.NEGATIVE_INFINITY;
+        this.montoMaximo = Double.POSITIVE_INFINITY;
+        this.desdeEpochMilis = Long.MIN_VALUE;
+        this.hastaEpochMilis = Long.MAX_VALUE;
+    }
+
+    // Tipos de transacción admitidos (RETIRO, DEPÓSITO, TRANSFERENCIA_ENVIADA, INTERÉS)
+    public CriterioAuditoria tipos(String... tipos) {
+        if (tipos == null || tipos.length == 0) {
+            throw new IllegalArgumentException("Debe indicarse al menos un tipo de transacción");
+        }
+        this.tipos.addAll(Arrays.asList(tipos));
+        return this;
+    }
+
+    public CriterioAuditoria montoMinimo(double monto) {
+        this.montoMinimo = monto;
+        return validarRangoMontos();
+    }
+
+    public CriterioAuditoria montoMaximo(double monto) {
+        this.montoMaximo = monto;
+        return validarRangoMontos();
+    }
+
+    public CriterioAuditoria desde(LocalDateTime fecha) {
+        this.desdeEpochMilis = aEpochMilis(fecha);
+        return validarRangoFechas();
+    }
+
+    public CriterioAuditoria hasta(LocalDateTime fecha) {
+        this.hastaEpochMilis = aEpochMilis(fecha);
+        return validarRangoFechas();
+    }
+
+    // Métodos de paquete
+
+    Set<String> getTipos() { return Collections.unmodifiableSet(tipos); }
+    double getMontoMinimo() { return montoMinimo; }
+    double getMontoMaximo() { return montoMaximo; }
+    long getDesdeEpochMilis() { return desdeEpochMilis; }
+    long getHastaEpochMilis() { return hastaEpochMilis; }
+
+    boolean acotaMonto() {
+        return montoMinimo != Double.NEGATIVE_INFINITY || montoMaximo != Double.POSITIVE_INFINITY;
+    }
+
+    boolean acotaFecha() {
+        return desdeEpochMilis != Long.MIN_VALUE || hastaEpochMilis != Long.MAX_VALUE;
+    }
+
+    boolean cumpleMonto(double monto) {
+        return monto >= montoMinimo && monto <= montoMaximo;
+    }
+
+    boolean cumpleFecha(long epochMilis) {
+        return epochMilis >= desdeEpochMilis && epochMilis <= hastaEpochMilis;
+    }
+
+    // Métodos privados
+
+    private long aEpochMilis(LocalDateTime fecha) {
+        if (fecha == null) {
+            throw new IllegalArgumentException("La fecha no puede ser nula");
+        }
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private CriterioAuditoria validarRangoMontos() {
+        if (Double.isNaN(montoMinimo) || Double.isNaN(montoMaximo) || montoMinimo > montoMaximo) {
+            throw new IllegalArgumentException("El rango de montos no es válido");
+        }
+        return this;
+    }
+
+    private CriterioAuditoria validarRangoFechas() {
+        if (desdeEpochMilis > hastaEpochMilis) {
+            throw new IllegalArgumentException("El rango de fechas no es válido");
+        }
+        return this;
+    }
+}
@@ -0,0 +1,234 @@
+package servicio;
+
+import evento.BusEventos;
+import evento.ConsumidorEventos;
+import evento.EventoTransaccion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Detector de fraude y anomalías que consume el flujo de transacciones del bus de eventos.
+// Mantiene por cuenta estadísticas de tamaño constante, sin releer el historial:
+// - Media y varianza exponenciales (EWMA) del monto de los retiros (sin los retiros que forman
+//   parte de una transferencia, que se evalúan como TRANSFERENCIA_ENVIADA)
+// - Cantidad de transferencias enviadas dentro de una ventana corta (ráfaga)
+// - Momento de la última actividad
+//
+// Marca como sospechosos:
+// - Retiros muy por encima de lo habitual para la cuenta
+// - Ráfagas de TRANSFERENCIA_ENVIADA en poco tiempo
+// - Retiros o transferencias en cuentas que estaban inactivas hace mucho
+//
+// Corre en un único hilo consumidor, por lo que las estadísticas no necesitan sincronización.
+// Las alertas quedan en una cola acotada para su revisión; si se llena se descarta la más antigua.
+public class DetectorAnomalias implements ConsumidorEventos {
+    private static final String NOMBRE_CONSUMIDOR = "detector-anomalias";
+
+    private final double alfa;
+    private final double factorDesviacion;
+    private final int minimoObservaciones;
+    private final int transferenciasPorRafaga;
+    private final long ventanaRafagaNanos;
+    private final long inactividadMilis;
+
+    // Indexadas por el handle de la cuenta; crece al aparecer cuentas nuevas
+    private EstadisticasCuenta[] estadisticas;
+    private final BlockingQueue<AlertaAnomalia> alertas;
+    private volatile long eventosProcesados;
+    private volatile long latenciaMaximaNanos;
+    private long latenciaTotalNanos;
+
+    // Constructor con parámetros por defecto
+    public DetectorAnomalias() {
+        this(0.1, 4.0, 10, 5, TimeUnit.SECONDS.toNanos(1), TimeUnit.DAYS.toMillis(90), 10_000);
+    }
+
+    // alfa: peso de cada nuevo monto en la media exponencial (0 a 1)
+    // factorDesviacion: desviaciones estándar sobre la media para considerar un monto inusual
+    // minimoObservaciones: retiros necesarios antes de evaluar montos inusuales
+    // transferenciasPorRafaga y ventanaRafagaNanos: cantidad de transferencias en la ventana que se considera ráfaga
+    // inactividadMilis: tiempo sin actividad a partir del cual un retiro o transferencia se marca
+    // capacidadAlertas: alertas que se conservan para revisión
+    public DetectorAnomalias(double alfa, double factorDesviacion, int minimoObservaciones,
+                             int transferenciasPorRafaga, long ventanaRafagaNanos,
+                             long inactividadMilis, int capacidadAlertas) {
+        if (alfa <= 0 || alfa > 1) {
+            throw new IllegalArgumentException("El factor alfa debe estar entre 0 y 1");
+        }
+        if (factorDesviacion <= 0 || minimoObservaciones < 1 || transferenciasPorRafaga < 2) {
+            throw new IllegalArgumentException("Los umbrales del detector deben ser positivos");
+        }
+        if (ventanaRafagaNanos <= 0 || inactividadMilis <= 0 || capacidadAlertas <= 0) {
+            throw new IllegalArgumentException("Las ventanas de tiempo y la capacidad deben ser positivas");
+        }
+
+        this.alfa = alfa;
+        this.factorDesviacion = factorDesviacion;
+        this.minimoObservaciones = minimoObservaciones;
+        this.transferenciasPorRafaga = transferenciasPorRafaga;
+        this.ventanaRafagaNanos = ventanaRafagaNanos;
+        this.inactividadMilis = inactividadMilis;
+        this.estadisticas = new EstadisticasCuenta[1024];
+        this.alertas = new ArrayBlockingQueue<>(capacidadAlertas);
+    }
+
+    // Suscribe el detector al bus para recibir cada nueva transacción
+    public void conectar(BusEventos bus) {
+        bus.suscribir(NOMBRE_CONSUMIDOR, this);
+    }
+
+    public void desconectar(BusEventos bus) {
+        bus.desuscribir(NOMBRE_CONSUMIDOR);
+    }
+
+    @Override
+    public void alRecibir(EventoTransaccion evento, long secuencia, boolean finDeLote) {
+        // Las altas y bajas de clientes y cuentas no son actividad de la cuenta
+        if (evento.esCambioEstructural()) {
+            return;
+        }
+        EstadisticasCuenta cuenta = estadisticasDe(evento.getHandleCuenta());
+
+        switch (evento.getTipo()) {
+            case "RETIRO" -> {
+                // El retiro de una transferencia se evalúa con su TRANSFERENCIA_ENVIADA, que llega después:
+                // no alerta por sí mismo, no entra en la base de montos de retiro ni cuenta como actividad previa
+                if (evento.esTramoTransferencia()) {
+                    contarProcesado(evento);
+                    return;
+                }
+                verificarReactivacion(cuenta, evento);
+                verificarMontoInusual(cuenta, evento);
+            }
+            case "TRANSFERENCIA_ENVIADA" -> {
+                verificarReactivacion(cuenta, evento);
+                verificarRafaga(cuenta, evento);
+            }
+            default -> {
+                // Depósitos e intereses sólo actualizan la última actividad
+            }
+        }
+        cuenta.ultimaActividadMilis = evento.getFechaEpochMilis();
+        contarProcesado(evento);
+    }
+
+    // Copia de las alertas pendientes de revisión, de la más antigua a la más reciente
+    public List<AlertaAnomalia> obtenerAlertas() {
+        return new ArrayList<>(alertas);
+    }
+
+    // Retira y devuelve las alertas pendientes para revisarlas
+    public List<AlertaAnomalia> tomarAlertas() {
+        List<AlertaAnomalia> pendientes = new ArrayList<>();
+        alertas.drainTo(pendientes);
+        return pendientes;
+    }
+
+    public long getEventosProcesados() {
+        return eventosProcesados;
+    }
+
+    // Latencia desde que se publicó la operación hasta que el detector la evaluó
+    public long getLatenciaMaximaNanos() {
+        return latenciaMaximaNanos;
+    }
+
+    public double getLatenciaPromedioNanos() {
+        long procesados = eventosProcesados;
+        return procesados == 0 ? 0.0 : (double) latenciaTotalNanos / procesados;
+    }
+
+    // Métodos privados
+
+    private void contarProcesado(EventoTransaccion evento) {
+        long latencia = System.nanoTime() - evento.getMarcaTiempoNanos();
+        latenciaTotalNanos += latencia;
+        if (latencia > latenciaMaximaNanos) {
+            latenciaMaximaNanos = latencia;
+        }
+        eventosProcesados++;
+    }
+
+    private EstadisticasCuenta estadisticasDe(int handle) {
+        if (handle >= estadisticas.length) {
+            estadisticas = Arrays.copyOf(estadisticas, Math.max(handle + 1, estadisticas.length * 2));
+        }
+        EstadisticasCuenta cuenta = estadisticas[handle];
+        if (cuenta == null) {
+            cuenta = new EstadisticasCuenta();
+            estadisticas[handle] = cuenta;
+        }
+        return cuenta;
+    }
+
+    private void verificarMontoInusual(EstadisticasCuenta cuenta, EventoTransaccion evento) {
+        double monto = evento.getMonto();
+        if (cuenta.observacionesRetiro >= minimoObservaciones) {
+            double desviacion = Math.sqrt(cuenta.varianzaRetiro);
+            double umbral = cuenta.mediaRetiro + factorDesviacion * Math.max(desviacion, cuenta.mediaRetiro * 0.1);
+            if (monto > umbral) {
+                registrarAlerta(AlertaAnomalia.Motivo.MONTO_INUSUAL, evento, String.format(
+                        "Monto habitual $%.2f ± $%.2f, umbral $%.2f", cuenta.mediaRetiro, desviacion, umbral));
+            }
+        }
+
+        // Media y varianza exponenciales (actualización incremental de West)
+        if (cuenta.observacionesRetiro == 0) {
+            cuenta.mediaRetiro = monto;
+        } else {
+            double diferencia = monto - cuenta.mediaRetiro;
+            cuenta.mediaRetiro += alfa * diferencia;
+            cuenta.varianzaRetiro = (1 - alfa) * (cuenta.varianzaRetiro + alfa * diferencia * diferencia);
+        }
+        cuenta.observacionesRetiro++;
+    }
+
+    private void verificarRafaga(EstadisticasCuenta cuenta, EventoTransaccion evento) {
+        long ahora = evento.getMarcaTiempoNanos();
+        if (cuenta.transferenciasEnRafaga == 0 || ahora - cuenta.inicioRafagaNanos > ventanaRafagaNanos) {
+            cuenta.inicioRafagaNanos = ahora;
+            cuenta.transferenciasEnRafaga = 0;
+        }
+        cuenta.transferenciasEnRafaga++;
+
+        // Se marca una vez al alcanzar el umbral y luego cada vez que se vuelve a alcanzar
+        if (cuenta.transferenciasEnRafaga % transferenciasPorRafaga == 0) {
+            registrarAlerta(AlertaAnomalia.Motivo.RAFAGA_TRANSFERENCIAS, evento, String.format(
+                    "%d transferencias en %.3f ms", cuenta.transferenciasEnRafaga,
+                    (ahora - cuenta.inicioRafagaNanos) / 1e6));
+        }
+    }
+
+    private void verificarReactivacion(EstadisticasCuenta cuenta, EventoTransaccion evento) {
+        if (cuenta.ultimaActividadMilis == 0) {
+            return;
+        }
+        long inactividad = evento.getFechaEpochMilis() - cuenta.ultimaActividadMilis;
+        if (inactividad > inactividadMilis) {
+            registrarAlerta(AlertaAnomalia.Motivo.REACTIVACION_CUENTA, evento, String.format(
+                    "Sin actividad durante %d días", TimeUnit.MILLISECONDS.toDays(inactividad)));
+        }
+    }
+
+    private void registrarAlerta(AlertaAnomalia.Motivo motivo, EventoTransaccion evento, String detalle) {
+        AlertaAnomalia alerta = new AlertaAnomalia(motivo, evento.getNumeroCuenta(), evento.getTipo(),
+                evento.getMonto(), evento.getSecuencia(), evento.getFechaEpochMilis(), detalle);
+        while (!alertas.offer(alerta)) {
+            alertas.poll();
+        }
+    }
+
+    // Estadísticas de tamaño fijo de una cuenta
+    private static final class EstadisticasCuenta {
+        private double mediaRetiro;
+        private double varianzaRetiro;
+        private long observacionesRetiro;
+        private long inicioRafagaNanos;
+        private int transferenciasEnRafaga;
+        private long ultimaActividadMilis;
+    }
+}
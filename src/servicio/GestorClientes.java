@@ -1,21 +1,35 @@
 package servicio;
+import evento.BusEventos;
+import evento.EventoTransaccion;
+import evento.PublicacionesPendientes;
 import modelo.Cliente;
-import java.util.ArrayList;
+import modelo.Cuenta;
+import modelo.DirectorioCuentas;
+import modelo.ListaInstantaneas;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 // Clase singleton que gestiona los clientes del sistema bancario
+// Las consultas no bloquean ni copian; registrar y eliminar se serializan entre sí
 public class GestorClientes {
     private static GestorClientes instancia;
-    private final List<Cliente> clientes;
+    private final ListaInstantaneas<Cliente> clientes;
+    // Índice por documento para búsquedas y validación de duplicados en tiempo constante
+    private final Map<String, Cliente> clientesPorDocumento;
+    private final IndiceNombres indiceNombres;
 
     // Constructor privado para evitar instanciación externa
     private GestorClientes() {
-        this.clientes = new ArrayList<>();
+        this.clientes = new ListaInstantaneas<>();
+        this.clientesPorDocumento = new ConcurrentHashMap<>();
+        this.indiceNombres = new IndiceNombres();
     }
 
     // Metodo para obtener la instancia única del gestor de clientes
-    public static GestorClientes getInstance() {
+    public static synchronized GestorClientes getInstance() {
         if (instancia == null) {
             instancia = new GestorClientes();
         }
@@ -24,17 +38,50 @@ public class GestorClientes {
 
     //
     public void registrarCliente(Cliente cliente) {
-        validarClienteNoNulo(cliente);
-        validarDocumentoNoDuplicado(cliente.getDocumento());
-        clientes.add(cliente);
+        try {
+            synchronized (this) {
+                validarClienteNoNulo(cliente);
+                validarDocumentoNoDuplicado(cliente.getDocumento());
+                clientes.agregar(cliente);
+                clientesPorDocumento.put(cliente.getDocumento(), cliente);
+                indiceNombres.agregar(cliente);
+                PublicacionesPendientes.anotarCambio(BusEventos.getInstance(), EventoTransaccion.CLIENTE_REGISTRADO,
+                        -1, null, cliente.getDocumento(), cliente.getNombre());
+                // Las cuentas que ya tenía se anotan como asignadas después del registro
+                cliente.marcarRegistrado(true);
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
     // Busca un cliente por su documentos
     public Optional<Cliente> buscarCliente(String documento) {
         validarDocumentoValido(documento);
-        return clientes.stream()
-                .filter(cliente -> cliente.getDocumento().equals(documento))
-                .findFirst();
+        return Optional.ofNullable(clientesPorDocumento.get(documento));
+    }
+
+    // Busca una cuenta por su número a través de su titular: sólo encuentra cuentas asignadas
+    // a un cliente registrado (ver DirectorioCuentas)
+    public Optional<Cuenta> buscarCuenta(String numeroCuenta) {
+        if (numeroCuenta == null || numeroCuenta.trim().isEmpty()) {
+            throw new IllegalArgumentException("El número de cuenta no puede estar vacío");
+        }
+        String numero = numeroCuenta.trim();
+        return DirectorioCuentas.getInstance().titularDe(numero)
+                .map(clientesPorDocumento::get)
+                .flatMap(cliente -> cliente.buscarCuenta(numero));
+    }
+
+    // Autocompletado: clientes cuyo nombre o alguna de sus palabras empieza con el prefijo
+    // No distingue mayúsculas ni tildes
+    public List<Cliente> buscarPorPrefijoNombre(String prefijo, int limite) {
+        return indiceNombres.buscarPorPrefijo(prefijo, limite);
+    }
+
+    // Búsqueda tolerante a errores de escritura en el nombre (distancia de edición acotada)
+    public List<Cliente> buscarPorNombreAproximado(String nombre, int distanciaMaxima, int limite) {
+        return indiceNombres.buscarAproximado(nombre, distanciaMaxima, limite);
     }
 
     // Verifica si un cliente existe por su documento
@@ -45,18 +92,49 @@ public class GestorClientes {
 
     // Elimina un cliente por su documento
     public boolean eliminarCliente(String documento) {
-        validarDocumentoValido(documento);
-        return clientes.removeIf(cliente -> cliente.getDocumento().equals(documento));
+        try {
+            synchronized (this) {
+                validarDocumentoValido(documento);
+                Optional<Cliente> cliente = buscarCliente(documento);
+                if (cliente.isEmpty()) {
+                    return false;
+                }
+                clientes.quitar(cliente.get());
+                clientesPorDocumento.remove(documento);
+                indiceNombres.eliminar(cliente.get());
+                cliente.get().marcarRegistrado(false);
+                // Sus cuentas dejan de ser accesibles por número
+                cliente.get().forEachCuenta(DirectorioCuentas.getInstance()::liberar);
+                PublicacionesPendientes.anotarCambio(BusEventos.getInstance(), EventoTransaccion.CLIENTE_ELIMINADO,
+                        -1, null, documento, null);
+                return true;
+            }
+        } finally {
+            PublicacionesPendientes.publicar();
+        }
     }
 
-    // Obtiene la lista de todos los clientes
+    // Lista inmutable con los clientes registrados en este momento; no copia la lista en cada llamada.
+    // Las altas y bajas posteriores no la modifican, así que sirve para procesos por lotes que la
+    // reparten por índices (exportación, conciliación, cierre).
     public List<Cliente> obtenerClientes() {
-        return new ArrayList<>(clientes);
+        return clientes.instantanea();
+    }
+
+    // Vista no modificable y viva de todos los clientes: su tamaño y contenido cambian con cada alta o baja.
+    // Para quien la guarda y la vuelve a leer más tarde (por ejemplo un ReporteServicio de larga vida).
+    public List<Cliente> vistaClientes() {
+        return clientes.vista();
+    }
+
+    // Recorre los clientes registrados sin crear copias ni iteradores
+    public void forEachCliente(Consumer<? super Cliente> accion) {
+        clientes.forEach(accion);
     }
 
     // Cuenta la cantidad de clientes registrados
     public int contarClientes() {
-        return clientes.size();
+        return clientes.tamano();
     }
 
     // Validaciones privadas
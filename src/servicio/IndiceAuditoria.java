@@ -0,0 +1,494 @@
+package servicio;
+
+import evento.BusEventos;
+import evento.ConsumidorEventos;
+import evento.EventoTransaccion;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.DirectorioCuentas;
+import modelo.Transaccion;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice global de transacciones para consultas de auditoría entre cuentas, por ejemplo
+// "todos los RETIRO de más de $5.000 entre dos fechas", sin recorrer Cliente -> Cuenta -> historial.
+//
+// Cada transacción recibe una fila en orden de llegada y se anota en tres familias de mapas de bits
+// comprimidos (ver MapaBits):
+// - Por tipo de transacción
+// - Por rango de monto, en escalones de potencias de dos ([1, 2), [2, 4), ... [4096, 8192) ...)
+// - Por día
+// Una consulta une los mapas de cada condición (varios tipos, los escalones del rango de montos,
+// los días del rango de fechas), intersecta las condiciones empezando por la más selectiva y sólo
+// después revisa monto y fecha exactos de las filas candidatas, porque los escalones y días de los
+// extremos pueden incluir filas fuera del rango. Las columnas de tipo, cuenta, monto y fecha se guardan
+// por bloques de 65.536 filas para esa revisión y para armar el resultado.
+//
+// El índice se mantiene desde el bus de eventos en un único hilo consumidor, que junta los eventos
+// de cada lote y los aplica tomando el candado de escritura una vez; las consultas toman el de lectura
+// y pueden correr en paralelo. El candado nunca queda tomado entre dos eventos, así desconectar
+// en cualquier momento no deja trabadas las consultas.
+//
+// Para cargar lo ya ocurrido se conecta primero y después se indexa el historial: nada queda entre
+// ambos pasos. Al copiar el historial de cada cuenta se anota, con la cuenta bloqueada, la secuencia
+// reservada en el bus hasta ese momento; sus transacciones copiadas tienen eventos con secuencia menor
+// o igual (se reservan con la cuenta bloqueada), así que esos eventos se descartan y los posteriores no.
+// Mientras dura la carga, los eventos de cuentas todavía sin marca se guardan aparte y se aplican al
+// final con el mismo filtro, porque su historial puede incluirlos.
+//
+// Las filas se fechan con la fecha de la transacción, tanto desde el historial como desde el bus.
+public class IndiceAuditoria implements ConsumidorEventos {
+    private static final String NOMBRE_CONSUMIDOR = "indice-auditoria";
+    private static final int BITS_BLOQUE = 16;
+    private static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int MASCARA_BLOQUE = TAMANO_BLOQUE - 1;
+    private static final int ESCALONES_MONTO = 64;
+    private static final long MILIS_POR_DIA = 86_400_000L;
+    // Máximo de eventos aplicados con el candado de escritura tomado, para no demorar las consultas
+    private static final int EVENTOS_POR_ESCRITURA = 4096;
+    // Cuenta cuyo historial no se indexó
+    private static final long SIN_MARCA = Long.MIN_VALUE;
+
+    private final ReentrantReadWriteLock candado;
+    private byte[][] tipos;
+    private int[][] handles;
+    private double[][] montos;
+    private long[][] fechas;
+    private int cantidad;
+
+    private final Map<String, Integer> codigosTipo;
+    private final List<String> nombresTipo;
+    private final List<MapaBits> porTipo;
+    private final MapaBits[] porMonto;
+    private final TreeMap<Long, MapaBits> porDia;
+    // Por handle de cuenta, secuencia del bus hasta la que su historial ya está indexado (-1 sin historial)
+    private long[] marcas;
+    private volatile BusEventos bus;
+    private final ZoneId zona;
+    // Mientras se indexa el historial, eventos de cuentas sin marca todavía; protegidos por el candado
+    private boolean cargando;
+    private final List<EventoDiferido> diferidos;
+
+    // Eventos del lote en curso, todavía sin aplicar; sólo los usa el hilo consumidor (o desconectar, cuando
+    // ese hilo ya terminó)
+    private final long[] pendientesSecuencia;
+    private final String[] pendientesTipo;
+    private final int[] pendientesHandle;
+    private final double[] pendientesMonto;
+    private final long[] pendientesFecha;
+    private int pendientes;
+
+    public IndiceAuditoria() {
+        this.candado = new ReentrantReadWriteLock();
+        this.tipos = new byte[16][];
+        this.handles = new int[16][];
+        this.montos = new double[16][];
+        this.fechas = new long[16][];
+        this.codigosTipo = new HashMap<>();
+        this.nombresTipo = new ArrayList<>();
+        this.porTipo = new ArrayList<>();
+        this.porMonto = new MapaBits[ESCALONES_MONTO];
+        this.porDia = new TreeMap<>();
+        this.marcas = new long[0];
+        this.zona = ZoneId.systemDefault();
+        this.diferidos = new ArrayList<>();
+        this.pendientesSecuencia = new long[EVENTOS_POR_ESCRITURA];
+        this.pendientesTipo = new String[EVENTOS_POR_ESCRITURA];
+        this.pendientesHandle = new int[EVENTOS_POR_ESCRITURA];
+        this.pendientesMonto = new double[EVENTOS_POR_ESCRITURA];
+        this.pendientesFecha = new long[EVENTOS_POR_ESCRITURA];
+    }
+
+    // Suscribe el índice al bus para indexar cada nueva transacción
+    public void conectar(BusEventos bus) {
+        if (bus == null) {
+            throw new IllegalArgumentException("El bus de eventos no puede ser nulo");
+        }
+        bus.suscribir(NOMBRE_CONSUMIDOR, this);
+        this.bus = bus;
+    }
+
+    // Deja de recibir eventos; lo que el consumidor había recibido del último lote queda indexado
+    public void desconectar(BusEventos bus) {
+        bus.desuscribir(NOMBRE_CONSUMIDOR);
+        this.bus = null;
+        // El hilo consumidor ya terminó: sus eventos pendientes se aplican desde aquí
+        aplicarPendientes();
+    }
+
+    // Indexa el historial ya existente de los clientes, incluidas las transacciones archivadas.
+    // Debe llamarse después de conectar: las transacciones que ocurran mientras tanto se indexan una sola vez,
+    // desde el historial o desde el bus. Sin conectar, lo que ocurra después no se indexa.
+    // El historial de cada cuenta se copia con la cuenta bloqueada y sin el candado del índice (puede leer
+    // segmentos archivados del disco); después se agrega en tramos, tomando el candado de escritura por tramo.
+    public void indexarHistorial(List<Cliente> clientes) {
+        if (clientes == null) {
+            throw new IllegalArgumentException("La lista de clientes no puede ser nula");
+        }
+        BusEventos conectado = bus;
+        if (conectado != null) {
+            candado.writeLock().lock();
+            try {
+                cargando = true;
+            } finally {
+                candado.writeLock().unlock();
+            }
+        }
+        try {
+            for (Cliente cliente : clientes) {
+                for (Cuenta cuenta : cliente.getCuentas()) {
+                    indexarCuenta(cuenta, conectado);
+                }
+            }
+        } finally {
+            if (conectado != null) {
+                aplicarDiferidos();
+            }
+        }
+    }
+
+    @Override
+    public void alRecibir(EventoTransaccion evento, long secuencia, boolean finDeLote) {
+        // Las altas y bajas de clientes y cuentas no son transacciones auditables
+        if (!evento.esCambioEstructural()) {
+            int i = pendientes++;
+            pendientesSecuencia[i] = secuencia;
+            pendientesTipo[i] = evento.getTipo();
+            pendientesHandle[i] = evento.getHandleCuenta();
+            pendientesMonto[i] = evento.getMonto();
+            LocalDateTime fecha = evento.getFechaTransaccion();
+            pendientesFecha[i] = fecha != null ? aEpochMilis(fecha) : evento.getFechaEpochMilis();
+        }
+        if (finDeLote || pendientes == EVENTOS_POR_ESCRITURA) {
+            aplicarPendientes();
+        }
+    }
+
+    // Cantidad de transacciones que cumplen el criterio, sin armar los registros
+    public long contar(CriterioAuditoria criterio) {
+        validarCriterio(criterio);
+        candado.readLock().lock();
+        try {
+            MapaBits candidatas = candidatas(criterio);
+            if (candidatas == null) {
+                return cantidad;
+            }
+            if (!criterio.acotaMonto() && !criterio.acotaFecha()) {
+                return candidatas.cardinalidad();
+            }
+            long[] total = new long[1];
+            candidatas.forEach(fila -> {
+                if (cumple(fila, criterio)) {
+                    total[0]++;
+                }
+            });
+            return total[0];
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Transacciones que cumplen el criterio, en orden de llegada
+    public List<RegistroAuditoria> buscar(CriterioAuditoria criterio) {
+        return buscar(criterio, Integer.MAX_VALUE);
+    }
+
+    // Hasta 'limite' transacciones que cumplen el criterio, en orden de llegada
+    public List<RegistroAuditoria> buscar(CriterioAuditoria criterio, int limite) {
+        validarCriterio(criterio);
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+
+        List<RegistroAuditoria> resultado = new ArrayList<>();
+        candado.readLock().lock();
+        try {
+            MapaBits candidatas = candidatas(criterio);
+            if (candidatas == null) {
+                for (int fila = 0; fila < cantidad && resultado.size() < limite; fila++) {
+                    resultado.add(registro(fila));
+                }
+                return resultado;
+            }
+            boolean revisar = criterio.acotaMonto() || criterio.acotaFecha();
+            candidatas.forEach(fila -> {
+                if (resultado.size() < limite && (!revisar || cumple(fila, criterio))) {
+                    resultado.add(registro(fila));
+                }
+            });
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int getCantidad() {
+        candado.readLock().lock();
+        try {
+            return cantidad;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Memoria aproximada de los mapas de bits (sin contar las columnas)
+    public long estimarBytesMapas() {
+        candado.readLock().lock();
+        try {
+            long total = 0;
+            for (MapaBits mapa : porTipo) {
+                total += mapa.estimarBytes();
+            }
+            for (MapaBits mapa : porMonto) {
+                total += mapa == null ? 0 : mapa.estimarBytes();
+            }
+            for (MapaBits mapa : porDia.values()) {
+                total += mapa.estimarBytes();
+            }
+            return total;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Métodos privados
+
+    private void aplicarPendientes() {
+        if (pendientes == 0) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            for (int i = 0; i < pendientes; i++) {
+                int handle = pendientesHandle[i];
+                if (cargando && marca(handle) == SIN_MARCA) {
+                    diferidos.add(new EventoDiferido(pendientesSecuencia[i], pendientesTipo[i], handle,
+                            pendientesMonto[i], pendientesFecha[i]));
+                } else if (!yaIndexado(handle, pendientesSecuencia[i])) {
+                    agregar(pendientesTipo[i], handle, pendientesMonto[i], pendientesFecha[i]);
+                }
+            }
+        } finally {
+            Arrays.fill(pendientesTipo, 0, pendientes, null);
+            pendientes = 0;
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void indexarCuenta(Cuenta cuenta, BusEventos conectado) {
+        int handle = cuenta.getHandle();
+        List<Transaccion> copia = new ArrayList<>();
+        long marca;
+        synchronized (cuenta) {
+            marca = conectado != null ? conectado.getCursor() : SIN_MARCA;
+            cuenta.forEachTransaccion(copia::add);
+        }
+
+        int desde = 0;
+        do {
+            int hasta = Math.min(copia.size(), desde + EVENTOS_POR_ESCRITURA);
+            candado.writeLock().lock();
+            try {
+                // La marca va con el primer tramo: desde ahí el consumidor descarta los eventos ya copiados
+                if (desde == 0 && marca != SIN_MARCA) {
+                    registrarMarca(handle, marca);
+                }
+                for (int i = desde; i < hasta; i++) {
+                    Transaccion transaccion = copia.get(i);
+                    agregar(transaccion.getTipo(), handle, transaccion.getMonto(), aEpochMilis(transaccion.getFecha()));
+                }
+            } finally {
+                candado.writeLock().unlock();
+            }
+            desde = hasta;
+        } while (desde < copia.size());
+    }
+
+    // Termina la carga del historial: los eventos guardados aparte se aplican salvo los ya copiados
+    private void aplicarDiferidos() {
+        candado.writeLock().lock();
+        try {
+            cargando = false;
+            for (EventoDiferido evento : diferidos) {
+                if (!yaIndexado(evento.handle, evento.secuencia)) {
+                    agregar(evento.tipo, evento.handle, evento.monto, evento.fechaEpochMilis);
+                }
+            }
+            diferidos.clear();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private long marca(int handle) {
+        return handle < marcas.length ? marcas[handle] : SIN_MARCA;
+    }
+
+    // Evento ya indexado desde el historial de la cuenta
+    private boolean yaIndexado(int handle, long secuencia) {
+        long marca = marca(handle);
+        return marca != SIN_MARCA && secuencia <= marca;
+    }
+
+    // Se llama con el candado de escritura tomado
+    private void registrarMarca(int handle, long secuencia) {
+        if (handle >= marcas.length) {
+            int anterior = marcas.length;
+            marcas = Arrays.copyOf(marcas, Math.max(handle + 1, anterior * 2));
+            Arrays.fill(marcas, anterior, marcas.length, SIN_MARCA);
+        }
+        marcas[handle] = secuencia;
+    }
+
+    private long aEpochMilis(LocalDateTime fecha) {
+        return fecha.atZone(zona).toInstant().toEpochMilli();
+    }
+
+    // Se llama con el candado de escritura tomado
+    private void agregar(String tipo, int handle, double monto, long fechaEpochMilis) {
+        if (cantidad == Integer.MAX_VALUE) {
+            throw new IllegalStateException("El índice de auditoría está lleno");
+        }
+        int fila = cantidad;
+        int bloque = fila >>> BITS_BLOQUE;
+        if (bloque == tipos.length) {
+            int capacidad = tipos.length * 2;
+            tipos = Arrays.copyOf(tipos, capacidad);
+            handles = Arrays.copyOf(handles, capacidad);
+            montos = Arrays.copyOf(montos, capacidad);
+            fechas = Arrays.copyOf(fechas, capacidad);
+        }
+        if (tipos[bloque] == null) {
+            tipos[bloque] = new byte[TAMANO_BLOQUE];
+            handles[bloque] = new int[TAMANO_BLOQUE];
+            montos[bloque] = new double[TAMANO_BLOQUE];
+            fechas[bloque] = new long[TAMANO_BLOQUE];
+        }
+
+        int codigo = codigoTipo(tipo);
+        int posicion = fila & MASCARA_BLOQUE;
+        tipos[bloque][posicion] = (byte) codigo;
+        handles[bloque][posicion] = handle;
+        montos[bloque][posicion] = monto;
+        fechas[bloque][posicion] = fechaEpochMilis;
+
+        porTipo.get(codigo).agregar(fila);
+        int escalon = escalonMonto(monto);
+        if (porMonto[escalon] == null) {
+            porMonto[escalon] = new MapaBits();
+        }
+        porMonto[escalon].agregar(fila);
+        porDia.computeIfAbsent(Math.floorDiv(fechaEpochMilis, MILIS_POR_DIA), dia -> new MapaBits()).agregar(fila);
+        cantidad++;
+    }
+
+    private int codigoTipo(String tipo) {
+        Integer codigo = codigosTipo.get(tipo);
+        if (codigo == null) {
+            if (nombresTipo.size() > Byte.MAX_VALUE) {
+                throw new IllegalStateException("Demasiados tipos de transacción distintos en el índice");
+            }
+            codigo = nombresTipo.size();
+            codigosTipo.put(tipo, codigo);
+            nombresTipo.add(tipo);
+            porTipo.add(new MapaBits());
+        }
+        return codigo;
+    }
+
+    // Filas que pasan las condiciones a nivel de mapas de bits; null si el criterio no tiene condiciones.
+    // Puede incluir filas de los escalones y días de los extremos que luego no cumplen el rango exacto.
+    private MapaBits candidatas(CriterioAuditoria criterio) {
+        List<MapaBits> condiciones = new ArrayList<>(3);
+        if (!criterio.getTipos().isEmpty()) {
+            List<MapaBits> delTipo = new ArrayList<>();
+            for (String tipo : criterio.getTipos()) {
+                Integer codigo = codigosTipo.get(tipo);
+                if (codigo != null) {
+                    delTipo.add(porTipo.get(codigo));
+                }
+            }
+            condiciones.add(MapaBits.union(delTipo));
+        }
+        if (criterio.acotaMonto()) {
+            List<MapaBits> escalones = new ArrayList<>();
+            int hasta = escalonMonto(criterio.getMontoMaximo());
+            for (int escalon = escalonMonto(criterio.getMontoMinimo()); escalon <= hasta; escalon++) {
+                if (porMonto[escalon] != null) {
+                    escalones.add(porMonto[escalon]);
+                }
+            }
+            condiciones.add(MapaBits.union(escalones));
+        }
+        if (criterio.acotaFecha()) {
+            long desde = Math.floorDiv(criterio.getDesdeEpochMilis(), MILIS_POR_DIA);
+            long hasta = Math.floorDiv(criterio.getHastaEpochMilis(), MILIS_POR_DIA);
+            condiciones.add(MapaBits.union(new ArrayList<>(porDia.subMap(desde, true, hasta, true).values())));
+        }
+        if (condiciones.isEmpty()) {
+            return null;
+        }
+
+        // La intersección más chica primero: cada paso sólo puede achicar el resultado
+        condiciones.sort(Comparator.comparingLong(MapaBits::cardinalidad));
+        MapaBits resultado = condiciones.get(0);
+        for (int i = 1; i < condiciones.size(); i++) {
+            resultado = MapaBits.interseccion(resultado, condiciones.get(i));
+        }
+        return resultado;
+    }
+
+    private boolean cumple(int fila, CriterioAuditoria criterio) {
+        int bloque = fila >>> BITS_BLOQUE;
+        int posicion = fila & MASCARA_BLOQUE;
+        return criterio.cumpleMonto(montos[bloque][posicion]) && criterio.cumpleFecha(fechas[bloque][posicion]);
+    }
+
+    private RegistroAuditoria registro(int fila) {
+        int bloque = fila >>> BITS_BLOQUE;
+        int posicion = fila & MASCARA_BLOQUE;
+        String numeroCuenta = DirectorioCuentas.getInstance().numeroDe(handles[bloque][posicion]);
+        return new RegistroAuditoria(fila, nombresTipo.get(tipos[bloque][posicion]), numeroCuenta,
+                montos[bloque][posicion], fechas[bloque][posicion]);
+    }
+
+    // Escalón de monto: 0 para menos de 1, k para [2^(k-1), 2^k)
+    private static int escalonMonto(double monto) {
+        if (!(monto >= 1)) {
+            return 0;
+        }
+        return Math.min(ESCALONES_MONTO - 1, 64 - Long.numberOfLeadingZeros((long) monto));
+    }
+
+    private void validarCriterio(CriterioAuditoria criterio) {
+        if (criterio == null) {
+            throw new IllegalArgumentException("El criterio de auditoría no puede ser nulo");
+        }
+    }
+
+    // Evento recibido durante la carga del historial para una cuenta que todavía no tenía marca
+    private static final class EventoDiferido {
+        private final long secuencia;
+        private final String tipo;
+        private final int handle;
+        private final double monto;
+        private final long fechaEpochMilis;
+
+        private EventoDiferido(long secuencia, String tipo, int handle, double monto, long fechaEpochMilis) {
+            this.secuencia = secuencia;
+            this.tipo = tipo;
+            this.handle = handle;
+            this.monto = monto;
+            this.fechaEpochMilis = fechaEpochMilis;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package servicio;
+
+import modelo.Cliente;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Índice en memoria de clientes por nombre basado en un trie.
+// Permite autocompletar por prefijo, también con errores de escritura (distancia de edición acotada).
+//
+// Los nombres se normalizan antes de indexar y de buscar: minúsculas, sin tildes
+// (á -> a, ñ -> n) y con los espacios colapsados. Además del nombre completo se indexa
+// cada sufijo que empieza en una palabra, así "garc" encuentra a "Juan García".
+//
+// Las búsquedas toman un candado de lectura y pueden ejecutarse en paralelo;
+// registrar o eliminar clientes toma el candado de escritura.
+public class IndiceNombres {
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final Nodo raiz;
+    private final ReentrantReadWriteLock candado;
+    private int cantidadClientes;
+
+    public IndiceNombres() {
+        this.raiz = new Nodo();
+        this.candado = new ReentrantReadWriteLock();
+    }
+
+    // Normaliza un nombre para indexarlo o buscarlo
+    public static String normalizar(String nombre) {
+        if (nombre == null) {
+            return "";
+        }
+        String sinTildes = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(nombre, Normalizer.Form.NFD))
+                .replaceAll("");
+        return ESPACIOS.matcher(sinTildes.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // Indexa el nombre del cliente
+    public void agregar(Cliente cliente) {
+        validarClienteNoNulo(cliente);
+        candado.writeLock().lock();
+        try {
+            for (String clave : clavesDe(cliente.getNombre())) {
+                insertar(clave, cliente);
+            }
+            cantidadClientes++;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Quita el cliente del índice; devuelve false si no estaba indexado
+    public boolean eliminar(Cliente cliente) {
+        validarClienteNoNulo(cliente);
+        candado.writeLock().lock();
+        try {
+            boolean eliminado = false;
+            for (String clave : clavesDe(cliente.getNombre())) {
+                eliminado |= quitar(raiz, clave, 0, cliente);
+            }
+            if (eliminado) {
+                cantidadClientes--;
+            }
+            return eliminado;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    // Clientes cuyo nombre (o alguna palabra del nombre en adelante) empieza con el prefijo
+    public List<Cliente> buscarPorPrefijo(String prefijo, int limite) {
+        validarLimite(limite);
+        String clave = normalizar(prefijo);
+        if (clave.isEmpty()) {
+            return List.of();
+        }
+
+        candado.readLock().lock();
+        try {
+            Nodo nodo = raiz;
+            for (int i = 0; i < clave.length() && nodo != null; i++) {
+                nodo = nodo.hijo(clave.charAt(i));
+            }
+            if (nodo == null) {
+                return List.of();
+            }
+
+            Set<Cliente> encontrados = new LinkedHashSet<>();
+            recolectar(nodo, encontrados, limite);
+            return new ArrayList<>(encontrados);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Autocompletado tolerante a errores: clientes cuyo nombre (o alguna palabra del nombre en adelante)
+    // empieza con algo que está a lo sumo a distanciaMaxima ediciones (Levenshtein) de la consulta.
+    // Así "maria gomes" encuentra a "María Gómez Pérez" y "luis" a "Luis Ruiz".
+    // Los resultados van de menor a mayor distancia: se buscan primero los que coinciden sin errores,
+    // luego con uno y así, y se deja de buscar al llegar al límite. Una consulta de n letras admite a lo
+    // sumo n - 1 errores, para que siempre coincida alguna letra.
+    public List<Cliente> buscarAproximado(String consulta, int distanciaMaxima, int limite) {
+        validarLimite(limite);
+        if (distanciaMaxima < 0) {
+            throw new IllegalArgumentException("La distancia máxima no puede ser negativa");
+        }
+        String clave = normalizar(consulta);
+        if (clave.isEmpty()) {
+            return List.of();
+        }
+        int tope = Math.min(distanciaMaxima, clave.length() - 1);
+
+        candado.readLock().lock();
+        try {
+            Set<Cliente> encontrados = new LinkedHashSet<>();
+            int[] filaInicial = new int[clave.length() + 1];
+            for (int i = 0; i < filaInicial.length; i++) {
+                filaInicial[i] = i;
+            }
+            for (int distancia = 0; distancia <= tope && encontrados.size() < limite; distancia++) {
+                for (int i = 0; i < raiz.cantidadHijos; i++) {
+                    if (buscarAproximado(raiz.hijos[i], raiz.letras[i], clave, filaInicial, distancia,
+                            encontrados, limite)) {
+                        break;
+                    }
+                }
+            }
+            return new ArrayList<>(encontrados);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int getCantidadClientes() {
+        candado.readLock().lock();
+        try {
+            return cantidadClientes;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Métodos privados
+
+    // Nombre completo normalizado y cada sufijo que empieza en una palabra
+    private List<String> clavesDe(String nombre) {
+        String normalizado = normalizar(nombre);
+        List<String> claves = new ArrayList<>();
+        if (normalizado.isEmpty()) {
+            return claves;
+        }
+        claves.add(normalizado);
+        for (int i = normalizado.indexOf(' '); i >= 0; i = normalizado.indexOf(' ', i + 1)) {
+            claves.add(normalizado.substring(i + 1));
+        }
+        return claves;
+    }
+
+    private void insertar(String clave, Cliente cliente) {
+        Nodo nodo = raiz;
+        for (int i = 0; i < clave.length(); i++) {
+            nodo = nodo.obtenerOCrearHijo(clave.charAt(i));
+        }
+        nodo.agregarCliente(cliente);
+    }
+
+    // Quita el cliente de la clave y poda los nodos que quedan vacíos
+    private boolean quitar(Nodo nodo, String clave, int posicion, Cliente cliente) {
+        if (posicion == clave.length()) {
+            return nodo.quitarCliente(cliente);
+        }
+        char letra = clave.charAt(posicion);
+        Nodo hijo = nodo.hijo(letra);
+        if (hijo == null) {
+            return false;
+        }
+        boolean eliminado = quitar(hijo, clave, posicion + 1, cliente);
+        if (hijo.estaVacio()) {
+            nodo.quitarHijo(letra);
+        }
+        return eliminado;
+    }
+
+    private boolean recolectar(Nodo nodo, Set<Cliente> encontrados, int limite) {
+        if (nodo.recolectarClientes(encontrados, limite)) {
+            return true;
+        }
+        for (int i = 0; i < nodo.cantidadHijos; i++) {
+            if (recolectar(nodo.hijos[i], encontrados, limite)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Recorre el trie calculando una fila de la matriz de Levenshtein por nivel. Cuando la consulta completa
+    // queda a distanciaMaxima o menos del camino hasta el nodo, ese camino es un prefijo aproximado de todas
+    // las claves del subárbol y se recolectan sus clientes; una rama se descarta en cuanto el mínimo de su
+    // fila supera la distancia. Devuelve true al alcanzar el límite.
+    private boolean buscarAproximado(Nodo nodo, char letra, String clave, int[] filaAnterior,
+                                     int distanciaMaxima, Set<Cliente> encontrados, int limite) {
+        int columnas = clave.length() + 1;
+        int[] fila = new int[columnas];
+        fila[0] = filaAnterior[0] + 1;
+        int minimoFila = fila[0];
+        for (int j = 1; j < columnas; j++) {
+            int costoSustitucion = clave.charAt(j - 1) == letra ? 0 : 1;
+            fila[j] = Math.min(Math.min(fila[j - 1] + 1, filaAnterior[j] + 1),
+                    filaAnterior[j - 1] + costoSustitucion);
+            minimoFila = Math.min(minimoFila, fila[j]);
+        }
+
+        if (fila[columnas - 1] <= distanciaMaxima) {
+            return recolectar(nodo, encontrados, limite);
+        }
+        if (minimoFila <= distanciaMaxima) {
+            for (int i = 0; i < nodo.cantidadHijos; i++) {
+                if (buscarAproximado(nodo.hijos[i], nodo.letras[i], clave, fila, distanciaMaxima, encontrados, limite)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void validarClienteNoNulo(Cliente cliente) {
+        if (cliente == null) {
+            throw new IllegalArgumentException("El cliente no puede ser nulo");
+        }
+    }
+
+    private void validarLimite(int limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite de resultados debe ser positivo");
+        }
+    }
+
+    // Nodo compacto del trie: hijos en arreglos ordenados por letra (búsqueda binaria)
+    // en lugar de un mapa, para reducir memoria con millones de nombres.
+    // Los clientes de la clave van en un arreglo mientras son pocos, que es lo habitual; una clave muy
+    // repetida (un apellido o un nombre de pila común) pasa a un LinkedHashSet, así agregar y quitar
+    // no recorren miles de clientes. Los dos guardan el orden de alta.
+    private static final class Nodo {
+        private static final int MAXIMO_EN_ARREGLO = 16;
+        private static final char[] SIN_LETRAS = new char[0];
+        private static final Nodo[] SIN_HIJOS = new Nodo[0];
+        private static final Cliente[] SIN_CLIENTES = new Cliente[0];
+
+        private char[] letras = SIN_LETRAS;
+        private Nodo[] hijos = SIN_HIJOS;
+        private int cantidadHijos;
+        private Cliente[] clientes = SIN_CLIENTES;
+        private int cantidadClientes;
+        // Reemplaza al arreglo cuando los clientes superan MAXIMO_EN_ARREGLO
+        private Set<Cliente> conjunto;
+
+        private Nodo hijo(char letra) {
+            int indice = Arrays.binarySearch(letras, 0, cantidadHijos, letra);
+            return indice >= 0 ? hijos[indice] : null;
+        }
+
+        private Nodo obtenerOCrearHijo(char letra) {
+            int indice = Arrays.binarySearch(letras, 0, cantidadHijos, letra);
+            if (indice >= 0) {
+                return hijos[indice];
+            }
+
+            int insercion = -indice - 1;
+            if (cantidadHijos == letras.length) {
+                int capacidad = Math.max(2, cantidadHijos * 2);
+                letras = Arrays.copyOf(letras, capacidad);
+                hijos = Arrays.copyOf(hijos, capacidad);
+            }
+            System.arraycopy(letras, insercion, letras, insercion + 1, cantidadHijos - insercion);
+            System.arraycopy(hijos, insercion, hijos, insercion + 1, cantidadHijos - insercion);
+            Nodo nuevo = new Nodo();
+            letras[insercion] = letra;
+            hijos[insercion] = nuevo;
+            cantidadHijos++;
+            return nuevo;
+        }
+
+        private void quitarHijo(char letra) {
+            int indice = Arrays.binarySearch(letras, 0, cantidadHijos, letra);
+            if (indice < 0) {
+                return;
+            }
+            System.arraycopy(letras, indice + 1, letras, indice, cantidadHijos - indice - 1);
+            System.arraycopy(hijos, indice + 1, hijos, indice, cantidadHijos - indice - 1);
+            cantidadHijos--;
+            hijos[cantidadHijos] = null;
+        }
+
+        private void agregarCliente(Cliente cliente) {
+            if (conjunto != null) {
+                conjunto.add(cliente);
+                return;
+            }
+            for (int i = 0; i < cantidadClientes; i++) {
+                if (clientes[i].equals(cliente)) {
+                    return;
+                }
+            }
+            if (cantidadClientes == MAXIMO_EN_ARREGLO) {
+                conjunto = new LinkedHashSet<>(Arrays.asList(clientes).subList(0, cantidadClientes));
+                conjunto.add(cliente);
+                clientes = SIN_CLIENTES;
+                cantidadClientes = 0;
+                return;
+            }
+            if (cantidadClientes == clientes.length) {
+                clientes = Arrays.copyOf(clientes, Math.max(1, cantidadClientes * 2));
+            }
+            clientes[cantidadClientes++] = cliente;
+        }
+
+        private boolean quitarCliente(Cliente cliente) {
+            if (conjunto != null) {
+                return conjunto.remove(cliente);
+            }
+            for (int i = 0; i < cantidadClientes; i++) {
+                if (clientes[i].equals(cliente)) {
+                    System.arraycopy(clientes, i + 1, clientes, i, cantidadClientes - i - 1);
+                    clientes[--cantidadClientes] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Agrega los clientes de la clave hasta alcanzar el límite; devuelve true si lo alcanzó
+        private boolean recolectarClientes(Set<Cliente> encontrados, int limite) {
+            if (conjunto != null) {
+                for (Cliente cliente : conjunto) {
+                    encontrados.add(cliente);
+                    if (encontrados.size() >= limite) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (int i = 0; i < cantidadClientes; i++) {
+                encontrados.add(clientes[i]);
+                if (encontrados.size() >= limite) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean estaVacio() {
+            return cantidadHijos == 0 && cantidadClientes == 0 && (conjunto == null || conjunto.isEmpty());
+        }
+    }
+}
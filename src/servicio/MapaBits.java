@@ -0,0 +1,293 @@
+package servicio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// Conjunto comprimido de enteros no negativos al estilo Roaring, usado por IndiceAuditoria.
+//
+// Los valores se agrupan por sus 16 bits altos en contenedores de hasta 65.536 valores:
+// - Con pocos valores (hasta 4096) el contenedor es un arreglo ordenado de char (2 bytes por valor)
+// - Con más, es un mapa de 65.536 bits (8 KB fijos)
+// Así un conjunto disperso ocupa poco y uno denso se intersecta palabra por palabra.
+//
+// Los valores se agregan en orden creciente (las filas del índice se numeran al llegar),
+// por lo que agregar es siempre una escritura al final del último contenedor.
+// Los conjuntos que resultan de una intersección o unión son de sólo lectura.
+final class MapaBits {
+    private static final int MAXIMO_ARREGLO = 4096;
+    private static final int PALABRAS = 1 << 10;
+
+    private char[] claves;
+    private Contenedor[] contenedores;
+    private int cantidadContenedores;
+    private long ultimo;
+
+    MapaBits() {
+        this.claves = new char[4];
+        this.contenedores = new Contenedor[4];
+        this.ultimo = -1;
+    }
+
+    // Agrega un valor mayor que todos los anteriores
+    void agregar(int valor) {
+        if (valor <= ultimo) {
+            throw new IllegalArgumentException("Los valores deben agregarse en orden creciente");
+        }
+        ultimo = valor;
+        char clave = (char) (valor >>> 16);
+        if (cantidadContenedores == 0 || claves[cantidadContenedores - 1] != clave) {
+            agregarContenedor(clave, new Contenedor());
+        }
+        contenedores[cantidadContenedores - 1].agregarAlFinal((char) valor);
+    }
+
+    long cardinalidad() {
+        long total = 0;
+        for (int i = 0; i < cantidadContenedores; i++) {
+            total += contenedores[i].cardinalidad;
+        }
+        return total;
+    }
+
+    // Recorre los valores en orden creciente
+    void forEach(IntConsumer accion) {
+        for (int i = 0; i < cantidadContenedores; i++) {
+            contenedores[i].forEach(claves[i] << 16, accion);
+        }
+    }
+
+    // Memoria aproximada ocupada por los contenedores
+    long estimarBytes() {
+        long total = (long) claves.length * Character.BYTES + (long) contenedores.length * 8;
+        for (int i = 0; i < cantidadContenedores; i++) {
+            Contenedor contenedor = contenedores[i];
+            total += contenedor.bits != null ? (long) PALABRAS * Long.BYTES : (long) contenedor.arreglo.length * Character.BYTES;
+        }
+        return total;
+    }
+
+    // Intersección de dos conjuntos: sólo se comparan los contenedores con la misma clave
+    static MapaBits interseccion(MapaBits a, MapaBits b) {
+        MapaBits resultado = new MapaBits();
+        int i = 0;
+        int j = 0;
+        while (i < a.cantidadContenedores && j < b.cantidadContenedores) {
+            char claveA = a.claves[i];
+            char claveB = b.claves[j];
+            if (claveA < claveB) {
+                i++;
+            } else if (claveA > claveB) {
+                j++;
+            } else {
+                Contenedor comun = Contenedor.interseccion(a.contenedores[i], b.contenedores[j]);
+                if (comun != null) {
+                    resultado.agregarContenedor(claveA, comun);
+                }
+                i++;
+                j++;
+            }
+        }
+        resultado.ultimo = Long.MAX_VALUE;
+        return resultado;
+    }
+
+    // Unión de varios conjuntos en una sola pasada sobre sus contenedores ordenados por clave
+    static MapaBits union(List<MapaBits> conjuntos) {
+        if (conjuntos.size() == 1) {
+            return conjuntos.get(0);
+        }
+
+        List<ContenedorConClave> pares = new ArrayList<>();
+        for (MapaBits conjunto : conjuntos) {
+            for (int i = 0; i < conjunto.cantidadContenedores; i++) {
+                pares.add(new ContenedorConClave(conjunto.claves[i], conjunto.contenedores[i]));
+            }
+        }
+        pares.sort(Comparator.comparingInt(par -> par.clave));
+
+        MapaBits resultado = new MapaBits();
+        int i = 0;
+        while (i < pares.size()) {
+            int desde = i;
+            char clave = pares.get(i).clave;
+            while (i < pares.size() && pares.get(i).clave == clave) {
+                i++;
+            }
+            resultado.agregarContenedor(clave, i - desde == 1
+                    ? pares.get(desde).contenedor
+                    : Contenedor.union(pares, desde, i));
+        }
+        resultado.ultimo = Long.MAX_VALUE;
+        return resultado;
+    }
+
+    // Métodos privados
+
+    private void agregarContenedor(char clave, Contenedor contenedor) {
+        if (cantidadContenedores == claves.length) {
+            claves = Arrays.copyOf(claves, claves.length * 2);
+            contenedores = Arrays.copyOf(contenedores, contenedores.length * 2);
+        }
+        claves[cantidadContenedores] = clave;
+        contenedores[cantidadContenedores++] = contenedor;
+    }
+
+    private static final class ContenedorConClave {
+        private final char clave;
+        private final Contenedor contenedor;
+
+        private ContenedorConClave(char clave, Contenedor contenedor) {
+            this.clave = clave;
+            this.contenedor = contenedor;
+        }
+    }
+
+    // Valores de un bloque de 65.536: arreglo ordenado (arreglo != null) o mapa de bits (bits != null)
+    private static final class Contenedor {
+        private char[] arreglo;
+        private long[] bits;
+        private int cardinalidad;
+
+        private Contenedor() {
+            this.arreglo = new char[4];
+        }
+
+        private Contenedor(char[] arreglo, long[] bits, int cardinalidad) {
+            this.arreglo = arreglo;
+            this.bits = bits;
+            this.cardinalidad = cardinalidad;
+        }
+
+        private void agregarAlFinal(char valor) {
+            if (bits == null && cardinalidad == MAXIMO_ARREGLO) {
+                bits = aBits();
+                arreglo = null;
+            }
+            if (bits != null) {
+                bits[valor >>> 6] |= 1L << valor;
+            } else {
+                if (cardinalidad == arreglo.length) {
+                    arreglo = Arrays.copyOf(arreglo, Math.min(MAXIMO_ARREGLO, arreglo.length * 2));
+                }
+                arreglo[cardinalidad] = valor;
+            }
+            cardinalidad++;
+        }
+
+        private void forEach(int base, IntConsumer accion) {
+            if (bits == null) {
+                for (int i = 0; i < cardinalidad; i++) {
+                    accion.accept(base | arreglo[i]);
+                }
+                return;
+            }
+            for (int palabra = 0; palabra < PALABRAS; palabra++) {
+                long resto = bits[palabra];
+                while (resto != 0) {
+                    accion.accept(base | (palabra << 6) | Long.numberOfTrailingZeros(resto));
+                    resto &= resto - 1;
+                }
+            }
+        }
+
+        private long[] aBits() {
+            long[] resultado = new long[PALABRAS];
+            for (int i = 0; i < cardinalidad; i++) {
+                resultado[arreglo[i] >>> 6] |= 1L << arreglo[i];
+            }
+            return resultado;
+        }
+
+        private boolean contiene(char valor) {
+            return (bits[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        // Contenedor con la intersección, o null si es vacía
+        private static Contenedor interseccion(Contenedor a, Contenedor b) {
+            if (a.bits != null && b.bits != null) {
+                long[] bits = new long[PALABRAS];
+                int cardinalidad = 0;
+                for (int i = 0; i < PALABRAS; i++) {
+                    bits[i] = a.bits[i] & b.bits[i];
+                    cardinalidad += Long.bitCount(bits[i]);
+                }
+                return compactar(bits, cardinalidad);
+            }
+            if (a.bits != null || b.bits != null) {
+                Contenedor arreglo = a.bits == null ? a : b;
+                Contenedor mapa = a.bits == null ? b : a;
+                char[] valores = new char[arreglo.cardinalidad];
+                int cantidad = 0;
+                for (int i = 0; i < arreglo.cardinalidad; i++) {
+                    if (mapa.contiene(arreglo.arreglo[i])) {
+                        valores[cantidad++] = arreglo.arreglo[i];
+                    }
+                }
+                return cantidad == 0 ? null : new Contenedor(valores, null, cantidad);
+            }
+
+            char[] valores = new char[Math.min(a.cardinalidad, b.cardinalidad)];
+            int cantidad = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.cardinalidad && j < b.cardinalidad) {
+                if (a.arreglo[i] < b.arreglo[j]) {
+                    i++;
+                } else if (a.arreglo[i] > b.arreglo[j]) {
+                    j++;
+                } else {
+                    valores[cantidad++] = a.arreglo[i];
+                    i++;
+                    j++;
+                }
+            }
+            return cantidad == 0 ? null : new Contenedor(valores, null, cantidad);
+        }
+
+        // Unión de los contenedores de pares[desde, hasta), todos con la misma clave.
+        // Se acumula en un solo mapa de bits nuevo; los contenedores de entrada no se modifican.
+        private static Contenedor union(List<ContenedorConClave> pares, int desde, int hasta) {
+            long[] bits = new long[PALABRAS];
+            for (int i = desde; i < hasta; i++) {
+                Contenedor otro = pares.get(i).contenedor;
+                if (otro.bits != null) {
+                    for (int palabra = 0; palabra < PALABRAS; palabra++) {
+                        bits[palabra] |= otro.bits[palabra];
+                    }
+                } else {
+                    for (int j = 0; j < otro.cardinalidad; j++) {
+                        bits[otro.arreglo[j] >>> 6] |= 1L << otro.arreglo[j];
+                    }
+                }
+            }
+            int cardinalidad = 0;
+            for (long palabra : bits) {
+                cardinalidad += Long.bitCount(palabra);
+            }
+            return compactar(bits, cardinalidad);
+        }
+
+        // Vuelve a arreglo si el mapa de bits quedó con pocos valores
+        private static Contenedor compactar(long[] bits, int cardinalidad) {
+            if (cardinalidad == 0) {
+                return null;
+            }
+            if (cardinalidad > MAXIMO_ARREGLO) {
+                return new Contenedor(null, bits, cardinalidad);
+            }
+            char[] valores = new char[cardinalidad];
+            int cantidad = 0;
+            for (int palabra = 0; palabra < PALABRAS; palabra++) {
+                long resto = bits[palabra];
+                while (resto != 0) {
+                    valores[cantidad++] = (char) ((palabra << 6) | Long.numberOfTrailingZeros(resto));
+                    resto &= resto - 1;
+                }
+            }
+            return new Contenedor(valores, null, cardinalidad);
+        }
+    }
+}
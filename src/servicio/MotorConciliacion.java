@@ -0,0 +1,184 @@
+package servicio;
+
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.Transaccion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Concilia el saldo de cada cuenta con su historial de transacciones, en paralelo.
+//
+// Cada cuenta mantiene una huella encadenada de su historial que se actualiza en cada alta
+// (ver Transaccion.encadenarHuella). Al terminar de verificar una cuenta el motor guarda un
+// punto de auditoría: cuántas transacciones verificó, la huella y el saldo acumulado hasta ahí.
+// La siguiente corrida sólo recorre las transacciones nuevas: parte del punto guardado,
+// encadena la cola y compara el resultado con la huella y el saldo actuales de la cuenta.
+// Si la huella no coincide, el historial ya verificado fue alterado.
+//
+// Los puntos de auditoría se indexan por el handle de la cuenta y sólo avanzan cuando la cuenta cuadra,
+// de modo que una discrepancia se vuelve a informar hasta que se corrija.
+public class MotorConciliacion {
+    private static final double TOLERANCIA = 0.005;
+    private static final int CUENTAS_POR_TAREA = 1024;
+
+    private final int hilos;
+    private PuntoAuditoria[] puntos;
+
+    // Constructor con un hilo por núcleo
+    public MotorConciliacion() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MotorConciliacion(int hilos) {
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser positiva");
+        }
+        this.hilos = hilos;
+        this.puntos = new PuntoAuditoria[1024];
+    }
+
+    // Verifica sólo lo agregado desde la última conciliación de cada cuenta
+    public synchronized ResultadoConciliacion conciliar(List<Cliente> clientes) {
+        return ejecutar(clientes, false);
+    }
+
+    // Verifica el historial completo de cada cuenta, ignorando los puntos de auditoría
+    public synchronized ResultadoConciliacion conciliarCompleto(List<Cliente> clientes) {
+        return ejecutar(clientes, true);
+    }
+
+    // Olvida los puntos de auditoría; la próxima conciliación recorre todo el historial
+    public synchronized void reiniciar() {
+        Arrays.fill(puntos, null);
+    }
+
+    // Métodos privados
+
+    private ResultadoConciliacion ejecutar(List<Cliente> clientes, boolean completa) {
+        if (clientes == null) {
+            throw new IllegalArgumentException("La lista de clientes no puede ser nula");
+        }
+
+        long inicio = System.nanoTime();
+        // Las cuentas se juntan en una lista propia antes de repartirlas por índices
+        List<Cuenta> cuentas = new ArrayList<>();
+        int mayorHandle = -1;
+        for (Cliente cliente : clientes) {
+            for (Cuenta cuenta : cliente.getCuentas()) {
+                cuentas.add(cuenta);
+                mayorHandle = Math.max(mayorHandle, cuenta.getHandle());
+            }
+        }
+        if (mayorHandle >= puntos.length) {
+            puntos = Arrays.copyOf(puntos, Math.max(puntos.length * 2, mayorHandle + 1));
+        }
+
+        // Cada tarea escribe sólo los puntos de sus propias cuentas
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<Parcial>> pendientes = new ArrayList<>();
+            for (int desde = 0; desde < cuentas.size(); desde += CUENTAS_POR_TAREA) {
+                List<Cuenta> tramo = cuentas.subList(desde, Math.min(cuentas.size(), desde + CUENTAS_POR_TAREA));
+                pendientes.add(ejecutor.submit(() -> verificarTramo(tramo, completa)));
+            }
+
+            List<ResultadoConciliacion.Discrepancia> discrepancias = new ArrayList<>();
+            long transacciones = 0;
+            for (Future<Parcial> pendiente : pendientes) {
+                Parcial parcial = esperar(pendiente);
+                discrepancias.addAll(parcial.discrepancias);
+                transacciones += parcial.transacciones;
+            }
+            return new ResultadoConciliacion(cuentas.size(), transacciones, discrepancias,
+                    System.nanoTime() - inicio);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private Parcial verificarTramo(List<Cuenta> cuentas, boolean completa) {
+        Parcial parcial = new Parcial();
+        for (Cuenta cuenta : cuentas) {
+            verificarCuenta(cuenta, completa, parcial);
+        }
+        return parcial;
+    }
+
+    private void verificarCuenta(Cuenta cuenta, boolean completa, Parcial parcial) {
+        PuntoAuditoria punto = completa ? null : puntos[cuenta.getHandle()];
+        int desde = punto == null ? 0 : punto.cantidad;
+
+        // Saldo, huella y cola del historial se leen juntos con la cuenta bloqueada
+        double saldo;
+        long huellaActual;
+        int cantidad;
+        List<Transaccion> cola;
+        synchronized (cuenta) {
+            saldo = cuenta.getSaldo();
+            huellaActual = cuenta.getHuellaHistorial();
+            cantidad = cuenta.getCantidadTransacciones();
+            cola = cantidad < desde ? List.of() : cuenta.obtenerHistorialDesde(desde);
+        }
+
+        if (cantidad < desde) {
+            parcial.discrepancias.add(new ResultadoConciliacion.Discrepancia(cuenta.getNumero(),
+                    "El historial tiene menos transacciones que en la última auditoría", saldo, punto.saldo));
+            return;
+        }
+
+        long huella = punto == null ? Transaccion.HUELLA_INICIAL : punto.huella;
+        double saldoHistorial = punto == null ? 0.0 : punto.saldo;
+        for (Transaccion transaccion : cola) {
+            huella = transaccion.encadenarHuella(huella);
+            saldoHistorial += transaccion.getEfectoEnSaldo();
+        }
+        parcial.transacciones += cola.size();
+
+        if (huella != huellaActual) {
+            parcial.discrepancias.add(new ResultadoConciliacion.Discrepancia(cuenta.getNumero(),
+                    "La huella del historial no coincide: se alteraron transacciones ya registradas",
+                    saldo, saldoHistorial));
+        } else if (Math.abs(saldo - saldoHistorial) > TOLERANCIA) {
+            parcial.discrepancias.add(new ResultadoConciliacion.Discrepancia(cuenta.getNumero(),
+                    "El saldo no coincide con la suma del historial", saldo, saldoHistorial));
+        } else {
+            puntos[cuenta.getHandle()] = new PuntoAuditoria(cantidad, huella, saldoHistorial);
+        }
+    }
+
+    private Parcial esperar(Future<Parcial> pendiente) {
+        try {
+            return pendiente.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Conciliación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error al conciliar cuentas: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Estado verificado de una cuenta en la última conciliación
+    private static final class PuntoAuditoria {
+        private final int cantidad;
+        private final long huella;
+        private final double saldo;
+
+        private PuntoAuditoria(int cantidad, long huella, double saldo) {
+            this.cantidad = cantidad;
+            this.huella = huella;
+            this.saldo = saldo;
+        }
+    }
+
+    // Resultado de una tarea
+    private static final class Parcial {
+        private final List<ResultadoConciliacion.Discrepancia> discrepancias = new ArrayList<>();
+        private long transacciones;
+    }
+}
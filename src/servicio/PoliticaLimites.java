@@ -0,0 +1,75 @@
+package servicio;
+
+import modelo.Cuenta;
+import modelo.LimitesOperacion;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Clase singleton con los topes de retiro y transferencia vigentes.
+// Los topes de cuenta se configuran por tipo de cuenta (por ejemplo CuentaAhorros)
+// y se heredan: una subclase sin configuración propia usa la de su superclase.
+// Los topes de cliente se aplican a la suma de todas las cuentas del cliente.
+// Por defecto no hay topes.
+public class PoliticaLimites {
+    private static PoliticaLimites instancia;
+
+    private final Map<Class<?>, LimitesOperacion> limitesPorTipo;
+    private volatile LimitesOperacion limitesPorCliente;
+
+    // Constructor privado para evitar instanciación externa
+    private PoliticaLimites() {
+        this.limitesPorTipo = new ConcurrentHashMap<>();
+        this.limitesPorCliente = LimitesOperacion.SIN_LIMITES;
+    }
+
+    // Metodo para obtener la instancia única de la política
+    public static synchronized PoliticaLimites getInstance() {
+        if (instancia == null) {
+            instancia = new PoliticaLimites();
+        }
+        return instancia;
+    }
+
+    // Configura los topes para un tipo de cuenta y sus subclases
+    public void configurarPorTipoCuenta(Class<? extends Cuenta> tipoCuenta, LimitesOperacion limites) {
+        if (tipoCuenta == null) {
+            throw new IllegalArgumentException("El tipo de cuenta no puede ser nulo");
+        }
+        validarLimitesNoNulos(limites);
+        limitesPorTipo.put(tipoCuenta, limites);
+    }
+
+    // Configura los topes que se aplican a cada cliente sumando todas sus cuentas
+    public void configurarPorCliente(LimitesOperacion limites) {
+        validarLimitesNoNulos(limites);
+        this.limitesPorCliente = limites;
+    }
+
+    // Topes aplicables a la cuenta según su tipo
+    public LimitesOperacion limitesPara(Cuenta cuenta) {
+        for (Class<?> tipo = cuenta.getClass(); tipo != null; tipo = tipo.getSuperclass()) {
+            LimitesOperacion limites = limitesPorTipo.get(tipo);
+            if (limites != null) {
+                return limites;
+            }
+        }
+        return LimitesOperacion.SIN_LIMITES;
+    }
+
+    public LimitesOperacion limitesPorCliente() {
+        return limitesPorCliente;
+    }
+
+    // Elimina toda la configuración y vuelve a operar sin topes
+    public void restablecer() {
+        limitesPorTipo.clear();
+        limitesPorCliente = LimitesOperacion.SIN_LIMITES;
+    }
+
+    private void validarLimitesNoNulos(LimitesOperacion limites) {
+        if (limites == null) {
+            throw new IllegalArgumentException("Los límites no pueden ser nulos");
+        }
+    }
+}
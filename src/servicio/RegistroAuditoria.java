@@ -0,0 +1,35 @@
+package servicio;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Transacción devuelta por una consulta de auditoría
+public final class RegistroAuditoria {
+    private final long fila;
+    private final String tipo;
+    private final String numeroCuenta;
+    private final double monto;
+    private final LocalDateTime fecha;
+
+    RegistroAuditoria(long fila, String tipo, String numeroCuenta, double monto, long fechaEpochMilis) {
+        this.fila = fila;
+        this.tipo = tipo;
+        this.numeroCuenta = numeroCuenta;
+        this.monto = monto;
+        this.fecha = LocalDateTime.ofInstant(Instant.ofEpochMilli(fechaEpochMilis), ZoneId.systemDefault());
+    }
+
+    // Getters
+    // Posición de la transacción en el índice, en orden de llegada
+    public long getFila() { return fila; }
+    public String getTipo() { return tipo; }
+    public String getNumeroCuenta() { return numeroCuenta; }
+    public double getMonto() { return monto; }
+    public LocalDateTime getFecha() { return fecha; }
+
+    @Override
+    public String toString() {
+        return String.format("Auditoria[#%d %s %s - $%.2f - %s]", fila, tipo, numeroCuenta, monto, fecha);
+    }
+}
@@ -1,50 +1,64 @@
 package servicio;
 
 import modelo.Cliente;
-import modelo.Cuenta;
+import modelo.InstantaneaSaldos;
+import modelo.RegistroVersiones;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 // Servicio para generar reportes financieros basados en una lista de clientes y sus cuentas
+// Cada reporte lee los saldos desde una instantánea consistente, por lo que puede
+// ejecutarse mientras otros hilos depositan, retiran o transfieren.
 public class ReporteServicio {
     private final List<Cliente> clientes;
 
-    // Constructor que recibe una lista de clientes
+    // Constructor que recibe una lista de clientes. No la copia: con la vista viva de
+    // GestorClientes.vistaClientes() los reportes incluyen a los clientes registrados después.
     public ReporteServicio(List<Cliente> clientes) {
         if (clientes == null) {
             throw new IllegalArgumentException("La lista de clientes no puede ser nula");
         }
-        this.clientes = new ArrayList<>(clientes); // Copia defensiva
+        this.clientes = Collections.unmodifiableList(clientes);
     }
 
-    // Calcula el saldo total de un cliente sumando los saldos de todas sus cuentas
-    private double calcularSaldoTotalCliente(Cliente cliente) {
-        return cliente.getCuentas().stream()
-                .mapToDouble(Cuenta::getSaldo)
-                .sum();
+    // Abre una instantánea para ejecutar varios reportes sobre la misma versión de los saldos
+    public InstantaneaSaldos abrirInstantanea() {
+        return RegistroVersiones.getInstance().abrirInstantanea();
     }
 
     // Obtiene clientes con saldo total superior al umbral especificado
     public List<Cliente> obtenerClientesSaldoSuperior(double umbral) {
-        return clientes.stream()
-                .filter(cliente -> calcularSaldoTotalCliente(cliente) > umbral)
-                .collect(Collectors.toList());
+        try (InstantaneaSaldos instantanea = abrirInstantanea()) {
+            return clientes.stream()
+                    .filter(cliente -> instantanea.saldoTotal(cliente) > umbral)
+                    .collect(Collectors.toList());
+        }
     }
 
     // Obtiene clientes con saldo total inferior al umbral especificado
     public List<Cliente> obtenerClientesSaldoInferior(double umbral) {
-        return clientes.stream()
-                .filter(cliente -> calcularSaldoTotalCliente(cliente) < umbral)
-                .collect(Collectors.toList());
+        try (InstantaneaSaldos instantanea = abrirInstantanea()) {
+            return clientes.stream()
+                    .filter(cliente -> instantanea.saldoTotal(cliente) < umbral)
+                    .collect(Collectors.toList());
+        }
     }
 
     // Calcula el capital total en todas las cuentas de todos los clientes
     public double calcularCapitalTotal() {
-        return clientes.stream()
-                .flatMap(cliente -> cliente.getCuentas().stream())
-                .mapToDouble(Cuenta::getSaldo)
-                .sum();
+        try (InstantaneaSaldos instantanea = abrirInstantanea()) {
+            return calcularCapitalTotal(instantanea);
+        }
+    }
+
+    // Calcula el capital total tal como estaba en la versión de la instantánea
+    public double calcularCapitalTotal(InstantaneaSaldos instantanea) {
+        double total = 0.0;
+        for (Cliente cliente : clientes) {
+            total += instantanea.saldoTotal(cliente);
+        }
+        return total;
     }
 
     // Identifica clientes sin cuentas
@@ -63,12 +77,20 @@ public class ReporteServicio {
 
     // Calcula el saldo promedio por cliente
     public double calcularSaldoPromedioPorCliente() {
-        if (clientes.isEmpty()) return 0.0;
+        try (InstantaneaSaldos instantanea = abrirInstantanea()) {
+            return calcularSaldoPromedioPorCliente(instantanea);
+        }
+    }
 
-        double saldoTotal = clientes.stream()
-                .mapToDouble(this::calcularSaldoTotalCliente)
-                .sum();
-        return saldoTotal / clientes.size();
+    // Calcula el saldo promedio por cliente en la versión de la instantánea
+    public double calcularSaldoPromedioPorCliente(InstantaneaSaldos instantanea) {
+        double saldoTotal = 0.0;
+        int cantidad = 0;
+        for (Cliente cliente : clientes) {
+            saldoTotal += instantanea.saldoTotal(cliente);
+            cantidad++;
+        }
+        return cantidad == 0 ? 0.0 : saldoTotal / cantidad;
     }
 
     // Genera un reporte de clientes premium (top 20% por saldo total)
@@ -77,9 +99,20 @@ public class ReporteServicio {
             return List.of();
         }
 
+        try (InstantaneaSaldos instantanea = abrirInstantanea()) {
+            return generarReporteClientesPremium(instantanea);
+        }
+    }
+
+    // Genera el reporte de clientes premium con los saldos de la instantánea
+    public List<Cliente> generarReporteClientesPremium(InstantaneaSaldos instantanea) {
+        if (clientes.isEmpty()) {
+            return List.of();
+        }
+
         // Obtener saldos y ordenar para encontrar el percentil 80
         List<Double> saldos = clientes.stream()
-                .map(this::calcularSaldoTotalCliente)
+                .map(instantanea::saldoTotal)
                 .sorted(Collections.reverseOrder()) // De mayor a menor
                 .collect(Collectors.toList());
 
@@ -88,7 +121,7 @@ public class ReporteServicio {
         double umbral = saldos.get(Math.min(topCount - 1, saldos.size() - 1));
 
         return clientes.stream()
-                .filter(cliente -> calcularSaldoTotalCliente(cliente) >= umbral)
+                .filter(cliente -> instantanea.saldoTotal(cliente) >= umbral)
                 .collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package servicio;
+
+import java.util.Collections;
+import java.util.List;
+
+// Resultado de una corrida de conciliación entre saldos e historiales
+public final class ResultadoConciliacion {
+    private final int cuentasVerificadas;
+    private final long transaccionesVerificadas;
+    private final List<Discrepancia> discrepancias;
+    private final long duracionNanos;
+
+    ResultadoConciliacion(int cuentasVerificadas, long transaccionesVerificadas,
+                          List<Discrepancia> discrepancias, long duracionNanos) {
+        this.cuentasVerificadas = cuentasVerificadas;
+        this.transaccionesVerificadas = transaccionesVerificadas;
+        this.discrepancias = Collections.unmodifiableList(discrepancias);
+        this.duracionNanos = duracionNanos;
+    }
+
+    public boolean estaConciliado() {
+        return discrepancias.isEmpty();
+    }
+
+    // Getters
+    public int getCuentasVerificadas() { return cuentasVerificadas; }
+    public long getTransaccionesVerificadas() { return transaccionesVerificadas; }
+    public List<Discrepancia> getDiscrepancias() { return discrepancias; }
+    public long getDuracionNanos() { return duracionNanos; }
+
+    @Override
+    public String toString() {
+        return String.format("Conciliación[%d cuentas - %d transacciones nuevas - %d discrepancias - %.3f s]",
+                cuentasVerificadas, transaccionesVerificadas, discrepancias.size(), duracionNanos / 1e9);
+    }
+
+    // Cuenta cuyo saldo o historial no cuadra
+    public static final class Discrepancia {
+        private final String numeroCuenta;
+        private final String motivo;
+        private final double saldoCuenta;
+        private final double saldoHistorial;
+
+        Discrepancia(String numeroCuenta, String motivo, double saldoCuenta, double saldoHistorial) {
+            this.numeroCuenta = numeroCuenta;
+            this.motivo = motivo;
+            this.saldoCuenta = saldoCuenta;
+            this.saldoHistorial = saldoHistorial;
+        }
+
+        public String getNumeroCuenta() { return numeroCuenta; }
+        public String getMotivo() { return motivo; }
+        public double getSaldoCuenta() { return saldoCuenta; }
+        public double getSaldoHistorial() { return saldoHistorial; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s (saldo $%.2f - historial $%.2f)",
+                    numeroCuenta, motivo, saldoCuenta, saldoHistorial);
+        }
+    }
+}
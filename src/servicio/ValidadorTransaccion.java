@@ -15,6 +15,7 @@ public class ValidadorTransaccion {
     }
 
     // Valida condiciones para realizar un retiro
+    // El saldo a comparar es el disponible: el contable menos las retenciones activas
     // Verifica que el monto sea positivo y que haya fondos suficientes/
     // Lanza IllegalArgumentException si no se cumplen las condiciones
     public static void validarRetiro(double saldoActual, double montoRetiro) {
@@ -33,6 +34,35 @@ public class ValidadorTransaccion {
         validarMontoPositivo(montoDeposito);
     }
 
+    // Valida que el monto no supere el tope de la ventana (por hora o diario)
+    // considerando lo ya acumulado en ella
+    public static void validarLimite(String operacion, String periodo, double acumulado,
+                                     double monto, double limite) {
+        if (acumulado + monto > limite) {
+            throw new IllegalArgumentException(
+                    String.format("Límite %s de %s excedido. Usado: $%.2f, Límite: $%.2f, Solicitado: $%.2f",
+                            periodo, operacion, acumulado, limite, monto)
+            );
+        }
+    }
+
+    // Valida que haya saldo disponible (saldo menos retenciones activas) para retener el monto
+    public static void validarRetencion(double saldoDisponible, double montoRetencion) {
+        validarRetiro(saldoDisponible, montoRetencion); // Mismas reglas que retiro
+    }
+
+    // Valida que el monto a capturar sea positivo y no supere lo retenido
+    public static void validarCaptura(double montoRetenido, double montoCaptura) {
+        validarMontoPositivo(montoCaptura);
+
+        if (montoCaptura > montoRetenido) {
+            throw new IllegalArgumentException(
+                    String.format("La captura supera lo retenido. Retenido: $%.2f, Solicitado: $%.2f",
+                            montoRetenido, montoCaptura)
+            );
+        }
+    }
+
     //
     public static void validarTransferencia(double saldoOrigen, double montoTransferencia) {
         validarRetiro(saldoOrigen, montoTransferencia); // Mismas reglas que retiro
@@ -0,0 +1,119 @@
+package simulacion;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Parámetros del simulador de carga. Se leen de la línea de comandos con el formato --clave=valor:
+//
+//   --clientes=10000          clientes a registrar
+//   --cuentas=60,30,10        distribución de cuentas por cliente (pesos para 1, 2, 3... cuentas)
+//   --hilos=8                 hilos que ejecutan operaciones
+//   --operaciones=1000000     operaciones medidas en total
+//   --calentamiento=100000    operaciones previas sin medir (calentamiento del JIT)
+//   --mezcla=50,30,19,1       pesos de depositar, retirar, transferir y reporte
+//   --zipf=0.99               exponente de popularidad de cuentas (0 = uniforme)
+//   --saldo-inicial=1000      depósito inicial de cada cuenta
+//   --semilla=42              semilla de los generadores aleatorios
+//   --bus=true                suscribe un consumidor al bus de eventos durante la prueba
+public final class ConfiguracionSimulacion {
+    private final int clientes;
+    private final double[] distribucionCuentas;
+    private final int hilos;
+    private final long operaciones;
+    private final long calentamiento;
+    private final double[] mezcla;
+    private final double exponenteZipf;
+    private final double saldoInicial;
+    private final long semilla;
+    private final boolean consumidorBus;
+
+    private ConfiguracionSimulacion(Map<String, String> valores) {
+        this.clientes = Integer.parseInt(valores.getOrDefault("clientes", "10000"));
+        this.distribucionCuentas = leerPesos(valores.getOrDefault("cuentas", "60,30,10"), "cuentas");
+        this.hilos = Integer.parseInt(valores.getOrDefault("hilos",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        this.operaciones = Long.parseLong(valores.getOrDefault("operaciones", "1000000"));
+        this.calentamiento = Long.parseLong(valores.getOrDefault("calentamiento", "100000"));
+        this.mezcla = leerPesos(valores.getOrDefault("mezcla", "50,30,19,1"), "mezcla");
+        this.exponenteZipf = Double.parseDouble(valores.getOrDefault("zipf", "0.99"));
+        this.saldoInicial = Double.parseDouble(valores.getOrDefault("saldo-inicial", "1000"));
+        this.semilla = Long.parseLong(valores.getOrDefault("semilla", "42"));
+        this.consumidorBus = Boolean.parseBoolean(valores.getOrDefault("bus", "false"));
+        validar();
+    }
+
+    // Crea la configuración a partir de los argumentos de la línea de comandos
+    public static ConfiguracionSimulacion desdeArgumentos(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String argumento : args) {
+            if (!argumento.startsWith("--") || !argumento.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (se espera --clave=valor): " + argumento);
+            }
+            int separador = argumento.indexOf('=');
+            valores.put(argumento.substring(2, separador), argumento.substring(separador + 1));
+        }
+        return new ConfiguracionSimulacion(valores);
+    }
+
+    // Getters
+    public int getClientes() { return clientes; }
+    public double[] getDistribucionCuentas() { return distribucionCuentas.clone(); }
+    public int getHilos() { return hilos; }
+    public long getOperaciones() { return operaciones; }
+    public long getCalentamiento() { return calentamiento; }
+    public double[] getMezcla() { return mezcla.clone(); }
+    public double getExponenteZipf() { return exponenteZipf; }
+    public double getSaldoInicial() { return saldoInicial; }
+    public long getSemilla() { return semilla; }
+    public boolean isConsumidorBus() { return consumidorBus; }
+
+    @Override
+    public String toString() {
+        return String.format("clientes=%d cuentas=%s hilos=%d operaciones=%d calentamiento=%d "
+                        + "mezcla=%s zipf=%.2f saldo-inicial=%.2f semilla=%d bus=%b",
+                clientes, Arrays.toString(distribucionCuentas), hilos, operaciones, calentamiento,
+                Arrays.toString(mezcla), exponenteZipf, saldoInicial, semilla, consumidorBus);
+    }
+
+    // Métodos privados
+
+    private static double[] leerPesos(String texto, String nombre) {
+        String[] partes = texto.split(",");
+        double[] pesos = new double[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            pesos[i] = Double.parseDouble(partes[i].trim());
+            if (pesos[i] < 0) {
+                throw new IllegalArgumentException("Los pesos de " + nombre + " no pueden ser negativos");
+            }
+        }
+        if (Arrays.stream(pesos).sum() <= 0) {
+            throw new IllegalArgumentException("Los pesos de " + nombre + " deben sumar más que cero");
+        }
+        return pesos;
+    }
+
+    private void validar() {
+        if (clientes <= 0) {
+            throw new IllegalArgumentException("La cantidad de clientes debe ser positiva");
+        }
+        if (hilos <= 0) {
+            throw new IllegalArgumentException("La cantidad de hilos debe ser positiva");
+        }
+        if (operaciones <= 0 || calentamiento < 0) {
+            throw new IllegalArgumentException("La cantidad de operaciones debe ser positiva");
+        }
+        if (mezcla.length != TipoOperacion.values().length) {
+            throw new IllegalArgumentException("La mezcla debe tener "
+                    + TipoOperacion.values().length + " pesos: depositar, retirar, transferir, reporte");
+        }
+        if (saldoInicial < 0) {
+            throw new IllegalArgumentException("El saldo inicial no puede ser negativo");
+        }
+    }
+
+    // Operaciones que ejecuta el simulador, en el orden de los pesos de la mezcla
+    public enum TipoOperacion {
+        DEPOSITAR, RETIRAR, TRANSFERIR, REPORTE
+    }
+}
@@ -0,0 +1,47 @@
+package simulacion;
+
+import java.util.Random;
+
+// Generador de rangos con distribución de Zipf: el rango k (1..n) sale con
+// probabilidad proporcional a 1 / k^exponente. Con exponente 0 la distribución es uniforme;
+// con valores cercanos a 1 unas pocas cuentas concentran la mayoría de las operaciones.
+//
+// Se precalcula la función de distribución acumulada y cada muestra es una búsqueda binaria.
+public class DistribucionZipf {
+    private final double[] acumulada;
+
+    public DistribucionZipf(int cantidad, double exponente) {
+        if (cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad de elementos debe ser positiva");
+        }
+        if (exponente < 0) {
+            throw new IllegalArgumentException("El exponente de Zipf no puede ser negativo");
+        }
+
+        this.acumulada = new double[cantidad];
+        double suma = 0.0;
+        for (int k = 0; k < cantidad; k++) {
+            suma += 1.0 / Math.pow(k + 1, exponente);
+            acumulada[k] = suma;
+        }
+        for (int k = 0; k < cantidad; k++) {
+            acumulada[k] /= suma;
+        }
+    }
+
+    // Devuelve un índice entre 0 y cantidad - 1; el 0 es el más popular
+    public int siguiente(Random aleatorio) {
+        double u = aleatorio.nextDouble();
+        int bajo = 0;
+        int alto = acumulada.length - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (acumulada[medio] < u) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+}
@@ -0,0 +1,83 @@
+package simulacion;
+
+// Histograma de latencias en nanosegundos con cubetas logarítmicas-lineales:
+// cada potencia de dos se divide en 32 cubetas, lo que da un error relativo menor al 3%
+// con memoria fija. Cada hilo usa su propio histograma y al final se combinan.
+public class HistogramaLatencias {
+    private static final int BITS_SUBCUBETA = 5;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final long[] conteos;
+    private long total;
+    private long maximo;
+    private long suma;
+
+    public HistogramaLatencias() {
+        this.conteos = new long[CUBETAS];
+    }
+
+    public void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        conteos[indice(nanos)]++;
+        total++;
+        suma += nanos;
+        maximo = Math.max(maximo, nanos);
+    }
+
+    // Suma los conteos de otro histograma en este
+    public void combinar(HistogramaLatencias otro) {
+        for (int i = 0; i < CUBETAS; i++) {
+            conteos[i] += otro.conteos[i];
+        }
+        total += otro.total;
+        suma += otro.suma;
+        maximo = Math.max(maximo, otro.maximo);
+    }
+
+    // Latencia bajo la cual queda el porcentaje indicado de las muestras (0 a 100)
+    public long percentil(double porcentaje) {
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = (long) Math.ceil(total * porcentaje / 100.0);
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += conteos[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo);
+            }
+        }
+        return maximo;
+    }
+
+    // Getters
+    public long getTotal() { return total; }
+    public long getMaximo() { return maximo; }
+
+    public double getPromedio() {
+        return total == 0 ? 0.0 : (double) suma / total;
+    }
+
+    // Métodos privados
+
+    private static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        int subcubeta = (int) (valor >>> exponente) - SUBCUBETAS;
+        return (exponente + 1) * SUBCUBETAS + subcubeta;
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS - 1;
+        long subcubeta = indice % SUBCUBETAS + SUBCUBETAS;
+        return ((subcubeta + 1) << exponente) - 1;
+    }
+}
@@ -0,0 +1,116 @@
+package simulacion;
+
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.CuentaAhorros;
+import modelo.InstantaneaSaldos;
+import modelo.RegistroVersiones;
+import modelo.Transaccion;
+import servicio.GestorClientes;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+// Mide los bytes asignados por llamada en las rutas de lectura del modelo.
+// Las vistas y recorridos (getCuentas, obtenerClientes, vistaClientes, forEach...) deberían quedar en 0 bytes por llamada;
+// las copias (obtenerHistorial, new ArrayList) se incluyen como referencia.
+//
+// Usa el contador de bytes asignados por hilo de la JVM (com.sun.management.ThreadMXBean),
+// después de un calentamiento para que el compilador JIT optimice cada ruta.
+//
+// Uso: java simulacion.MedicionAsignaciones [iteraciones]
+public class MedicionAsignaciones {
+    private static final int CLIENTES = 10_000;
+    private static final int CUENTAS_POR_CLIENTE = 3;
+    private static final int TRANSACCIONES_POR_CUENTA = 50;
+
+    private final com.sun.management.ThreadMXBean hilos;
+    private final int iteraciones;
+    // Resultados acumulados para que el compilador no elimine las llamadas medidas
+    private long sumidero;
+    private double sumideroSaldos;
+    private Object sumideroObjetos;
+
+    public MedicionAsignaciones(int iteraciones) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new IllegalStateException("La JVM no permite medir bytes asignados por hilo");
+        }
+        this.hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.hilos.setThreadAllocatedMemoryEnabled(true);
+        this.iteraciones = iteraciones;
+    }
+
+    public static void main(String[] args) {
+        int iteraciones = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        new MedicionAsignaciones(iteraciones).ejecutar();
+    }
+
+    public void ejecutar() {
+        GestorClientes gestor = GestorClientes.getInstance();
+        for (int i = 0; i < CLIENTES; i++) {
+            Cliente cliente = new Cliente("Cliente Medicion " + i, String.format("MA%08d", i));
+            for (int c = 0; c < CUENTAS_POR_CLIENTE; c++) {
+                Cuenta cuenta = new CuentaAhorros(String.format("MA-%08d-%d", i, c));
+                cliente.agregarCuenta(cuenta);
+                for (int t = 0; t < TRANSACCIONES_POR_CUENTA; t++) {
+                    cuenta.depositar(10 + t);
+                }
+            }
+            gestor.registrarCliente(cliente);
+        }
+
+        Cliente cliente = gestor.obtenerClientes().get(CLIENTES / 2);
+        Cuenta cuenta = cliente.getCuentas().get(0);
+        String numero = cuenta.getNumero();
+        Consumer<Transaccion> contarTransaccion = transaccion -> sumidero++;
+        Consumer<Cuenta> sumarCuenta = c -> sumideroSaldos += c.getSaldo();
+        Consumer<Cliente> contarCliente = c -> sumidero++;
+
+        System.out.printf("%-45s %15s%n", "OPERACIÓN", "BYTES/LLAMADA");
+        System.out.println("-".repeat(61));
+        medir("Cliente.getCuentas()", () -> sumideroObjetos = cliente.getCuentas());
+        medir("Cliente.getCuentas().get(0)", () -> sumideroObjetos = cliente.getCuentas().get(0));
+        medir("Cliente.getCantidadCuentas()", () -> sumidero += cliente.getCantidadCuentas());
+        medir("Cliente.tieneCuenta(numero)", () -> sumidero += cliente.tieneCuenta(numero) ? 1 : 0);
+        medir("Cliente.calcularSaldoTotal()", () -> sumideroSaldos += cliente.calcularSaldoTotal());
+        medir("Cliente.forEachCuenta(...)", () -> cliente.forEachCuenta(sumarCuenta));
+        medir("GestorClientes.obtenerClientes()", () -> sumideroObjetos = gestor.obtenerClientes());
+        medir("GestorClientes.obtenerClientes().get(i)", () -> sumideroObjetos = gestor.obtenerClientes().get(7));
+        medir("GestorClientes.vistaClientes().get(i)", () -> sumideroObjetos = gestor.vistaClientes().get(7));
+        medir("GestorClientes.contarClientes()", () -> sumidero += gestor.contarClientes());
+        medir("Cuenta.getHistorial().get(i)", () -> sumideroObjetos = cuenta.getHistorial().get(25));
+        medir("Cuenta.getHistorial().size()", () -> sumidero += cuenta.getHistorial().size());
+        medir("Cuenta.forEachTransaccion(...)", () -> cuenta.forEachTransaccion(contarTransaccion));
+        try (InstantaneaSaldos instantanea = RegistroVersiones.getInstance().abrirInstantanea()) {
+            medir("InstantaneaSaldos.saldoTotal(cliente)", () -> sumideroSaldos += instantanea.saldoTotal(cliente));
+        }
+        medir("(recorre 10.000 clientes) forEachCliente", () -> gestor.forEachCliente(contarCliente), 1000);
+
+        System.out.println("-".repeat(61));
+        System.out.println("Referencia: copias");
+        medir("new ArrayList<>(cliente.getCuentas())", () -> sumideroObjetos = new ArrayList<>(cliente.getCuentas()));
+        medir("Cuenta.obtenerHistorial()", () -> sumideroObjetos = cuenta.obtenerHistorial());
+    }
+
+    // Métodos privados
+
+    private void medir(String nombre, Runnable operacion) {
+        medir(nombre, operacion, iteraciones);
+    }
+
+    private void medir(String nombre, Runnable operacion, int veces) {
+        // Calentamiento para que la ruta quede compilada antes de medir
+        for (int i = 0; i < veces; i++) {
+            operacion.run();
+        }
+
+        long hilo = Thread.currentThread().getId();
+        long antes = hilos.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < veces; i++) {
+            operacion.run();
+        }
+        long despues = hilos.getThreadAllocatedBytes(hilo);
+        System.out.printf("%-45s %15.2f%n", nombre, (despues - antes) / (double) veces);
+    }
+}
@@ -0,0 +1,125 @@
+package simulacion;
+
+import modelo.Cliente;
+import servicio.IndiceNombres;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Mide el costo de agregar y quitar clientes del índice de nombres cuando muchos comparten una palabra
+// del nombre (por ejemplo miles de "Maria ... Gomez"): todos terminan en el mismo nodo del trie.
+//
+// Para cada tamaño se indexan esa cantidad de clientes con el mismo nombre y apellido y se informa el
+// tiempo medio por alta y por baja. Con los clientes del nodo en un conjunto, el costo por operación
+// debe mantenerse aproximadamente constante al crecer el tamaño; si crece en proporción, el nodo
+// vuelve a recorrerse linealmente.
+//
+// Después mide la búsqueda aproximada con un índice de nombres variados (por defecto un millón): el tiempo
+// medio por consulta y cuántos clientes devuelve cada una, con distancia 2 y un límite de 10 resultados.
+// Como la búsqueda se detiene al llegar al límite, no debe depender de cuántos clientes comparten una palabra.
+//
+// Uso: java simulacion.MedicionIndiceNombres [clientesMaximos] [clientesBusqueda]
+// Cada Cliente lleva sus ventanas de topes: un millón de clientes necesita unos 4 GB de heap (-Xmx4g).
+public class MedicionIndiceNombres {
+    private static final int REPETICIONES = 3;
+    private static final int CONSULTAS_POR_MEDICION = 200;
+    private static final int DISTANCIA_BUSQUEDA = 2;
+    private static final int LIMITE_BUSQUEDA = 10;
+    private static final String[] NOMBRES = {"Maria", "Jose", "Juan", "Ana", "Luis", "Carmen", "Carlos", "Lucia",
+            "Pedro", "Elena", "Jorge", "Rosa", "Miguel", "Sofia", "Andres", "Laura"};
+    private static final String[] APELLIDOS = {"Gomez", "Garcia", "Rodriguez", "Fernandez", "Lopez", "Martinez",
+            "Perez", "Sanchez", "Ramirez", "Torres", "Flores", "Ruiz", "Diaz", "Morales", "Castro", "Vargas"};
+    // Con errores de escritura, palabras sueltas y prefijos
+    private static final String[] CONSULTAS = {"maria gomes", "luis", "ana", "rodrigez", "fernandes lopes",
+            "jorje ramires", "carmen t", "xyzw"};
+
+    public static void main(String[] args) {
+        int maximo = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.printf("%-12s %18s %18s%n", "CLIENTES", "ALTA (ns/op)", "BAJA (ns/op)");
+        System.out.println("-".repeat(50));
+        // La primera vuelta sirve de calentamiento para el compilador JIT
+        medir(Math.min(maximo, 10_000));
+        int ultimo = 0;
+        for (int tamano = 1_000; tamano <= maximo; tamano *= 10) {
+            imprimir(tamano, medir(tamano));
+            ultimo = tamano;
+        }
+        if (ultimo != maximo) {
+            imprimir(maximo, medir(maximo));
+        }
+
+        medirBusqueda(args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000);
+    }
+
+    // Tiempo medio de buscarAproximado por consulta con un índice del tamaño indicado
+    private static void medirBusqueda(int tamano) {
+        IndiceNombres indice = new IndiceNombres();
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < tamano; i++) {
+            String nombre = NOMBRES[aleatorio.nextInt(NOMBRES.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                    + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)];
+            indice.agregar(new Cliente(nombre, String.format("MB%08d", i)));
+        }
+
+        System.out.printf("%nBúsqueda aproximada con %d clientes (distancia %d, límite %d)%n", tamano,
+                DISTANCIA_BUSQUEDA, LIMITE_BUSQUEDA);
+        System.out.printf("%-18s %12s %14s%n", "CONSULTA", "RESULTADOS", "TIEMPO (µs)");
+        System.out.println("-".repeat(46));
+        // Calentamiento para el compilador JIT
+        for (int r = 0; r < CONSULTAS_POR_MEDICION; r++) {
+            for (String consulta : CONSULTAS) {
+                indice.buscarAproximado(consulta, DISTANCIA_BUSQUEDA, LIMITE_BUSQUEDA);
+            }
+        }
+        for (String consulta : CONSULTAS) {
+            int resultados = 0;
+            long inicio = System.nanoTime();
+            for (int r = 0; r < CONSULTAS_POR_MEDICION; r++) {
+                resultados = indice.buscarAproximado(consulta, DISTANCIA_BUSQUEDA, LIMITE_BUSQUEDA).size();
+            }
+            double micros = (System.nanoTime() - inicio) / 1_000.0 / CONSULTAS_POR_MEDICION;
+            System.out.printf("%-18s %12d %14.1f%n", consulta, resultados, micros);
+        }
+    }
+
+    // Devuelve {ns por alta, ns por baja}, la mejor de varias repeticiones
+    private static double[] medir(int tamano) {
+        List<Cliente> clientes = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            // Nombre y apellido comunes, con una palabra del medio distinta para que las claves completas difieran
+            clientes.add(new Cliente("Maria " + Integer.toString(i, 36) + " Gomez", String.format("MI%08d", i)));
+        }
+
+        double mejorAlta = Double.MAX_VALUE;
+        double mejorBaja = Double.MAX_VALUE;
+        for (int r = 0; r < REPETICIONES; r++) {
+            IndiceNombres indice = new IndiceNombres();
+            long inicio = System.nanoTime();
+            for (int i = 0; i < tamano; i++) {
+                indice.agregar(clientes.get(i));
+            }
+            long alta = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            // Se quitan en el mismo orden de alta: con un arreglo sería el peor caso
+            for (int i = 0; i < tamano; i++) {
+                indice.eliminar(clientes.get(i));
+            }
+            long baja = System.nanoTime() - inicio;
+            if (indice.getCantidadClientes() != 0) {
+                throw new IllegalStateException("El índice no quedó vacío");
+            }
+
+            mejorAlta = Math.min(mejorAlta, (double) alta / tamano);
+            mejorBaja = Math.min(mejorBaja, (double) baja / tamano);
+        }
+        return new double[] {mejorAlta, mejorBaja};
+    }
+
+    private static void imprimir(int tamano, double[] resultado) {
+        System.out.printf("%-12d %18.1f %18.1f%n", tamano, resultado[0], resultado[1]);
+    }
+}
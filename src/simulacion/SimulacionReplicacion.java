@@ -0,0 +1,333 @@
+package simulacion;
+
+import evento.BusEventos;
+import evento.EventoTransaccion;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.CuentaAhorros;
+import modelo.DirectorioCuentas;
+import modelo.ResultadoOperacion;
+import modelo.Retencion;
+import modelo.Transaccion;
+import replicacion.PrimarioReplicacion;
+import replicacion.RegistroReplicado;
+import replicacion.RespaldoReplicacion;
+import servicio.GestorClientes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Prueba de la replicación con dos procesos locales y una caída simulada del primario.
+//
+// 1. Este proceso lanza otro proceso Java como primario (esta misma clase con --primario), que escribe
+//    el diario, escucha en un puerto local y genera clientes, cuentas y operaciones sin parar
+// 2. Este proceso hace de respaldo: se conecta un segundo después, así arranca atrasado, y verifica que
+//    informe retraso mientras se pone al día; luego aplica el diario e imprime el retraso cada medio segundo
+// 3. Pasados los segundos indicados mata al primario sin cierre ordenado (destroyForcibly)
+// 4. Compara el respaldo con el diario que quedó en disco: saldos, huellas de historial y clientes
+//    hasta el último registro aplicado, e informa cuántos registros escritos no alcanzaron a llegar
+// 5. Promueve el respaldo, reintenta en él la última operación con clave que aplicó (debe reconocerse
+//    como repetida) y opera sobre él
+//
+// Uso: java simulacion.SimulacionReplicacion [segundos] [directorio]
+public class SimulacionReplicacion {
+    private static final String MODO_PRIMARIO = "--primario";
+    private static final String ARCHIVO_DIARIO = "diario.rep";
+    private static final String PREFIJO_PUERTO = "PUERTO ";
+    private static final int OPERACIONES_POR_TANDA = 2000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(MODO_PRIMARIO)) {
+            ejecutarPrimario(Paths.get(args[1]));
+            return;
+        }
+        int segundos = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Path directorio = args.length > 1 ? Paths.get(args[1]) : Files.createTempDirectory("replicacion");
+        ejecutarRespaldo(segundos, directorio);
+    }
+
+    // Proceso primario: carga sin fin hasta que lo maten
+    private static void ejecutarPrimario(Path directorio) throws IOException {
+        Files.createDirectories(directorio);
+        PrimarioReplicacion primario = new PrimarioReplicacion(directorio.resolve(ARCHIVO_DIARIO), false);
+        primario.conectar(BusEventos.getInstance());
+        System.out.println(PREFIJO_PUERTO + primario.escuchar(0));
+        System.out.flush();
+
+        GestorClientes gestor = GestorClientes.getInstance();
+        Random aleatorio = new Random(42);
+        List<Cuenta> cuentas = new ArrayList<>();
+        List<Retencion> retenciones = new ArrayList<>();
+        int clientes = 0;
+        long operaciones = 0;
+        long ultimoInforme = System.currentTimeMillis();
+        while (true) {
+            for (int i = 0; i < OPERACIONES_POR_TANDA; i++) {
+                int eleccion = aleatorio.nextInt(100);
+                if (cuentas.size() < 10 || eleccion < 5) {
+                    clientes++;
+                    Cliente cliente = new Cliente("Cliente Replicado " + clientes, "REP" + clientes);
+                    for (int c = aleatorio.nextInt(3); c >= 0; c--) {
+                        Cuenta cuenta = new CuentaAhorros(String.format("REP-%08d", cuentas.size() + 1));
+                        cuenta.depositar(1000);
+                        cliente.agregarCuenta(cuenta);
+                        cuentas.add(cuenta);
+                    }
+                    gestor.registrarCliente(cliente);
+                    continue;
+                }
+
+                Cuenta cuenta = cuentas.get(aleatorio.nextInt(cuentas.size()));
+                double monto = 1 + aleatorio.nextInt(500);
+                try {
+                    if (eleccion < 45) {
+                        cuenta.depositar(monto, "DEP-" + operaciones);
+                    } else if (eleccion < 70) {
+                        cuenta.retirar(monto);
+                    } else if (eleccion < 75) {
+                        operarRetencion(aleatorio, cuenta, monto, retenciones);
+                    } else if (eleccion < 99) {
+                        cuenta.transferir(cuentas.get(aleatorio.nextInt(cuentas.size())), monto, "TRF-" + operaciones);
+                    } else {
+                        cuenta.aplicarInteres();
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Fondos insuficientes, topes o transferencia a la misma cuenta: se ignora
+                }
+                operaciones++;
+            }
+
+            long ahora = System.currentTimeMillis();
+            if (ahora - ultimoInforme >= 1000) {
+                System.err.printf("[primario] registros=%d confirmados=%d retraso=%d respaldos=%d%n",
+                        primario.getUltimaSecuencia(), primario.getSecuenciaConfirmada(),
+                        primario.getRetrasoRegistros(), primario.getRespaldosConectados());
+                ultimoInforme = ahora;
+            }
+            dormir(5);
+        }
+    }
+
+    // Crea una retención que vence sola en unos segundos, o captura o libera una anterior si sigue activa
+    private static void operarRetencion(Random aleatorio, Cuenta cuenta, double monto, List<Retencion> retenciones) {
+        if (retenciones.isEmpty() || aleatorio.nextBoolean()) {
+            retenciones.add(cuenta.retener(monto, Duration.ofMillis(100 + aleatorio.nextInt(3000))));
+            return;
+        }
+        Retencion retencion = retenciones.remove(aleatorio.nextInt(retenciones.size()));
+        Cuenta titular = cuenta.getNumero().equals(retencion.getNumeroCuenta()) ? cuenta
+                : DirectorioCuentas.getInstance().buscar(retencion.getNumeroCuenta()).orElse(null);
+        if (titular == null || !retencion.estaActiva()) {
+            return;
+        }
+        if (aleatorio.nextBoolean()) {
+            titular.capturarRetencion(retencion.getId(), retencion.getMonto() / 2);
+        } else {
+            titular.liberarRetencion(retencion.getId());
+        }
+    }
+
+    // Proceso respaldo: lanza al primario, replica, lo mata y verifica
+    private static void ejecutarRespaldo(int segundos, Path directorio) throws Exception {
+        System.out.println("*** SIMULACIÓN DE REPLICACIÓN - COOPERATIVA DIGITAL ***");
+        System.out.println("Directorio del diario: " + directorio);
+
+        Process primario = lanzarPrimario(directorio);
+        BufferedReader salidaPrimario = new BufferedReader(
+                new InputStreamReader(primario.getInputStream(), StandardCharsets.UTF_8));
+        String linea = salidaPrimario.readLine();
+        if (linea == null || !linea.startsWith(PREFIJO_PUERTO)) {
+            primario.destroyForcibly();
+            throw new IllegalStateException("El primario no informó su puerto: " + linea);
+        }
+        int puerto = Integer.parseInt(linea.substring(PREFIJO_PUERTO.length()).trim());
+        System.out.println("Primario (pid " + primario.pid() + ") escuchando en el puerto " + puerto);
+
+        GestorClientes gestor = GestorClientes.getInstance();
+        RespaldoReplicacion respaldo = new RespaldoReplicacion(gestor, "localhost", puerto);
+        dormir(1000);
+        respaldo.iniciar();
+        long retrasoInicial = retrasoAlPonerseAlDia(respaldo);
+        System.out.println("Retraso informado por el respaldo al aplicar su primer registro: " + retrasoInicial
+                + " registros");
+
+        long fin = System.currentTimeMillis() + segundos * 1000L;
+        while (System.currentTimeMillis() < fin) {
+            dormir(500);
+            imprimirEstado(respaldo);
+        }
+
+        System.out.println(">>> Caída simulada del primario");
+        primario.destroyForcibly();
+        primario.waitFor(10, TimeUnit.SECONDS);
+        // Se deja tiempo para aplicar lo que ya estaba en camino
+        long aplicada;
+        do {
+            aplicada = respaldo.getSecuenciaAplicada();
+            dormir(300);
+        } while (respaldo.getSecuenciaAplicada() != aplicada);
+        imprimirEstado(respaldo);
+
+        boolean coincide = verificar(respaldo, gestor, directorio.resolve(ARCHIVO_DIARIO));
+        RegistroReplicado ultimaConClave = ultimoConClave(directorio.resolve(ARCHIVO_DIARIO),
+                respaldo.getSecuenciaAplicada());
+
+        GestorClientes promovido = respaldo.promover();
+        if (ultimaConClave != null) {
+            coincide &= reintentar(promovido, ultimaConClave);
+        }
+        Cuenta cuenta = promovido.buscarCuenta("REP-00000001").orElseThrow();
+        cuenta.depositar(1);
+        System.out.printf("Respaldo promovido: %d clientes, capital total $%.2f, depósito aceptado en %s%n",
+                promovido.contarClientes(), respaldo.reportes().calcularCapitalTotal(), cuenta.getNumero());
+        System.out.println(coincide ? "RESULTADO: el respaldo coincide con el diario del primario"
+                : "RESULTADO: el respaldo NO coincide con el diario del primario");
+        if (retrasoInicial == 0) {
+            System.out.println("RESULTADO: el respaldo no informó retraso mientras se ponía al día");
+        }
+        if (!coincide || retrasoInicial == 0) {
+            System.exit(1);
+        }
+    }
+
+    // Retraso que informa el respaldo apenas aplica su primer registro. El primario ya escribió un segundo
+    // de operaciones, así que debe ser mayor que cero: el latido llega antes que los registros.
+    private static long retrasoAlPonerseAlDia(RespaldoReplicacion respaldo) {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (respaldo.getSecuenciaAplicada() == 0 && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+        }
+        return respaldo.getRetrasoRegistros();
+    }
+
+    private static Process lanzarPrimario(Path directorio) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder constructor = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                SimulacionReplicacion.class.getName(), MODO_PRIMARIO, directorio.toString());
+        constructor.redirectError(ProcessBuilder.Redirect.INHERIT);
+        return constructor.start();
+    }
+
+    private static void imprimirEstado(RespaldoReplicacion respaldo) {
+        System.out.printf("[respaldo] aplicados=%d primario=%d retraso=%d registros / %d ms conectado=%s%n",
+                respaldo.getSecuenciaAplicada(), respaldo.getUltimaSecuenciaPrimario(),
+                respaldo.getRetrasoRegistros(), respaldo.getRetrasoMilis(), respaldo.estaConectado() ? "sí" : "no");
+    }
+
+    // Recalcula desde el diario en disco el estado esperado hasta el último registro aplicado y lo compara
+    private static boolean verificar(RespaldoReplicacion respaldo, GestorClientes gestor, Path diario)
+            throws IOException {
+        long aplicada = respaldo.getSecuenciaAplicada();
+        Map<String, Double> saldos = new HashMap<>();
+        Map<String, Long> huellas = new HashMap<>();
+        Map<String, Double> retenidos = new HashMap<>();
+        Map<String, Double> retencionesActivas = new HashMap<>();
+        Set<String> clientes = new HashSet<>();
+        long registros = RegistroReplicado.recorrerDiario(diario, registro -> {
+            if (registro.getSecuencia() > aplicada) {
+                return;
+            }
+            String numero = registro.getNumeroCuenta();
+            switch (registro.getTipo()) {
+                case EventoTransaccion.CUENTA_ABIERTA -> {
+                    saldos.put(numero, 0.0);
+                    huellas.put(numero, Transaccion.HUELLA_INICIAL);
+                }
+                case EventoTransaccion.CLIENTE_REGISTRADO -> clientes.add(registro.getDocumentoCliente());
+                case EventoTransaccion.CLIENTE_ELIMINADO -> clientes.remove(registro.getDocumentoCliente());
+                case EventoTransaccion.CUENTA_ASIGNADA, EventoTransaccion.CUENTA_CERRADA -> {
+                    // No cambian saldos ni historiales
+                }
+                case EventoTransaccion.RETENCION_CREADA -> {
+                    String id = registro.getDetalle().substring(0, registro.getDetalle().indexOf('|'));
+                    retencionesActivas.put(id, registro.getMonto());
+                    retenidos.merge(numero, registro.getMonto(), Double::sum);
+                }
+                case EventoTransaccion.RETENCION_CAPTURADA, EventoTransaccion.RETENCION_LIBERADA,
+                        EventoTransaccion.RETENCION_VENCIDA -> {
+                    // La captura llega aparte como RETIRO
+                    double monto = retencionesActivas.remove(registro.getDetalle());
+                    retenidos.merge(numero, -monto, Double::sum);
+                }
+                default -> {
+                    saldos.put(numero, registro.getSaldoResultante());
+                    Transaccion transaccion = new Transaccion(registro.getTipo(), registro.getMonto(),
+                            registro.getFechaTransaccion(), registro.getClaveIdempotencia());
+                    huellas.put(numero, transaccion.encadenarHuella(huellas.get(numero)));
+                }
+            }
+        });
+
+        int diferencias = 0;
+        for (Map.Entry<String, Double> esperado : saldos.entrySet()) {
+            Cuenta cuenta = respaldo.buscarCuenta(esperado.getKey()).orElse(null);
+            if (cuenta == null || cuenta.getSaldo() != esperado.getValue()
+                    || cuenta.getHuellaHistorial() != huellas.get(esperado.getKey())
+                    || Math.abs(cuenta.getSaldoRetenido() - retenidos.getOrDefault(esperado.getKey(), 0.0)) > 1e-6) {
+                diferencias++;
+            }
+        }
+        for (String documento : clientes) {
+            if (!gestor.existeCliente(documento)) {
+                diferencias++;
+            }
+        }
+        if (gestor.contarClientes() != clientes.size()) {
+            diferencias++;
+        }
+
+        System.out.printf("Diario en disco: %d registros; aplicados en el respaldo: %d; no recibidos antes de la caída: %d%n",
+                registros, aplicada, registros - aplicada);
+        System.out.printf("Verificación: %d cuentas, %d clientes y %d retenciones activas comparados, %d diferencias%n",
+                saldos.size(), clientes.size(), retencionesActivas.size(), diferencias);
+        return diferencias == 0;
+    }
+
+    // Último depósito o transferencia con clave aplicado en el respaldo
+    private static RegistroReplicado ultimoConClave(Path diario, long aplicada) throws IOException {
+        RegistroReplicado[] ultimo = new RegistroReplicado[1];
+        RegistroReplicado.recorrerDiario(diario, registro -> {
+            if (registro.getSecuencia() <= aplicada && registro.getClaveIdempotencia() != null
+                    && (registro.getTipo().equals("DEPÓSITO") || registro.getTipo().equals("TRANSFERENCIA_ENVIADA"))) {
+                ultimo[0] = registro;
+            }
+        });
+        return ultimo[0];
+    }
+
+    // Repite la operación en el respaldo promovido: debe devolver el resultado original sin aplicarla otra vez
+    private static boolean reintentar(GestorClientes promovido, RegistroReplicado registro) {
+        Cuenta cuenta = promovido.buscarCuenta(registro.getNumeroCuenta()).orElseThrow();
+        double saldo = cuenta.getSaldo();
+        ResultadoOperacion resultado = registro.getTipo().equals("DEPÓSITO")
+                ? cuenta.depositar(registro.getMonto(), registro.getClaveIdempotencia())
+                : cuenta.transferir(promovido.buscarCuenta(registro.getDetalle()).orElseThrow(), registro.getMonto(),
+                        registro.getClaveIdempotencia());
+        boolean repetido = resultado.esRepetido() && cuenta.getSaldo() == saldo;
+        System.out.printf("Reintento de %s en el respaldo promovido: %s%n", registro.getClaveIdempotencia(),
+                repetido ? "reconocido como repetido" : "APLICADO DE NUEVO");
+        return repetido;
+    }
+
+    private static void dormir(long milis) {
+        try {
+            Thread.sleep(milis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package simulacion;
+
+import evento.BusEventos;
+import modelo.Cliente;
+import modelo.Cuenta;
+import modelo.CuentaAhorros;
+import servicio.GestorClientes;
+import servicio.ReporteServicio;
+import simulacion.ConfiguracionSimulacion.TipoOperacion;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Simulador de carga sintética para dimensionar hardware y comparar versiones.
+//
+// 1. Registra N clientes en GestorClientes con cuentas de ahorro según la distribución configurada
+// 2. Ejecuta una mezcla de depósitos, retiros, transferencias y reportes desde T hilos,
+//    eligiendo las cuentas con popularidad de Zipf (pocas cuentas muy activas)
+// 3. Imprime rendimiento, percentiles de latencia por operación, memoria y recolección de basura
+//
+// Uso: java simulacion.SimuladorCarga --clientes=100000 --hilos=8 --operaciones=5000000
+// (ver ConfiguracionSimulacion para todas las opciones)
+public class SimuladorCarga {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final TipoOperacion[] OPERACIONES = TipoOperacion.values();
+
+    private final ConfiguracionSimulacion configuracion;
+    private final GestorClientes gestor;
+    private final double[] mezcla;
+    private Cuenta[] cuentas;
+    private DistribucionZipf popularidad;
+    private ReporteServicio reportes;
+
+    public SimuladorCarga(ConfiguracionSimulacion configuracion) {
+        if (configuracion == null) {
+            throw new IllegalArgumentException("La configuración no puede ser nula");
+        }
+        this.configuracion = configuracion;
+        this.gestor = GestorClientes.getInstance();
+        this.mezcla = configuracion.getMezcla();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ConfiguracionSimulacion configuracion;
+        try {
+            configuracion = ConfiguracionSimulacion.desdeArgumentos(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+        new SimuladorCarga(configuracion).ejecutar();
+    }
+
+    // Prepara los datos, ejecuta la carga e imprime el resumen
+    public void ejecutar() throws InterruptedException {
+        System.out.println("*** SIMULADOR DE CARGA - COOPERATIVA DIGITAL ***");
+        System.out.println("Configuración: " + configuracion);
+
+        long inicioPreparacion = System.nanoTime();
+        preparar();
+        double segundosPreparacion = (System.nanoTime() - inicioPreparacion) / 1e9;
+        System.out.printf("Preparación: %d clientes, %d cuentas en %.2f s%n",
+                gestor.contarClientes(), cuentas.length, segundosPreparacion);
+
+        AtomicLong eventosBus = new AtomicLong();
+        if (configuracion.isConsumidorBus()) {
+            BusEventos.getInstance().suscribir("simulador", (evento, secuencia, finDeLote) -> eventosBus.lazySet(secuencia));
+        }
+
+        if (configuracion.getCalentamiento() > 0) {
+            correr(configuracion.getCalentamiento(), configuracion.getSemilla() ^ 0x5DEECE66DL);
+        }
+
+        EstadoMemoria memoriaInicial = EstadoMemoria.capturar();
+        long inicio = System.nanoTime();
+        ResultadoHilo total = correr(configuracion.getOperaciones(), configuracion.getSemilla());
+        long duracion = System.nanoTime() - inicio;
+        EstadoMemoria memoriaFinal = EstadoMemoria.capturar();
+
+        if (configuracion.isConsumidorBus()) {
+            BusEventos.getInstance().desuscribir("simulador");
+        }
+        imprimirResumen(total, duracion, memoriaInicial, memoriaFinal);
+    }
+
+    // Métodos privados
+
+    // Registra los clientes y sus cuentas; la popularidad se asigna sobre un orden aleatorio de cuentas
+    private void preparar() {
+        Random aleatorio = new Random(configuracion.getSemilla());
+        double[] distribucion = configuracion.getDistribucionCuentas();
+        List<Cuenta> creadas = new ArrayList<>();
+        int secuenciaCuenta = 0;
+
+        for (int i = 0; i < configuracion.getClientes(); i++) {
+            Cliente cliente = new Cliente("Cliente Simulado " + i, "SIM" + i);
+            int cantidadCuentas = elegirPonderado(distribucion, aleatorio) + 1;
+            for (int c = 0; c < cantidadCuentas; c++) {
+                CuentaAhorros cuenta = new CuentaAhorros(String.format("SIM-%08d", ++secuenciaCuenta));
+                if (configuracion.getSaldoInicial() > 0) {
+                    cuenta.depositar(configuracion.getSaldoInicial());
+                }
+                cliente.agregarCuenta(cuenta);
+                creadas.add(cuenta);
+            }
+            gestor.registrarCliente(cliente);
+        }
+
+        cuentas = creadas.toArray(new Cuenta[0]);
+        for (int i = cuentas.length - 1; i > 0; i--) {
+            int j = aleatorio.nextInt(i + 1);
+            Cuenta temporal = cuentas[i];
+            cuentas[i] = cuentas[j];
+            cuentas[j] = temporal;
+        }
+        popularidad = new DistribucionZipf(cuentas.length, configuracion.getExponenteZipf());
+        reportes = new ReporteServicio(gestor.vistaClientes());
+    }
+
+    // Reparte las operaciones entre los hilos, espera a que terminen y combina sus resultados
+    private ResultadoHilo correr(long operaciones, long semilla) throws InterruptedException {
+        int hilos = configuracion.getHilos();
+        CountDownLatch salida = new CountDownLatch(1);
+        ResultadoHilo[] resultados = new ResultadoHilo[hilos];
+        Thread[] trabajadores = new Thread[hilos];
+
+        for (int h = 0; h < hilos; h++) {
+            long cuota = operaciones / hilos + (h < operaciones % hilos ? 1 : 0);
+            ResultadoHilo resultado = new ResultadoHilo();
+            Random aleatorio = new Random(semilla + h);
+            resultados[h] = resultado;
+            trabajadores[h] = new Thread(() -> {
+                try {
+                    salida.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (long i = 0; i < cuota; i++) {
+                    ejecutarOperacion(aleatorio, resultado);
+                }
+            }, "simulador-" + h);
+            trabajadores[h].start();
+        }
+
+        salida.countDown();
+        ResultadoHilo total = new ResultadoHilo();
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h].join();
+            total.combinar(resultados[h]);
+        }
+        return total;
+    }
+
+    private void ejecutarOperacion(Random aleatorio, ResultadoHilo resultado) {
+        TipoOperacion tipo = OPERACIONES[elegirPonderado(mezcla, aleatorio)];
+        Cuenta cuenta = cuentas[popularidad.siguiente(aleatorio)];
+        double monto = 1 + aleatorio.nextInt(100);
+
+        long inicio = System.nanoTime();
+        try {
+            switch (tipo) {
+                case DEPOSITAR -> cuenta.depositar(monto);
+                case RETIRAR -> cuenta.retirar(monto);
+                case TRANSFERIR -> cuenta.transferir(elegirDestino(cuenta, aleatorio), monto);
+                case REPORTE -> reportes.calcularCapitalTotal();
+            }
+            resultado.latencias[tipo.ordinal()].registrar(System.nanoTime() - inicio);
+        } catch (IllegalArgumentException e) {
+            // Rechazo de negocio (por ejemplo fondos insuficientes); cuenta como operación atendida
+            resultado.latencias[tipo.ordinal()].registrar(System.nanoTime() - inicio);
+            resultado.rechazadas[tipo.ordinal()]++;
+        }
+    }
+
+    private Cuenta elegirDestino(Cuenta origen, Random aleatorio) {
+        if (cuentas.length < 2) {
+            throw new IllegalArgumentException("Se necesitan al menos dos cuentas para transferir");
+        }
+        Cuenta destino = cuentas[popularidad.siguiente(aleatorio)];
+        while (destino.equals(origen)) {
+            destino = cuentas[aleatorio.nextInt(cuentas.length)];
+        }
+        return destino;
+    }
+
+    private static int elegirPonderado(double[] pesos, Random aleatorio) {
+        double total = 0.0;
+        for (double peso : pesos) {
+            total += peso;
+        }
+        double valor = aleatorio.nextDouble() * total;
+        for (int i = 0; i < pesos.length; i++) {
+            valor -= pesos[i];
+            if (valor < 0) {
+                return i;
+            }
+        }
+        return pesos.length - 1;
+    }
+
+    private void imprimirResumen(ResultadoHilo total, long duracionNanos, EstadoMemoria inicial, EstadoMemoria fin) {
+        double segundos = duracionNanos / 1e9;
+        long operaciones = total.totalOperaciones();
+
+        System.out.println("\n" + "=".repeat(86));
+        System.out.println("                              RESULTADOS DE LA SIMULACIÓN");
+        System.out.println("=".repeat(86));
+        System.out.printf("Operaciones: %d en %.2f s - Rendimiento: %.0f ops/s con %d hilos%n",
+                operaciones, segundos, operaciones / segundos, configuracion.getHilos());
+        System.out.println("-".repeat(86));
+        System.out.printf("%-11s %10s %9s %10s %10s %10s %10s %10s%n",
+                "OPERACIÓN", "CANTIDAD", "RECHAZOS", "p50 (us)", "p90 (us)", "p99 (us)", "p99.9 (us)", "máx (us)");
+        System.out.println("-".repeat(86));
+
+        HistogramaLatencias todas = new HistogramaLatencias();
+        for (TipoOperacion tipo : OPERACIONES) {
+            HistogramaLatencias histograma = total.latencias[tipo.ordinal()];
+            todas.combinar(histograma);
+            imprimirFila(tipo.name(), histograma, total.rechazadas[tipo.ordinal()]);
+        }
+        System.out.println("-".repeat(86));
+        long rechazos = 0;
+        for (long rechazadas : total.rechazadas) {
+            rechazos += rechazadas;
+        }
+        imprimirFila("TOTAL", todas, rechazos);
+
+        System.out.println("-".repeat(86));
+        System.out.printf("Heap usado: %.1f MB -> %.1f MB (comprometido %.1f MB, pico %.1f MB)%n",
+                inicial.heapUsado / 1e6, fin.heapUsado / 1e6, fin.heapComprometido / 1e6, fin.picoHeap / 1e6);
+        System.out.printf("GC: %d recolecciones, %d ms en total durante la medición%n",
+                fin.recolecciones - inicial.recolecciones, fin.tiempoGcMilis - inicial.tiempoGcMilis);
+        for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            System.out.printf("   %-25s %8d recolecciones %8d ms (acumulado)%n",
+                    recolector.getName(), recolector.getCollectionCount(), recolector.getCollectionTime());
+        }
+        System.out.println("=".repeat(86));
+    }
+
+    private static void imprimirFila(String nombre, HistogramaLatencias histograma, long rechazadas) {
+        System.out.printf("%-11s %10d %9d", nombre, histograma.getTotal(), rechazadas);
+        for (double percentil : PERCENTILES) {
+            System.out.printf(" %10.1f", histograma.percentil(percentil) / 1e3);
+        }
+        System.out.printf(" %10.1f%n", histograma.getMaximo() / 1e3);
+    }
+
+    // Resultados acumulados por un hilo; sólo ese hilo escribe hasta que termina
+    private static final class ResultadoHilo {
+        private final HistogramaLatencias[] latencias;
+        private final long[] rechazadas;
+
+        private ResultadoHilo() {
+            this.latencias = new HistogramaLatencias[OPERACIONES.length];
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i] = new HistogramaLatencias();
+            }
+            this.rechazadas = new long[OPERACIONES.length];
+        }
+
+        private void combinar(ResultadoHilo otro) {
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i].combinar(otro.latencias[i]);
+                rechazadas[i] += otro.rechazadas[i];
+            }
+        }
+
+        private long totalOperaciones() {
+            long total = 0;
+            for (HistogramaLatencias histograma : latencias) {
+                total += histograma.getTotal();
+            }
+            return total;
+        }
+    }
+
+    // Uso de memoria y contadores de GC en un instante
+    private static final class EstadoMemoria {
+        private long heapUsado;
+        private long heapComprometido;
+        private long picoHeap;
+        private long recolecciones;
+        private long tiempoGcMilis;
+
+        private static EstadoMemoria capturar() {
+            EstadoMemoria estado = new EstadoMemoria();
+            MemoryMXBean memoria = ManagementFactory.getMemoryMXBean();
+            estado.heapUsado = memoria.getHeapMemoryUsage().getUsed();
+            estado.heapComprometido = memoria.getHeapMemoryUsage().getCommitted();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    estado.picoHeap += pool.getPeakUsage().getUsed();
+                }
+            }
+            for (GarbageCollectorMXBean recolector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                estado.recolecciones += Math.max(0, recolector.getCollectionCount());
+                estado.tiempoGcMilis += Math.max(0, recolector.getCollectionTime());
+            }
+            return estado;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cierre;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import static prueba.Pruebas.caso;
+import static prueba.Pruebas.igual;
+import static prueba.Pruebas.terminar;
+import static prueba.Pruebas.verdadero;
+
+// Recuperación del punto de control del cierre, en especial cuando la última línea quedó a medio escribir
+public class PruebaPuntoControlCierre {
+
+    public static void main(String[] args) throws Exception {
+        caso("un punto de control nuevo no tiene particiones ni etapas", () -> {
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivoNuevo())) {
+                igual(0, punto.getParticiones(), "particiones");
+                verdadero(punto.etapasCompletas().isEmpty(), "no debería haber etapas completas");
+            }
+        });
+
+        caso("lo registrado se recupera al reabrir", () -> {
+            Path archivo = archivoNuevo();
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                punto.registrarParticiones(8);
+                punto.registrarParticion("INTERESES", 0, "3;12.5");
+                punto.registrarParticion("INTERESES", 5, null);
+                punto.registrarEtapa("INTERESES", "3 cuentas");
+            }
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                igual(8, punto.getParticiones(), "particiones");
+                igual(Map.of(0, "3;12.5", 5, ""), punto.parcialesDe("INTERESES"), "parciales");
+                igual(Set.of("INTERESES"), punto.etapasCompletas(), "etapas completas");
+                igual("3 cuentas", punto.resumenDe("INTERESES"), "resumen");
+            }
+        });
+
+        caso("una línea cortada a mitad de escritura se descarta y se trunca del archivo", () -> {
+            Path archivo = archivoNuevo();
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                punto.registrarParticiones(4);
+                punto.registrarParticion("REPORTE", 1, "100.0;2;3;0");
+            }
+            long completo = Files.size(archivo);
+            Files.write(archivo, "PARTICION|REPORTE|2|50".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                igual(completo, Files.size(archivo), "tamaño tras descartar la línea incompleta");
+                igual(Set.of(1), punto.parcialesDe("REPORTE").keySet(), "particiones recuperadas");
+                punto.registrarParticion("REPORTE", 2, "50.0;1;1;0");
+            }
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                igual(Map.of(1, "100.0;2;3;0", 2, "50.0;1;1;0"), punto.parcialesDe("REPORTE"),
+                        "la línea escrita después del corte queda separada de las anteriores");
+            }
+        });
+
+        caso("un corte en medio de un carácter de varios bytes no altera las líneas completas", () -> {
+            Path archivo = archivoNuevo();
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                punto.registrarParticiones(2);
+                punto.registrarEtapa("EXPORTACIÓN", "año cerrado");
+            }
+            long completo = Files.size(archivo);
+            byte[] linea = "ETAPA|CONCILIACIÓN|sin diferencias\n".getBytes(StandardCharsets.UTF_8);
+            int corte = "ETAPA|CONCILIACI".getBytes(StandardCharsets.UTF_8).length + 1;
+            Files.write(archivo, Arrays.copyOf(linea, corte), StandardOpenOption.APPEND);
+
+            try (PuntoControlCierre punto = PuntoControlCierre.abrir(archivo)) {
+                igual(completo, Files.size(archivo), "tamaño tras descartar la línea incompleta");
+                igual(Set.of("EXPORTACIÓN"), punto.etapasCompletas(), "etapas completas");
+                igual("año cerrado", punto.resumenDe("EXPORTACIÓN"), "resumen");
+            }
+        });
+
+        terminar();
+    }
+
+    private static Path archivoNuevo() throws Exception {
+        return Files.createTempDirectory("cierre").resolve("cierre.chk");
+    }
+}
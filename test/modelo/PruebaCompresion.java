@@ -0,0 +1,107 @@
+package modelo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static prueba.Pruebas.caso;
+import static prueba.Pruebas.igual;
+import static prueba.Pruebas.lanza;
+import static prueba.Pruebas.terminar;
+import static prueba.Pruebas.verdadero;
+
+// Decodificación de bloques comprimidos de los segmentos del historial, en especial archivos truncados
+public class PruebaCompresion {
+    // Encabezado de SegmentoArchivado: magia, versión, cantidad, fechas, longitudes
+    private static final int TAMANO_ENCABEZADO = 4 + 1 + 4 + 8 + 8 + 4 + 4;
+
+    public static void main(String[] args) throws Exception {
+        byte[] original = datosDePrueba(200_000);
+        byte[] comprimido = comprimir(original);
+
+        caso("descomprime un bloque completo", () -> {
+            byte[] datos = Compresion.descomprimir(ByteBuffer.wrap(comprimido), original.length);
+            verdadero(Arrays.equals(original, datos), "el contenido no coincide");
+        });
+
+        caso("un bloque truncado lanza IOException en lugar de quedarse esperando entrada", () -> {
+            ByteBuffer truncado = ByteBuffer.wrap(comprimido, 0, comprimido.length / 2);
+            lanza(IOException.class, () -> Compresion.descomprimir(truncado, original.length));
+        });
+
+        caso("un bloque sin datos lanza IOException", () ->
+                lanza(IOException.class, () -> Compresion.descomprimir(ByteBuffer.allocate(0), 10)));
+
+        caso("un bloque más corto que la longitud declarada lanza IOException", () ->
+                lanza(IOException.class, () -> Compresion.descomprimir(ByteBuffer.wrap(comprimido),
+                        original.length + 1)));
+
+        caso("un bloque corrupto lanza IOException", () -> {
+            byte[] corrupto = comprimido.clone();
+            Arrays.fill(corrupto, 0, 8, (byte) 0xFF);
+            lanza(IOException.class, () -> Compresion.descomprimir(ByteBuffer.wrap(corrupto), original.length));
+        });
+
+        caso("el contenido de un segmento recortado en disco no se puede decodificar", () -> {
+            Path directorio = Files.createTempDirectory("segmento");
+            Path archivo = directorio.resolve("segmento.seg");
+            List<Transaccion> transacciones = new ArrayList<>();
+            LocalDateTime fecha = LocalDateTime.of(2024, 1, 1, 9, 0);
+            for (int i = 0; i < 5000; i++) {
+                transacciones.add(new Transaccion(i % 2 == 0 ? "DEPOSITO" : "RETIRO", 10 + i % 97,
+                        fecha.plusSeconds(i), i % 3 == 0 ? "CLAVE-" + i : null));
+            }
+            SegmentoArchivado.escribir(archivo, transacciones);
+
+            ByteBuffer segmento = ByteBuffer.wrap(Files.readAllBytes(archivo));
+            int longitudContenido = segmento.getInt(TAMANO_ENCABEZADO - 8);
+            int longitudComprimida = segmento.getInt(TAMANO_ENCABEZADO - 4);
+            igual(segmento.capacity(), TAMANO_ENCABEZADO + longitudComprimida, "tamaño del segmento");
+
+            ByteBuffer completo = segmento.duplicate().position(TAMANO_ENCABEZADO);
+            igual(longitudContenido, Compresion.descomprimir(completo, longitudContenido).length,
+                    "longitud decodificada");
+
+            // Escritura cortada: faltan los últimos bytes del bloque comprimido
+            ByteBuffer recortado = segmento.duplicate().position(TAMANO_ENCABEZADO)
+                    .limit(segmento.capacity() - 16);
+            lanza(IOException.class, () -> Compresion.descomprimir(recortado, longitudContenido));
+
+            Files.delete(archivo);
+            Files.delete(directorio);
+        });
+
+        terminar();
+    }
+
+    private static byte[] datosDePrueba(int longitud) {
+        byte[] datos = new byte[longitud];
+        for (int i = 0; i < longitud; i++) {
+            datos[i] = (byte) ((i * 31) ^ (i >>> 7));
+        }
+        return datos;
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(datos);
+            deflater.finish();
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            byte[] bloque = new byte[8192];
+            while (!deflater.finished()) {
+                salida.write(bloque, 0, deflater.deflate(bloque));
+            }
+            return salida.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package modelo;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static prueba.Pruebas.caso;
+import static prueba.Pruebas.igual;
+import static prueba.Pruebas.lanza;
+import static prueba.Pruebas.terminar;
+import static prueba.Pruebas.verdadero;
+
+// Vencimientos de la rueda: redistribución desde niveles superiores y cancelación
+public class PruebaRuedaTemporizadora {
+
+    public static void main(String[] args) {
+        caso("un temporizador del nivel 2 baja por los niveles y vence después de su espera", () -> {
+            // Con ticks de 10 µs, 1 s son 100.000 ticks: más allá de 256² cae en el nivel 2
+            RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofNanos(10_000));
+            try {
+                CountDownLatch vencido = new CountDownLatch(1);
+                long[] venceEn = new long[1];
+                long inicio = System.nanoTime();
+                rueda.programar(Duration.ofSeconds(1), () -> {
+                    venceEn[0] = System.nanoTime();
+                    vencido.countDown();
+                });
+                verdadero(vencido.await(5, TimeUnit.SECONDS), "el temporizador no venció");
+                verdadero(venceEn[0] - inicio >= TimeUnit.SECONDS.toNanos(1), "venció antes de la espera");
+                igual(0, rueda.getPendientes(), "pendientes");
+            } finally {
+                rueda.detener();
+            }
+        });
+
+        caso("los temporizadores de distintos niveles vencen en orden", () -> {
+            RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofNanos(10_000));
+            try {
+                List<Integer> orden = new ArrayList<>();
+                CountDownLatch vencidos = new CountDownLatch(4);
+                int[] esperasMilis = {700, 1, 5, 300};
+                for (int espera : esperasMilis) {
+                    rueda.programar(Duration.ofMillis(espera), () -> {
+                        synchronized (orden) {
+                            orden.add(espera);
+                        }
+                        vencidos.countDown();
+                    });
+                }
+                verdadero(vencidos.await(5, TimeUnit.SECONDS), "no vencieron todos");
+                synchronized (orden) {
+                    igual(List.of(1, 5, 300, 700), orden, "orden de vencimiento");
+                }
+            } finally {
+                rueda.detener();
+            }
+        });
+
+        caso("un temporizador cancelado no se ejecuta y deja de contar como pendiente", () -> {
+            RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofMillis(1));
+            try {
+                AtomicInteger ejecutados = new AtomicInteger();
+                CountDownLatch vencidos = new CountDownLatch(500);
+                List<RuedaTemporizadora.Temporizador> temporizadores = new ArrayList<>();
+                for (int i = 0; i < 1000; i++) {
+                    // Esperas repartidas entre el nivel 0 y el nivel 1
+                    temporizadores.add(rueda.programar(Duration.ofMillis(50 + i % 400), () -> {
+                        ejecutados.incrementAndGet();
+                        vencidos.countDown();
+                    }));
+                }
+                igual(1000, rueda.getPendientes(), "pendientes al programar");
+                for (int i = 0; i < temporizadores.size(); i += 2) {
+                    verdadero(temporizadores.get(i).cancelar(), "la primera cancelación debe tener efecto");
+                    verdadero(!temporizadores.get(i).cancelar(), "cancelar dos veces no debe tener efecto");
+                }
+                igual(500, rueda.getPendientes(), "pendientes después de cancelar");
+
+                verdadero(vencidos.await(5, TimeUnit.SECONDS), "no vencieron los no cancelados");
+                // Margen para que una ejecución indebida de un cancelado se note
+                Thread.sleep(100);
+                igual(500, ejecutados.get(), "ejecutados");
+                igual(0, rueda.getPendientes(), "pendientes al final");
+                verdadero(!temporizadores.get(1).cancelar(), "no se puede cancelar un temporizador vencido");
+            } finally {
+                rueda.detener();
+            }
+        });
+
+        caso("una espera mayor que la que alcanzan los niveles se rechaza en lugar de acortarse", () -> {
+            RuedaTemporizadora rueda = new RuedaTemporizadora(Duration.ofMillis(10));
+            try {
+                Duration maxima = rueda.getEsperaMaxima();
+                verdadero(maxima.toDays() >= 497, "espera máxima con ticks de 10 ms");
+                lanza(IllegalArgumentException.class, () -> rueda.programar(maxima.plusMillis(10), () -> { }));
+                RuedaTemporizadora.Temporizador temporizador = rueda.programar(maxima, () -> { });
+                igual(1, rueda.getPendientes(), "pendientes");
+                verdadero(temporizador.cancelar(), "la espera máxima se acepta");
+            } finally {
+                rueda.detener();
+            }
+        });
+
+        terminar();
+    }
+}
@@ -0,0 +1,75 @@
+package prueba;
+
+import java.util.Objects;
+
+// Apoyo mínimo para las pruebas del proyecto, sin dependencias externas.
+//
+// Cada clase de prueba tiene un main que ejecuta sus casos con caso(...) y termina con terminar(),
+// que sale con código 1 si alguno falló. Se compilan junto con src:
+//   javac -encoding UTF-8 -d salida $(find src test -name '*.java')
+//   java -cp salida modelo.PruebaCompresion
+public final class Pruebas {
+    private static int ejecutados;
+    private static int fallidos;
+
+    private Pruebas() {
+    }
+
+    // Bloque de código de un caso de prueba
+    public interface Bloque {
+        void ejecutar() throws Exception;
+    }
+
+    // Ejecuta un caso e informa el resultado sin detener los siguientes
+    public static void caso(String nombre, Bloque bloque) {
+        ejecutados++;
+        try {
+            bloque.ejecutar();
+            System.out.println("OK    " + nombre);
+        } catch (Throwable e) {
+            fallidos++;
+            System.out.println("FALLA " + nombre + ": " + e);
+        }
+    }
+
+    // Informa el total y termina el proceso con código 1 si hubo fallas
+    public static void terminar() {
+        System.out.println(ejecutados + " casos, " + fallidos + " fallas");
+        if (fallidos > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Afirmaciones
+
+    public static void verdadero(boolean condicion, String mensaje) {
+        if (!condicion) {
+            throw new AssertionError(mensaje);
+        }
+    }
+
+    public static void igual(Object esperado, Object obtenido, String mensaje) {
+        if (!Objects.equals(esperado, obtenido)) {
+            throw new AssertionError(mensaje + ": se esperaba " + esperado + " y se obtuvo " + obtenido);
+        }
+    }
+
+    public static void igual(long esperado, long obtenido, String mensaje) {
+        if (esperado != obtenido) {
+            throw new AssertionError(mensaje + ": se esperaba " + esperado + " y se obtuvo " + obtenido);
+        }
+    }
+
+    // Verifica que el bloque lance una excepción del tipo indicado y la devuelve
+    public static <T extends Throwable> T lanza(Class<T> tipo, Bloque bloque) {
+        try {
+            bloque.ejecutar();
+        } catch (Throwable e) {
+            if (tipo.isInstance(e)) {
+                return tipo.cast(e);
+            }
+            throw new AssertionError("Se esperaba " + tipo.getSimpleName() + " y se lanzó " + e, e);
+        }
+        throw new AssertionError("Se esperaba " + tipo.getSimpleName() + " y no se lanzó nada");
+    }
+}
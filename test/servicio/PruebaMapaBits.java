@@ -0,0 +1,146 @@
+package servicio;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static prueba.Pruebas.caso;
+import static prueba.Pruebas.igual;
+import static prueba.Pruebas.terminar;
+import static prueba.Pruebas.verdadero;
+
+// Unión e intersección de los mapas de bits del índice de auditoría, comparadas contra BitSet
+// con contenedores de arreglo (dispersos), de bits (densos) y mezclados
+public class PruebaMapaBits {
+    private static final int CONTENEDOR = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        Random aleatorio = new Random(7);
+
+        caso("intersección de dos conjuntos dispersos", () -> {
+            BitSet a = aleatorios(aleatorio, 4 * CONTENEDOR, 0.01);
+            BitSet b = aleatorios(aleatorio, 4 * CONTENEDOR, 0.01);
+            verificar(interseccion(a, b), MapaBits.interseccion(mapa(a), mapa(b)));
+        });
+
+        caso("intersección de dos conjuntos densos", () -> {
+            BitSet a = aleatorios(aleatorio, 3 * CONTENEDOR, 0.5);
+            BitSet b = aleatorios(aleatorio, 3 * CONTENEDOR, 0.5);
+            verificar(interseccion(a, b), MapaBits.interseccion(mapa(a), mapa(b)));
+        });
+
+        caso("intersección de un conjunto denso con uno disperso", () -> {
+            BitSet a = aleatorios(aleatorio, 3 * CONTENEDOR, 0.6);
+            BitSet b = aleatorios(aleatorio, 3 * CONTENEDOR, 0.02);
+            verificar(interseccion(a, b), MapaBits.interseccion(mapa(a), mapa(b)));
+            verificar(interseccion(b, a), MapaBits.interseccion(mapa(b), mapa(a)));
+        });
+
+        caso("intersección densa que deja pocos valores", () -> {
+            // Pares contra impares salvo unos pocos comunes: los contenedores de bits se vacían casi por completo
+            BitSet a = new BitSet();
+            BitSet b = new BitSet();
+            for (int i = 0; i < 2 * CONTENEDOR; i++) {
+                (i % 2 == 0 ? a : b).set(i);
+            }
+            for (int i = 1; i < 2 * CONTENEDOR; i += 997) {
+                a.set(i);
+            }
+            verificar(interseccion(a, b), MapaBits.interseccion(mapa(a), mapa(b)));
+        });
+
+        caso("intersección sin contenedores en común es vacía", () -> {
+            BitSet a = rango(0, 1000);
+            BitSet b = rango(5 * CONTENEDOR, 5 * CONTENEDOR + 1000);
+            verificar(new BitSet(), MapaBits.interseccion(mapa(a), mapa(b)));
+        });
+
+        caso("unión de conjuntos dispersos, densos y mezclados", () -> {
+            List<BitSet> conjuntos = List.of(
+                    aleatorios(aleatorio, 4 * CONTENEDOR, 0.01),
+                    aleatorios(aleatorio, 2 * CONTENEDOR, 0.5),
+                    rango(3 * CONTENEDOR + 10, 3 * CONTENEDOR + 20),
+                    aleatorios(aleatorio, 6 * CONTENEDOR, 0.03));
+            BitSet esperado = new BitSet();
+            List<MapaBits> mapas = new ArrayList<>();
+            for (BitSet conjunto : conjuntos) {
+                esperado.or(conjunto);
+                mapas.add(mapa(conjunto));
+            }
+            verificar(esperado, MapaBits.union(mapas));
+        });
+
+        caso("unión de arreglos que supera el tamaño de un arreglo", () -> {
+            // Cada uno cabe en un arreglo; juntos pasan de 4096 valores en el mismo contenedor
+            BitSet pares = new BitSet();
+            BitSet impares = new BitSet();
+            for (int i = 0; i < 6000; i++) {
+                (i % 2 == 0 ? pares : impares).set(i);
+            }
+            BitSet esperado = (BitSet) pares.clone();
+            esperado.or(impares);
+            verificar(esperado, MapaBits.union(List.of(mapa(pares), mapa(impares))));
+        });
+
+        caso("unión de un solo conjunto y de ninguno", () -> {
+            BitSet a = aleatorios(aleatorio, CONTENEDOR, 0.1);
+            verificar(a, MapaBits.union(List.of(mapa(a))));
+            verificar(new BitSet(), MapaBits.union(List.of()));
+        });
+
+        caso("intersección de uniones, como en una consulta con varias condiciones", () -> {
+            BitSet tipoA = aleatorios(aleatorio, 4 * CONTENEDOR, 0.2);
+            BitSet tipoB = aleatorios(aleatorio, 4 * CONTENEDOR, 0.001);
+            BitSet dia = rango(CONTENEDOR / 2, 3 * CONTENEDOR);
+            BitSet tipos = (BitSet) tipoA.clone();
+            tipos.or(tipoB);
+            verificar(interseccion(tipos, dia), MapaBits.interseccion(
+                    MapaBits.union(List.of(mapa(tipoA), mapa(tipoB))), mapa(dia)));
+        });
+
+        terminar();
+    }
+
+    private static void verificar(BitSet esperado, MapaBits obtenido) {
+        igual(esperado.cardinality(), obtenido.cardinalidad(), "cardinalidad");
+        BitSet valores = new BitSet();
+        int[] anterior = {-1};
+        boolean[] ordenado = {true};
+        obtenido.forEach(valor -> {
+            ordenado[0] &= valor > anterior[0];
+            anterior[0] = valor;
+            valores.set(valor);
+        });
+        verdadero(ordenado[0], "los valores deben recorrerse en orden creciente");
+        igual(esperado, valores, "valores");
+    }
+
+    private static MapaBits mapa(BitSet valores) {
+        MapaBits mapa = new MapaBits();
+        valores.stream().forEach(mapa::agregar);
+        return mapa;
+    }
+
+    private static BitSet interseccion(BitSet a, BitSet b) {
+        BitSet resultado = (BitSet) a.clone();
+        resultado.and(b);
+        return resultado;
+    }
+
+    private static BitSet aleatorios(Random aleatorio, int hasta, double densidad) {
+        BitSet valores = new BitSet(hasta);
+        for (int i = 0; i < hasta; i++) {
+            if (aleatorio.nextDouble() < densidad) {
+                valores.set(i);
+            }
+        }
+        return valores;
+    }
+
+    private static BitSet rango(int desde, int hasta) {
+        BitSet valores = new BitSet();
+        valores.set(desde, hasta);
+        return valores;
+    }
+}